@@ -75,7 +75,7 @@ public class TabulatedProvider implements AttitudeProvider {
         throws OrekitException {
 
         // get attitudes sample on which interpolation will be performed
-        final List<TimeStampedAngularCoordinates> sample = table.getNeighbors(date).collect(Collectors.toList());
+        final List<TimeStampedAngularCoordinates> sample = table.getNeighborsList(date);
 
         // interpolate
         final TimeStampedAngularCoordinates interpolated =
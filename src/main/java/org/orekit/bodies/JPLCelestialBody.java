@@ -34,6 +34,7 @@ import org.orekit.frames.Transform;
 import org.orekit.frames.TransformProvider;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ComputationContext;
 import org.orekit.utils.FieldPVCoordinates;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.TimeStampedFieldPVCoordinates;
@@ -104,6 +105,23 @@ class JPLCelestialBody implements CelestialBody {
     /** {@inheritDoc} */
     public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame frame)
         throws OrekitException {
+        if (!frame.dependsOnlyOnDate()) {
+            // coordinates in this frame cannot be shared at the same date
+            return computePVCoordinates(date, frame);
+        }
+        // if a computation context is active, the same coordinates
+        // will be shared by all users at the same date
+        return ComputationContext.getValue(this, frame, date, () -> computePVCoordinates(date, frame));
+    }
+
+    /** Compute the {@link PVCoordinates} of the body in the selected frame.
+     * @param date current date
+     * @param frame the frame where to define the position
+     * @return time-stamped position/velocity of the body (m and m/s)
+     * @exception OrekitException if position cannot be computed in given frame
+     */
+    private TimeStampedPVCoordinates computePVCoordinates(final AbsoluteDate date, final Frame frame)
+        throws OrekitException {
 
         // apply the scale factor to raw position-velocity
         final PVCoordinates rawPV    = rawPVProvider.getRawPV(date);
@@ -189,6 +207,12 @@ class JPLCelestialBody implements CelestialBody {
                 /** Serializable UID. */
                 private static final long serialVersionUID = -8610328386110652400L;
 
+                /** {@inheritDoc} */
+                @Override
+                public boolean dependsOnlyOnDate() {
+                    return true;
+                }
+
                 /** {@inheritDoc} */
                 public Transform getTransform(final AbsoluteDate date) throws OrekitException {
 
@@ -282,6 +306,12 @@ class JPLCelestialBody implements CelestialBody {
                 /** Serializable UID. */
                 private static final long serialVersionUID = 20170109L;
 
+                /** {@inheritDoc} */
+                @Override
+                public boolean dependsOnlyOnDate() {
+                    return true;
+                }
+
                 /** {@inheritDoc} */
                 public Transform getTransform(final AbsoluteDate date) throws OrekitException {
                     final double dt = 10.0;
@@ -201,7 +201,10 @@ public enum OrekitMessages implements Localizable {
     KLOBUCHAR_ALPHA_BETA_NOT_AVAILABLE_FOR_DATE("Klobuchar coefficients α or β not available for date {0}"),
     NO_KLOBUCHAR_ALPHA_BETA_IN_FILE("file {0} does not contain Klobuchar coefficients α or β"),
     NO_REFERENCE_DATE_FOR_PARAMETER("no reference date set for parameter {0}"),
-    STATION_NOT_FOUND("station {0} not found, known stations: {1}");
+    STATION_NOT_FOUND("station {0} not found, known stations: {1}"),
+    NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE("file {0} is not a supported transform table file"),
+    CHEBYSHEV_SEGMENT_TOLERANCE_NOT_FULFILLED("Chebyshev segment starting at {0} with duration {1} s does not fulfill tolerances: position error {2} m (tolerance {3} m), velocity error {4} m/s (tolerance {5} m/s)"),
+    EPHEMERIS_FILE_CLOSED("ephemeris file {0} has already been closed");
 
 
     // CHECKSTYLE: resume JavadocVariable check
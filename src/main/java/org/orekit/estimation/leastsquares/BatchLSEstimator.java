@@ -19,8 +19,11 @@ package org.orekit.estimation.leastsquares;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.exception.MathIllegalArgumentException;
@@ -89,6 +92,21 @@ public class BatchLSEstimator {
     /** Counter for the iterations. */
     private Incrementor iterationsCounter;
 
+    /** Executor for measurements evaluations (null for sequential evaluation). */
+    private ExecutorService executor;
+
+    /** Model used at last full estimation, linearized at optimum. */
+    private Model lastModel;
+
+    /** Names of the parameters estimated at last full estimation. */
+    private List<String> lastEstimatedNames;
+
+    /** Current linearization point for incremental estimation. */
+    private RealVector linearizationPoint;
+
+    /** Normal equations for incremental estimation (lazily built). */
+    private NormalEquations normalEquations;
+
     /** Simple constructor.
      * <p>
      * If multiple {@link PropagatorBuilder propagator builders} are set up,
@@ -105,6 +123,12 @@ public class BatchLSEstimator {
      * navigation bulletins are not considered accurate enough and the navigation
      * constellation must be propagated numerically.
      * </p>
+     * <p>
+     * When many measurements parameters are estimated (per-pass biases, stations
+     * clock offsets...), the {@link BlockSparseGaussNewtonOptimizer} is well suited,
+     * as it eliminates these local parameters before solving for the orbital and
+     * propagation parameters.
+     * </p>
      * @param optimizer solver for least squares problem
      * @param propagatorBuilder builders to use for propagation
      * @exception OrekitException if some propagator parameter cannot be retrieved
@@ -121,6 +145,11 @@ public class BatchLSEstimator {
         this.observer                       = null;
         this.estimations                    = null;
         this.orbits                         = new Orbit[builders.length];
+        this.executor                       = null;
+        this.lastModel                      = null;
+        this.lastEstimatedNames             = null;
+        this.linearizationPoint             = null;
+        this.normalEquations                = null;
 
         // our model computes value and Jacobian in one call,
         // so we don't use the lazy evaluation feature
@@ -150,6 +179,20 @@ public class BatchLSEstimator {
         measurements.add(measurement);
     }
 
+    /** Remove a measurement.
+     * <p>
+     * This method is mainly intended to drop measurements at the edge of an
+     * arc before calling {@link #estimateIncrementally()}. Disabling a
+     * measurement using {@link ObservedMeasurement#setEnabled(boolean)} has
+     * the same effect on estimation.
+     * </p>
+     * @param measurement measurement to remove (compared by identity)
+     * @since 9.2
+     */
+    public void removeMeasurement(final ObservedMeasurement<?> measurement) {
+        measurements.remove(measurement);
+    }
+
     /** Set the maximum number of iterations.
      * <p>
      * The iterations correspond to the top level iterations of
@@ -299,6 +342,38 @@ public class BatchLSEstimator {
         this.parametersConvergenceThreshold = parametersConvergenceThreshold;
     }
 
+    /** Set the executor for measurements evaluations.
+     * <p>
+     * By default (or if the executor is set to null), measurements are
+     * estimated sequentially in the propagation thread, as the propagators
+     * reach their dates. If an executor is set, the spacecraft states are
+     * still interpolated in the propagation thread, but the estimations
+     * themselves (including {@link
+     * org.orekit.estimation.measurements.EstimationModifier modifiers}) and
+     * the computation of the corresponding rows of the Jacobian are
+     * dispatched to the executor, so they can proceed while propagation
+     * continues. This is worth it when measurements are numerous or
+     * expensive to estimate (light time iterations, many modifiers).
+     * </p>
+     * <p>
+     * Each measurement fills its own rows of the residuals vector and of the
+     * Jacobian, so results are identical to the sequential ones regardless
+     * of tasks scheduling. Measurements and modifiers must however be safe
+     * for concurrent estimation, which is the case for the ones provided
+     * by Orekit.
+     * </p>
+     * <p>
+     * The executor is not shut down by the estimator, it remains under
+     * the responsibility of the caller.
+     * </p>
+     * @param executor executor for measurements evaluations
+     * (null for sequential evaluation in the propagation thread)
+     * @since 9.2
+     */
+    public void setExecutor(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
     /** Estimate the orbital, propagation and measurements parameters.
      * <p>
      * The initial guess for all parameters must have been set before calling this method
@@ -394,8 +469,10 @@ public class BatchLSEstimator {
                 BatchLSEstimator.this.estimations = newEstimations;
             }
         };
-        final Model model = new Model(builders, measurements, estimatedMeasurementsParameters,
-                                      modelObserver);
+        final Model model = new Model(builders, new ArrayList<>(measurements),
+                                      estimatedMeasurementsParameters, modelObserver);
+        model.setExecutor(executor);
+        model.setSparseJacobian(optimizer instanceof BlockSparseGaussNewtonOptimizer);
         lsBuilder.model(model);
 
         // add a validator for orbital parameters
@@ -426,6 +503,28 @@ public class BatchLSEstimator {
             // solve the problem
             optimum = optimizer.optimize(problem);
 
+            // keep a model linearized at optimum for incremental estimation
+            if (optimum.getPoint().equals(model.getEvaluatedPoint())) {
+                lastModel = model;
+            } else {
+                // Levenberg-Marquardt may have last evaluated a rejected trial point,
+                // we use a separate model as the optimum Jacobian (used for covariances)
+                // is the one from the optimization model and must not be changed
+                final Model snapshot = new Model(builders, new ArrayList<>(measurements),
+                                                 estimatedMeasurementsParameters,
+                                                 (newOrbits, newEstimations) -> { });
+                snapshot.setExecutor(executor);
+                snapshot.setEvaluationsCounter(evaluationsCounter);
+                snapshot.setIterationsCounter(iterationsCounter);
+                snapshot.value(optimum.getPoint());
+                lastModel = snapshot;
+            }
+            lastEstimatedNames = getNames(estimatedOrbitalParameters,
+                                          estimatedPropagatorParameters,
+                                          estimatedMeasurementsParameters);
+            linearizationPoint = optimum.getPoint();
+            normalEquations    = null;
+
             // create a new configured propagator with all estimated parameters
             return model.createPropagators(optimum.getPoint());
 
@@ -437,6 +536,146 @@ public class BatchLSEstimator {
 
     }
 
+    /** Update the estimation after measurements have been added or removed.
+     * <p>
+     * This method is intended for sliding arcs, where a few measurements are
+     * dropped at one edge of the arc and a few new measurements are added at
+     * the other edge between successive estimations. Instead of propagating
+     * and evaluating all measurements again at each iteration as {@link #estimate()}
+     * does, it keeps the normal equations and the per-measurement partial
+     * derivatives from the last full estimation, removes the contributions of
+     * the measurements that have been {@link #removeMeasurement(ObservedMeasurement)
+     * removed} or {@link ObservedMeasurement#setEnabled(boolean) disabled}, evaluates
+     * only the new measurements at the current solution and performs a single
+     * Gauss-Newton step on the updated normal equations. The cost is therefore
+     * one propagation for the new measurements only.
+     * </p>
+     * <p>
+     * The partial derivatives of the measurements kept from previous calls are not
+     * recomputed, so the update is accurate only as long as the solution does not
+     * move far away from the point where they were computed. Calling {@link #estimate()}
+     * from time to time is the validation fallback: as it starts from the current
+     * solution, it generally converges in one or two iterations and it resets the
+     * normal equations used by subsequent incremental updates.
+     * </p>
+     * <p>
+     * If there is no previous full estimation, or if the set of estimated parameters
+     * has changed since then, this method simply delegates to {@link #estimate()}.
+     * The initial orbit date of the propagator builders must not be changed between
+     * the full estimation and the incremental updates.
+     * </p>
+     * <p>
+     * After this method returns, the estimated parameters can be retrieved as after
+     * {@link #estimate()}. The {@link #getOptimum() optimum}, {@link #getLastEstimations()
+     * estimations}, {@link #getIterationsCount() iterations count} and {@link #getEvaluationsCount()
+     * evaluations count} still refer to the last full estimation.
+     * </p>
+     * @return propagators configured with estimated orbits as initial states, and all
+     * propagators estimated parameters also set
+     * @exception OrekitException if there is a conflict in parameters names
+     * or if orbit cannot be determined
+     * @since 9.2
+     */
+    public NumericalPropagator[] estimateIncrementally() throws OrekitException {
+
+        final ParameterDriversList estimatedOrbitalParameters      = getOrbitalParametersDrivers(true);
+        final ParameterDriversList estimatedPropagatorParameters   = getPropagatorParametersDrivers(true);
+        final ParameterDriversList estimatedMeasurementsParameters = getMeasurementsParametersDrivers(true);
+        if (lastModel == null ||
+            !getNames(estimatedOrbitalParameters,
+                      estimatedPropagatorParameters,
+                      estimatedMeasurementsParameters).equals(lastEstimatedNames)) {
+            // there are no normal equations we can update
+            return estimate();
+        }
+
+        // set reference date for the parameters of new measurements that lack one
+        for (final ParameterDriver driver : getMeasurementsParametersDrivers(false).getDrivers()) {
+            if (driver.getReferenceDate() == null) {
+                driver.setReferenceDate(builders[0].getInitialOrbitDate());
+            }
+        }
+
+        try {
+
+            if (normalEquations == null) {
+                // first update since last full estimation
+                final int nbGlobal = estimatedOrbitalParameters.getNbParams() +
+                                     estimatedPropagatorParameters.getNbParams();
+                normalEquations = new NormalEquations(nbGlobal, linearizationPoint.getDimension() - nbGlobal);
+                lastModel.addContributions(normalEquations);
+            }
+
+            // remove the contributions of dropped measurements
+            final Set<ObservedMeasurement<?>> enabled = Collections.newSetFromMap(new IdentityHashMap<>());
+            final List<ObservedMeasurement<?>> added  = new ArrayList<>();
+            for (final ObservedMeasurement<?> measurement : measurements) {
+                if (measurement.isEnabled()) {
+                    enabled.add(measurement);
+                    if (!normalEquations.contains(measurement)) {
+                        added.add(measurement);
+                    }
+                }
+            }
+            normalEquations.retainAll(enabled);
+
+            // evaluate only the new measurements, at current solution
+            if (!added.isEmpty()) {
+                final Model addedModel = new Model(builders, added, estimatedMeasurementsParameters,
+                                                   (newOrbits, newEstimations) -> { });
+                addedModel.setExecutor(executor);
+                // keep the counters from last full estimation, so outliers filters remain active
+                addedModel.setEvaluationsCounter(evaluationsCounter);
+                addedModel.setIterationsCounter(iterationsCounter);
+                addedModel.value(linearizationPoint);
+                addedModel.addContributions(normalEquations);
+            }
+
+            // perform one Gauss-Newton step on the updated normal equations
+            final Validator validator = new Validator(estimatedOrbitalParameters,
+                                                      estimatedPropagatorParameters,
+                                                      estimatedMeasurementsParameters);
+            final RealVector newPoint = validator.validate(linearizationPoint.add(normalEquations.solve()));
+            normalEquations.shift(newPoint.subtract(linearizationPoint));
+            linearizationPoint = newPoint;
+
+            // set the estimated measurements parameters
+            int index = estimatedOrbitalParameters.getNbParams() + estimatedPropagatorParameters.getNbParams();
+            for (final ParameterDriver driver : estimatedMeasurementsParameters.getDrivers()) {
+                driver.setNormalizedValue(newPoint.getEntry(index++));
+            }
+
+            // create a new configured propagator with all estimated parameters
+            return lastModel.createPropagators(newPoint);
+
+        } catch (MathRuntimeException mrte) {
+            throw new OrekitException(mrte);
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+
+    }
+
+    /** Get the names of estimated parameters.
+     * @param estimatedOrbitalParameters estimated orbital parameters
+     * @param estimatedPropagatorParameters estimated propagator parameters
+     * @param estimatedMeasurementsParameters estimated measurements parameters
+     * @return names of the estimated parameters, in estimation order
+     */
+    private static List<String> getNames(final ParameterDriversList estimatedOrbitalParameters,
+                                         final ParameterDriversList estimatedPropagatorParameters,
+                                         final ParameterDriversList estimatedMeasurementsParameters) {
+        final List<String> names = new ArrayList<>();
+        for (final ParameterDriversList list : Arrays.asList(estimatedOrbitalParameters,
+                                                              estimatedPropagatorParameters,
+                                                              estimatedMeasurementsParameters)) {
+            for (final ParameterDriver driver : list.getDrivers()) {
+                names.add(driver.getName());
+            }
+        }
+        return names;
+    }
+
     /** Get the last estimations performed.
      * @return last estimations performed
      */
@@ -0,0 +1,205 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import org.hipparchus.exception.NullArgumentException;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.optim.ConvergenceChecker;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresOptimizer;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.hipparchus.util.Incrementor;
+
+/** Gauss-Newton optimizer eliminating local parameters before solving for global parameters.
+ * <p>
+ * When estimating many measurements parameters (per-pass range biases, per-station clock
+ * offsets, station positions...), most Jacobian columns are non-zero for only a few rows.
+ * Generic optimizers like {@link org.hipparchus.optim.nonlinear.vector.leastsquares.GaussNewtonOptimizer
+ * Gauss-Newton} or {@link org.hipparchus.optim.nonlinear.vector.leastsquares.LevenbergMarquardtOptimizer
+ * Levenberg-Marquardt} factor the full dense problem. This optimizer builds the normal
+ * equations directly from the block-sparse Jacobian computed by {@link BatchLSEstimator},
+ * eliminates the local parameters (the measurements parameters) by independent groups using
+ * Schur complements, and then solves a reduced system whose size is the number of global
+ * parameters (orbital and propagation parameters). Memory and computation time for the
+ * linear algebra part therefore scale with the number of global parameters, not with the
+ * total number of parameters.
+ * </p>
+ * <p>
+ * If the Jacobian of the problem is not block-sparse (i.e. when this optimizer is used
+ * with another least squares problem than the one set up by {@link BatchLSEstimator}),
+ * all parameters are considered global and the optimizer behaves as a regular
+ * Gauss-Newton optimizer solving normal equations.
+ * </p>
+ * <p>
+ * As with regular Gauss-Newton, a convergence checker must be set in the problem.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class BlockSparseGaussNewtonOptimizer implements LeastSquaresOptimizer {
+
+    /** Simple constructor.
+     */
+    public BlockSparseGaussNewtonOptimizer() {
+        // nothing to do
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optimum optimize(final LeastSquaresProblem lsp) {
+
+        final Incrementor evaluationCounter = lsp.getEvaluationCounter();
+        final Incrementor iterationCounter  = lsp.getIterationCounter();
+        final ConvergenceChecker<LeastSquaresProblem.Evaluation> checker = lsp.getConvergenceChecker();
+        if (checker == null) {
+            throw new NullArgumentException();
+        }
+
+        RealVector currentPoint = lsp.getStart();
+        LeastSquaresProblem.Evaluation current = null;
+        while (true) {
+
+            iterationCounter.increment();
+
+            // evaluate the model at current point
+            final LeastSquaresProblem.Evaluation previous = current;
+            evaluationCounter.increment();
+            current      = lsp.evaluate(currentPoint);
+            currentPoint = current.getPoint();
+
+            // check convergence
+            if (previous != null &&
+                checker.converged(iterationCounter.getCount(), previous, current)) {
+                return new BlockSparseOptimum(current,
+                                              evaluationCounter.getCount(),
+                                              iterationCounter.getCount());
+            }
+
+            // solve the block-sparse normal equations
+            final RealMatrix jacobian = current.getJacobian();
+            final int nbGlobal = (jacobian instanceof BlockSparseJacobian) ?
+                                 ((BlockSparseJacobian) jacobian).getNbGlobal() :
+                                 jacobian.getColumnDimension();
+            final NormalEquations normalEquations =
+                            new NormalEquations(nbGlobal, jacobian.getColumnDimension() - nbGlobal);
+            // residuals from evaluation are observations minus model
+            normalEquations.addRows(jacobian, current.getResiduals().mapMultiply(-1.0));
+            currentPoint = currentPoint.add(normalEquations.solve());
+
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "BlockSparseGaussNewtonOptimizer";
+    }
+
+    /** Optimum found by the optimizer. */
+    private static class BlockSparseOptimum implements Optimum {
+
+        /** Evaluation at optimum. */
+        private final LeastSquaresProblem.Evaluation evaluation;
+
+        /** Number of evaluations. */
+        private final int evaluations;
+
+        /** Number of iterations. */
+        private final int iterations;
+
+        /** Simple constructor.
+         * @param evaluation evaluation at optimum
+         * @param evaluations number of evaluations
+         * @param iterations number of iterations
+         */
+        BlockSparseOptimum(final LeastSquaresProblem.Evaluation evaluation,
+                           final int evaluations, final int iterations) {
+            this.evaluation  = evaluation;
+            this.evaluations = evaluations;
+            this.iterations  = iterations;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getEvaluations() {
+            return evaluations;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getIterations() {
+            return iterations;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RealMatrix getCovariances(final double threshold) {
+            return evaluation.getCovariances(threshold);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RealVector getSigma(final double covarianceSingularityThreshold) {
+            return evaluation.getSigma(covarianceSingularityThreshold);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getRMS() {
+            return evaluation.getRMS();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RealMatrix getJacobian() {
+            return evaluation.getJacobian();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getCost() {
+            return evaluation.getCost();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getChiSquare() {
+            return evaluation.getChiSquare();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double getReducedChiSquare(final int numberOfFittedParameters) {
+            return evaluation.getReducedChiSquare(numberOfFittedParameters);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RealVector getResiduals() {
+            return evaluation.getResiduals();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RealVector getPoint() {
+            return evaluation.getPoint();
+        }
+
+    }
+
+}
@@ -0,0 +1,275 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import java.util.Arrays;
+
+import org.hipparchus.linear.AbstractRealMatrix;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+
+/** Jacobian matrix with dense global columns and sparse local columns.
+ * <p>
+ * In orbit determination, the first columns of the Jacobian correspond to
+ * global parameters (orbital and propagation parameters) which affect all
+ * measurements, whereas the last columns correspond to local parameters
+ * (measurements parameters like biases, clock offsets or station positions)
+ * which affect only a few measurements. This matrix stores the global part of
+ * each row as a dense array and the local part as a short list of non-zero
+ * entries, so its memory footprint scales with the number of global parameters
+ * and not with the total number of parameters.
+ * </p>
+ * <p>
+ * Different rows can be written concurrently, but a single row must not.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+class BlockSparseJacobian extends AbstractRealMatrix {
+
+    /** Initial capacity for local entries in one row. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Number of global parameters. */
+    private final int nbGlobal;
+
+    /** Number of local parameters. */
+    private final int nbLocal;
+
+    /** Dense global part, row by row. */
+    private final double[][] global;
+
+    /** Local columns of non-zero entries (relative to the first local column), row by row. */
+    private final int[][] localColumns;
+
+    /** Local values of non-zero entries, row by row. */
+    private final double[][] localValues;
+
+    /** Number of local entries, row by row. */
+    private final int[] localCounts;
+
+    /** Simple constructor.
+     * @param rows number of rows
+     * @param nbGlobal number of global parameters (first columns)
+     * @param nbLocal number of local parameters (last columns)
+     */
+    BlockSparseJacobian(final int rows, final int nbGlobal, final int nbLocal) {
+        super(rows, nbGlobal + nbLocal);
+        this.nbGlobal     = nbGlobal;
+        this.nbLocal      = nbLocal;
+        this.global       = new double[rows][nbGlobal];
+        this.localColumns = new int[rows][];
+        this.localValues  = new double[rows][];
+        this.localCounts  = new int[rows];
+    }
+
+    /** Get the number of global parameters.
+     * @return number of global parameters
+     */
+    int getNbGlobal() {
+        return nbGlobal;
+    }
+
+    /** Get the number of local parameters.
+     * @return number of local parameters
+     */
+    int getNbLocal() {
+        return nbLocal;
+    }
+
+    /** Get the dense global part of a row.
+     * @param row row index
+     * @return global part of the row (a reference to internal array, not a copy)
+     */
+    double[] getGlobalPart(final int row) {
+        return global[row];
+    }
+
+    /** Get the number of local entries of a row.
+     * @param row row index
+     * @return number of local entries of the row
+     */
+    int getLocalCount(final int row) {
+        return localCounts[row];
+    }
+
+    /** Get the local columns of a row.
+     * @param row row index
+     * @return local columns, relative to the first local column (only the first
+     * {@link #getLocalCount(int)} elements are meaningful, reference to internal array, not a copy)
+     */
+    int[] getLocalColumns(final int row) {
+        return localColumns[row];
+    }
+
+    /** Get the local values of a row.
+     * @param row row index
+     * @return local values (only the first {@link #getLocalCount(int)} elements
+     * are meaningful, reference to internal array, not a copy)
+     */
+    double[] getLocalValues(final int row) {
+        return localValues[row];
+    }
+
+    /** Reset all entries to 0. */
+    void zero() {
+        for (final double[] row : global) {
+            Arrays.fill(row, 0.0);
+        }
+        Arrays.fill(localCounts, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return global.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return nbGlobal + nbLocal;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix createMatrix(final int rowDimension, final int columnDimension) {
+        return MatrixUtils.createRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BlockSparseJacobian copy() {
+        final BlockSparseJacobian copy = new BlockSparseJacobian(global.length, nbGlobal, nbLocal);
+        for (int i = 0; i < global.length; ++i) {
+            System.arraycopy(global[i], 0, copy.global[i], 0, nbGlobal);
+            if (localCounts[i] > 0) {
+                copy.localColumns[i] = Arrays.copyOf(localColumns[i], localCounts[i]);
+                copy.localValues[i]  = Arrays.copyOf(localValues[i],  localCounts[i]);
+                copy.localCounts[i]  = localCounts[i];
+            }
+        }
+        return copy;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column) {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        if (column < nbGlobal) {
+            return global[row][column];
+        }
+        final int k = findLocal(row, column - nbGlobal);
+        return k < 0 ? 0.0 : localValues[row][k];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEntry(final int row, final int column, final double value) {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        if (column < nbGlobal) {
+            global[row][column] = value;
+        } else {
+            final int k = findLocal(row, column - nbGlobal);
+            if (k >= 0) {
+                localValues[row][k] = value;
+            } else if (value != 0.0) {
+                appendLocal(row, column - nbGlobal, value);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int row, final int column, final double increment) {
+        MatrixUtils.checkMatrixIndex(this, row, column);
+        if (column < nbGlobal) {
+            global[row][column] += increment;
+        } else {
+            final int k = findLocal(row, column - nbGlobal);
+            if (k >= 0) {
+                localValues[row][k] += increment;
+            } else if (increment != 0.0) {
+                appendLocal(row, column - nbGlobal, increment);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getRow(final int row) {
+        MatrixUtils.checkRowIndex(this, row);
+        final double[] out = new double[nbGlobal + nbLocal];
+        System.arraycopy(global[row], 0, out, 0, nbGlobal);
+        for (int k = 0; k < localCounts[row]; ++k) {
+            out[nbGlobal + localColumns[row][k]] = localValues[row][k];
+        }
+        return out;
+    }
+
+    /** Copy all entries into another matrix.
+     * @param destination matrix where entries should be copied, with the same dimensions
+     * as the instance (all its entries are overwritten, including zero ones)
+     */
+    void copyTo(final RealMatrix destination) {
+        for (int i = 0; i < global.length; ++i) {
+            for (int j = 0; j < nbGlobal; ++j) {
+                destination.setEntry(i, j, global[i][j]);
+            }
+            for (int j = 0; j < nbLocal; ++j) {
+                destination.setEntry(i, nbGlobal + j, 0.0);
+            }
+            for (int k = 0; k < localCounts[i]; ++k) {
+                destination.setEntry(i, nbGlobal + localColumns[i][k], localValues[i][k]);
+            }
+        }
+    }
+
+    /** Find a local entry.
+     * @param row row index
+     * @param local local column, relative to the first local column
+     * @return index of the entry in the row local arrays, or -1 if not found
+     */
+    private int findLocal(final int row, final int local) {
+        for (int k = 0; k < localCounts[row]; ++k) {
+            if (localColumns[row][k] == local) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /** Append a local entry.
+     * @param row row index
+     * @param local local column, relative to the first local column
+     * @param value value of the entry
+     */
+    private void appendLocal(final int row, final int local, final double value) {
+        final int count = localCounts[row];
+        if (localColumns[row] == null) {
+            localColumns[row] = new int[INITIAL_CAPACITY];
+            localValues[row]  = new double[INITIAL_CAPACITY];
+        } else if (count == localColumns[row].length) {
+            localColumns[row] = Arrays.copyOf(localColumns[row], 2 * count);
+            localValues[row]  = Arrays.copyOf(localValues[row],  2 * count);
+        }
+        localColumns[row][count] = local;
+        localValues[row][count]  = value;
+        localCounts[row]         = count + 1;
+    }
+
+}
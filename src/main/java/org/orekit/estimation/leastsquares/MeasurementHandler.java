@@ -16,8 +16,13 @@
  */
 package org.orekit.estimation.leastsquares;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.hipparchus.exception.LocalizedCoreFormats;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.estimation.measurements.EstimatedMeasurement;
@@ -29,6 +34,14 @@ import org.orekit.time.AbsoluteDate;
 
 /** {@link org.orekit.propagation.sampling.OrekitStepHandler Step handler} picking up
  * {@link ObservedMeasurement measurements}.
+ * <p>
+ * If an executor is provided, the spacecraft states are still interpolated
+ * in the step handler thread (as interpolators are valid only during the step),
+ * but the measurements estimations (including modifiers) and the filling of
+ * the corresponding rows of the model value and Jacobian are dispatched to the
+ * executor as steps arrive. As each measurement writes only to its own rows,
+ * the result does not depend on tasks scheduling.
+ * </p>
  * @author Luc Maisonobe
  * @since 8.0
  */
@@ -40,6 +53,12 @@ class MeasurementHandler implements MultiSatStepHandler {
     /** Underlying measurements. */
     private final List<PreCompensation> precompensated;
 
+    /** Executor for measurements evaluations (null for evaluation in the step handler thread). */
+    private final ExecutorService executor;
+
+    /** Pending measurements evaluations. */
+    private final List<Future<?>> pending;
+
     /** Number of the next measurement. */
     private int number;
 
@@ -49,10 +68,16 @@ class MeasurementHandler implements MultiSatStepHandler {
     /** Simple constructor.
      * @param model least squares model
      * @param precompensated underlying measurements
+     * @param executor executor for measurements evaluations (null for evaluation
+     * in the step handler thread)
+     * @since 9.2
      */
-    MeasurementHandler(final Model model, final List<PreCompensation> precompensated) {
+    MeasurementHandler(final Model model, final List<PreCompensation> precompensated,
+                       final ExecutorService executor) {
         this.model          = model;
         this.precompensated = precompensated;
+        this.executor       = executor;
+        this.pending        = new ArrayList<>();
     }
 
     /**
@@ -62,6 +87,7 @@ class MeasurementHandler implements MultiSatStepHandler {
     public void init(final List<SpacecraftState> initialStates, final AbsoluteDate target) {
         number = 0;
         index  = 0;
+        pending.clear();
     }
 
     /** {@inheritDoc} */
@@ -93,12 +119,19 @@ class MeasurementHandler implements MultiSatStepHandler {
             for (int i = 0; i < states.length; ++i) {
                 states[i] = interpolators.get(i).getInterpolatedState(next.getDate());
             }
-            final EstimatedMeasurement<?> estimated = observed.estimate(model.getIterationsCount(),
-                                                                        model.getEvaluationsCount(),
-                                                                        states);
-
-            // fetch the evaluated measurement to the estimator
-            model.fetchEvaluatedMeasurement(index, estimated);
+            final int iteration  = model.getIterationsCount();
+            final int evaluation = model.getEvaluationsCount();
+            final int current    = index;
+            if (executor == null) {
+                // estimate and fetch the measurement right now
+                model.fetchEvaluatedMeasurement(current, observed.estimate(iteration, evaluation, states));
+            } else {
+                // delegate estimation and fetching to the executor
+                pending.add(executor.submit(() -> {
+                    model.fetchEvaluatedMeasurement(current, observed.estimate(iteration, evaluation, states));
+                    return null;
+                }));
+            }
 
             // prepare handling of next measurement
             ++number;
@@ -108,4 +141,33 @@ class MeasurementHandler implements MultiSatStepHandler {
 
     }
 
+    /** Wait for completion of all pending measurements evaluations.
+     * <p>
+     * This method must be called once propagation is over, before
+     * the model value and Jacobian are used.
+     * </p>
+     * @exception OrekitException if some measurement could not be evaluated
+     * (if several evaluations failed, the first one in chronological order is reported)
+     * @since 9.2
+     */
+    void waitForEvaluations() throws OrekitException {
+        OrekitException first = null;
+        for (final Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                if (first == null) {
+                    first = (e.getCause() instanceof OrekitException) ?
+                            (OrekitException) e.getCause() :
+                            new OrekitException(e.getCause() == null ? e : e.getCause(),
+                                                LocalizedCoreFormats.SIMPLE_MESSAGE, e.getLocalizedMessage());
+                }
+            }
+        }
+        pending.clear();
+        if (first != null) {
+            throw first;
+        }
+    }
+
 }
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.hipparchus.linear.Array2DRowRealMatrix;
 import org.hipparchus.linear.ArrayRealVector;
@@ -43,7 +44,6 @@ import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
 import org.orekit.propagation.numerical.JacobiansMapper;
 import org.orekit.propagation.numerical.NumericalPropagator;
 import org.orekit.propagation.numerical.PartialDerivativesEquations;
-import org.orekit.propagation.sampling.MultiSatStepHandler;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.ChronologicalComparator;
 import org.orekit.utils.ParameterDriver;
@@ -107,7 +107,22 @@ class Model implements MultivariateJacobianFunction {
     private RealVector value;
 
     /** Model function Jacobian. */
-    private RealMatrix jacobian;
+    private BlockSparseJacobian jacobian;
+
+    /** Dense copy of the Jacobian for generic optimizers (null if not used yet). */
+    private RealMatrix denseJacobian;
+
+    /** Indicator for providing the block-sparse Jacobian to the optimizer. */
+    private boolean sparse;
+
+    /** Executor for measurements evaluations (null for sequential evaluation). */
+    private ExecutorService executor;
+
+    /** Index of the first row of each measurement evaluated at last call. */
+    private final Map<ObservedMeasurement<?>, Integer> rows;
+
+    /** Point at which model was last evaluated. */
+    private RealVector evaluatedPoint;
 
     /** Simple constructor.
      * @param builders builders to use for propagation
@@ -127,6 +142,7 @@ class Model implements MultivariateJacobianFunction {
         this.measurementParameterColumns     = new HashMap<>(estimatedMeasurementsParameters.getDrivers().size());
         this.estimatedPropagationParameters  = new ParameterDriversList[builders.length];
         this.evaluations                     = new IdentityHashMap<>(measurements.size());
+        this.rows                            = new IdentityHashMap<>(measurements.size());
         this.observer                        = observer;
         this.mappers                         = new JacobiansMapper[builders.length];
 
@@ -172,13 +188,14 @@ class Model implements MultivariateJacobianFunction {
 
 
         // Populate the map of measurement drivers' columns and update the total number of columns
+        final int nbGlobal = columns;
         for (final ParameterDriver parameter : estimatedMeasurementsParameters.getDrivers()) {
             measurementParameterColumns.put(parameter.getName(), columns);
             ++columns;
         }
 
         value    = new ArrayRealVector(rows);
-        jacobian = MatrixUtils.createRealMatrix(rows, columns);
+        jacobian = new BlockSparseJacobian(rows, nbGlobal, columns - nbGlobal);
 
     }
 
@@ -196,6 +213,15 @@ class Model implements MultivariateJacobianFunction {
         this.iterationsCounter = iterationsCounter;
     }
 
+    /** Set the executor for measurements evaluations.
+     * @param executor executor for measurements evaluations
+     * (null for sequential evaluation in the propagation thread)
+     * @since 9.2
+     */
+    void setExecutor(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Pair<RealVector, RealMatrix> value(final RealVector point)
@@ -209,30 +235,97 @@ class Model implements MultivariateJacobianFunction {
                 mappers[i] = configureDerivatives(propagators[i]);
                 orbits[i]  = propagators[i].getInitialState().getOrbit();
             }
+            final MeasurementHandler handler = configureMeasurements(point);
             final PropagatorsParallelizer parallelizer =
-                            new PropagatorsParallelizer(Arrays.asList(propagators), configureMeasurements(point));
+                            new PropagatorsParallelizer(Arrays.asList(propagators), handler);
 
             // Reset value and Jacobian
             evaluations.clear();
+            rows.clear();
+            evaluatedPoint = null;
             value.set(0.0);
-            for (int i = 0; i < jacobian.getRowDimension(); ++i) {
-                for (int j = 0; j < jacobian.getColumnDimension(); ++j) {
-                    jacobian.setEntry(i, j, 0.0);
-                }
-            }
+            jacobian.zero();
 
             // run the propagation, gathering residuals on the fly
-            parallelizer.propagate(firstDate.shiftedBy(-1.0), lastDate.shiftedBy(+1.0));
+            try {
+                parallelizer.propagate(firstDate.shiftedBy(-1.0), lastDate.shiftedBy(+1.0));
+            } catch (OrekitException | RuntimeException e) {
+                // don't let pending evaluations write into value and Jacobian after we leave
+                try {
+                    handler.waitForEvaluations();
+                } catch (OrekitException ignored) {
+                    // the propagation failure is the primary error
+                }
+                throw e;
+            }
+            handler.waitForEvaluations();
 
             observer.modelCalled(orbits, evaluations);
-
-            return new Pair<RealVector, RealMatrix>(value, jacobian);
+            evaluatedPoint = point.copy();
+
+            if (sparse) {
+                return new Pair<RealVector, RealMatrix>(value, jacobian);
+            } else {
+                if (denseJacobian == null) {
+                    denseJacobian = MatrixUtils.createRealMatrix(jacobian.getRowDimension(),
+                                                                 jacobian.getColumnDimension());
+                }
+                jacobian.copyTo(denseJacobian);
+                return new Pair<RealVector, RealMatrix>(value, denseJacobian);
+            }
 
         } catch (OrekitException oe) {
             throw new OrekitExceptionWrapper(oe);
         }
     }
 
+    /** Set the type of Jacobian provided to the optimizer.
+     * <p>
+     * The block-sparse Jacobian is always used internally (for example for
+     * {@link #addContributions(NormalEquations) normal equations}), but by default
+     * generic optimizers get a dense copy of it, so their computations (including
+     * covariances) do not depend on the matrix storage. Only optimizers that
+     * take advantage of the block-sparse structure, like {@link
+     * BlockSparseGaussNewtonOptimizer}, should get the block-sparse Jacobian.
+     * </p>
+     * @param sparse if true, the optimizer gets the block-sparse Jacobian,
+     * otherwise it gets a dense copy
+     * @since 9.2
+     */
+    void setSparseJacobian(final boolean sparse) {
+        this.sparse = sparse;
+    }
+
+    /** Get the point at which model was last successfully evaluated.
+     * @return point at which model was last evaluated, or null if
+     * model has not been evaluated yet or last evaluation failed
+     * @since 9.2
+     */
+    RealVector getEvaluatedPoint() {
+        return evaluatedPoint;
+    }
+
+    /** Add the contributions of the measurements evaluated at last call to normal equations.
+     * <p>
+     * Measurements that were not evaluated (for example disabled ones) are ignored.
+     * </p>
+     * @param normalEquations normal equations to update
+     * @since 9.2
+     */
+    void addContributions(final NormalEquations normalEquations) {
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            final Integer row = rows.get(measurement);
+            if (row != null) {
+                final int dimension = measurement.getDimension();
+                final double[] residuals = new double[dimension];
+                for (int i = 0; i < dimension; ++i) {
+                    residuals[i] = value.getEntry(row + i);
+                }
+                normalEquations.add(measurement, residuals, jacobian, row);
+            }
+        }
+    }
+
     /** Get the iterations count.
      * @return iterations count
      */
@@ -325,7 +418,7 @@ class Model implements MultivariateJacobianFunction {
      * @return multi-satellites handler to handle measurements
      * @exception OrekitException if measurements parameters cannot be set with the current point
      */
-    private MultiSatStepHandler configureMeasurements(final RealVector point)
+    private MeasurementHandler configureMeasurements(final RealVector point)
         throws OrekitException {
 
         // Set up the measurement parameters
@@ -346,7 +439,7 @@ class Model implements MultivariateJacobianFunction {
         firstDate = precompensated.get(0).getDate();
         lastDate  = precompensated.get(precompensated.size() - 1).getDate();
 
-        return new MeasurementHandler(this, precompensated);
+        return new MeasurementHandler(this, precompensated, executor);
 
     }
 
@@ -383,7 +476,11 @@ class Model implements MultivariateJacobianFunction {
         final ObservedMeasurement<?> observedMeasurement = evaluation.getObservedMeasurement();
 
         // compute weighted residuals
-        evaluations.put(observedMeasurement, evaluation);
+        synchronized (evaluations) {
+            // measurements may be evaluated concurrently, see setExecutor
+            evaluations.put(observedMeasurement, evaluation);
+            rows.put(observedMeasurement, index);
+        }
         final double[] evaluated = evaluation.getEstimatedValue();
         final double[] observed  = observedMeasurement.getObservedValue();
         final double[] sigma     = observedMeasurement.getTheoreticalStandardDeviation();
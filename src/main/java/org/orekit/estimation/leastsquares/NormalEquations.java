@@ -0,0 +1,504 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.DecompositionSolver;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.OpenMapRealMatrix;
+import org.hipparchus.linear.QRDecomposition;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.util.FastMath;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+
+/** Block-sparse normal equations of a linearized least squares problem.
+ * <p>
+ * The parameters are split between global parameters (orbital and propagation
+ * parameters) which affect all measurements and local parameters (measurements
+ * parameters) which affect only a few measurements. The normal matrix JᵀJ is
+ * stored as a dense global block, a dense global/local coupling block and a
+ * sparse local block. When solving, the local parameters are grouped in
+ * independent sets (parameters that never appear together in any measurement
+ * belong to different sets) and eliminated set by set using Schur complements,
+ * so only a reduced system with the size of the global parameters is solved.
+ * </p>
+ * <p>
+ * Contributions can either be added anonymously row by row, or per measurement.
+ * In the latter case the weighted residuals and Jacobian rows of each measurement
+ * are kept, so the normal equations can be updated incrementally when measurements
+ * are added or removed, without re-evaluating the other ones.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+class NormalEquations {
+
+    /** Number of global parameters. */
+    private final int nbGlobal;
+
+    /** Number of local parameters. */
+    private final int nbLocal;
+
+    /** Global block of normal matrix. */
+    private final RealMatrix normalGG;
+
+    /** Coupling block of normal matrix (one global column per local parameter). */
+    private final double[][] normalLG;
+
+    /** Local block of normal matrix (null if there are no local parameters). */
+    private final OpenMapRealMatrix normalLL;
+
+    /** Global part of the gradient Jᵀr. */
+    private final double[] gradientG;
+
+    /** Local part of the gradient Jᵀr. */
+    private final double[] gradientL;
+
+    /** Union-find parents of local parameters. */
+    private final int[] parents;
+
+    /** Number of rows observing each local parameter. */
+    private final int[] observations;
+
+    /** Contributions of the measurements. */
+    private final Map<ObservedMeasurement<?>, Row[]> contributions;
+
+    /** Simple constructor.
+     * @param nbGlobal number of global parameters
+     * @param nbLocal number of local parameters
+     */
+    NormalEquations(final int nbGlobal, final int nbLocal) {
+        this.nbGlobal      = nbGlobal;
+        this.nbLocal       = nbLocal;
+        this.normalGG      = MatrixUtils.createRealMatrix(FastMath.max(1, nbGlobal), FastMath.max(1, nbGlobal));
+        this.normalLG      = new double[nbLocal][];
+        this.normalLL      = nbLocal > 0 ? new OpenMapRealMatrix(nbLocal, nbLocal) : null;
+        this.gradientG     = new double[nbGlobal];
+        this.gradientL     = new double[nbLocal];
+        this.parents       = new int[nbLocal];
+        this.observations  = new int[nbLocal];
+        for (int l = 0; l < nbLocal; ++l) {
+            parents[l] = l;
+        }
+        this.contributions = new IdentityHashMap<>();
+    }
+
+    /** Add anonymous contributions.
+     * <p>
+     * The contributions added by this method cannot be removed later on.
+     * </p>
+     * @param jacobian Jacobian (if it is a {@link BlockSparseJacobian}, its
+     * structure is used, otherwise the first columns are considered global
+     * and the last columns are considered local)
+     * @param residuals residuals r (model minus observations), one per Jacobian row
+     */
+    void addRows(final RealMatrix jacobian, final RealVector residuals) {
+        for (int i = 0; i < jacobian.getRowDimension(); ++i) {
+            update(extract(jacobian, i, residuals.getEntry(i)), +1);
+        }
+    }
+
+    /** Add the contribution of one measurement.
+     * @param measurement observed measurement
+     * @param residuals weighted residuals of the measurement (one per component)
+     * @param jacobian Jacobian (if it is a {@link BlockSparseJacobian}, its
+     * structure is used, otherwise the first columns are considered global
+     * and the last columns are considered local)
+     * @param firstRow index of the Jacobian row corresponding to the first component
+     */
+    void add(final ObservedMeasurement<?> measurement, final double[] residuals,
+             final RealMatrix jacobian, final int firstRow) {
+        final Row[] rows = new Row[residuals.length];
+        for (int i = 0; i < rows.length; ++i) {
+            rows[i] = extract(jacobian, firstRow + i, residuals[i]);
+            update(rows[i], +1);
+        }
+        contributions.put(measurement, rows);
+    }
+
+    /** Check if a measurement contributes to the normal equations.
+     * @param measurement observed measurement
+     * @return true if measurement contributes to the normal equations
+     */
+    boolean contains(final ObservedMeasurement<?> measurement) {
+        return contributions.containsKey(measurement);
+    }
+
+    /** Remove the contributions of all measurements not in a set.
+     * @param kept measurements to keep (compared by identity)
+     * @return number of removed measurements
+     */
+    int retainAll(final Set<ObservedMeasurement<?>> kept) {
+        int removed = 0;
+        for (final Iterator<Map.Entry<ObservedMeasurement<?>, Row[]>> iterator = contributions.entrySet().iterator();
+             iterator.hasNext();) {
+            final Map.Entry<ObservedMeasurement<?>, Row[]> entry = iterator.next();
+            if (!kept.contains(entry.getKey())) {
+                for (final Row row : entry.getValue()) {
+                    update(row, -1);
+                }
+                iterator.remove();
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    /** Get the number of contributing measurements.
+     * @return number of contributing measurements
+     */
+    int getMeasurementsNumber() {
+        return contributions.size();
+    }
+
+    /** Get the root mean square of the weighted residuals of contributing measurements.
+     * @return root mean square of the weighted residuals
+     */
+    double getRMS() {
+        double sum = 0;
+        int    n   = 0;
+        for (final Row[] rows : contributions.values()) {
+            for (final Row row : rows) {
+                sum += row.residual * row.residual;
+                ++n;
+            }
+        }
+        return n == 0 ? 0.0 : FastMath.sqrt(sum / n);
+    }
+
+    /** Solve the normal equations for a Gauss-Newton step.
+     * <p>
+     * Local parameters that are not observed by any contribution are not changed.
+     * </p>
+     * @return parameters change δ such that JᵀJ δ = -Jᵀr
+     * @exception org.hipparchus.exception.MathIllegalArgumentException if normal matrix is singular
+     */
+    RealVector solve() {
+
+        // eliminate local parameters, one independent set at a time
+        final RealMatrix   reducedNormal   = normalGG.copy();
+        final RealVector   reducedGradient = new ArrayRealVector(gradientG);
+        final List<LocalSet> sets          = new ArrayList<>();
+        for (final int[] locals : getLocalSets()) {
+            final LocalSet set = new LocalSet(locals);
+            set.eliminate(reducedNormal, reducedGradient);
+            sets.add(set);
+        }
+
+        // solve reduced system for global parameters
+        final double[] delta = new double[nbGlobal + nbLocal];
+        if (nbGlobal > 0) {
+            final RealVector deltaG =
+                            new QRDecomposition(reducedNormal).getSolver().solve(reducedGradient).mapMultiply(-1.0);
+            for (int i = 0; i < nbGlobal; ++i) {
+                delta[i] = deltaG.getEntry(i);
+            }
+        }
+
+        // back-substitute local parameters
+        for (final LocalSet set : sets) {
+            set.backSubstitute(delta);
+        }
+
+        return new ArrayRealVector(delta, false);
+
+    }
+
+    /** Shift the linearization point.
+     * <p>
+     * Residuals of contributing measurements are updated using the linear model r + J δ,
+     * Jacobians are not changed. This method should be used only if all contributions
+     * were added per measurement, as anonymous contributions cannot be shifted.
+     * </p>
+     * @param delta parameters change
+     */
+    void shift(final RealVector delta) {
+
+        // update residuals
+        final double[] d = delta.toArray();
+        for (final Row[] rows : contributions.values()) {
+            for (final Row row : rows) {
+                double r = row.residual;
+                for (int j = 0; j < nbGlobal; ++j) {
+                    r += row.global[j] * d[j];
+                }
+                for (int k = 0; k < row.localColumns.length; ++k) {
+                    r += row.localValues[k] * d[nbGlobal + row.localColumns[k]];
+                }
+                row.residual = r;
+            }
+        }
+
+        // recompute gradient from the updated residuals
+        Arrays.fill(gradientG, 0.0);
+        Arrays.fill(gradientL, 0.0);
+        for (final Row[] rows : contributions.values()) {
+            for (final Row row : rows) {
+                for (int j = 0; j < nbGlobal; ++j) {
+                    gradientG[j] += row.global[j] * row.residual;
+                }
+                for (int k = 0; k < row.localColumns.length; ++k) {
+                    gradientL[row.localColumns[k]] += row.localValues[k] * row.residual;
+                }
+            }
+        }
+
+    }
+
+    /** Extract one row from a Jacobian.
+     * @param jacobian Jacobian
+     * @param i row index
+     * @param residual residual for this row
+     * @return extracted row
+     */
+    private Row extract(final RealMatrix jacobian, final int i, final double residual) {
+        if (jacobian instanceof BlockSparseJacobian) {
+            final BlockSparseJacobian bsj = (BlockSparseJacobian) jacobian;
+            final int count = bsj.getLocalCount(i);
+            return new Row(bsj.getGlobalPart(i).clone(),
+                           count == 0 ? new int[0]    : Arrays.copyOf(bsj.getLocalColumns(i), count),
+                           count == 0 ? new double[0] : Arrays.copyOf(bsj.getLocalValues(i),  count),
+                           residual);
+        } else {
+            final double[] full = jacobian.getRow(i);
+            int count = 0;
+            for (int j = nbGlobal; j < full.length; ++j) {
+                if (full[j] != 0.0) {
+                    ++count;
+                }
+            }
+            final int[]    localColumns = new int[count];
+            final double[] localValues  = new double[count];
+            int k = 0;
+            for (int j = nbGlobal; j < full.length; ++j) {
+                if (full[j] != 0.0) {
+                    localColumns[k]  = j - nbGlobal;
+                    localValues[k++] = full[j];
+                }
+            }
+            return new Row(Arrays.copyOf(full, nbGlobal), localColumns, localValues, residual);
+        }
+    }
+
+    /** Add or remove a row contribution to normal matrix and gradient.
+     * @param row Jacobian row
+     * @param sign +1 for adding the contribution, -1 for removing it
+     */
+    private void update(final Row row, final int sign) {
+
+        final double sr = sign * row.residual;
+
+        // global block
+        for (int i = 0; i < nbGlobal; ++i) {
+            final double gi = row.global[i];
+            if (gi != 0.0) {
+                gradientG[i] += gi * sr;
+                final double sgi = sign * gi;
+                for (int j = 0; j < nbGlobal; ++j) {
+                    normalGG.addToEntry(i, j, sgi * row.global[j]);
+                }
+            }
+        }
+
+        // coupling and local blocks
+        for (int k = 0; k < row.localColumns.length; ++k) {
+            final int    l   = row.localColumns[k];
+            final double slk = sign * row.localValues[k];
+            gradientL[l] += slk * row.residual;
+            if (normalLG[l] == null) {
+                normalLG[l] = new double[nbGlobal];
+            }
+            for (int j = 0; j < nbGlobal; ++j) {
+                normalLG[l][j] += slk * row.global[j];
+            }
+            for (int m = 0; m < row.localColumns.length; ++m) {
+                normalLL.addToEntry(l, row.localColumns[m], slk * row.localValues[m]);
+            }
+            observations[l] += sign;
+            if (k > 0) {
+                union(row.localColumns[0], l);
+            }
+        }
+
+    }
+
+    /** Find the representative of a local parameter set.
+     * @param l local parameter
+     * @return representative of the set containing l
+     */
+    private int find(final int l) {
+        int root = l;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        // path compression
+        int current = l;
+        while (parents[current] != root) {
+            final int next = parents[current];
+            parents[current] = root;
+            current = next;
+        }
+        return root;
+    }
+
+    /** Merge the sets of two local parameters.
+     * @param l1 first local parameter
+     * @param l2 second local parameter
+     */
+    private void union(final int l1, final int l2) {
+        final int r1 = find(l1);
+        final int r2 = find(l2);
+        if (r1 != r2) {
+            parents[FastMath.max(r1, r2)] = FastMath.min(r1, r2);
+        }
+    }
+
+    /** Get the independent sets of observed local parameters.
+     * @return independent sets of observed local parameters
+     */
+    private List<int[]> getLocalSets() {
+        final Map<Integer, List<Integer>> sets = new LinkedHashMap<>();
+        for (int l = 0; l < nbLocal; ++l) {
+            if (observations[l] > 0) {
+                sets.computeIfAbsent(find(l), root -> new ArrayList<>()).add(l);
+            }
+        }
+        final List<int[]> list = new ArrayList<>(sets.size());
+        for (final List<Integer> set : sets.values()) {
+            final int[] locals = new int[set.size()];
+            for (int k = 0; k < locals.length; ++k) {
+                locals[k] = set.get(k);
+            }
+            list.add(locals);
+        }
+        return list;
+    }
+
+    /** Independent set of local parameters. */
+    private class LocalSet {
+
+        /** Local parameters in the set. */
+        private final int[] locals;
+
+        /** Solver for the local block. */
+        private final DecompositionSolver solver;
+
+        /** Local gradient. */
+        private final RealVector gradient;
+
+        /** Coupling block (one row per local parameter). */
+        private final RealMatrix coupling;
+
+        /** Simple constructor.
+         * @param locals local parameters in the set
+         */
+        LocalSet(final int[] locals) {
+            this.locals   = locals;
+            final RealMatrix block = MatrixUtils.createRealMatrix(locals.length, locals.length);
+            this.gradient = new ArrayRealVector(locals.length);
+            this.coupling = MatrixUtils.createRealMatrix(locals.length, FastMath.max(1, nbGlobal));
+            for (int i = 0; i < locals.length; ++i) {
+                for (int j = 0; j < locals.length; ++j) {
+                    block.setEntry(i, j, normalLL.getEntry(locals[i], locals[j]));
+                }
+                gradient.setEntry(i, gradientL[locals[i]]);
+                for (int j = 0; j < nbGlobal; ++j) {
+                    coupling.setEntry(i, j, normalLG[locals[i]][j]);
+                }
+            }
+            this.solver = new QRDecomposition(block).getSolver();
+        }
+
+        /** Eliminate the local parameters from the global system.
+         * @param reducedNormal global block of normal matrix, updated in place
+         * @param reducedGradient global gradient, updated in place
+         */
+        void eliminate(final RealMatrix reducedNormal, final RealVector reducedGradient) {
+            if (nbGlobal > 0) {
+                // Schur complement: Ngg - Ngl Nll⁻¹ Nlg and gg - Ngl Nll⁻¹ gl
+                final RealMatrix x = solver.solve(coupling);
+                final RealVector y = solver.solve(gradient);
+                final RealMatrix couplingT = coupling.transpose();
+                final RealMatrix product   = couplingT.multiply(x);
+                for (int i = 0; i < nbGlobal; ++i) {
+                    for (int j = 0; j < nbGlobal; ++j) {
+                        reducedNormal.addToEntry(i, j, -product.getEntry(i, j));
+                    }
+                }
+                reducedGradient.combineToSelf(1.0, -1.0, couplingT.operate(y));
+            }
+        }
+
+        /** Compute the local parameters change once the global parameters change is known.
+         * @param delta parameters change, with global part already set, local part updated in place
+         */
+        void backSubstitute(final double[] delta) {
+            // δl = -Nll⁻¹ (gl + Nlg δg)
+            final RealVector rhs = gradient.copy();
+            if (nbGlobal > 0) {
+                rhs.combineToSelf(1.0, 1.0, coupling.operate(new ArrayRealVector(delta, 0, coupling.getColumnDimension())));
+            }
+            final RealVector deltaL = solver.solve(rhs);
+            for (int i = 0; i < locals.length; ++i) {
+                delta[nbGlobal + locals[i]] = -deltaL.getEntry(i);
+            }
+        }
+
+    }
+
+    /** Contribution of one Jacobian row. */
+    private static class Row {
+
+        /** Global part. */
+        private final double[] global;
+
+        /** Local columns of non-zero entries. */
+        private final int[] localColumns;
+
+        /** Local values of non-zero entries. */
+        private final double[] localValues;
+
+        /** Weighted residual. */
+        private double residual;
+
+        /** Simple constructor.
+         * @param global global part
+         * @param localColumns local columns of non-zero entries
+         * @param localValues local values of non-zero entries
+         * @param residual weighted residual
+         */
+        Row(final double[] global, final int[] localColumns, final double[] localValues,
+            final double residual) {
+            this.global       = global;
+            this.localColumns = localColumns;
+            this.localValues  = localValues;
+            this.residual     = residual;
+        }
+
+    }
+
+}
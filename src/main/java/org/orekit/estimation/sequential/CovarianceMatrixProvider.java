@@ -0,0 +1,58 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+
+/** Provider for initial and process noise covariance matrices.
+ * <p>
+ * The matrices are expressed in physical units and their rows and columns follow
+ * the order of the estimated parameters in the {@link KalmanEstimator Kalman estimator}:
+ * first the selected orbital parameters (in the orbit type and position angle
+ * of the propagator builder), then the selected propagation parameters, then
+ * the estimated measurements parameters.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public interface CovarianceMatrixProvider {
+
+    /** Get the initial covariance matrix.
+     * @param initial initial spacecraft state
+     * @return physical (i.e. non normalized) initial covariance matrix
+     * @exception OrekitException if matrix cannot be computed
+     */
+    RealMatrix getInitialCovarianceMatrix(SpacecraftState initial)
+        throws OrekitException;
+
+    /** Get the process noise matrix between previous and current states.
+     * <p>
+     * The process noise matrix accounts for the unmodeled dynamics between the
+     * two states. It is added to the covariance propagated from the previous
+     * estimate to the current date.
+     * </p>
+     * @param previous previous (corrected) state
+     * @param current current (predicted) state
+     * @return physical (i.e. non normalized) process noise matrix
+     * @exception OrekitException if matrix cannot be computed
+     */
+    RealMatrix getProcessNoiseMatrix(SpacecraftState previous, SpacecraftState current)
+        throws OrekitException;
+
+}
@@ -0,0 +1,494 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.linear.Array2DRowRealMatrix;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.QRDecomposition;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.numerical.JacobiansMapper;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.numerical.PartialDerivativesEquations;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.ChronologicalComparator;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+import org.orekit.utils.ParameterDriversList.DelegatingDriver;
+
+/** Extended Kalman filter for orbit determination.
+ * <p>
+ * The estimator processes {@link ObservedMeasurement measurements} one at a time,
+ * in the order they are provided. For each measurement, the current estimated state
+ * and its covariance are propagated from the previous measurement date to the new
+ * measurement date (prediction), and then corrected using the difference between the
+ * observed and the estimated measurement (correction). The cost of processing one
+ * measurement therefore only depends on the time elapsed since the previous one,
+ * not on the arc length.
+ * </p>
+ * <p>
+ * The estimated parameters are the selected orbital parameters and the selected
+ * propagation parameters from the {@link NumericalPropagatorBuilder propagator builder},
+ * and the measurements parameters provided at construction. Internally, the filter
+ * works on parameters normalized by their {@link ParameterDriver#getScale() scales},
+ * whereas the {@link CovarianceMatrixProvider covariance matrices provider} and the
+ * {@link #getPhysicalEstimatedCovarianceMatrix() covariance accessor} use physical units.
+ * Measurements noise is derived from the measurements {@link
+ * ObservedMeasurement#getTheoreticalStandardDeviation() theoretical standard deviations}
+ * and {@link EstimatedMeasurement#getCurrentWeight() weights}, in the same way as in
+ * the {@link org.orekit.estimation.leastsquares.BatchLSEstimator batch least squares
+ * estimator}, so measurements rejected by outlier filters (i.e. with weight set to zero)
+ * do not change the estimate.
+ * </p>
+ * <p>
+ * Only single spacecraft measurements are supported.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class KalmanEstimator {
+
+    /** Name of the partial derivatives equations. */
+    private static final String EQUATIONS_NAME = KalmanEstimator.class.getName() + "-derivatives";
+
+    /** Builder for propagators. */
+    private final NumericalPropagatorBuilder builder;
+
+    /** Estimated orbital parameters. */
+    private final ParameterDriversList estimatedOrbitalParameters;
+
+    /** Indices of estimated orbital parameters in the orbit array. */
+    private final int[] orbitalIndices;
+
+    /** Estimated propagation parameters. */
+    private final ParameterDriversList estimatedPropagationParameters;
+
+    /** Estimated measurements parameters. */
+    private final ParameterDriversList estimatedMeasurementsParameters;
+
+    /** Map for propagation parameters columns. */
+    private final Map<String, Integer> propagationParameterColumns;
+
+    /** Map for measurements parameters columns. */
+    private final Map<String, Integer> measurementParameterColumns;
+
+    /** Scaling factors of all estimated parameters. */
+    private final double[] scale;
+
+    /** Provider for covariance matrices. */
+    private final CovarianceMatrixProvider covarianceMatrixProvider;
+
+    /** Default reference date for parameters that lack one. */
+    private final AbsoluteDate referenceDate;
+
+    /** Current estimated state. */
+    private SpacecraftState currentState;
+
+    /** Current normalized covariance matrix. */
+    private RealMatrix covariance;
+
+    /** Number of processed measurements. */
+    private int processedMeasurements;
+
+    /** Observer to be notified at each step. */
+    private KalmanObserver observer;
+
+    /** Simple constructor.
+     * <p>
+     * The initial orbit is built from the current values of the propagator builder
+     * orbital parameters drivers.
+     * </p>
+     * @param propagatorBuilder builder to use for propagation
+     * @param estimatedMeasurementsParameters measurements parameters to estimate
+     * (their drivers must be {@link ParameterDriver#setSelected(boolean) selected})
+     * @param covarianceMatrixProvider provider for initial and process noise covariance matrices
+     * @exception OrekitException if initial state or initial covariance cannot be computed
+     */
+    public KalmanEstimator(final NumericalPropagatorBuilder propagatorBuilder,
+                           final ParameterDriversList estimatedMeasurementsParameters,
+                           final CovarianceMatrixProvider covarianceMatrixProvider)
+        throws OrekitException {
+
+        this.builder                         = propagatorBuilder;
+        this.estimatedMeasurementsParameters = estimatedMeasurementsParameters;
+        this.covarianceMatrixProvider        = covarianceMatrixProvider;
+        this.referenceDate                   = propagatorBuilder.getInitialOrbitDate();
+        this.processedMeasurements           = 0;
+        this.observer                        = null;
+
+        // estimated orbital parameters
+        this.estimatedOrbitalParameters = new ParameterDriversList();
+        final List<DelegatingDriver> orbitalDrivers = builder.getOrbitalParametersDrivers().getDrivers();
+        final List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < orbitalDrivers.size(); ++i) {
+            if (orbitalDrivers.get(i).isSelected()) {
+                estimatedOrbitalParameters.add(orbitalDrivers.get(i));
+                indices.add(i);
+            }
+        }
+        this.orbitalIndices = new int[indices.size()];
+        for (int i = 0; i < orbitalIndices.length; ++i) {
+            orbitalIndices[i] = indices.get(i);
+        }
+
+        // estimated propagation parameters
+        this.estimatedPropagationParameters = new ParameterDriversList();
+        for (final DelegatingDriver driver : builder.getPropagationParametersDrivers().getDrivers()) {
+            if (driver.isSelected()) {
+                estimatedPropagationParameters.add(driver);
+            }
+        }
+
+        // columns of all estimated parameters
+        int columns = estimatedOrbitalParameters.getNbParams();
+        this.propagationParameterColumns = new HashMap<>();
+        for (final ParameterDriver driver : estimatedPropagationParameters.getDrivers()) {
+            propagationParameterColumns.put(driver.getName(), columns++);
+        }
+        this.measurementParameterColumns = new HashMap<>();
+        for (final ParameterDriver driver : estimatedMeasurementsParameters.getDrivers()) {
+            measurementParameterColumns.put(driver.getName(), columns++);
+        }
+        this.scale = new double[columns];
+        int index = 0;
+        for (final ParameterDriver driver : estimatedOrbitalParameters.getDrivers()) {
+            scale[index++] = driver.getScale();
+        }
+        for (final ParameterDriver driver : estimatedPropagationParameters.getDrivers()) {
+            scale[index++] = driver.getScale();
+        }
+        for (final ParameterDriver driver : estimatedMeasurementsParameters.getDrivers()) {
+            scale[index++] = driver.getScale();
+        }
+
+        // set reference date for all propagation parameters that lack one
+        for (final ParameterDriver driver : builder.getPropagationParametersDrivers().getDrivers()) {
+            if (driver.getReferenceDate() == null) {
+                driver.setReferenceDate(referenceDate);
+            }
+        }
+
+        // initial state and covariance
+        this.currentState = builder.buildPropagator(builder.getSelectedNormalizedParameters()).getInitialState();
+        this.covariance   = normalizeCovarianceMatrix(covarianceMatrixProvider.getInitialCovarianceMatrix(currentState));
+
+    }
+
+    /** Set an observer for estimation steps.
+     * @param observer observer to be notified at the end of each estimation step
+     */
+    public void setObserver(final KalmanObserver observer) {
+        this.observer = observer;
+    }
+
+    /** Get the estimated orbital parameters.
+     * @return estimated orbital parameters
+     */
+    public ParameterDriversList getOrbitalParametersDrivers() {
+        return estimatedOrbitalParameters;
+    }
+
+    /** Get the estimated propagator parameters.
+     * @return estimated propagator parameters
+     */
+    public ParameterDriversList getPropagatorParametersDrivers() {
+        return estimatedPropagationParameters;
+    }
+
+    /** Get the estimated measurements parameters.
+     * @return estimated measurements parameters
+     */
+    public ParameterDriversList getMeasurementsParametersDrivers() {
+        return estimatedMeasurementsParameters;
+    }
+
+    /** Get the number of measurements processed so far.
+     * @return number of measurements processed so far
+     */
+    public int getProcessedMeasurementsCount() {
+        return processedMeasurements;
+    }
+
+    /** Get the date of the current estimate.
+     * @return date of the current estimate (i.e. date of the last processed measurement,
+     * or initial orbit date if no measurements have been processed yet)
+     */
+    public AbsoluteDate getCurrentDate() {
+        return currentState.getDate();
+    }
+
+    /** Get the current estimated orbit.
+     * @return current estimated orbit
+     */
+    public Orbit getEstimatedOrbit() {
+        return currentState.getOrbit();
+    }
+
+    /** Get the physical covariance matrix of the current estimate.
+     * @return physical (i.e. non normalized) covariance matrix, with rows and columns
+     * in the same order as {@link CovarianceMatrixProvider} matrices
+     */
+    public RealMatrix getPhysicalEstimatedCovarianceMatrix() {
+        final RealMatrix physical = MatrixUtils.createRealMatrix(scale.length, scale.length);
+        for (int i = 0; i < scale.length; ++i) {
+            for (int j = 0; j < scale.length; ++j) {
+                physical.setEntry(i, j, covariance.getEntry(i, j) * scale[i] * scale[j]);
+            }
+        }
+        return physical;
+    }
+
+    /** Build a propagator configured with the current estimate.
+     * @return a new propagator starting from the current estimated orbit, with
+     * all estimated propagation parameters set
+     * @exception OrekitException if propagator cannot be built
+     */
+    public NumericalPropagator getEstimatedPropagator() throws OrekitException {
+        return builder.buildPropagator(builder.getSelectedNormalizedParameters());
+    }
+
+    /** Process several measurements.
+     * <p>
+     * The measurements are sorted chronologically before being processed,
+     * and the disabled ones are ignored.
+     * </p>
+     * @param measurements measurements to process
+     * @return a new propagator starting from the estimated orbit at last measurement date
+     * @exception OrekitException if some measurement cannot be processed
+     */
+    public NumericalPropagator processMeasurements(final Iterable<ObservedMeasurement<?>> measurements)
+        throws OrekitException {
+        final List<ObservedMeasurement<?>> sorted = new ArrayList<>();
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            if (measurement.isEnabled()) {
+                sorted.add(measurement);
+            }
+        }
+        sorted.sort(new ChronologicalComparator());
+        for (final ObservedMeasurement<?> measurement : sorted) {
+            estimationStep(measurement);
+        }
+        return getEstimatedPropagator();
+    }
+
+    /** Process one measurement.
+     * @param observedMeasurement measurement to process
+     * @exception OrekitException if measurement cannot be processed
+     * @exception OrekitIllegalArgumentException if measurement involves several spacecrafts
+     */
+    public void estimationStep(final ObservedMeasurement<?> observedMeasurement)
+        throws OrekitException, OrekitIllegalArgumentException {
+
+        if (observedMeasurement.getPropagatorsIndices().size() != 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     observedMeasurement.getPropagatorsIndices().size(), 1);
+        }
+        ++processedMeasurements;
+
+        // set reference date for all measurement parameters that lack one (including the not estimated ones)
+        for (final ParameterDriver driver : observedMeasurement.getParametersDrivers()) {
+            if (driver.getReferenceDate() == null) {
+                driver.setReferenceDate(referenceDate);
+            }
+        }
+
+        // prediction
+        final SpacecraftState predicted = predict(observedMeasurement.getDate());
+
+        // evaluate measurement on predicted state
+        final EstimatedMeasurement<?> estimated =
+                        observedMeasurement.estimate(processedMeasurements, processedMeasurements,
+                                                     new SpacecraftState[] {
+                                                         predicted
+                                                     });
+
+        // correction
+        correct(predicted, estimated);
+
+        if (observer != null) {
+            observer.evaluationPerformed(processedMeasurements, currentState.getOrbit(), estimated,
+                                         estimatedOrbitalParameters, estimatedPropagationParameters,
+                                         estimatedMeasurementsParameters,
+                                         getPhysicalEstimatedCovarianceMatrix());
+        }
+
+    }
+
+    /** Propagate current state and covariance to a new date.
+     * @param date target date
+     * @return predicted state
+     * @exception OrekitException if propagation fails
+     */
+    private SpacecraftState predict(final AbsoluteDate date)
+        throws OrekitException {
+
+        if (date.equals(currentState.getDate())) {
+            // nothing to propagate
+            return currentState;
+        }
+
+        // propagate state with partial derivatives
+        builder.resetOrbit(currentState.getOrbit());
+        final NumericalPropagator propagator = builder.buildPropagator(builder.getSelectedNormalizedParameters());
+        final PartialDerivativesEquations partials = new PartialDerivativesEquations(EQUATIONS_NAME, propagator);
+        propagator.resetInitialState(partials.setInitialJacobians(propagator.getInitialState()));
+        final JacobiansMapper mapper = partials.getMapper();
+        final SpacecraftState predicted = propagator.propagate(date);
+
+        // normalized state transition matrix
+        final double[][] dYdY0 = new double[6][6];
+        mapper.getStateJacobian(predicted, dYdY0);
+        final List<DelegatingDriver> parameters = partials.getSelectedParameters().getDrivers();
+        final double[][] dYdPp = new double[6][parameters.size()];
+        if (!parameters.isEmpty()) {
+            mapper.getParametersJacobian(predicted, dYdPp);
+        }
+        final RealMatrix stm = MatrixUtils.createRealIdentityMatrix(scale.length);
+        for (int i = 0; i < orbitalIndices.length; ++i) {
+            for (int j = 0; j < orbitalIndices.length; ++j) {
+                stm.setEntry(i, j, dYdY0[orbitalIndices[i]][orbitalIndices[j]] * scale[j] / scale[i]);
+            }
+            for (int k = 0; k < parameters.size(); ++k) {
+                final Integer column = propagationParameterColumns.get(parameters.get(k).getName());
+                if (column != null) {
+                    stm.setEntry(i, column, dYdPp[orbitalIndices[i]][k] * scale[column] / scale[i]);
+                }
+            }
+        }
+
+        // predicted covariance
+        final RealMatrix noise =
+                        normalizeCovarianceMatrix(covarianceMatrixProvider.getProcessNoiseMatrix(currentState, predicted));
+        covariance = stm.multiply(covariance).multiply(stm.transpose()).add(noise);
+
+        return predicted;
+
+    }
+
+    /** Correct predicted state and covariance using a measurement.
+     * @param predicted predicted state
+     * @param estimated measurement estimated from the predicted state
+     * @exception OrekitException if corrected parameters cannot be set
+     */
+    private void correct(final SpacecraftState predicted, final EstimatedMeasurement<?> estimated)
+        throws OrekitException {
+
+        final ObservedMeasurement<?> observedMeasurement = estimated.getObservedMeasurement();
+        final double[] observed = observedMeasurement.getObservedValue();
+        final double[] sigma    = observedMeasurement.getTheoreticalStandardDeviation();
+        final double[] weight   = estimated.getCurrentWeight();
+        final double[] value    = estimated.getEstimatedValue();
+
+        // partial derivatives of the measurement with respect to predicted orbital state
+        final double[][] aCY = new double[6][6];
+        predicted.getOrbit().getJacobianWrtParameters(builder.getPositionAngle(), aCY);
+        final RealMatrix dMdY = new Array2DRowRealMatrix(estimated.getStateDerivatives(0), false).
+                                multiply(new Array2DRowRealMatrix(aCY, false));
+
+        // normalized innovation and measurement matrix
+        final RealVector innovation = new ArrayRealVector(observed.length);
+        final RealMatrix h          = MatrixUtils.createRealMatrix(observed.length, scale.length);
+        for (int i = 0; i < observed.length; ++i) {
+            final double factor = weight[i] / sigma[i];
+            innovation.setEntry(i, factor * (observed[i] - value[i]));
+            for (int j = 0; j < orbitalIndices.length; ++j) {
+                h.setEntry(i, j, factor * dMdY.getEntry(i, orbitalIndices[j]) * scale[j]);
+            }
+        }
+        for (final ParameterDriver driver : observedMeasurement.getParametersDrivers()) {
+            final Integer column = measurementParameterColumns.get(driver.getName());
+            if (driver.isSelected() && column != null) {
+                final double[] aMPm = estimated.getParameterDerivatives(driver);
+                for (int i = 0; i < aMPm.length; ++i) {
+                    h.setEntry(i, column, weight[i] / sigma[i] * aMPm[i] * scale[column]);
+                }
+            }
+        }
+
+        // Kalman gain K = P Hᵀ (H P Hᵀ + R)⁻¹, with R = I as measurements are normalized
+        final RealMatrix pht = covariance.multiply(h.transpose());
+        final RealMatrix s   = h.multiply(pht).add(MatrixUtils.createRealIdentityMatrix(observed.length));
+        final RealMatrix k   = new QRDecomposition(s).getSolver().solve(pht.transpose()).transpose();
+
+        // corrected covariance, using Joseph form for numerical stability
+        final RealMatrix ikh = MatrixUtils.createRealIdentityMatrix(scale.length).subtract(k.multiply(h));
+        covariance = ikh.multiply(covariance).multiply(ikh.transpose()).add(k.multiply(k.transpose()));
+
+        // corrected parameters
+        final double[] dx = k.operate(innovation).toArray();
+        final OrbitType     orbitType     = builder.getOrbitType();
+        final PositionAngle positionAngle = builder.getPositionAngle();
+        final double[] orbitArray = new double[6];
+        orbitType.mapOrbitToArray(predicted.getOrbit(), positionAngle, orbitArray, null);
+        for (int i = 0; i < orbitalIndices.length; ++i) {
+            orbitArray[orbitalIndices[i]] += scale[i] * dx[i];
+        }
+        final Orbit corrected = orbitType.mapArrayToOrbit(orbitArray, null, positionAngle, predicted.getDate(),
+                                                          predicted.getMu(), predicted.getFrame());
+        builder.resetOrbit(corrected);
+        int index = orbitalIndices.length;
+        for (final ParameterDriver driver : estimatedPropagationParameters.getDrivers()) {
+            driver.setValue(driver.getValue() + scale[index] * dx[index]);
+            ++index;
+        }
+        for (final ParameterDriver driver : estimatedMeasurementsParameters.getDrivers()) {
+            driver.setValue(driver.getValue() + scale[index] * dx[index]);
+            ++index;
+        }
+
+        currentState = new SpacecraftState(corrected, predicted.getAttitude(), predicted.getMass());
+
+    }
+
+    /** Normalize a physical covariance matrix.
+     * @param physical physical covariance matrix
+     * @return normalized covariance matrix
+     * @exception OrekitException if matrix dimension is inconsistent with estimated parameters
+     */
+    private RealMatrix normalizeCovarianceMatrix(final RealMatrix physical)
+        throws OrekitException {
+        if (physical.getRowDimension() != scale.length || physical.getColumnDimension() != scale.length) {
+            throw new OrekitException(LocalizedCoreFormats.DIMENSIONS_MISMATCH_2x2,
+                                      physical.getRowDimension(), physical.getColumnDimension(),
+                                      scale.length, scale.length);
+        }
+        final RealMatrix normalized = MatrixUtils.createRealMatrix(scale.length, scale.length);
+        for (int i = 0; i < scale.length; ++i) {
+            for (int j = 0; j < scale.length; ++j) {
+                normalized.setEntry(i, j, physical.getEntry(i, j) / (scale[i] * scale[j]));
+            }
+        }
+        return normalized;
+    }
+
+}
@@ -0,0 +1,56 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import org.hipparchus.linear.RealMatrix;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.orbits.Orbit;
+import org.orekit.utils.ParameterDriversList;
+
+/** Observer for {@link KalmanEstimator Kalman estimator} steps.
+ * <p>
+ * This interface is intended to be implemented by users to monitor
+ * the progress of the estimator as measurements are processed.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public interface KalmanObserver {
+
+    /** Notification callback for the end of each estimation step.
+     * @param processedMeasurements number of measurements processed so far
+     * (including the current one)
+     * @param estimatedOrbit current estimated (i.e. corrected) orbit
+     * @param predictedMeasurement measurement evaluation from the predicted
+     * state, before correction (its residual is the filter innovation)
+     * @param estimatedOrbitalParameters estimated orbital parameters
+     * @param estimatedPropagatorParameters estimated propagator parameters
+     * @param estimatedMeasurementsParameters estimated measurements parameters
+     * @param physicalCovariance physical (i.e. non normalized) covariance matrix
+     * of the estimated parameters, after correction
+     * @exception OrekitException if some problem occurs
+     */
+    void evaluationPerformed(int processedMeasurements, Orbit estimatedOrbit,
+                             EstimatedMeasurement<?> predictedMeasurement,
+                             ParameterDriversList estimatedOrbitalParameters,
+                             ParameterDriversList estimatedPropagatorParameters,
+                             ParameterDriversList estimatedMeasurementsParameters,
+                             RealMatrix physicalCovariance)
+        throws OrekitException;
+
+}
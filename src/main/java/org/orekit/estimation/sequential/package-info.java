@@ -0,0 +1,32 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * The sequential package provides an implementation of an extended Kalman
+ * filter engine to perform an orbit determination.
+ * <p>
+ * Contrary to the {@link org.orekit.estimation.leastsquares.BatchLSEstimator
+ * batch least squares estimator} which propagates the whole arc at each iteration,
+ * the {@link org.orekit.estimation.sequential.KalmanEstimator Kalman estimator}
+ * processes {@link org.orekit.estimation.measurements.ObservedMeasurement measurements}
+ * one at a time, as they arrive, propagating the estimated state and its covariance
+ * only between consecutive measurements dates. The cost of processing one measurement
+ * is therefore independent of the arc length.
+ * </p>
+ * @since 9.2
+ * @author Luc Maisonobe
+ */
+package org.orekit.estimation.sequential;
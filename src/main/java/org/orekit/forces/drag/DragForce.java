@@ -36,6 +36,7 @@ import org.orekit.propagation.events.FieldEventDetector;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
 import org.orekit.utils.FieldPVCoordinates;
+import org.orekit.utils.Gradient;
 import org.orekit.utils.ParameterDriver;
 
 
@@ -113,6 +114,8 @@ public class DragForce extends AbstractForceModel {
         // faster for the drag's derivatives' computation
         if (isStateDerivative(s)) {
             rho = this.getDensityWrtStateUsingFiniteDifferences(date.toAbsoluteDate(), frame, position);
+        } else if (isGradientStateDerivative(s)) {
+            rho = this.getDensityGradientWrtStateUsingFiniteDifferences(date.toAbsoluteDate(), frame, position);
         } else {
             rho    = atmosphere.getDensity(date, position, frame);
         }
@@ -247,15 +250,11 @@ public class DragForce extends AbstractForceModel {
         final Vector3D   posBody   = posBodyDS.toVector3D();
 
         // Estimate density model by finite differences and composition
-        // Using a delta of 1m
-        final double delta  = 1.0;
-        final double x      = posBody.getX();
-        final double y      = posBody.getY();
-        final double z      = posBody.getZ();
-        final double rho0   = atmosphere.getDensity(date, posBody, atmFrame);
-        final double dRhodX = (atmosphere.getDensity(date, new Vector3D(x + delta, y,         z),         atmFrame) - rho0) / delta;
-        final double dRhodY = (atmosphere.getDensity(date, new Vector3D(x,         y + delta, z),         atmFrame) - rho0) / delta;
-        final double dRhodZ = (atmosphere.getDensity(date, new Vector3D(x,         y,         z + delta), atmFrame) - rho0) / delta;
+        final double[] d      = getDensityAndDerivativesInBodyFrame(date, posBody);
+        final double   rho0   = d[0];
+        final double   dRhodX = d[1];
+        final double   dRhodY = d[2];
+        final double   dRhodZ = d[3];
         final double[] dXdQ = posBodyDS.getX().getAllDerivatives();
         final double[] dYdQ = posBodyDS.getY().getAllDerivatives();
         final double[] dZdQ = posBodyDS.getZ().getAllDerivatives();
@@ -274,4 +273,116 @@ public class DragForce extends AbstractForceModel {
 
         return rho;
     }
+
+    /** Check if a field state corresponds to gradients with respect to state.
+     * @param state state to check
+     * @param <T> type of the field elements
+     * @return true if state corresponds to gradients with respect to state
+     * @since 9.2
+     */
+    private <T extends RealFieldElement<T>> boolean isGradientStateDerivative(final FieldSpacecraftState<T> state) {
+
+        if (!(state.getMass() instanceof Gradient)) {
+            return false;
+        }
+
+        // Number of parameters must be 6 (PV), 7 (PV + drag coefficient) or 8 (PV + drag coefficient + lift ratio)
+        final int p = ((Gradient) state.getMass()).getFreeParameters();
+        if (p != 6 && p != 7 && p != 8) {
+            return false;
+        }
+
+        // Check that the first 6 parameters are position and velocity
+        @SuppressWarnings("unchecked")
+        final FieldPVCoordinates<Gradient> pv = (FieldPVCoordinates<Gradient>) state.getPVCoordinates();
+        return isVariable(pv.getPosition().getX(), 0) &&
+               isVariable(pv.getPosition().getY(), 1) &&
+               isVariable(pv.getPosition().getZ(), 2) &&
+               isVariable(pv.getVelocity().getX(), 3) &&
+               isVariable(pv.getVelocity().getY(), 4) &&
+               isVariable(pv.getVelocity().getZ(), 5);
+
+    }
+
+    /** Check if a gradient represents a specified variable.
+     * @param g gradient to check
+     * @param index index of the variable
+     * @return true if the gradient represents a specified variable
+     * @since 9.2
+     */
+    private boolean isVariable(final Gradient g, final int index) {
+        boolean check = true;
+        for (int i = 0; i < g.getFreeParameters(); ++i) {
+            check &= g.getPartialDerivative(i) == ((index == i) ? 1.0 : 0.0);
+        }
+        return check;
+    }
+
+    /** Compute density and its gradient.
+     * <p>
+     * This method is similar to {@link #getDensityWrtStateUsingFiniteDifferences(AbsoluteDate,
+     * Frame, FieldVector3D)}, for the case of {@link Gradient} elements.
+     * </p>
+     * @param date current date
+     * @param frame inertial reference frame for state (both orbit and attitude)
+     * @param position position of spacecraft in inertial frame
+     * @param <T> type of the elements
+     * @return the density and its gradient
+     * @exception OrekitException if derivatives cannot be computed
+     * @since 9.2
+     */
+    private <T extends RealFieldElement<T>> T getDensityGradientWrtStateUsingFiniteDifferences(final AbsoluteDate date,
+                                                                                               final Frame frame,
+                                                                                               final FieldVector3D<T> position)
+        throws OrekitException {
+
+        // Get atmosphere properties in atmosphere own frame
+        final Frame      atmFrame = atmosphere.getFrame();
+        final Transform  toBody   = frame.getTransformTo(atmFrame, date);
+        final Vector3D   posBody  = toBody.transformPosition(position.toVector3D());
+
+        // Estimate density model by finite differences
+        final double[] d = getDensityAndDerivativesInBodyFrame(date, posBody);
+
+        // Density with gradient:
+        // - The value and only the 3 first partial derivatives (those with respect to spacecraft position) are computed
+        // - Others are set to 0.
+        // As the transform from inertial to body frame is a rigid motion, position
+        // partial derivatives are obtained by rotating the body frame density gradient
+        final Vector3D dRhodP = toBody.getRotation().applyInverseTo(new Vector3D(d[1], d[2], d[3]));
+        final double[] grad   = new double[((Gradient) position.getX()).getFreeParameters()];
+        grad[0] = dRhodP.getX();
+        grad[1] = dRhodP.getY();
+        grad[2] = dRhodP.getZ();
+        @SuppressWarnings("unchecked")
+        final T rho = (T) new Gradient(d[0], grad);
+
+        return rho;
+
+    }
+
+    /** Compute density and its derivatives in atmosphere frame, using finite differences.
+     * @param date current date
+     * @param posBody position of spacecraft in atmosphere frame
+     * @return density and its derivatives with respect to position in atmosphere frame
+     * @exception OrekitException if density cannot be computed
+     * @since 9.2
+     */
+    private double[] getDensityAndDerivativesInBodyFrame(final AbsoluteDate date, final Vector3D posBody)
+        throws OrekitException {
+        // Using a delta of 1m
+        final Frame  atmFrame = atmosphere.getFrame();
+        final double delta    = 1.0;
+        final double x        = posBody.getX();
+        final double y        = posBody.getY();
+        final double z        = posBody.getZ();
+        final double rho0     = atmosphere.getDensity(date, posBody, atmFrame);
+        return new double[] {
+            rho0,
+            (atmosphere.getDensity(date, new Vector3D(x + delta, y,         z),         atmFrame) - rho0) / delta,
+            (atmosphere.getDensity(date, new Vector3D(x,         y + delta, z),         atmFrame) - rho0) / delta,
+            (atmosphere.getDensity(date, new Vector3D(x,         y,         z + delta), atmFrame) - rho0) / delta
+        };
+    }
+
 }
@@ -45,6 +45,7 @@ import org.orekit.propagation.events.FieldEventDetector;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
 import org.orekit.utils.FieldPVCoordinates;
+import org.orekit.utils.Gradient;
 import org.orekit.utils.ParameterDriver;
 
 /** This class represents the gravitational field of a celestial body.
@@ -1072,6 +1073,17 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
             return a;
         }
 
+        // check for faster computation dedicated to gradients with respect to state
+        if (isGradientStateDerivative(s)) {
+            @SuppressWarnings("unchecked")
+            final FieldVector3D<Gradient> p = (FieldVector3D<Gradient>) s.getPVCoordinates().getPosition();
+            @SuppressWarnings("unchecked")
+            final FieldVector3D<T> a = (FieldVector3D<T>) accelerationWrtState(s.getDate().toAbsoluteDate(),
+                                                                               s.getFrame(), p,
+                                                                               (Gradient) mu);
+            return a;
+        }
+
         // get the position in body frame
         final FieldAbsoluteDate<T> date          = s.getDate();
         final Transform            fromBodyFrame = bodyFrame.getTransformTo(s.getFrame(), date.toAbsoluteDate());
@@ -1133,6 +1145,37 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
         return check;
     }
 
+    /** Check if a field state corresponds to gradients with respect to state.
+     * @param state state to check
+     * @param <T> type of the filed elements
+     * @return true if state corresponds to gradients with respect to state
+     * @since 9.2
+     */
+    private <T extends RealFieldElement<T>> boolean isGradientStateDerivative(final FieldSpacecraftState<T> state) {
+        if (!(state.getMass() instanceof Gradient) || ((Gradient) state.getMass()).getFreeParameters() < 3) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        final FieldPVCoordinates<Gradient> pv = (FieldPVCoordinates<Gradient>) state.getPVCoordinates();
+        return isVariable(pv.getPosition().getX(), 0) &&
+               isVariable(pv.getPosition().getY(), 1) &&
+               isVariable(pv.getPosition().getZ(), 2);
+    }
+
+    /** Check if a gradient represents a specified variable.
+     * @param g gradient to check
+     * @param index index of the variable
+     * @return true if the gradient represents a specified variable
+     * @since 9.2
+     */
+    private boolean isVariable(final Gradient g, final int index) {
+        boolean check = true;
+        for (int i = 0; i < g.getFreeParameters(); ++i) {
+            check &= g.getPartialDerivative(i) == ((index == i) ? 1.0 : 0.0);
+        }
+        return check;
+    }
+
     /** Compute acceleration derivatives with respect to state parameters.
      * <p>
      * From a theoretical point of view, this method computes the same values
@@ -1166,21 +1209,10 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
                                                                     final DerivativeStructure mu)
         throws OrekitException {
 
-        // get the position in body frame
-        final Transform fromBodyFrame = bodyFrame.getTransformTo(frame, date);
-        final Transform toBodyFrame   = fromBodyFrame.getInverse();
-        final Vector3D positionBody   = toBodyFrame.transformPosition(position.toVector3D());
-
-        // compute gradient and Hessian
-        final GradientHessian gh   = gradientHessian(date, positionBody, mu.getReal());
-
-        // gradient of the non-central part of the gravity field
-        final double[] gInertial = fromBodyFrame.transformVector(new Vector3D(gh.getGradient())).toArray();
-
-        // Hessian of the non-central part of the gravity field
-        final RealMatrix hBody     = new Array2DRowRealMatrix(gh.getHessian(), false);
-        final RealMatrix rot       = new Array2DRowRealMatrix(toBodyFrame.getRotation().getMatrix());
-        final RealMatrix hInertial = rot.transpose().multiply(hBody).multiply(rot);
+        // gradient and Hessian of the non-central part of the gravity field
+        final GradientHessian gh        = inertialGradientHessian(date, frame, position.toVector3D(), mu.getReal());
+        final double[]        gInertial = gh.getGradient();
+        final RealMatrix      hInertial = new Array2DRowRealMatrix(gh.getHessian(), false);
 
         // distribute all partial derivatives in a compact acceleration vector
         final double[] derivatives = new double[1 + position.getX().getFreeParameters()];
@@ -1208,6 +1240,86 @@ public class HolmesFeatherstoneAttractionModel extends AbstractForceModel implem
 
     }
 
+    /** Compute acceleration gradients with respect to state parameters.
+     * <p>
+     * This method is similar to {@link #accelerationWrtState(AbsoluteDate, Frame,
+     * FieldVector3D, DerivativeStructure)}, for the case of {@link Gradient} elements.
+     * </p>
+     * @param date current date
+     * @param frame inertial reference frame for state (both orbit and attitude)
+     * @param position position of spacecraft in inertial frame
+     * @param mu central attraction coefficient to use
+     * @return acceleration with all partial derivatives specified by the input parameters
+     * own partial derivatives
+     * @exception OrekitException if derivatives cannot be computed
+     * @since 9.2
+     */
+    private FieldVector3D<Gradient> accelerationWrtState(final AbsoluteDate date, final Frame frame,
+                                                         final FieldVector3D<Gradient> position,
+                                                         final Gradient mu)
+        throws OrekitException {
+
+        // gradient and Hessian of the non-central part of the gravity field
+        final GradientHessian gh        = inertialGradientHessian(date, frame, position.toVector3D(), mu.getReal());
+        final double[]        gInertial = gh.getGradient();
+        final double[][]      hInertial = gh.getHessian();
+
+        // distribute all partial derivatives in compact acceleration components
+        final int freeParameters = position.getX().getFreeParameters();
+        final boolean muIsVariable = freeParameters > 3 && isVariable(mu, 3);
+        final Gradient[] accDer = new Gradient[3];
+        for (int i = 0; i < 3; ++i) {
+
+            // first three partial derivatives are one row of the Jacobian of acceleration (i.e. Hessian of field)
+            final double[] derivatives = new double[freeParameters];
+            System.arraycopy(hInertial[i], 0, derivatives, 0, 3);
+
+            // next partial derivative is derivative with respect to parameter mu
+            if (muIsVariable) {
+                derivatives[3] = gInertial[i] / mu.getReal();
+            }
+
+            accDer[i] = new Gradient(gInertial[i], derivatives);
+
+        }
+
+        return new FieldVector3D<>(accDer);
+
+    }
+
+    /** Compute gradient and Hessian of the non-central part of the gravity field in inertial frame.
+     * @param date current date
+     * @param frame inertial reference frame for state (both orbit and attitude)
+     * @param position position of spacecraft in inertial frame
+     * @param mu central attraction coefficient to use
+     * @return gradient and Hessian in inertial frame
+     * @exception OrekitException if frames transforms cannot be computed
+     * @since 9.2
+     */
+    private GradientHessian inertialGradientHessian(final AbsoluteDate date, final Frame frame,
+                                                    final Vector3D position, final double mu)
+        throws OrekitException {
+
+        // get the position in body frame
+        final Transform fromBodyFrame = bodyFrame.getTransformTo(frame, date);
+        final Transform toBodyFrame   = fromBodyFrame.getInverse();
+        final Vector3D positionBody   = toBodyFrame.transformPosition(position);
+
+        // compute gradient and Hessian
+        final GradientHessian gh   = gradientHessian(date, positionBody, mu);
+
+        // gradient of the non-central part of the gravity field
+        final double[] gInertial = fromBodyFrame.transformVector(new Vector3D(gh.getGradient())).toArray();
+
+        // Hessian of the non-central part of the gravity field
+        final RealMatrix hBody     = new Array2DRowRealMatrix(gh.getHessian(), false);
+        final RealMatrix rot       = new Array2DRowRealMatrix(toBodyFrame.getRotation().getMatrix());
+        final RealMatrix hInertial = rot.transpose().multiply(hBody).multiply(rot);
+
+        return new GradientHessian(gInertial, hInertial.getData());
+
+    }
+
     /** {@inheritDoc} */
     public ParameterDriver[] getParametersDrivers() {
         return new ParameterDriver[] {
@@ -82,6 +82,12 @@ class CIRFProvider implements EOPBasedTransformProvider {
         return new CIRFProvider(eopHistory.getNonInterpolatingEOPHistory());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
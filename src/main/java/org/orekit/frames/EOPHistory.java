@@ -18,31 +18,32 @@ package org.orekit.frames;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.hipparchus.RealFieldElement;
 import org.hipparchus.analysis.interpolation.FieldHermiteInterpolator;
-import org.hipparchus.analysis.interpolation.HermiteInterpolator;
+import org.hipparchus.util.FastMath;
 import org.hipparchus.util.MathArrays;
 import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalStateException;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.errors.TimeStampedCacheException;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.time.ChronologicalComparator;
 import org.orekit.time.FieldAbsoluteDate;
-import org.orekit.time.TimeStamped;
 import org.orekit.time.TimeVectorFunction;
 import org.orekit.utils.Constants;
-import org.orekit.utils.GenericTimeStampedCache;
 import org.orekit.utils.IERSConventions;
-import org.orekit.utils.ImmutableTimeStampedCache;
-import org.orekit.utils.OrekitConfiguration;
-import org.orekit.utils.TimeStampedCache;
-import org.orekit.utils.TimeStampedGenerator;
 
 /** This class loads any kind of Earth Orientation Parameter data throughout a large time range.
  * @author Pascal Parraud
@@ -62,8 +63,47 @@ public class EOPHistory implements Serializable {
      */
     private final boolean hasData;
 
-    /** EOP history entries. */
-    private final transient ImmutableTimeStampedCache<EOPEntry> cache;
+    /** Date of the first entry. */
+    private final transient AbsoluteDate startDate;
+
+    /** Date of the last entry. */
+    private final transient AbsoluteDate endDate;
+
+    /** Offsets of entries dates with respect to first entry date (s). */
+    private final transient double[] offsets;
+
+    /** Indicator for entries at consecutive days, allowing direct index computation. */
+    private final transient boolean daily;
+
+    /** Modified Julian day column. */
+    private final transient int[] mjdColumn;
+
+    /** EOP history entries, built lazily from the columns (null until first needed). */
+    private transient volatile List<EOPEntry> entries;
+
+    /** UT1-UTC column. */
+    private final transient double[] dtColumn;
+
+    /** Length of day column. */
+    private final transient double[] lodColumn;
+
+    /** X component of pole motion column. */
+    private final transient double[] xColumn;
+
+    /** Y component of pole motion column. */
+    private final transient double[] yColumn;
+
+    /** Correction for nutation in longitude column. */
+    private final transient double[] ddPsiColumn;
+
+    /** Correction for nutation in obliquity column. */
+    private final transient double[] ddEpsColumn;
+
+    /** Correction for nutation in CIP X coordinate column. */
+    private final transient double[] dxColumn;
+
+    /** Correction for nutation in CIP Y coordinate column. */
+    private final transient double[] dyColumn;
 
     /** IERS conventions to which EOP refers. */
     private final IERSConventions conventions;
@@ -96,15 +136,42 @@ public class EOPHistory implements Serializable {
         throws OrekitException {
         this.conventions      = conventions;
         this.tidalCorrection  = tidalCorrection;
-        if (data.size() >= INTERPOLATION_POINTS) {
-            // enough data to interpolate
-            cache = new ImmutableTimeStampedCache<EOPEntry>(INTERPOLATION_POINTS, data);
-            hasData = true;
-        } else {
-            // not enough data to interpolate -> always use null correction
-            cache = ImmutableTimeStampedCache.emptyCache();
-            hasData = false;
+
+        final List<EOPEntry> sorted = new ArrayList<EOPEntry>(data);
+        Collections.sort(sorted, new ChronologicalComparator());
+        this.hasData = sorted.size() >= INTERPOLATION_POINTS;
+
+        // store the data as primitive columns only, entries are built only when needed
+        final int n      = sorted.size();
+        this.startDate   = n == 0 ? null : sorted.get(0).getDate();
+        this.endDate     = n == 0 ? null : sorted.get(n - 1).getDate();
+        this.offsets     = new double[n];
+        this.mjdColumn   = new int[n];
+        this.dtColumn    = new double[n];
+        this.lodColumn   = new double[n];
+        this.xColumn     = new double[n];
+        this.yColumn     = new double[n];
+        this.ddPsiColumn = new double[n];
+        this.ddEpsColumn = new double[n];
+        this.dxColumn    = new double[n];
+        this.dyColumn    = new double[n];
+        boolean consecutive = true;
+        for (int i = 0; i < n; ++i) {
+            final EOPEntry entry = sorted.get(i);
+            offsets[i]     = entry.getDate().durationFrom(startDate);
+            mjdColumn[i]   = entry.getMjd();
+            dtColumn[i]    = entry.getUT1MinusUTC();
+            lodColumn[i]   = entry.getLOD();
+            xColumn[i]     = entry.getX();
+            yColumn[i]     = entry.getY();
+            ddPsiColumn[i] = entry.getDdPsi();
+            ddEpsColumn[i] = entry.getDdEps();
+            dxColumn[i]    = entry.getDx();
+            dyColumn[i]    = entry.getDy();
+            consecutive    = consecutive && entry.getMjd() == sorted.get(0).getMjd() + i;
         }
+        this.daily = consecutive;
+
     }
 
     /** Get non-interpolating version of the instance.
@@ -134,14 +201,20 @@ public class EOPHistory implements Serializable {
      * @return the start date of the available data
      */
     public AbsoluteDate getStartDate() {
-        return this.cache.getEarliest().getDate();
+        if (!hasData) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+        return startDate;
     }
 
     /** Get the date of the last available Earth Orientation Parameters.
      * @return the end date of the available data
      */
     public AbsoluteDate getEndDate() {
-        return this.cache.getLatest().getDate();
+        if (!hasData) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+        return endDate;
     }
 
     /** Get the UT1-UTC value.
@@ -157,19 +230,30 @@ public class EOPHistory implements Serializable {
             return (tidalCorrection == null) ? 0.0 : tidalCorrection.value(date)[2];
         }
 
-        // we have EOP data -> interpolate offset
-        try {
-            final DUT1Interpolator interpolator = new DUT1Interpolator(date);
-            getNeighbors(date).forEach(interpolator);
-            double interpolated = interpolator.getInterpolated();
-            if (tidalCorrection != null) {
-                interpolated += tidalCorrection.value(date)[2];
+        // we have EOP data -> interpolate offset, crossing leaps safely
+        final int      start      = sampleStart(date);
+        final double[] x          = abscissae(start, date);
+        final double[] dut        = new double[INTERPOLATION_POINTS];
+        final double   firstDUT   = dtColumn[start];
+        boolean        beforeLeap = true;
+        for (int i = 0; i < INTERPOLATION_POINTS; ++i) {
+            dut[i] = dtColumn[start + i];
+            if (dut[i] - firstDUT > 0.9) {
+                // there was a leap second between the entries
+                dut[i] -= 1.0;
+                if (x[i] <= 0) {
+                    beforeLeap = false;
+                }
             }
-            return interpolated;
-        } catch (TimeStampedCacheException tce) {
-            //this should not happen because of date check above
-            throw new OrekitInternalError(tce);
         }
+        double interpolated = newton(x, dut);
+        if (!beforeLeap) {
+            interpolated += 1.0;
+        }
+        if (tidalCorrection != null) {
+            interpolated += tidalCorrection.value(date)[2];
+        }
+        return interpolated;
 
     }
 
@@ -205,63 +289,6 @@ public class EOPHistory implements Serializable {
 
     }
 
-    /** Local class for DUT1 interpolation, crossing leaps safely. */
-    private static class DUT1Interpolator implements Consumer<EOPEntry> {
-
-        /** DUT at first entry. */
-        private double firstDUT;
-
-        /** Indicator for dates just before a leap occurring during the interpolation sample. */
-        private boolean beforeLeap;
-
-        /** Interpolator to use. */
-        private final HermiteInterpolator interpolator;
-
-        /** Interpolation date. */
-        private AbsoluteDate date;
-
-        /** Simple constructor.
-         * @param date interpolation date
-         */
-        DUT1Interpolator(final AbsoluteDate date) {
-            this.firstDUT     = Double.NaN;
-            this.beforeLeap   = true;
-            this.interpolator = new HermiteInterpolator();
-            this.date         = date;
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public void accept(final EOPEntry neighbor) {
-            if (Double.isNaN(firstDUT)) {
-                firstDUT = neighbor.getUT1MinusUTC();
-            }
-            final double dut;
-            if (neighbor.getUT1MinusUTC() - firstDUT > 0.9) {
-                // there was a leap second between the entries
-                dut = neighbor.getUT1MinusUTC() - 1.0;
-                if (neighbor.getDate().compareTo(date) <= 0) {
-                    beforeLeap = false;
-                }
-            } else {
-                dut = neighbor.getUT1MinusUTC();
-            }
-            interpolator.addSamplePoint(neighbor.getDate().durationFrom(date),
-                                        new double[] {
-                                            dut
-                                        });
-        }
-
-        /** Get the interpolated value.
-         * @return interpolated value
-         */
-        public double getInterpolated() {
-            final double interpolated = interpolator.value(0)[0];
-            return beforeLeap ? interpolated : interpolated + 1.0;
-        }
-
-    }
-
     /** Local class for DUT1 interpolation, crossing leaps safely. */
     private static class FieldDUT1Interpolator<T extends RealFieldElement<T>> implements Consumer<EOPEntry> {
 
@@ -335,7 +362,17 @@ public class EOPHistory implements Serializable {
      * @exception TimeStampedCacheException if EOP data cannot be retrieved
      */
     protected Stream<EOPEntry> getNeighbors(final AbsoluteDate central) throws TimeStampedCacheException {
-        return cache.getNeighbors(central);
+        if (!hasData) {
+            throw new TimeStampedCacheException(OrekitMessages.NO_CACHED_ENTRIES);
+        } else if (central.compareTo(getStartDate()) < 0) {
+            throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
+                                                getStartDate());
+        } else if (central.compareTo(getEndDate()) > 0) {
+            throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER,
+                                                getEndDate());
+        }
+        final int start = sampleStart(central);
+        return getEntries().subList(start, start + INTERPOLATION_POINTS).stream();
     }
 
     /** Get the LoD (Length of Day) value.
@@ -352,7 +389,7 @@ public class EOPHistory implements Serializable {
         }
 
         // we have EOP data for date -> interpolate correction
-        double interpolated = interpolate(date, entry -> entry.getLOD());
+        double interpolated = interpolate(date, lodColumn);
         if (tidalCorrection != null) {
             interpolated += tidalCorrection.value(date)[3];
         }
@@ -407,7 +444,7 @@ public class EOPHistory implements Serializable {
         }
 
         // we have EOP data for date -> interpolate correction
-        final double[] interpolated = interpolate(date, entry -> entry.getX(), entry -> entry.getY());
+        final double[] interpolated = interpolate(date, xColumn, yColumn);
         if (tidalCorrection != null) {
             final double[] correction = tidalCorrection.value(date);
             interpolated[0] += correction[0];
@@ -465,7 +502,7 @@ public class EOPHistory implements Serializable {
         }
 
         // we have EOP data for date -> interpolate correction
-        return interpolate(date, entry -> entry.getDdPsi(), entry -> entry.getDdEps());
+        return interpolate(date, ddPsiColumn, ddEpsColumn);
 
     }
 
@@ -506,7 +543,7 @@ public class EOPHistory implements Serializable {
         }
 
         // we have EOP data for date -> interpolate correction
-        return interpolate(date, entry -> entry.getDx(), entry -> entry.getDy());
+        return interpolate(date, dxColumn, dyColumn);
 
     }
 
@@ -537,18 +574,14 @@ public class EOPHistory implements Serializable {
      * @exception OrekitException if there are holes in the data sequence
      */
     public void checkEOPContinuity(final double maxGap) throws OrekitException {
-        TimeStamped preceding = null;
-        for (final TimeStamped current : this.cache.getAll()) {
+        for (int i = 1; i < offsets.length; ++i) {
 
             // compare the dates of preceding and current entries
-            if ((preceding != null) && ((current.getDate().durationFrom(preceding.getDate())) > maxGap)) {
+            if (offsets[i] - offsets[i - 1] > maxGap) {
                 throw new OrekitException(OrekitMessages.MISSING_EARTH_ORIENTATION_PARAMETERS_BETWEEN_DATES,
-                                          preceding.getDate(), current.getDate());
+                                          buildEntry(i - 1).getDate(), buildEntry(i).getDate());
             }
 
-            // prepare next iteration
-            preceding = current;
-
         }
     }
 
@@ -557,7 +590,7 @@ public class EOPHistory implements Serializable {
      * {@link #getStartDate()} and {@link #getEndDate()}.
      *
      * @param date the requested date
-     * @return true if the {@link #cache} has data for the requested date, false
+     * @return true if the entries cover the requested date, false
      *         otherwise.
      */
     protected boolean hasDataFor(final AbsoluteDate date) {
@@ -570,10 +603,123 @@ public class EOPHistory implements Serializable {
     }
 
     /** Get a non-modifiable view of the EOP entries.
+     * <p>
+     * The entries are built from the primitive columns on first call only,
+     * so histories used only for double-based interpolation do not hold them.
+     * </p>
      * @return non-modifiable view of the EOP entries
      */
     List<EOPEntry> getEntries() {
-        return cache.getAll();
+        List<EOPEntry> list = entries;
+        if (list == null) {
+            synchronized (this) {
+                list = entries;
+                if (list == null) {
+                    final List<EOPEntry> built = new ArrayList<>(offsets.length);
+                    for (int i = 0; i < offsets.length; ++i) {
+                        built.add(buildEntry(i));
+                    }
+                    list    = Collections.unmodifiableList(built);
+                    entries = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    /** Rebuild one EOP entry from the primitive columns.
+     * @param i index of the entry
+     * @return rebuilt entry
+     */
+    private EOPEntry buildEntry(final int i) {
+        try {
+            return new EOPEntry(mjdColumn[i], dtColumn[i], lodColumn[i], xColumn[i], yColumn[i],
+                                ddPsiColumn[i], ddEpsColumn[i], dxColumn[i], dyColumn[i]);
+        } catch (OrekitException oe) {
+            // this should never happen as UTC was already loaded when the entries were first built
+            throw new OrekitInternalError(oe);
+        }
+    }
+
+    /** Get the index of the first entry of the interpolation sample.
+     * <p>
+     * This method should be called <em>only</em> when {@link #hasDataFor(AbsoluteDate)} returns true.
+     * </p>
+     * <p>
+     * When entries are at consecutive days (which is the normal case for EOP data),
+     * the index is computed directly from the date, otherwise a binary search is used.
+     * The sample is centered on the date as much as possible, and unbalanced
+     * near the ends of the data range.
+     * </p>
+     * @param date interpolation date
+     * @return index of the first entry of the interpolation sample
+     */
+    private int sampleStart(final AbsoluteDate date) {
+
+        // find index of last entry at or before date
+        final double dt = date.durationFrom(startDate);
+        int i;
+        if (daily) {
+            // direct computation, the initial guess may be one day late
+            // near midnight due to leap seconds or rounding
+            i = FastMath.min((int) FastMath.floor(dt / Constants.JULIAN_DAY), offsets.length - 1);
+            while (i > 0 && offsets[i] > dt) {
+                --i;
+            }
+            while (i < offsets.length - 1 && offsets[i + 1] <= dt) {
+                ++i;
+            }
+        } else {
+            i = Arrays.binarySearch(offsets, dt);
+            if (i < 0) {
+                i = -i - 2;
+            }
+        }
+
+        // force unbalanced range if necessary
+        final int end = FastMath.min(offsets.length, FastMath.max(0, i - (INTERPOLATION_POINTS - 1) / 2) +
+                                                     INTERPOLATION_POINTS);
+        return end - INTERPOLATION_POINTS;
+
+    }
+
+    /** Compute the abscissae of the interpolation sample.
+     * @param start index of the first entry of the interpolation sample
+     * @param date interpolation date
+     * @return abscissae of the sample entries, with respect to interpolation date
+     */
+    private double[] abscissae(final int start, final AbsoluteDate date) {
+        final double   dt = date.durationFrom(startDate);
+        final double[] x  = new double[INTERPOLATION_POINTS];
+        for (int i = 0; i < INTERPOLATION_POINTS; ++i) {
+            x[i] = offsets[start + i] - dt;
+        }
+        return x;
+    }
+
+    /** Evaluate at abscissa 0 the polynomial interpolating a sample.
+     * <p>
+     * The Newton divided differences are computed and evaluated in the
+     * same order as {@link org.hipparchus.analysis.interpolation.HermiteInterpolator
+     * HermiteInterpolator}, so primitive and field computations share the same
+     * rounding errors.
+     * </p>
+     * @param x abscissae of the sample
+     * @param y values of the sample (overwritten during computation)
+     * @return interpolated value at abscissa 0
+     */
+    private static double newton(final double[] x, final double[] y) {
+        double value       = 0.0;
+        double coefficient = 1.0;
+        for (int n = 0; n < x.length; ++n) {
+            // update the bottom diagonal of the divided differences table
+            for (int m = n - 1; m >= 0; --m) {
+                y[m] = (1.0 / (x[n] - x[m])) * (y[m + 1] - y[m]);
+            }
+            value       += y[0] * coefficient;
+            coefficient *= -x[n];
+        }
+        return value;
     }
 
     /** Interpolate a single EOP component.
@@ -581,22 +727,12 @@ public class EOPHistory implements Serializable {
      * This method should be called <em>only</em> when {@link #hasDataFor(AbsoluteDate)} returns true.
      * </p>
      * @param date interpolation date
-     * @param selector selector for EOP entry component
+     * @param column EOP entries component
      * @return interpolated value
      */
-    private double interpolate(final AbsoluteDate date, final Function<EOPEntry, Double> selector) {
-        try {
-            final HermiteInterpolator interpolator = new HermiteInterpolator();
-            getNeighbors(date).forEach(entry ->
-                                       interpolator.addSamplePoint(entry.getDate().durationFrom(date),
-                                                                   new double[] {
-                                                                       selector.apply(entry)
-                                                                   }));
-            return interpolator.value(0)[0];
-        } catch (TimeStampedCacheException tce) {
-            // this should not happen because of date check performed by caller
-            throw new OrekitInternalError(tce);
-        }
+    private double interpolate(final AbsoluteDate date, final double[] column) {
+        final int start = sampleStart(date);
+        return newton(abscissae(start, date), Arrays.copyOfRange(column, start, start + INTERPOLATION_POINTS));
     }
 
     /** Interpolate a single EOP component.
@@ -635,26 +771,17 @@ public class EOPHistory implements Serializable {
      * This method should be called <em>only</em> when {@link #hasDataFor(AbsoluteDate)} returns true.
      * </p>
      * @param date interpolation date
-     * @param selector1 selector for first EOP entry component
-     * @param selector2 selector for second EOP entry component
+     * @param column1 first EOP entries component
+     * @param column2 second EOP entries component
      * @return interpolated value
      */
-    private double[] interpolate(final AbsoluteDate date,
-                                 final Function<EOPEntry, Double> selector1,
-                                 final Function<EOPEntry, Double> selector2) {
-        try {
-            final HermiteInterpolator interpolator = new HermiteInterpolator();
-            getNeighbors(date).forEach(entry ->
-                                       interpolator.addSamplePoint(entry.getDate().durationFrom(date),
-                                                                   new double[] {
-                                                                       selector1.apply(entry),
-                                                                       selector2.apply(entry)
-                                                                   }));
-            return interpolator.value(0);
-        } catch (TimeStampedCacheException tce) {
-            // this should not happen because of date check performed by caller
-            throw new OrekitInternalError(tce);
-        }
+    private double[] interpolate(final AbsoluteDate date, final double[] column1, final double[] column2) {
+        final int      start = sampleStart(date);
+        final double[] x     = abscissae(start, date);
+        return new double[] {
+            newton(x, Arrays.copyOfRange(column1, start, start + INTERPOLATION_POINTS)),
+            newton(x, Arrays.copyOfRange(column2, start, start + INTERPOLATION_POINTS))
+        };
     }
 
     /** Interpolate two EOP components.
@@ -743,143 +870,205 @@ public class EOPHistory implements Serializable {
 
     }
 
-    /** Internal class for caching tidal correction. */
-    private static class TidalCorrectionEntry implements TimeStamped {
+    /** Local cache for tidal corrections, safe for concurrent access.
+     * <p>
+     * The tidal correction is sampled on a regular time grid aligned on
+     * the first date at which a correction is requested, so interpolation
+     * is exact there, as it was with the former time-stamped cache. The grid is split into independent
+     * blocks covering one day each, which are generated lazily the first
+     * time they are needed and are never modified afterwards. Retrieving
+     * an already generated block does not involve any lock, so threads
+     * propagating at nearby but different dates do not serialize. If two
+     * threads happen to need a missing block at the same time, both compute
+     * it and one of the identical results is kept.
+     * </p>
+     */
+    private static class CachedCorrection implements TimeVectorFunction {
 
-        /** Entry date. */
-        private final AbsoluteDate date;
+        /** Step between sample points (s). */
+        private static final double STEP = 60 * 60;
 
-        /** Correction. */
-        private final double[] correction;
+        /** Number of sample points in each block. */
+        private static final int BLOCK_SIZE = 24;
 
-        /** Simple constructor.
-         * @param date entry date
-         * @param correction correction on the EOP parameters (xp, yp, ut1, lod)
-         */
-        TidalCorrectionEntry(final AbsoluteDate date, final double[] correction) {
-            this.date       = date;
-            this.correction = correction;
-        }
+        /** Number of points to use in interpolation. */
+        private static final int POINTS = 8;
 
-        /** {@inheritDoc} */
-        @Override
-        public AbsoluteDate getDate() {
-            return date;
-        }
+        /** Maximum number of blocks kept in memory (about 3 years). */
+        private static final int MAX_BLOCKS = 1200;
 
-    }
+        /** Number of corrected EOP components (xp, yp, ut1, lod). */
+        private static final int COMPONENTS = 4;
 
-    /** Local generator for thread-safe cache. */
-    private static class CachedCorrection
-        implements TimeVectorFunction, TimeStampedGenerator<TidalCorrectionEntry> {
+        /** Denominators of Lagrange weights for regularly spaced points. */
+        private static final double[] DENOMINATORS = new double[POINTS];
+
+        static {
+            for (int j = 0; j < POINTS; ++j) {
+                double d = 1.0;
+                for (int m = 0; m < POINTS; ++m) {
+                    if (m != j) {
+                        d *= j - m;
+                    }
+                }
+                DENOMINATORS[j] = d;
+            }
+        }
 
-        /** Correction to apply to EOP (may be null). */
+        /** Correction to apply to EOP. */
         private final TimeVectorFunction tidalCorrection;
 
-        /** Step between generated entries. */
-        private final double step;
+        /** Reference date of the sample points grid (null before first use). */
+        private final AtomicReference<AbsoluteDate> reference;
 
-        /** Tidal corrections entries cache. */
-        private final TimeStampedCache<TidalCorrectionEntry> cache;
+        /** Generated blocks, each one containing {@link #BLOCK_SIZE} packed corrections. */
+        private final ConcurrentMap<Long, double[]> blocks;
 
         /** Simple constructor.
          * @param tidalCorrection function computing the tidal correction
          */
         CachedCorrection(final TimeVectorFunction tidalCorrection) {
-            this.step            = 60 * 60;
             this.tidalCorrection = tidalCorrection;
-            this.cache           =
-                new GenericTimeStampedCache<TidalCorrectionEntry>(8,
-                                                                  OrekitConfiguration.getCacheSlotsNumber(),
-                                                                  Constants.JULIAN_DAY * 30,
-                                                                  Constants.JULIAN_DAY,
-                                                                  this);
+            this.reference       = new AtomicReference<AbsoluteDate>();
+            this.blocks          = new ConcurrentHashMap<Long, double[]>();
         }
 
         /** {@inheritDoc} */
         @Override
         public double[] value(final AbsoluteDate date) {
-            try {
-                // set up an interpolator
-                final HermiteInterpolator interpolator = new HermiteInterpolator();
-                cache.getNeighbors(date).forEach(entry -> interpolator.addSamplePoint(entry.date.durationFrom(date), entry.correction));
-
-                // interpolate to specified date
-                return interpolator.value(0.0);
-            } catch (TimeStampedCacheException tsce) {
-                // this should never happen
-                throw new OrekitInternalError(tsce);
+
+            // locate the date with respect to the sample points grid
+            final double u     = date.durationFrom(getReference(date)) / STEP;
+            final long   first = (long) FastMath.floor(u) - (POINTS / 2 - 1);
+            final double x     = u - first;
+
+            // the sample points span at most two consecutive blocks
+            final long     firstIndex = FastMath.floorDiv(first, BLOCK_SIZE);
+            final double[] block0     = getBlock(firstIndex);
+            final double[] block1     = (FastMath.floorDiv(first + POINTS - 1, BLOCK_SIZE) == firstIndex) ?
+                                        block0 : getBlock(firstIndex + 1);
+            final int      start      = FastMath.toIntExact(FastMath.floorMod(first, BLOCK_SIZE));
+
+            // interpolate to specified date
+            final double[] interpolated = new double[COMPONENTS];
+            for (int j = 0; j < POINTS; ++j) {
+                final double   w      = weight(x, j);
+                final double[] block  = (start + j < BLOCK_SIZE) ? block0 : block1;
+                final int      offset = COMPONENTS * ((start + j) % BLOCK_SIZE);
+                for (int i = 0; i < COMPONENTS; ++i) {
+                    interpolated[i] += w * block[offset + i];
+                }
             }
+            return interpolated;
+
         }
 
         /** {@inheritDoc} */
         @Override
         public <T extends RealFieldElement<T>> T[] value(final FieldAbsoluteDate<T> date) {
-            try {
 
-                final AbsoluteDate aDate = date.toAbsoluteDate();
-
-                final FieldHermiteInterpolator<T> interpolator = new FieldHermiteInterpolator<>();
-                final T[] y = MathArrays.buildArray(date.getField(), 4);
-                final T zero = date.getField().getZero();
-                final FieldAbsoluteDate<T> central = new FieldAbsoluteDate<>(aDate, zero); // here, we attempt to get a constant date,
-                                                                                           // for example removing derivatives
-                                                                                           // if T was DerivativeStructure
-                cache.getNeighbors(aDate).forEach(entry -> {
-                    for (int i = 0; i < y.length; ++i) {
-                        y[i] = zero.add(entry.correction[i]);
-                    }
-                    interpolator.addSamplePoint(central.durationFrom(entry.getDate()).negate(), y);
-                });
+            // locate the date with respect to the sample points grid
+            final T      u     = date.durationFrom(getReference(date.toAbsoluteDate())).divide(STEP);
+            final long   first = (long) FastMath.floor(u.getReal()) - (POINTS / 2 - 1);
+            final T      x     = u.subtract(first);
+
+            // the sample points span at most two consecutive blocks
+            final long     firstIndex = FastMath.floorDiv(first, BLOCK_SIZE);
+            final double[] block0     = getBlock(firstIndex);
+            final double[] block1     = (FastMath.floorDiv(first + POINTS - 1, BLOCK_SIZE) == firstIndex) ?
+                                        block0 : getBlock(firstIndex + 1);
+            final int      start      = FastMath.toIntExact(FastMath.floorMod(first, BLOCK_SIZE));
+
+            // interpolate to specified date
+            final T[] interpolated = MathArrays.buildArray(date.getField(), COMPONENTS);
+            for (int j = 0; j < POINTS; ++j) {
+                final T        w      = weight(x, j);
+                final double[] block  = (start + j < BLOCK_SIZE) ? block0 : block1;
+                final int      offset = COMPONENTS * ((start + j) % BLOCK_SIZE);
+                for (int i = 0; i < COMPONENTS; ++i) {
+                    interpolated[i] = interpolated[i].add(w.multiply(block[offset + i]));
+                }
+            }
+            return interpolated;
 
-                // interpolate to specified date
-                return interpolator.value(date.durationFrom(central)); // here, we introduce derivatives again (in DerivativeStructure case)
+        }
 
-            } catch (TimeStampedCacheException tsce) {
-                // this should never happen
-                throw new OrekitInternalError(tsce);
+        /** Compute a Lagrange weight for regularly spaced sample points.
+         * @param x interpolation abscissa, in units of steps from first sample point
+         * @param j index of the sample point
+         * @return weight of sample point j in interpolated value
+         */
+        private double weight(final double x, final int j) {
+            double w = 1.0 / DENOMINATORS[j];
+            for (int m = 0; m < POINTS; ++m) {
+                if (m != j) {
+                    w *= x - m;
+                }
             }
+            return w;
         }
 
-        /** {@inheritDoc} */
-        @Override
-        public List<TidalCorrectionEntry> generate(final AbsoluteDate existingDate, final AbsoluteDate date) {
+        /** Compute a Lagrange weight for regularly spaced sample points.
+         * @param x interpolation abscissa, in units of steps from first sample point
+         * @param j index of the sample point
+         * @param <T> type of the field elements
+         * @return weight of sample point j in interpolated value
+         */
+        private <T extends RealFieldElement<T>> T weight(final T x, final int j) {
+            T w = x.getField().getOne().divide(DENOMINATORS[j]);
+            for (int m = 0; m < POINTS; ++m) {
+                if (m != j) {
+                    w = w.multiply(x.subtract(m));
+                }
+            }
+            return w;
+        }
 
-            final List<TidalCorrectionEntry> generated = new ArrayList<TidalCorrectionEntry>();
+        /** Get the reference date of the sample points grid, setting it if needed.
+         * @param date date at which a correction is requested
+         * @return reference date of the sample points grid
+         */
+        private AbsoluteDate getReference(final AbsoluteDate date) {
+            final AbsoluteDate existing = reference.get();
+            if (existing != null) {
+                return existing;
+            }
+            // the first thread requesting a correction sets up the grid
+            reference.compareAndSet(null, date);
+            return reference.get();
+        }
 
-            if (existingDate == null) {
+        /** Get a block of sample points, generating it if needed.
+         * @param index index of the block
+         * @return block of packed corrections
+         */
+        private double[] getBlock(final long index) {
 
-                // no prior existing entries, just generate a first set
-                for (int i = -cache.getNeighborsSize() / 2; generated.size() < cache.getNeighborsSize(); ++i) {
-                    final AbsoluteDate t = date.shiftedBy(i * step);
-                    generated.add(new TidalCorrectionEntry(t, tidalCorrection.value(t)));
-                }
+            final Long     key   = index;
+            final double[] block = blocks.get(key);
+            if (block != null) {
+                // fast path, no locking at all
+                return block;
+            }
 
-            } else {
+            // generate the block, without holding any lock
+            final double[] generated = new double[COMPONENTS * BLOCK_SIZE];
+            for (int i = 0; i < BLOCK_SIZE; ++i) {
+                final AbsoluteDate t = reference.get().shiftedBy((index * BLOCK_SIZE + i) * STEP);
+                System.arraycopy(tidalCorrection.value(t), 0, generated, COMPONENTS * i, COMPONENTS);
+            }
 
-                // some entries have already been generated
-                // add the missing ones up to specified date
-
-                AbsoluteDate t = existingDate;
-                if (date.compareTo(t) > 0) {
-                    // forward generation
-                    do {
-                        t = t.shiftedBy(step);
-                        generated.add(new TidalCorrectionEntry(t, tidalCorrection.value(t)));
-                    } while (t.compareTo(date) <= 0);
-                } else {
-                    // backward generation
-                    do {
-                        t = t.shiftedBy(-step);
-                        generated.add(0, new TidalCorrectionEntry(t, tidalCorrection.value(t)));
-                    } while (t.compareTo(date) >= 0);
-                }
+            if (blocks.size() >= MAX_BLOCKS) {
+                // prevent unbounded growth for very long propagations
+                blocks.clear();
             }
 
-            // return the generated transforms
-            return generated;
+            // another thread may have generated the same block concurrently
+            final double[] existing = blocks.putIfAbsent(key, generated);
+            return (existing == null) ? generated : existing;
 
         }
+
     }
 
 }
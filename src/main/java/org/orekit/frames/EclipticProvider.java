@@ -68,6 +68,12 @@ public class EclipticProvider implements TransformProvider {
         this.obliquity   = conventions.getMeanObliquityFunction();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
         //mean obliquity of date
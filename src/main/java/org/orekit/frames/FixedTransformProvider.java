@@ -49,6 +49,12 @@ public class FixedTransformProvider implements TransformProvider {
         this.cached    = new HashMap<>();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     public Transform getTransform(final AbsoluteDate date) {
         return transform;
@@ -17,6 +17,7 @@
 package org.orekit.frames;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.hipparchus.RealFieldElement;
 import org.orekit.errors.OrekitException;
@@ -24,6 +25,7 @@ import org.orekit.errors.OrekitIllegalArgumentException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ComputationContext;
 
 
 /** Tridimensional references frames class.
@@ -54,7 +56,10 @@ import org.orekit.time.FieldAbsoluteDate;
 public class Frame implements Serializable {
 
     /** Serializable UID. */
-    private static final long serialVersionUID = -6981146543760234087L;
+    private static final long serialVersionUID = 20171215L;
+
+    /** Number of paths to destination frames cached (must be a power of 2). */
+    private static final int PATHS_CACHE_SIZE = 8;
 
     /** Parent frame (only the root frame doesn't have a parent). */
     private final Frame parent;
@@ -71,6 +76,12 @@ public class Frame implements Serializable {
     /** Indicator for pseudo-inertial frames. */
     private final boolean pseudoInertial;
 
+    /** Indicator for frames whose transforms from root depend only on date. */
+    private final boolean dateOnly;
+
+    /** Paths to recently used destination frames (lazily allocated). */
+    private transient Path[] paths;
+
     /** Private constructor used only for the root frame.
      * @param name name of the frame
      * @param pseudoInertial true if frame is considered pseudo-inertial
@@ -82,6 +93,7 @@ public class Frame implements Serializable {
         transformProvider   = new FixedTransformProvider(Transform.IDENTITY);
         this.name           = name;
         this.pseudoInertial = pseudoInertial;
+        this.dateOnly       = true;
     }
 
     /** Build a non-inertial frame from its transform with respect to its parent.
@@ -160,6 +172,7 @@ public class Frame implements Serializable {
         this.transformProvider = transformProvider;
         this.name              = name;
         this.pseudoInertial    = pseudoInertial;
+        this.dateOnly          = parent.dateOnly && transformProvider.dependsOnlyOnDate();
 
     }
 
@@ -183,6 +196,20 @@ public class Frame implements Serializable {
         return pseudoInertial;
     }
 
+    /** Check if the transforms from the root frame to the instance depend only on date.
+     * <p>
+     * This is true if the {@link TransformProvider#dependsOnlyOnDate() transform providers}
+     * of the instance and of all its ancestors depend only on date. Transforms between
+     * such frames are shared at the same date by all users when a {@link ComputationContext
+     * computation context} is active.
+     * </p>
+     * @return true if transforms from the root frame to the instance depend only on date
+     * @since 9.2
+     */
+    public boolean dependsOnlyOnDate() {
+        return dateOnly;
+    }
+
     /** New definition of the java.util toString() method.
      * @return the name
      */
@@ -236,6 +263,14 @@ public class Frame implements Serializable {
     }
 
     /** Get the transform from the instance to another frame.
+     * <p>
+     * The paths in the frames tree to the most recently used destination
+     * frames are kept by the instance, so they are not searched again at
+     * each call. If a {@link ComputationContext computation context} is
+     * active for the current thread and both frames {@link #dependsOnlyOnDate()
+     * depend only on date}, the last transforms computed for the same date
+     * are also reused.
+     * </p>
      * @param destination destination frame to which we want to transform vectors
      * @param date the date (can be null if it is sure than no date dependent frame is used)
      * @return transform from the instance to the destination frame
@@ -249,28 +284,159 @@ public class Frame implements Serializable {
             return Transform.IDENTITY;
         }
 
-        // common ancestor to both frames in the frames tree
-        final Frame common = findCommon(this, destination);
-
-        // transform from common to instance
-        Transform commonToInstance = Transform.IDENTITY;
-        for (Frame frame = this; frame != common; frame = frame.parent) {
-            commonToInstance =
-                new Transform(date, frame.transformProvider.getTransform(date), commonToInstance);
+        if (!(dateOnly && destination.dateOnly)) {
+            // the transform may depend on something else than date (for example
+            // a local orbital frame built on the state being integrated, which
+            // changes between integrator stages at the same date), it cannot be shared
+            return computeTransformTo(destination, date);
         }
 
-        // transform from destination up to common
-        Transform commonToDestination = Transform.IDENTITY;
-        for (Frame frame = destination; frame != common; frame = frame.parent) {
-            commonToDestination =
-                new Transform(date, frame.transformProvider.getTransform(date), commonToDestination);
+        // if a computation context is active, the same transform
+        // will be shared by all users at the same date
+        return ComputationContext.getValue(this, destination, date,
+            () -> computeTransformTo(destination, date));
+
+    }
+
+    /** Compute the transform from the instance to another frame.
+     * @param destination destination frame to which we want to transform vectors
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @return transform from the instance to the destination frame
+     * @exception OrekitException if some frame specific error occurs
+     */
+    private Transform computeTransformTo(final Frame destination, final AbsoluteDate date)
+        throws OrekitException {
+
+        // paths from both frames up to their common ancestor in the frames tree
+        final Path path = getPath(destination);
+
+        if (path.fromInstance.length == 0) {
+            // the instance is an ancestor of the destination
+            return fromCommon(path.fromDestination, date);
+        } else if (path.fromDestination.length == 0) {
+            // the destination is an ancestor of the instance
+            return fromCommon(path.fromInstance, date).getInverse();
         }
 
         // transform from instance to destination via common
-        return new Transform(date, commonToInstance.getInverse(), commonToDestination);
+        return new Transform(date,
+                             fromCommon(path.fromInstance, date).getInverse(),
+                             fromCommon(path.fromDestination, date));
+
+    }
+
+    /** Get the transforms from the instance to another frame, for several dates.
+     * <p>
+     * This method is equivalent to calling {@link #getTransformTo(Frame, AbsoluteDate)}
+     * for each date, but each {@link TransformProvider} in the path between the frames
+     * is called only once with all dates, which allows sample-based providers to avoid
+     * searching their samples again when consecutive dates are close to each other.
+     * </p>
+     * @param destination destination frame to which we want to transform vectors
+     * @param dates dates (sorted in chronological order for best performance)
+     * @return transforms from the instance to the destination frame, in the same order as the dates
+     * @exception OrekitException if some frame specific error occurs
+     * @see TransformProvider#getTransforms(AbsoluteDate[])
+     * @since 9.2
+     */
+    public Transform[] getTransformsTo(final Frame destination, final AbsoluteDate[] dates)
+        throws OrekitException {
+
+        final Transform[] transforms = new Transform[dates.length];
+
+        if (this == destination) {
+            // shortcut for special case that may be frequent
+            Arrays.fill(transforms, Transform.IDENTITY);
+            return transforms;
+        }
+
+        // paths from both frames up to their common ancestor in the frames tree
+        final Path path = getPath(destination);
+
+        if (path.fromInstance.length == 0) {
+            // the instance is an ancestor of the destination
+            return fromCommon(path.fromDestination, dates);
+        }
+
+        final Transform[] commonToInstance = fromCommon(path.fromInstance, dates);
+        if (path.fromDestination.length == 0) {
+            // the destination is an ancestor of the instance
+            for (int i = 0; i < dates.length; ++i) {
+                transforms[i] = commonToInstance[i].getInverse();
+            }
+        } else {
+            // transform from instance to destination via common
+            final Transform[] commonToDestination = fromCommon(path.fromDestination, dates);
+            for (int i = 0; i < dates.length; ++i) {
+                transforms[i] = new Transform(dates[i], commonToInstance[i].getInverse(), commonToDestination[i]);
+            }
+        }
+
+        return transforms;
 
     }
 
+    /** Get the transforms from the instance to another frame, for a regular dates grid.
+     * @param destination destination frame to which we want to transform vectors
+     * @param start first date of the grid
+     * @param step time step between grid dates (s)
+     * @param count number of dates in the grid
+     * @return transforms from the instance to the destination frame, at
+     * dates {@code start + i * step} for {@code i} between 0 and {@code count - 1}
+     * @exception OrekitException if some frame specific error occurs
+     * @see #getTransformsTo(Frame, AbsoluteDate[])
+     * @since 9.2
+     */
+    public Transform[] getTransformsTo(final Frame destination,
+                                       final AbsoluteDate start, final double step, final int count)
+        throws OrekitException {
+        final AbsoluteDate[] dates = new AbsoluteDate[count];
+        for (int i = 0; i < count; ++i) {
+            dates[i] = start.shiftedBy(i * step);
+        }
+        return getTransformsTo(destination, dates);
+    }
+
+    /** Compute the transforms from a common ancestor down to a frame, for several dates.
+     * @param branch frames from the target frame up to the common ancestor (excluded),
+     * must contain at least one frame
+     * @param dates dates
+     * @return transforms from the common ancestor to {@code branch[0]}
+     * @exception OrekitException if some frame specific error occurs
+     */
+    private static Transform[] fromCommon(final Frame[] branch, final AbsoluteDate[] dates)
+        throws OrekitException {
+        final Transform[] commonToFrame = new Transform[dates.length];
+        final Transform[] first         = branch[0].transformProvider.getTransforms(dates);
+        for (int i = 0; i < dates.length; ++i) {
+            commonToFrame[i] = new Transform(dates[i], first[i], Transform.IDENTITY);
+        }
+        for (int k = 1; k < branch.length; ++k) {
+            final Transform[] raw = branch[k].transformProvider.getTransforms(dates);
+            for (int i = 0; i < dates.length; ++i) {
+                commonToFrame[i] = new Transform(dates[i], raw[i], commonToFrame[i]);
+            }
+        }
+        return commonToFrame;
+    }
+
+    /** Compute the transform from a common ancestor down to a frame.
+     * @param branch frames from the target frame up to the common ancestor (excluded),
+     * must contain at least one frame
+     * @param date the date (can be null if it is sure than no date dependent frame is used)
+     * @return transform from the common ancestor to {@code branch[0]}
+     * @exception OrekitException if some frame specific error occurs
+     */
+    private static Transform fromCommon(final Frame[] branch, final AbsoluteDate date)
+        throws OrekitException {
+        Transform commonToFrame = new Transform(date, branch[0].transformProvider.getTransform(date),
+                                                Transform.IDENTITY);
+        for (int i = 1; i < branch.length; ++i) {
+            commonToFrame = new Transform(date, branch[i].transformProvider.getTransform(date), commonToFrame);
+        }
+        return commonToFrame;
+    }
+
     /** Get the transform from the instance to another frame.
      * @param destination destination frame to which we want to transform vectors
      * @param date the date (can be null if it is sure than no date dependent frame is used)
@@ -286,19 +452,19 @@ public class Frame implements Serializable {
             return FieldTransform.getIdentity(date.getField());
         }
 
-        // common ancestor to both frames in the frames tree
-        final Frame common = findCommon(this, destination);
+        // paths from both frames up to their common ancestor in the frames tree
+        final Path path = getPath(destination);
 
         // transform from common to instance
         FieldTransform<T> commonToInstance = FieldTransform.getIdentity(date.getField());
-        for (Frame frame = this; frame != common; frame = frame.parent) {
+        for (final Frame frame : path.fromInstance) {
             commonToInstance =
                 new FieldTransform<>(date, frame.transformProvider.getTransform(date), commonToInstance);
         }
 
         // transform from destination up to common
         FieldTransform<T> commonToDestination = FieldTransform.getIdentity(date.getField());
-        for (Frame frame = destination; frame != common; frame = frame.parent) {
+        for (final Frame frame : path.fromDestination) {
             commonToDestination =
                 new FieldTransform<>(date, frame.transformProvider.getTransform(date), commonToDestination);
         }
@@ -315,6 +481,35 @@ public class Frame implements Serializable {
         return transformProvider;
     }
 
+    /** Get the path from the instance to a destination frame.
+     * <p>
+     * Paths are cached in a small direct-mapped table, indexed by destination.
+     * The table may be accessed concurrently without synchronization: paths
+     * are immutable, so the worst that can happen is a path being computed
+     * twice.
+     * </p>
+     * @param destination destination frame
+     * @return path from the instance to the destination
+     */
+    private Path getPath(final Frame destination) {
+
+        Path[] cached = paths;
+        if (cached == null) {
+            cached = new Path[PATHS_CACHE_SIZE];
+            paths  = cached;
+        }
+
+        final int index = System.identityHashCode(destination) & (PATHS_CACHE_SIZE - 1);
+        Path path = cached[index];
+        if (path == null || path.destination != destination) {
+            path = new Path(this, destination);
+            cached[index] = path;
+        }
+
+        return path;
+
+    }
+
     /** Find the deepest common ancestor of two frames in the frames tree.
      * @param from origin frame
      * @param to destination frame
@@ -385,6 +580,46 @@ public class Frame implements Serializable {
                          frozenName, reference.isPseudoInertial());
     }
 
+    /** Path between two frames in the frames tree. */
+    private static class Path {
+
+        /** Destination frame. */
+        private final Frame destination;
+
+        /** Frames from origin up to common ancestor (excluded). */
+        private final Frame[] fromInstance;
+
+        /** Frames from destination up to common ancestor (excluded). */
+        private final Frame[] fromDestination;
+
+        /** Simple constructor.
+         * @param origin origin frame
+         * @param destination destination frame
+         */
+        Path(final Frame origin, final Frame destination) {
+            final Frame common   = findCommon(origin, destination);
+            this.destination     = destination;
+            this.fromInstance    = branch(origin, common);
+            this.fromDestination = branch(destination, common);
+        }
+
+        /** Build a branch from a frame up to an ancestor.
+         * @param frame frame at branch start
+         * @param ancestor ancestor at branch end (excluded)
+         * @return frames in the branch
+         */
+        private static Frame[] branch(final Frame frame, final Frame ancestor) {
+            final Frame[] branch = new Frame[frame.depth - ancestor.depth];
+            Frame current = frame;
+            for (int i = 0; i < branch.length; ++i) {
+                branch[i] = current;
+                current   = current.parent;
+            }
+            return branch;
+        }
+
+    }
+
     // We use the Initialization on demand holder idiom to store
     // the singletons, as it is both thread-safe, efficient (no
     // synchronization) and works with all versions of java.
@@ -85,6 +85,12 @@ public class GTODProvider implements EOPBasedTransformProvider {
         return new GTODProvider(conventions, eopHistory.getNonInterpolatingEOPHistory());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
@@ -333,6 +333,12 @@ public class HelmertTransformation implements TransformProvider {
         return epoch;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) {
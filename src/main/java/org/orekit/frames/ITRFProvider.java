@@ -67,6 +67,12 @@ class ITRFProvider implements EOPBasedTransformProvider {
         return new ITRFProvider(eopHistory.getNonInterpolatingEOPHistory());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
@@ -30,6 +30,7 @@ import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitExceptionWrapper;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeStamped;
 import org.orekit.utils.AngularDerivativesFilter;
 import org.orekit.utils.CartesianDerivativesFilter;
 import org.orekit.utils.GenericTimeStampedCache;
@@ -51,6 +52,9 @@ public class InterpolatingTransformProvider implements TransformProvider {
     /** Serializable UID. */
     private static final long serialVersionUID = 20140723L;
 
+    /** Margin near sample interval boundaries (s). */
+    private static final double CENTRAL_INTERVAL_MARGIN = 1.0e-5;
+
     /** Provider for raw (non-interpolated) transforms. */
     private final TransformProvider rawProvider;
 
@@ -150,6 +154,12 @@ public class InterpolatingTransformProvider implements TransformProvider {
         return step;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return rawProvider.dependsOnlyOnDate();
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
@@ -168,6 +178,57 @@ public class InterpolatingTransformProvider implements TransformProvider {
         }
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * Consecutive dates that fall in the same interval between grid points
+     * share the same sample, which is retrieved only once from the cache.
+     * </p>
+     */
+    @Override
+    public Transform[] getTransforms(final AbsoluteDate[] dates) throws OrekitException {
+        try {
+
+            final Transform[] transforms = new Transform[dates.length];
+            List<Transform> sample = null;
+            for (int i = 0; i < dates.length; ++i) {
+
+                if (sample == null || !isInCentralInterval(dates[i], sample)) {
+                    // retrieve a new sample from the thread-safe cache
+                    sample = cache.getNeighbors(dates[i]).collect(Collectors.toList());
+                }
+
+                // interpolate to specified date
+                transforms[i] = Transform.interpolate(dates[i], cFilter, aFilter, sample);
+
+            }
+
+            return transforms;
+
+        } catch (OrekitExceptionWrapper oew) {
+            // something went wrong while generating the sample,
+            // we just forward the exception up
+            throw oew.getException();
+        }
+    }
+
+    /** Check if a date is safely within the central interval of a sample.
+     * <p>
+     * The cache returns the same sample for all dates lying in the interval
+     * between the two central points of the sample. A small margin is kept
+     * near the interval boundaries, to be consistent with the rounding of
+     * dates performed by the cache.
+     * </p>
+     * @param date date to check
+     * @param sample sample returned by the cache
+     * @param <T> type of the sample elements
+     * @return true if date is safely within the central interval
+     */
+    static <T extends TimeStamped> boolean isInCentralInterval(final AbsoluteDate date, final List<T> sample) {
+        final int central = (sample.size() - 1) / 2;
+        return date.durationFrom(sample.get(central).getDate())         >= CENTRAL_INTERVAL_MARGIN &&
+               sample.get(central + 1).getDate().durationFrom(date) >= CENTRAL_INTERVAL_MARGIN;
+    }
+
     /** {@inheritDoc} */
     @Override
     public <T extends RealFieldElement<T>> FieldTransform<T> getTransform(final FieldAbsoluteDate<T> date)
@@ -82,6 +82,12 @@ class L2TransformProvider implements TransformProvider {
         this.frame = primaryBody.getInertiallyOrientedFrame();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return frame.dependsOnlyOnDate();
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date)
@@ -72,6 +72,12 @@ class MODProvider implements TransformProvider {
         fieldR4 = new HashMap<>();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) {
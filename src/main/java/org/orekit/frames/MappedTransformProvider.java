@@ -0,0 +1,382 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitInternalError;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.TimeStampedAngularCoordinates;
+
+/** Transform provider serving precomputed rotations from a memory-mapped table file.
+ * <p>
+ * Evaluating some transforms, typically {@link FramesFactory#getITRF(org.orekit.utils.IERSConventions,
+ * boolean) ITRF} with respect to {@link FramesFactory#getGCRF() GCRF}, involves loading Earth
+ * Orientation Parameters and evaluating large luni-solar and planetary nutation series. When
+ * many processes need the same transforms over the same time range, this work can be done only
+ * once, by {@link #write(File, Frame, Frame, AbsoluteDate, AbsoluteDate, double) writing} a table
+ * of rotations and rotation rates sampled on a regular time grid into a binary file. This file
+ * can then be used by any number of processes through instances of this class. As the file is
+ * memory-mapped, it is loaded lazily by the operating system and its pages are shared between
+ * all processes on the same host.
+ * </p>
+ * <p>
+ * Transforms are interpolated using the sample points closest to the interpolation date.
+ * By default, only rotations are used with {@link #DEFAULT_INTERPOLATION_POINTS} points,
+ * and rotation rates are derived from the interpolating polynomial. For GCRF to ITRF with
+ * IERS 2010 conventions (including tidal effects on EOP), the maximum interpolation error
+ * with respect to the frames computed directly is about 2×10⁻¹³ rad for a 1 minute step,
+ * 8×10⁻¹³ rad for a 10 minutes step and 1.4×10⁻¹¹ rad (i.e. less than 0.1 mm at Earth
+ * surface) for a 1 hour step. Using also the stored rotation rates allows larger steps
+ * (for example 4×10⁻⁹ rad with 6 points and a 6 hours step), but accuracy does not improve
+ * for smaller steps, as the rotation rates of these frames are not fully consistent with
+ * the rotations at the 10⁻¹³ rad/s level. These bounds hold when the interpolation sample
+ * can be centered on the date, errors are larger within half a sample of the table ends,
+ * so tables should be generated with some margin around the time range of interest.
+ * </p>
+ * <p>
+ * Only the rotation part of the transform is stored, so this class can only be used for frames
+ * sharing the same origin.
+ * </p>
+ * <p>
+ * The binary file starts with a 48 bytes header containing a magic number, the format version,
+ * the number of sample points, the step between sample points and the date of the first point.
+ * It is followed by the sample points, each one containing the rotation quaternion and the
+ * rotation rate vector as 7 doubles. All values are stored in big-endian order.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class MappedTransformProvider implements TransformProvider {
+
+    /** Default number of interpolation points. */
+    public static final int DEFAULT_INTERPOLATION_POINTS = 8;
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20171017L;
+
+    /** Magic number identifying transform table files. */
+    private static final long MAGIC = 0x4f52454b49545442L;
+
+    /** Format version. */
+    private static final int VERSION = 1;
+
+    /** Size of the header (bytes). */
+    private static final int HEADER_SIZE = 48;
+
+    /** Number of doubles in each sample point. */
+    private static final int POINT_DOUBLES = 7;
+
+    /** Size of each sample point (bytes). */
+    private static final int POINT_SIZE = 8 * POINT_DOUBLES;
+
+    /** Maximum number of sample points computed at once when writing a table. */
+    private static final int WRITE_CHUNK = 1000;
+
+    /** Table file. */
+    private final File file;
+
+    /** Filter for derivatives from the sample to use in interpolation. */
+    private final AngularDerivativesFilter filter;
+
+    /** Number of points to use in interpolation. */
+    private final int interpolationPoints;
+
+    /** Memory-mapped content of the table file. */
+    private final transient ByteBuffer buffer;
+
+    /** Number of sample points. */
+    private final int count;
+
+    /** Step between sample points (s). */
+    private final double step;
+
+    /** Date of the first sample point. */
+    private final AbsoluteDate start;
+
+    /** Date of the last sample point. */
+    private final AbsoluteDate end;
+
+    /** Simple constructor, using only rotations and {@link #DEFAULT_INTERPOLATION_POINTS} interpolation points.
+     * @param file table file, as created by {@link #write(File, Frame, Frame, AbsoluteDate, AbsoluteDate, double)}
+     * @exception OrekitException if file cannot be read or is not a transform table file
+     */
+    public MappedTransformProvider(final File file) throws OrekitException {
+        this(file, AngularDerivativesFilter.USE_R, DEFAULT_INTERPOLATION_POINTS);
+    }
+
+    /** Simple constructor.
+     * @param file table file, as created by {@link #write(File, Frame, Frame, AbsoluteDate, AbsoluteDate, double)}
+     * @param filter filter for derivatives from the sample to use in interpolation
+     * (only {@link AngularDerivativesFilter#USE_R} and {@link AngularDerivativesFilter#USE_RR}
+     * are meaningful, as rotation accelerations are not stored)
+     * @param interpolationPoints number of points to use in interpolation
+     * @exception OrekitException if file cannot be read or is not a transform table file,
+     * or if it contains less than {@code interpolationPoints} points
+     */
+    public MappedTransformProvider(final File file, final AngularDerivativesFilter filter,
+                                   final int interpolationPoints)
+        throws OrekitException {
+
+        if (interpolationPoints < 2) {
+            throw new OrekitException(LocalizedCoreFormats.NUMBER_TOO_SMALL, interpolationPoints, 2);
+        }
+
+        this.file                = file;
+        this.filter              = filter;
+        this.interpolationPoints = interpolationPoints;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel  = raf.getChannel()) {
+
+            // the mapping remains valid after the channel has been closed
+            // (a single mapping is limited to 2GiB, i.e. about 38 millions points)
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new OrekitException(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE,
+                                          file.getAbsolutePath());
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+                throw new OrekitException(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE,
+                                          file.getAbsolutePath());
+            }
+            this.count = buffer.getInt(12);
+            this.step  = buffer.getDouble(16);
+            this.start = AbsoluteDate.J2000_EPOCH.shiftedBy(buffer.getDouble(24)).shiftedBy(buffer.getDouble(32));
+            if (count < 0 || step <= 0 || channel.size() != HEADER_SIZE + ((long) count) * POINT_SIZE) {
+                throw new OrekitException(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE,
+                                          file.getAbsolutePath());
+            }
+            if (count < interpolationPoints) {
+                throw new OrekitException(OrekitMessages.NOT_ENOUGH_DATA_FOR_INTERPOLATION, count);
+            }
+            this.end = start.shiftedBy((count - 1) * step);
+
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        }
+
+    }
+
+    /** Write a transform table file.
+     * <p>
+     * The transforms are computed on a regular grid from {@code start} to
+     * (at least) {@code end}, using {@link Frame#getTransformsTo(Frame, AbsoluteDate, double, int)}.
+     * Only the rotation part of the transforms is written, so the frames
+     * must share the same origin.
+     * </p>
+     * @param file file to write
+     * @param from frame from which transforms are computed (typically GCRF)
+     * @param to frame to which transforms are computed (typically ITRF)
+     * @param start start date of the table
+     * @param end end date of the table
+     * @param step step between sample points (s)
+     * @exception OrekitException if transforms cannot be computed or file cannot be written
+     */
+    public static void write(final File file, final Frame from, final Frame to,
+                             final AbsoluteDate start, final AbsoluteDate end, final double step)
+        throws OrekitException {
+
+        if (step <= 0) {
+            throw new OrekitException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED, step, 0);
+        }
+        final int n = 1 + (int) FastMath.ceil(end.durationFrom(start) / step);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+
+            // header
+            final double whole    = FastMath.floor(start.durationFrom(AbsoluteDate.J2000_EPOCH));
+            final double fraction = start.durationFrom(AbsoluteDate.J2000_EPOCH.shiftedBy(whole));
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeDouble(step);
+            out.writeDouble(whole);
+            out.writeDouble(fraction);
+            out.writeLong(0l); // reserved
+
+            // sample points, computed in chunks to limit memory consumption
+            for (int i = 0; i < n; i += WRITE_CHUNK) {
+                final Transform[] transforms =
+                        from.getTransformsTo(to, start.shiftedBy(i * step), step, FastMath.min(WRITE_CHUNK, n - i));
+                for (final Transform transform : transforms) {
+                    final Rotation r = transform.getRotation();
+                    final Vector3D w = transform.getRotationRate();
+                    out.writeDouble(r.getQ0());
+                    out.writeDouble(r.getQ1());
+                    out.writeDouble(r.getQ2());
+                    out.writeDouble(r.getQ3());
+                    out.writeDouble(w.getX());
+                    out.writeDouble(w.getY());
+                    out.writeDouble(w.getZ());
+                }
+            }
+
+        } catch (IOException ioe) {
+            throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+        }
+
+    }
+
+    /** Get the date of the first sample point.
+     * @return date of the first sample point
+     */
+    public AbsoluteDate getStartDate() {
+        return start;
+    }
+
+    /** Get the date of the last sample point.
+     * @return date of the last sample point
+     */
+    public AbsoluteDate getEndDate() {
+        return end;
+    }
+
+    /** Get the step between sample points.
+     * @return step between sample points (s)
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Transform getTransform(final AbsoluteDate date) throws OrekitException {
+
+        final double dt = date.durationFrom(start);
+        if (dt < 0 || date.durationFrom(end) > 0) {
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, date, start, end);
+        }
+
+        // select the sample points around date, unbalanced near the table ends
+        final int central = (int) FastMath.floor(dt / step);
+        final int first   = FastMath.max(0, FastMath.min(count - interpolationPoints,
+                                                         central - (interpolationPoints - 1) / 2));
+
+        final List<TimeStampedAngularCoordinates> sample = new ArrayList<>(interpolationPoints);
+        for (int i = first; i < first + interpolationPoints; ++i) {
+            final int offset = HEADER_SIZE + i * POINT_SIZE;
+            final Rotation r = new Rotation(buffer.getDouble(offset),
+                                            buffer.getDouble(offset + 8),
+                                            buffer.getDouble(offset + 16),
+                                            buffer.getDouble(offset + 24),
+                                            false);
+            final Vector3D w = new Vector3D(buffer.getDouble(offset + 32),
+                                            buffer.getDouble(offset + 40),
+                                            buffer.getDouble(offset + 48));
+            sample.add(new TimeStampedAngularCoordinates(start.shiftedBy(i * step), r, w, Vector3D.ZERO));
+        }
+
+        return new Transform(date,
+                             TimeStampedAngularCoordinates.interpolate(date, filter, sample));
+
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The transform is interpolated at the {@link FieldAbsoluteDate#toAbsoluteDate() real part}
+     * of the date, and then shifted, so that derivatives with respect to date are preserved.
+     * </p>
+     */
+    @Override
+    public <T extends RealFieldElement<T>> FieldTransform<T> getTransform(final FieldAbsoluteDate<T> date)
+        throws OrekitException {
+        final AbsoluteDate aDate = date.toAbsoluteDate();
+        return new FieldTransform<>(date.getField(), getTransform(aDate)).shiftedBy(date.durationFrom(aDate));
+    }
+
+    /** Replace the instance with a data transfer object for serialization.
+     * <p>
+     * This intermediate class serializes only the file name, the
+     * table itself is mapped again on deserialization.
+     * </p>
+     * @return data transfer object that will be serialized
+     */
+    private Object writeReplace() {
+        return new DTO(file, filter, interpolationPoints);
+    }
+
+    /** Internal class used only for serialization. */
+    private static class DTO implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171017L;
+
+        /** Table file. */
+        private final File file;
+
+        /** Filter for derivatives from the sample to use in interpolation. */
+        private final AngularDerivativesFilter filter;
+
+        /** Number of points to use in interpolation. */
+        private final int interpolationPoints;
+
+        /** Simple constructor.
+         * @param file table file
+         * @param filter filter for derivatives from the sample to use in interpolation
+         * @param interpolationPoints number of points to use in interpolation
+         */
+        private DTO(final File file, final AngularDerivativesFilter filter, final int interpolationPoints) {
+            this.file                = file;
+            this.filter              = filter;
+            this.interpolationPoints = interpolationPoints;
+        }
+
+        /** Replace the deserialized data transfer object with a {@link MappedTransformProvider}.
+         * @return replacement {@link MappedTransformProvider}
+         */
+        private Object readResolve() {
+            try {
+                return new MappedTransformProvider(file, filter, interpolationPoints);
+            } catch (OrekitException oe) {
+                throw new OrekitInternalError(oe);
+            }
+        }
+
+    }
+
+}
@@ -19,7 +19,9 @@ package org.orekit.frames;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.hipparchus.Field;
 import org.hipparchus.RealFieldElement;
@@ -152,6 +154,12 @@ public class ShiftingTransformProvider implements TransformProvider {
         return interpolatingProvider.getStep();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return interpolatingProvider.dependsOnlyOnDate();
+    }
+
     /** {@inheritDoc} */
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
         try {
@@ -169,6 +177,44 @@ public class ShiftingTransformProvider implements TransformProvider {
         }
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * Consecutive dates that fall in the same interval between grid points
+     * share the same sample, which is retrieved only once from the cache.
+     * </p>
+     */
+    @Override
+    public Transform[] getTransforms(final AbsoluteDate[] dates) throws OrekitException {
+        try {
+
+            final Transform[] transforms = new Transform[dates.length];
+            List<Transform> sample = null;
+            for (int i = 0; i < dates.length; ++i) {
+
+                final AbsoluteDate date = dates[i];
+                if (sample == null || !InterpolatingTransformProvider.isInCentralInterval(date, sample)) {
+                    // retrieve a new sample from the thread-safe cache
+                    sample = cache.getNeighbors(date).collect(Collectors.toList());
+                }
+
+                // shift closest sample point to specified date
+                final Transform t0 = sample.get(0);
+                final Transform t1 = sample.get(1);
+                final Transform closest =
+                    FastMath.abs(date.durationFrom(t0.getDate())) < FastMath.abs(date.durationFrom(t1.getDate())) ? t0 : t1;
+                transforms[i] = closest.shiftedBy(date.durationFrom(closest.getDate()));
+
+            }
+
+            return transforms;
+
+        } catch (OrekitExceptionWrapper oew) {
+            // something went wrong while generating the sample,
+            // we just forward the exception up
+            throw oew.getException();
+        }
+    }
+
     /** {@inheritDoc} */
     public <T extends RealFieldElement<T>> FieldTransform<T> getTransform(final FieldAbsoluteDate<T> date)
         throws OrekitException {
@@ -85,6 +85,12 @@ class TEMEProvider implements EOPBasedTransformProvider {
         return new TEMEProvider(conventions, eopHistory.getNonInterpolatingEOPHistory());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
@@ -81,6 +81,12 @@ class TIRFProvider implements EOPBasedTransformProvider {
         return new TIRFProvider(eopHistory.getNonInterpolatingEOPHistory());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean dependsOnlyOnDate() {
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Transform getTransform(final AbsoluteDate date) throws OrekitException {
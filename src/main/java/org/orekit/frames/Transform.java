@@ -31,6 +31,7 @@ import org.hipparchus.geometry.euclidean.threed.Line;
 import org.hipparchus.geometry.euclidean.threed.Rotation;
 import org.hipparchus.geometry.euclidean.threed.RotationConvention;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.MathArrays;
 import org.orekit.errors.OrekitException;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeInterpolable;
@@ -572,6 +573,225 @@ public class Transform
                                                                    pv.getAcceleration().add(cartesian.getAcceleration())));
     }
 
+    /** Transform packed positions in place (including translation effects).
+     * @param xyz array containing packed positions {@code x₀, y₀, z₀, x₁, y₁, z₁...},
+     * which will be replaced by transformed positions
+     * @param offset index of the first coordinate of the first position
+     * @param count number of positions to transform
+     * @see #transformPositions(double[], int, double[], int, int)
+     * @since 9.2
+     */
+    public void transformPositions(final double[] xyz, final int offset, final int count) {
+        transformPositions(xyz, offset, xyz, offset, count);
+    }
+
+    /** Transform packed positions (including translation effects).
+     * <p>
+     * This method is equivalent to calling {@link #transformPosition(Vector3D)}
+     * for each position, but it does not allocate any object, which is
+     * interesting when transforming large numbers of points.
+     * </p>
+     * <p>
+     * The input and output arrays may be the same array with the same offset,
+     * for in-place transformation.
+     * </p>
+     * @param in array containing packed positions {@code x₀, y₀, z₀, x₁, y₁, z₁...}
+     * @param inOffset index of the first coordinate of the first position in input array
+     * @param out array where to put transformed positions (may be {@code in})
+     * @param outOffset index of the first coordinate of the first position in output array
+     * @param count number of positions to transform
+     * @since 9.2
+     */
+    public void transformPositions(final double[] in, final int inOffset,
+                                   final double[] out, final int outOffset,
+                                   final int count) {
+        final Rotation r  = angular.getRotation();
+        final Vector3D t  = cartesian.getPosition();
+        final double   tx = t.getX();
+        final double   ty = t.getY();
+        final double   tz = t.getZ();
+        for (int i = 0; i < 3 * count; i += 3) {
+            final int k = inOffset + i;
+            applyRotation(r, in[k] + tx, in[k + 1] + ty, in[k + 2] + tz, out, outOffset + i);
+        }
+    }
+
+    /** Transform packed vectors in place (ignoring translation effects).
+     * @param xyz array containing packed vectors {@code x₀, y₀, z₀, x₁, y₁, z₁...},
+     * which will be replaced by transformed vectors
+     * @param offset index of the first coordinate of the first vector
+     * @param count number of vectors to transform
+     * @see #transformVectors(double[], int, double[], int, int)
+     * @since 9.2
+     */
+    public void transformVectors(final double[] xyz, final int offset, final int count) {
+        transformVectors(xyz, offset, xyz, offset, count);
+    }
+
+    /** Transform packed vectors (ignoring translation effects).
+     * <p>
+     * This method is equivalent to calling {@link #transformVector(Vector3D)}
+     * for each vector, but it does not allocate any object, which is
+     * interesting when transforming large numbers of vectors.
+     * </p>
+     * <p>
+     * The input and output arrays may be the same array with the same offset,
+     * for in-place transformation.
+     * </p>
+     * @param in array containing packed vectors {@code x₀, y₀, z₀, x₁, y₁, z₁...}
+     * @param inOffset index of the first coordinate of the first vector in input array
+     * @param out array where to put transformed vectors (may be {@code in})
+     * @param outOffset index of the first coordinate of the first vector in output array
+     * @param count number of vectors to transform
+     * @since 9.2
+     */
+    public void transformVectors(final double[] in, final int inOffset,
+                                 final double[] out, final int outOffset,
+                                 final int count) {
+        final Rotation r = angular.getRotation();
+        for (int i = 0; i < 3 * count; i += 3) {
+            final int k = inOffset + i;
+            applyRotation(r, in[k], in[k + 1], in[k + 2], out, outOffset + i);
+        }
+    }
+
+    /** Transform packed position-velocity-acceleration in place, including kinematic effects.
+     * @param filter filter specifying which derivatives are packed with positions
+     * @param pva array containing packed coordinates, which will be replaced by
+     * transformed coordinates
+     * @param offset index of the first coordinate of the first point
+     * @param count number of points to transform
+     * @see #transformPVCoordinates(CartesianDerivativesFilter, double[], int, double[], int, int)
+     * @since 9.2
+     */
+    public void transformPVCoordinates(final CartesianDerivativesFilter filter,
+                                       final double[] pva, final int offset, final int count) {
+        transformPVCoordinates(filter, pva, offset, pva, offset, count);
+    }
+
+    /** Transform packed position-velocity-acceleration, including kinematic effects.
+     * <p>
+     * This method is equivalent to calling {@link #transformPVCoordinates(PVCoordinates)}
+     * for each point, but it does not allocate any object, which is interesting
+     * when transforming large numbers of points, for example complete ephemerides.
+     * </p>
+     * <p>
+     * Each point uses {@code 3 * (filter.getMaxOrder() + 1)} consecutive elements
+     * in the arrays, i.e. {@code x, y, z} for {@link CartesianDerivativesFilter#USE_P},
+     * {@code x, y, z, vx, vy, vz} for {@link CartesianDerivativesFilter#USE_PV} and
+     * {@code x, y, z, vx, vy, vz, ax, ay, az} for {@link CartesianDerivativesFilter#USE_PVA}.
+     * Derivatives that are not packed are neither read nor written.
+     * </p>
+     * <p>
+     * The input and output arrays may be the same array with the same offset,
+     * for in-place transformation.
+     * </p>
+     * @param filter filter specifying which derivatives are packed with positions
+     * @param in array containing packed coordinates
+     * @param inOffset index of the first coordinate of the first point in input array
+     * @param out array where to put transformed coordinates (may be {@code in})
+     * @param outOffset index of the first coordinate of the first point in output array
+     * @param count number of points to transform
+     * @since 9.2
+     */
+    public void transformPVCoordinates(final CartesianDerivativesFilter filter,
+                                       final double[] in, final int inOffset,
+                                       final double[] out, final int outOffset,
+                                       final int count) {
+
+        final int stride = 3 * (filter.getMaxOrder() + 1);
+        if (stride == 3) {
+            transformPositions(in, inOffset, out, outOffset, count);
+            return;
+        }
+
+        final Rotation r   = angular.getRotation();
+        final Vector3D w   = angular.getRotationRate();
+        final Vector3D wd  = angular.getRotationAcceleration();
+        final Vector3D t   = cartesian.getPosition();
+        final Vector3D tv  = cartesian.getVelocity();
+        final Vector3D ta  = cartesian.getAcceleration();
+        final double   wx  = w.getX();
+        final double   wy  = w.getY();
+        final double   wz  = w.getZ();
+
+        for (int i = 0; i < stride * count; i += stride) {
+            final int k = inOffset + i;
+            final int l = outOffset + i;
+
+            // read everything first, as output may overwrite input
+            final double px = in[k]     + t.getX();
+            final double py = in[k + 1] + t.getY();
+            final double pz = in[k + 2] + t.getZ();
+            final double vx = in[k + 3] + tv.getX();
+            final double vy = in[k + 4] + tv.getY();
+            final double vz = in[k + 5] + tv.getZ();
+            final double ax = (stride > 6) ? in[k + 6] + ta.getX() : 0.0;
+            final double ay = (stride > 6) ? in[k + 7] + ta.getY() : 0.0;
+            final double az = (stride > 6) ? in[k + 8] + ta.getZ() : 0.0;
+
+            // position
+            applyRotation(r, px, py, pz, out, l);
+            final double tpx = out[l];
+            final double tpy = out[l + 1];
+            final double tpz = out[l + 2];
+
+            // velocity
+            final double cpx = MathArrays.linearCombination(wy, tpz, -wz, tpy);
+            final double cpy = MathArrays.linearCombination(wz, tpx, -wx, tpz);
+            final double cpz = MathArrays.linearCombination(wx, tpy, -wy, tpx);
+            applyRotation(r, vx, vy, vz, out, l + 3);
+            out[l + 3] -= cpx;
+            out[l + 4] -= cpy;
+            out[l + 5] -= cpz;
+
+            if (stride > 6) {
+                // acceleration
+                final double tvx = out[l + 3];
+                final double tvy = out[l + 4];
+                final double tvz = out[l + 5];
+                final double cvx  = MathArrays.linearCombination(wy, tvz, -wz, tvy);
+                final double cvy  = MathArrays.linearCombination(wz, tvx, -wx, tvz);
+                final double cvz  = MathArrays.linearCombination(wx, tvy, -wy, tvx);
+                final double ccpx = MathArrays.linearCombination(wy, cpz, -wz, cpy);
+                final double ccpy = MathArrays.linearCombination(wz, cpx, -wx, cpz);
+                final double ccpz = MathArrays.linearCombination(wx, cpy, -wy, cpx);
+                final double cdpx = MathArrays.linearCombination(wd.getY(), tpz, -wd.getZ(), tpy);
+                final double cdpy = MathArrays.linearCombination(wd.getZ(), tpx, -wd.getX(), tpz);
+                final double cdpz = MathArrays.linearCombination(wd.getX(), tpy, -wd.getY(), tpx);
+                applyRotation(r, ax, ay, az, out, l + 6);
+                out[l + 6] = MathArrays.linearCombination(1, out[l + 6], -2, cvx, -1, ccpx, -1, cdpx);
+                out[l + 7] = MathArrays.linearCombination(1, out[l + 7], -2, cvy, -1, ccpy, -1, cdpy);
+                out[l + 8] = MathArrays.linearCombination(1, out[l + 8], -2, cvz, -1, ccpz, -1, cdpz);
+            }
+
+        }
+
+    }
+
+    /** Apply a rotation to a vector given by its coordinates, without allocating objects.
+     * <p>
+     * The computation is the same as {@link Rotation#applyTo(Vector3D)}.
+     * </p>
+     * @param r rotation to apply
+     * @param x abscissa of the vector
+     * @param y ordinate of the vector
+     * @param z height of the vector
+     * @param out array where to put rotated vector
+     * @param offset index of the abscissa of rotated vector in output array
+     */
+    private static void applyRotation(final Rotation r, final double x, final double y, final double z,
+                                      final double[] out, final int offset) {
+        final double q0 = r.getQ0();
+        final double q1 = r.getQ1();
+        final double q2 = r.getQ2();
+        final double q3 = r.getQ3();
+        final double s  = q1 * x + q2 * y + q3 * z;
+        out[offset]     = 2 * (q0 * (x * q0 - (q2 * z - q3 * y)) + s * q1) - x;
+        out[offset + 1] = 2 * (q0 * (y * q0 - (q3 * x - q1 * z)) + s * q2) - y;
+        out[offset + 2] = 2 * (q0 * (z * q0 - (q1 * y - q2 * x)) + s * q3) - z;
+    }
+
     /** Compute the Jacobian of the {@link #transformPVCoordinates(PVCoordinates)}
      * method of the transform.
      * <p>
@@ -809,6 +1029,46 @@ public class Transform
             return pv;
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public void transformPositions(final double[] in, final int inOffset,
+                                       final double[] out, final int outOffset,
+                                       final int count) {
+            copy(in, inOffset, out, outOffset, 3 * count);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void transformVectors(final double[] in, final int inOffset,
+                                     final double[] out, final int outOffset,
+                                     final int count) {
+            copy(in, inOffset, out, outOffset, 3 * count);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void transformPVCoordinates(final CartesianDerivativesFilter filter,
+                                           final double[] in, final int inOffset,
+                                           final double[] out, final int outOffset,
+                                           final int count) {
+            copy(in, inOffset, out, outOffset, 3 * (filter.getMaxOrder() + 1) * count);
+        }
+
+        /** Copy packed coordinates.
+         * @param in input array
+         * @param inOffset index of the first element in input array
+         * @param out output array
+         * @param outOffset index of the first element in output array
+         * @param length number of elements to copy
+         */
+        private void copy(final double[] in, final int inOffset,
+                          final double[] out, final int outOffset,
+                          final int length) {
+            if (in != out || inOffset != outOffset) {
+                System.arraycopy(in, inOffset, out, outOffset, length);
+            }
+        }
+
         /** {@inheritDoc} */
         @Override
         public void getJacobian(final CartesianDerivativesFilter selector, final double[][] jacobian) {
@@ -48,4 +48,44 @@ public interface TransformProvider extends Serializable {
      */
     <T extends RealFieldElement<T>> FieldTransform<T> getTransform(FieldAbsoluteDate<T> date) throws OrekitException;
 
+    /** Get the {@link Transform transforms} corresponding to several dates.
+     * <p>
+     * The default implementation simply calls {@link #getTransform(AbsoluteDate)}
+     * for each date. Implementations relying on samples override it to share
+     * the sample search between consecutive dates.
+     * </p>
+     * @param dates current dates (sorted in chronological order for best performance)
+     * @return transforms at specified dates, in the same order as the dates
+     * @exception OrekitException if transforms cannot be computed at given dates
+     * @since 9.2
+     */
+    default Transform[] getTransforms(final AbsoluteDate[] dates) throws OrekitException {
+        final Transform[] transforms = new Transform[dates.length];
+        for (int i = 0; i < dates.length; ++i) {
+            transforms[i] = getTransform(dates[i]);
+        }
+        return transforms;
+    }
+
+    /** Check if the transforms depend only on date.
+     * <p>
+     * Transforms from providers that depend only on date are shared by all
+     * users at the same date when a {@link org.orekit.utils.ComputationContext
+     * computation context} is active. Providers whose transforms depend on
+     * anything else that may change while date does not (for example local
+     * orbital frames built on the state being integrated, which changes between
+     * the stages of a Runge-Kutta step at the same date, or frames depending on
+     * estimated parameters) must return false.
+     * </p>
+     * <p>
+     * The default implementation returns false, so only providers known to depend
+     * only on date are shared.
+     * </p>
+     * @return true if transforms depend only on date
+     * @since 9.2
+     */
+    default boolean dependsOnlyOnDate() {
+        return false;
+    }
+
 }
@@ -24,6 +24,7 @@ import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.utils.ComputationContext;
 
 
 /** Frame whose transform from its parent can be updated.
@@ -178,6 +179,9 @@ public class UpdatableFrame extends Frame {
         // update the existing provider from parent to self
         ((UpdatableProvider) getTransformProvider()).setTransform(parentToSelf);
 
+        // transforms memoized before the update are not valid anymore
+        ComputationContext.invalidate();
+
     }
 
     /** Local provider for transforms. */
@@ -27,6 +27,7 @@ import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
 import org.orekit.frames.Frame;
 import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.instrumentation.PropagationInstrumentation;
 import org.orekit.propagation.sampling.OrekitFixedStepHandler;
 import org.orekit.propagation.sampling.OrekitStepHandler;
 import org.orekit.propagation.sampling.OrekitStepNormalizer;
@@ -64,6 +65,9 @@ public abstract class AbstractPropagator implements Propagator {
     /** Initial state. */
     private SpacecraftState initialState;
 
+    /** Instrumentation (null if propagation is not instrumented). */
+    private PropagationInstrumentation instrumentation;
+
     /** Build a new instance.
      */
     protected AbstractPropagator() {
@@ -71,6 +75,7 @@ public abstract class AbstractPropagator implements Propagator {
         stepHandler              = null;
         fixedStepSize            = Double.NaN;
         additionalStateProviders = new ArrayList<AdditionalStateProvider>();
+        instrumentation          = null;
     }
 
     /** Set a start date.
@@ -244,6 +249,30 @@ public abstract class AbstractPropagator implements Propagator {
         return stepHandler;
     }
 
+    /** Set the instrumentation for propagation.
+     * <p>
+     * When an instrumentation is set, integrated and analytical propagators record
+     * statistics about their force models, events detectors and step handlers in it.
+     * The instrumentation is taken into account at the start of each propagation.
+     * By default, propagation is not instrumented, and there is no overhead at all.
+     * </p>
+     * @param instrumentation instrumentation to use (null to disable instrumentation)
+     * @see #getInstrumentation()
+     * @since 9.2
+     */
+    public void setInstrumentation(final PropagationInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /** Get the instrumentation for propagation.
+     * @return instrumentation used (null if propagation is not instrumented)
+     * @see #setInstrumentation(PropagationInstrumentation)
+     * @since 9.2
+     */
+    public PropagationInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
     /** {@inheritDoc} */
     public abstract BoundedPropagator getGeneratedEphemeris();
 
@@ -0,0 +1,501 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.propagation.conversion.PropagatorBuilder;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+
+/** This class propagates many independent orbits using a bounded number of threads.
+ *
+ * <p>
+ * Contrary to {@link PropagatorsParallelizer}, which keeps all propagators
+ * synchronized so a global handler can process all satellites at once, this
+ * class is intended for large numbers of unrelated satellites. Each propagation
+ * is a separate task that is run from start to end without any synchronization
+ * with the other ones. A fixed number of worker threads pick up the tasks one
+ * at a time, so fast tasks do not wait for slow ones and the load is balanced
+ * automatically between threads.
+ * </p>
+ * <p>
+ * Propagators are built lazily by the worker threads just before being run,
+ * using a {@link PropagatorFactory}, so thousands of tasks can be executed
+ * without having all propagators in memory at the same time. The final states
+ * are provided as a {@link Stream stream} of {@link Result results} in completion
+ * order. The results are handed over through a bounded queue: if the consumer
+ * is slower than the workers, the workers wait until room is available (back-pressure),
+ * so no more than {@code parallelism + capacity} tasks are active or pending
+ * consumption at any time. As a consequence, the results must either be consumed
+ * or the execution be cancelled, otherwise the worker threads remain blocked.
+ * </p>
+ * <p>
+ * A running {@link Execution execution} can be {@link Execution#cancel() cancelled}.
+ * Pending tasks are then not started anymore, running tasks are stopped at their
+ * next step, and worker threads waiting for room in the results queue are interrupted. For this purpose, this class <em>will</em> override the underlying
+ * propagators step handlers. Per-task step handlers can be provided using a
+ * {@link StepHandlerFactory}.
+ * </p>
+ * <p>
+ * As with {@link PropagatorsParallelizer}, care must be taken so that all
+ * propagators can be run in a multi-thread context, i.e. they must be built
+ * independently and rely on force models that are also built independently.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class IndependentPropagatorsExecutor {
+
+    /** Maximum number of threads running the tasks. */
+    private final int parallelism;
+
+    /** Capacity of the results queue. */
+    private final int capacity;
+
+    /** Simple constructor.
+     * @param parallelism maximum number of threads running the tasks
+     * @param capacity capacity of the results queue, i.e. maximum number
+     * of completed tasks whose results have not been consumed yet
+     */
+    public IndependentPropagatorsExecutor(final int parallelism, final int capacity) {
+        if (parallelism < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, parallelism, 1);
+        }
+        if (capacity < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, capacity, 1);
+        }
+        this.parallelism = parallelism;
+        this.capacity    = capacity;
+    }
+
+    /** Get the maximum number of threads running the tasks.
+     * @return maximum number of threads running the tasks
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /** Get the capacity of the results queue.
+     * @return capacity of the results queue
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Start propagation of already built propagators.
+     * @param propagators propagators to run (they must all be independent)
+     * @param target target date to which orbit state should be propagated
+     * @return running execution
+     */
+    public Execution execute(final List<? extends Propagator> propagators, final AbsoluteDate target) {
+        return execute(propagators.size(), i -> propagators.get(i), null, target);
+    }
+
+    /** Start propagation of lazily built propagators.
+     * @param count number of tasks
+     * @param propagatorFactory factory for the propagators
+     * @param handlerFactory factory for the per-task step handlers
+     * (may be null if no step handlers are needed)
+     * @param target target date to which orbit state should be propagated
+     * @return running execution
+     */
+    public Execution execute(final int count, final PropagatorFactory propagatorFactory,
+                             final StepHandlerFactory handlerFactory, final AbsoluteDate target) {
+        final Execution execution = new Execution(count, propagatorFactory, handlerFactory, target);
+        execution.start();
+        return execution;
+    }
+
+    /** Create a propagator factory from a propagator builder.
+     * <p>
+     * As propagator builders are not thread-safe, calls to the builder are
+     * synchronized, only the propagations themselves are run in parallel.
+     * </p>
+     * @param builder builder for the propagators
+     * @param normalizedParameters normalized values for the selected parameters
+     * (including initial orbit), one array for each task
+     * @return propagator factory
+     */
+    public static PropagatorFactory fromBuilder(final PropagatorBuilder builder,
+                                                final List<double[]> normalizedParameters) {
+        return i -> {
+            synchronized (builder) {
+                return builder.buildPropagator(normalizedParameters.get(i));
+            }
+        };
+    }
+
+    /** Factory for propagators. */
+    @FunctionalInterface
+    public interface PropagatorFactory {
+
+        /** Build the propagator for one task.
+         * <p>
+         * This method is called by the worker threads, it may be called
+         * concurrently for different tasks.
+         * </p>
+         * @param index index of the task
+         * @return propagator for the task
+         * @exception OrekitException if propagator cannot be built
+         */
+        Propagator build(int index) throws OrekitException;
+
+    }
+
+    /** Factory for per-task step handlers. */
+    @FunctionalInterface
+    public interface StepHandlerFactory {
+
+        /** Build the step handler for one task.
+         * <p>
+         * This method is called by the worker threads, it may be called
+         * concurrently for different tasks.
+         * </p>
+         * @param index index of the task
+         * @return step handler for the task (may be null)
+         * @exception OrekitException if step handler cannot be built
+         */
+        OrekitStepHandler build(int index) throws OrekitException;
+
+    }
+
+    /** Result of one task. */
+    public static class Result {
+
+        /** Index of the task. */
+        private final int index;
+
+        /** Final state. */
+        private final SpacecraftState state;
+
+        /** Exception that prevented propagation. */
+        private final OrekitException exception;
+
+        /** Simple constructor.
+         * @param index index of the task
+         * @param state final state (null if propagation failed)
+         * @param exception exception that prevented propagation (null if propagation succeeded)
+         */
+        private Result(final int index, final SpacecraftState state, final OrekitException exception) {
+            this.index     = index;
+            this.state     = state;
+            this.exception = exception;
+        }
+
+        /** Get the index of the task.
+         * @return index of the task
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /** Check if propagation succeeded.
+         * @return true if propagation succeeded
+         */
+        public boolean isSuccessful() {
+            return exception == null;
+        }
+
+        /** Get the final state.
+         * @return final state (null if propagation failed)
+         */
+        public SpacecraftState getState() {
+            return state;
+        }
+
+        /** Get the exception that prevented propagation.
+         * @return exception that prevented propagation (null if propagation succeeded)
+         */
+        public OrekitException getException() {
+            return exception;
+        }
+
+    }
+
+    /** Running execution of a set of tasks. */
+    public class Execution {
+
+        /** Marker for end of results. */
+        private final Result end;
+
+        /** Number of tasks. */
+        private final int count;
+
+        /** Factory for the propagators. */
+        private final PropagatorFactory propagatorFactory;
+
+        /** Factory for the step handlers. */
+        private final StepHandlerFactory handlerFactory;
+
+        /** Target date. */
+        private final AbsoluteDate target;
+
+        /** Index of the next task to start. */
+        private final AtomicInteger next;
+
+        /** Number of workers still running. */
+        private final AtomicInteger running;
+
+        /** Cancellation indicator. */
+        private final AtomicBoolean cancelled;
+
+        /** Completed results, pending consumption. */
+        private final BlockingQueue<Result> queue;
+
+        /** Service running the worker threads. */
+        private final ExecutorService executorService;
+
+        /** Simple constructor.
+         * @param count number of tasks
+         * @param propagatorFactory factory for the propagators
+         * @param handlerFactory factory for the per-task step handlers (may be null)
+         * @param target target date
+         */
+        private Execution(final int count, final PropagatorFactory propagatorFactory,
+                          final StepHandlerFactory handlerFactory, final AbsoluteDate target) {
+            this.end               = new Result(-1, null, null);
+            this.count             = count;
+            this.propagatorFactory = propagatorFactory;
+            this.handlerFactory    = handlerFactory;
+            this.target            = target;
+            this.next              = new AtomicInteger(0);
+            this.running           = new AtomicInteger(parallelism);
+            this.cancelled         = new AtomicBoolean(false);
+            this.queue             = new ArrayBlockingQueue<>(capacity);
+            this.executorService   = Executors.newFixedThreadPool(parallelism);
+        }
+
+        /** Start the worker threads. */
+        private void start() {
+            for (int i = 0; i < parallelism; ++i) {
+                executorService.submit(this::work);
+            }
+            // the threads will stop by themselves once all tasks have been run
+            executorService.shutdown();
+        }
+
+        /** Run tasks until there are no more tasks to run. */
+        private void work() {
+            try {
+                while (!cancelled.get()) {
+                    final int index = next.getAndIncrement();
+                    if (index >= count) {
+                        break;
+                    }
+                    final Result result = run(index);
+                    if (result != null && !deliver(result)) {
+                        break;
+                    }
+                }
+            } finally {
+                if (running.decrementAndGet() == 0 && !cancelled.get()) {
+                    // we are the last worker, notify consumer
+                    // (upon cancellation, the end marker is queued by the cancel method)
+                    deliver(end);
+                }
+            }
+        }
+
+        /** Run one task.
+         * @param index index of the task
+         * @return result of the task (null if the task has been cancelled)
+         */
+        private Result run(final int index) {
+            try {
+                final Propagator propagator = propagatorFactory.build(index);
+                propagator.setMasterMode(new CancellableHandler(handlerFactory == null ?
+                                                                null : handlerFactory.build(index)));
+                return new Result(index, propagator.propagate(target), null);
+            } catch (OrekitException oe) {
+                return cancelled.get() ? null : new Result(index, null, oe);
+            } catch (RuntimeException re) {
+                return cancelled.get() ?
+                       null :
+                       new Result(index, null,
+                                  new OrekitException(re, LocalizedCoreFormats.SIMPLE_MESSAGE,
+                                                      re.getLocalizedMessage()));
+            }
+        }
+
+        /** Deliver one result to the consumer.
+         * @param result result to deliver
+         * @return true if the result was delivered, false if execution was cancelled
+         */
+        private boolean deliver(final Result result) {
+            try {
+                // wait for room in the queue, cancel interrupts the wait
+                queue.put(result);
+                return true;
+            } catch (InterruptedException ie) {
+                if (!cancelled.get()) {
+                    // we have been interrupted by someone else
+                    Thread.currentThread().interrupt();
+                    cancel();
+                }
+                return false;
+            }
+        }
+
+        /** Get the results, in completion order.
+         * <p>
+         * The stream blocks waiting for tasks completion as needed. It
+         * can be consumed only once. It ends when all tasks have been
+         * completed or when execution is {@link #cancel() cancelled}.
+         * </p>
+         * @return stream of results
+         */
+        public Stream<Result> results() {
+            final Iterator<Result> iterator = new Iterator<Result>() {
+
+                /** Next result to return. */
+                private Result pending;
+
+                /** Indicator for end of results. */
+                private boolean exhausted;
+
+                /** {@inheritDoc} */
+                @Override
+                public boolean hasNext() {
+                    try {
+                        if (pending == null && !exhausted) {
+                            // wait for next result, cancel queues the end marker to wake us up
+                            final Result result = queue.take();
+                            if (result == end || cancelled.get()) {
+                                exhausted = true;
+                            } else {
+                                pending = result;
+                            }
+                        }
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        cancel();
+                        exhausted = true;
+                    }
+                    return pending != null;
+                }
+
+                /** {@inheritDoc} */
+                @Override
+                public Result next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Result result = pending;
+                    pending = null;
+                    return result;
+                }
+
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                                                                            Spliterator.NONNULL),
+                                        false);
+        }
+
+        /** Cancel the execution.
+         * <p>
+         * Pending tasks are not started anymore, running tasks are stopped at
+         * their next step and worker threads waiting for room in the results
+         * queue are interrupted. Results that have not been consumed yet are
+         * discarded.
+         * </p>
+         */
+        public void cancel() {
+            if (!cancelled.getAndSet(true)) {
+                executorService.shutdownNow();
+                queue.clear();
+                // wake up the consumer if it is waiting for a result,
+                // if the queue is already full again, it will wake up anyway
+                queue.offer(end);
+            }
+        }
+
+        /** Check if the execution has been cancelled.
+         * @return true if the execution has been cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        /** Local step handler checking for cancellation. */
+        private class CancellableHandler implements OrekitStepHandler {
+
+            /** Underlying handler (may be null). */
+            private final OrekitStepHandler handler;
+
+            /** Simple constructor.
+             * @param handler underlying handler (may be null)
+             */
+            CancellableHandler(final OrekitStepHandler handler) {
+                this.handler = handler;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void init(final SpacecraftState s0, final AbsoluteDate t) throws OrekitException {
+                if (handler != null) {
+                    handler.init(s0, t);
+                }
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void handleStep(final OrekitStepInterpolator interpolator, final boolean isLast)
+                throws OrekitException {
+                if (cancelled.get()) {
+                    throw new PropagationCancelledException();
+                }
+                if (handler != null) {
+                    handler.handleStep(interpolator, isLast);
+                }
+            }
+
+        }
+
+    }
+
+    /** Local exception to stop cancelled propagators. */
+    private static class PropagationCancelledException extends OrekitException {
+
+        /** Serializable UID.*/
+        private static final long serialVersionUID = 20171115L;
+
+        /** Simple constructor.
+         */
+        PropagationCancelledException() {
+            super(LocalizedCoreFormats.SIMPLE_MESSAGE, "propagation cancelled");
+        }
+
+    }
+
+}
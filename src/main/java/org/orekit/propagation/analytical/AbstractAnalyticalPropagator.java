@@ -42,6 +42,9 @@ import org.orekit.propagation.events.EventDetector;
 import org.orekit.propagation.events.EventState;
 import org.orekit.propagation.events.EventState.EventOccurrence;
 import org.orekit.propagation.events.handlers.EventHandler.Action;
+import org.orekit.propagation.instrumentation.ComponentType;
+import org.orekit.propagation.instrumentation.Probe;
+import org.orekit.propagation.instrumentation.PropagationInstrumentation;
 import org.orekit.propagation.sampling.OrekitStepInterpolator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.PVCoordinatesProvider;
@@ -78,6 +81,9 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
     /** Event steps. */
     private final Collection<EventState<?>> eventsStates;
 
+    /** Probe for step handler instrumentation (null if not instrumented). */
+    private Probe stepHandlerProbe;
+
     /** Build a new instance.
      * @param attitudeProvider provider for attitude computation
      */
@@ -138,12 +144,17 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
             }
 
             // initialize event detectors
+            final PropagationInstrumentation instrumentation = getInstrumentation();
             for (final EventState<?> es : eventsStates) {
+                es.setProbe((instrumentation == null) ?
+                            null : instrumentation.getProbe(ComponentType.EVENT_DETECTOR, es.getEventDetector()));
                 es.init(state, target);
             }
 
             // initialize step handler
             if (getStepHandler() != null) {
+                stepHandlerProbe = (instrumentation == null) ?
+                                   null : instrumentation.getProbe(ComponentType.STEP_HANDLER, getStepHandler());
                 getStepHandler().init(state, target);
             }
 
@@ -267,9 +278,7 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
                 }
 
                 // handle the first part of the step, up to the event
-                if (getStepHandler() != null) {
-                    getStepHandler().handleStep(restricted, isLastStep);
-                }
+                handleStep(restricted);
 
                 if (isLastStep) {
                     // the event asked to stop integration
@@ -313,14 +322,30 @@ public abstract class AbstractAnalyticalPropagator extends AbstractPropagator {
         isLastStep = target.equals(current.getDate());
 
         // handle the remaining part of the step, after all events if any
-        if (getStepHandler() != null) {
-            getStepHandler().handleStep(interpolator, isLastStep);
-        }
+        handleStep(interpolator);
 
         return current;
 
     }
 
+    /** Call the step handler, if any.
+     * @param interpolator interpolator for the (part of) step to handle
+     * @exception OrekitException if step handler triggers one
+     */
+    private void handleStep(final OrekitStepInterpolator interpolator)
+        throws OrekitException {
+        if (getStepHandler() != null) {
+            if (stepHandlerProbe == null) {
+                getStepHandler().handleStep(interpolator, isLastStep);
+            } else {
+                final long t0 = stepHandlerProbe.startTime();
+                final long b0 = stepHandlerProbe.startBytes();
+                getStepHandler().handleStep(interpolator, isLastStep);
+                stepHandlerProbe.record(t0, b0);
+            }
+        }
+    }
+
     /** Get the mass.
      * @param date target date for the orbit
      * @return mass mass
@@ -0,0 +1,368 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical;
+
+import java.io.Serializable;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Bounded propagator based on piecewise Chebyshev polynomials.
+ * <p>
+ * The ephemeris is split in contiguous segments, each one holding one Chebyshev
+ * polynomial of the first kind per Cartesian coordinate. Velocity and acceleration
+ * are computed by differentiating the polynomials. All data are stored in primitive
+ * arrays, and segment lookup uses a uniform index table, so both memory footprint
+ * and evaluation cost are independent of the number of steps of the propagator that
+ * was used to generate the ephemeris.
+ * </p>
+ * <p>
+ * Instances are built by {@link ChebyshevEphemerisGenerator}, either from any
+ * {@link org.orekit.propagation.Propagator propagator} or on the fly from step
+ * handlers. They are serializable, but the attitude provider is not serialized
+ * and is reset to the {@link #DEFAULT_LAW default law} upon deserialization.
+ * </p>
+ * <p>
+ * Mass is considered constant and additional states are not supported.
+ * </p>
+ * @see ChebyshevEphemerisGenerator
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class ChebyshevEphemeris extends AbstractAnalyticalPropagator implements BoundedPropagator, Serializable {
+
+    /** Default extrapolation time threshold: 1ms. */
+    public static final double DEFAULT_EXTRAPOLATION_THRESHOLD_SEC = 1e-3;
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20171017L;
+
+    /** Reference date (start of the first segment). */
+    private final AbsoluteDate reference;
+
+    /** Segments boundaries, as offsets in seconds from reference date. */
+    private final double[] bounds;
+
+    /** Degree of the Chebyshev polynomials. */
+    private final int degree;
+
+    /** Chebyshev coefficients, per segment, then per coordinate, then per degree. */
+    private final double[] coefficients;
+
+    /** Reference frame. */
+    private final Frame frame;
+
+    /** Central attraction coefficient (m³/s²). */
+    private final double mu;
+
+    /** Spacecraft mass (kg). */
+    private final double mass;
+
+    /** Last date in range. */
+    private final AbsoluteDate maxDate;
+
+    /** Width of the index buckets (s). */
+    private final double bucketWidth;
+
+    /** Index of the first segment overlapping each bucket. */
+    private final int[] buckets;
+
+    /** Simple constructor.
+     * <p>
+     * Arrays are stored without copying them.
+     * </p>
+     * @param reference reference date (start of the first segment)
+     * @param bounds segments boundaries, as offsets in seconds from reference date
+     * (the first element must be 0, the array must be sorted in increasing order)
+     * @param degree degree of the Chebyshev polynomials
+     * @param coefficients Chebyshev coefficients, per segment, then per coordinate
+     * (x, y, z), then per degree (from 0 to {@code degree})
+     * @param frame reference frame
+     * @param mu central attraction coefficient (m³/s²)
+     * @param mass spacecraft mass (kg)
+     */
+    ChebyshevEphemeris(final AbsoluteDate reference, final double[] bounds, final int degree,
+                       final double[] coefficients, final Frame frame,
+                       final double mu, final double mass) {
+
+        super(DEFAULT_LAW);
+
+        final int nbSegments = bounds.length - 1;
+        if (nbSegments < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL,
+                                                     nbSegments, 1);
+        }
+        if (coefficients.length != 3 * (degree + 1) * nbSegments) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     coefficients.length, 3 * (degree + 1) * nbSegments);
+        }
+
+        this.reference    = reference;
+        this.bounds       = bounds;
+        this.degree       = degree;
+        this.coefficients = coefficients;
+        this.frame        = frame;
+        this.mu           = mu;
+        this.mass         = mass;
+        this.maxDate      = reference.shiftedBy(bounds[nbSegments]);
+
+        // set up uniform index, with as many buckets as segments
+        this.bucketWidth  = bounds[nbSegments] / nbSegments;
+        this.buckets      = new int[nbSegments];
+        int s = 0;
+        for (int b = 0; b < nbSegments; ++b) {
+            final double bucketStart = b * bucketWidth;
+            while (s < nbSegments - 1 && bounds[s + 1] <= bucketStart) {
+                ++s;
+            }
+            buckets[b] = s;
+        }
+
+    }
+
+    /** Get the first date of the range.
+     * @return the first date of the range
+     */
+    public AbsoluteDate getMinDate() {
+        return reference;
+    }
+
+    /** Get the last date of the range.
+     * @return the last date of the range
+     */
+    public AbsoluteDate getMaxDate() {
+        return maxDate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Frame getFrame() {
+        return frame;
+    }
+
+    /** Get the central attraction coefficient.
+     * @return central attraction coefficient (m³/s²)
+     */
+    public double getMu() {
+        return mu;
+    }
+
+    /** Get the degree of the Chebyshev polynomials.
+     * @return degree of the Chebyshev polynomials
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /** Get the number of segments.
+     * @return number of segments
+     */
+    public int getNbSegments() {
+        return bounds.length - 1;
+    }
+
+    /** {@inheritDoc} */
+    protected Orbit propagateOrbit(final AbsoluteDate date) throws OrekitException {
+        return new CartesianOrbit(evaluate(date), frame, mu);
+    }
+
+    /** {@inheritDoc} */
+    protected double getMass(final AbsoluteDate date) {
+        return mass;
+    }
+
+    /** {@inheritDoc} */
+    public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame f)
+        throws OrekitException {
+        final TimeStampedPVCoordinates pv = evaluate(date);
+        return (f == frame) ? pv : frame.getTransformTo(f, date).transformPVCoordinates(pv);
+    }
+
+    /** Try (and fail) to reset the initial state.
+     * <p>
+     * This method always throws an exception, as ephemerides cannot be reset.
+     * </p>
+     * @param state new initial state to consider
+     * @exception OrekitException always thrown as ephemerides cannot be reset
+     */
+    public void resetInitialState(final SpacecraftState state)
+        throws OrekitException {
+        throw new OrekitException(OrekitMessages.NON_RESETABLE_STATE);
+    }
+
+    /** {@inheritDoc} */
+    protected void resetIntermediateState(final SpacecraftState state, final boolean forward)
+        throws OrekitException {
+        throw new OrekitException(OrekitMessages.NON_RESETABLE_STATE);
+    }
+
+    /** {@inheritDoc} */
+    public SpacecraftState getInitialState() throws OrekitException {
+        return basicPropagate(getMinDate());
+    }
+
+    /** Evaluate the polynomials.
+     * @param date evaluation date
+     * @return position-velocity-acceleration in ephemeris frame
+     * @exception OrekitException if date is outside of the ephemeris range
+     */
+    private TimeStampedPVCoordinates evaluate(final AbsoluteDate date)
+        throws OrekitException {
+
+        final int    nbSegments = bounds.length - 1;
+        final double t          = date.durationFrom(reference);
+        if (t < -DEFAULT_EXTRAPOLATION_THRESHOLD_SEC ||
+            t > bounds[nbSegments] + DEFAULT_EXTRAPOLATION_THRESHOLD_SEC) {
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE,
+                                      date, reference, maxDate);
+        }
+
+        // O(1) segment lookup
+        final int b = FastMath.max(0, FastMath.min(nbSegments - 1, (int) FastMath.floor(t / bucketWidth)));
+        int s = buckets[b];
+        while (s < nbSegments - 1 && bounds[s + 1] <= t) {
+            ++s;
+        }
+
+        // evaluate polynomials and their derivatives
+        final double start    = bounds[s];
+        final double end      = bounds[s + 1];
+        final double x        = (2 * t - (start + end)) / (end - start);
+        final double scale    = 2 / (end - start);
+        final double[] result = new double[9];
+        for (int k = 0; k < 3; ++k) {
+            clenshaw(coefficients, (3 * s + k) * (degree + 1), degree, x, result, 3 * k);
+        }
+
+        return new TimeStampedPVCoordinates(date,
+                                            new Vector3D(result[0], result[3], result[6]),
+                                            new Vector3D(result[1] * scale, result[4] * scale, result[7] * scale),
+                                            new Vector3D(result[2] * scale * scale,
+                                                         result[5] * scale * scale,
+                                                         result[8] * scale * scale));
+
+    }
+
+    /** Evaluate a Chebyshev series and its first two derivatives with Clenshaw algorithm.
+     * @param c array containing the coefficients
+     * @param offset offset of the coefficient for degree 0 in the array
+     * @param n degree of the series
+     * @param x normalized abscissa, in [-1 ; 1]
+     * @param result placeholder where to put value, first and second derivatives
+     * @param index index of the value in the result array
+     */
+    static void clenshaw(final double[] c, final int offset, final int n, final double x,
+                         final double[] result, final int index) {
+        double b1  = 0;
+        double b2  = 0;
+        double d1  = 0;
+        double d2  = 0;
+        double dd1 = 0;
+        double dd2 = 0;
+        for (int j = n; j > 0; --j) {
+            final double b  = c[offset + j] + 2 * x * b1 - b2;
+            final double d  = 2 * b1 + 2 * x * d1 - d2;
+            final double dd = 4 * d1 + 2 * x * dd1 - dd2;
+            b2  = b1;
+            b1  = b;
+            d2  = d1;
+            d1  = d;
+            dd2 = dd1;
+            dd1 = dd;
+        }
+        result[index]     = c[offset] + x * b1 - b2;
+        result[index + 1] = b1 + x * d1 - d2;
+        result[index + 2] = 2 * d1 + x * dd1 - dd2;
+    }
+
+    /** Replace the instance with a data transfer object for serialization.
+     * @return data transfer object that will be serialized
+     */
+    private Object writeReplace() {
+        return new DataTransferObject(reference, bounds, degree, coefficients, frame, mu, mass);
+    }
+
+    /** Internal class used only for serialization. */
+    private static class DataTransferObject implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171017L;
+
+        /** Reference date. */
+        private final AbsoluteDate reference;
+
+        /** Segments boundaries. */
+        private final double[] bounds;
+
+        /** Degree of the Chebyshev polynomials. */
+        private final int degree;
+
+        /** Chebyshev coefficients. */
+        private final double[] coefficients;
+
+        /** Reference frame. */
+        private final Frame frame;
+
+        /** Central attraction coefficient (m³/s²). */
+        private final double mu;
+
+        /** Spacecraft mass (kg). */
+        private final double mass;
+
+        /** Simple constructor.
+         * @param reference reference date
+         * @param bounds segments boundaries
+         * @param degree degree of the Chebyshev polynomials
+         * @param coefficients Chebyshev coefficients
+         * @param frame reference frame
+         * @param mu central attraction coefficient (m³/s²)
+         * @param mass spacecraft mass (kg)
+         */
+        private DataTransferObject(final AbsoluteDate reference, final double[] bounds, final int degree,
+                                   final double[] coefficients, final Frame frame,
+                                   final double mu, final double mass) {
+            this.reference    = reference;
+            this.bounds       = bounds;
+            this.degree       = degree;
+            this.coefficients = coefficients;
+            this.frame        = frame;
+            this.mu           = mu;
+            this.mass         = mass;
+        }
+
+        /** Replace the deserialized data transfer object with a
+         * {@link ChebyshevEphemeris}.
+         * @return replacement {@link ChebyshevEphemeris}
+         */
+        private Object readResolve() {
+            return new ChebyshevEphemeris(reference, bounds, degree, coefficients, frame, mu, mass);
+        }
+
+    }
+
+}
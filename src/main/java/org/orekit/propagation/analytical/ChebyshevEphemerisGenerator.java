@@ -0,0 +1,471 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.PVCoordinatesProvider;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/** Generator for {@link ChebyshevEphemeris Chebyshev-compressed ephemerides}.
+ * <p>
+ * The generator fits piecewise Chebyshev polynomials with adaptive segments
+ * lengths. Each segment is fitted by interpolation at Chebyshev nodes and
+ * then checked at intermediate points (including both segment ends, to ensure
+ * continuity) against position and velocity tolerances. Segments that fail the
+ * check are halved, segments that succeed allow the next segment to be longer,
+ * up to a user-specified maximum duration. Segments are never reduced below
+ * {@link #MIN_SEGMENT_DURATION}; if even such a short segment does not fulfill
+ * the tolerances (typically across a discontinuity like an impulse maneuver),
+ * an exception is thrown with the achieved errors, so trajectories with
+ * discontinuities must be fitted as separate ephemerides.
+ * </p>
+ * <p>
+ * The generator can be used in two ways:
+ * </p>
+ * <ul>
+ *   <li>by calling {@link #fit(Propagator, AbsoluteDate, AbsoluteDate)}, which
+ *   samples any propagator,</li>
+ *   <li>by registering it as a step handler to a propagator in
+ *   {@link Propagator#setMasterMode(OrekitStepHandler) master mode} and retrieving
+ *   the ephemeris by calling {@link #getEphemeris()} once propagation is complete.
+ *   In this case, for forward propagation only the steps that are needed for the
+ *   current segments are retained in memory. As retained steps are evaluated
+ *   after they have been handled, this mode should not be used with analytical
+ *   propagators whose state may be reset during propagation (for example by
+ *   impulse maneuvers), as their step interpolators always use the current
+ *   propagator state.</li>
+ * </ul>
+ * <p>
+ * In both cases, mass is assumed to be constant and equal to its value at
+ * propagation start. This class is <em>not</em> thread-safe.
+ * </p>
+ * @see ChebyshevEphemeris
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class ChebyshevEphemerisGenerator implements OrekitStepHandler {
+
+    /** Minimum segment duration (s). */
+    public static final double MIN_SEGMENT_DURATION = 1.0;
+
+    /** Growth factor for segments following a successful fit. */
+    private static final double GROWTH = 1.5;
+
+    /** Number of maximum segments durations to buffer before fitting in streaming mode. */
+    private static final int BUFFERED_SEGMENTS = 3;
+
+    /** Ephemeris frame. */
+    private final Frame frame;
+
+    /** Degree of the Chebyshev polynomials. */
+    private final int degree;
+
+    /** Position tolerance (m). */
+    private final double positionTolerance;
+
+    /** Velocity tolerance (m/s). */
+    private final double velocityTolerance;
+
+    /** Maximum segment duration (s). */
+    private final double maxSegment;
+
+    /** Normalized abscissae of the interpolation nodes. */
+    private final double[] nodes;
+
+    /** Cosines table for the discrete cosine transform. */
+    private final double[][] cosines;
+
+    /** Normalized abscissae of the check points. */
+    private final double[] checks;
+
+    /** Values at interpolation nodes (one coordinate per row). */
+    private final double[][] values;
+
+    /** Coefficients of the segment being fitted. */
+    private final double[] candidate;
+
+    /** Scratch array for polynomials evaluation. */
+    private final double[] scratch;
+
+    /** Reference date of the ephemeris being built. */
+    private AbsoluteDate reference;
+
+    /** Segments boundaries of the ephemeris being built. */
+    private double[] bounds;
+
+    /** Coefficients of the ephemeris being built. */
+    private double[] coefficients;
+
+    /** Number of segments of the ephemeris being built. */
+    private int nbSegments;
+
+    /** Position error of the last fitted segment (m). */
+    private double positionError;
+
+    /** Velocity error of the last fitted segment (m/s). */
+    private double velocityError;
+
+    /** Trial duration for next segment. */
+    private double trial;
+
+    /** Central attraction coefficient (m³/s²). */
+    private double mu;
+
+    /** Spacecraft mass (kg). */
+    private double mass;
+
+    /** Retained steps (streaming mode only). */
+    private final List<OrekitStepInterpolator> steps;
+
+    /** Last generated ephemeris (streaming mode only). */
+    private ChebyshevEphemeris ephemeris;
+
+    /** Simple constructor.
+     * @param frame ephemeris frame
+     * @param degree degree of the Chebyshev polynomials (typically between 8 and 20)
+     * @param positionTolerance position tolerance (m)
+     * @param velocityTolerance velocity tolerance (m/s)
+     * @param maxSegment maximum segment duration (s)
+     */
+    public ChebyshevEphemerisGenerator(final Frame frame, final int degree,
+                                       final double positionTolerance, final double velocityTolerance,
+                                       final double maxSegment) {
+
+        if (degree < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, degree, 1);
+        }
+        if (positionTolerance <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED,
+                                                     positionTolerance, 0.0);
+        }
+        if (velocityTolerance <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED,
+                                                     velocityTolerance, 0.0);
+        }
+        if (maxSegment < MIN_SEGMENT_DURATION) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL,
+                                                     maxSegment, MIN_SEGMENT_DURATION);
+        }
+
+        this.frame             = frame;
+        this.degree            = degree;
+        this.positionTolerance = positionTolerance;
+        this.velocityTolerance = velocityTolerance;
+        this.maxSegment        = maxSegment;
+
+        // interpolation nodes are the roots of T(n+1), check points are the extrema
+        // of T(2n+2), hence they include the nodes themselves (where velocity is not
+        // interpolated), the points halfway between them and the segments ends
+        final int n = degree + 1;
+        this.nodes   = new double[n];
+        this.cosines = new double[n][n];
+        this.checks  = new double[2 * n + 1];
+        for (int k = 0; k < n; ++k) {
+            nodes[k] = FastMath.cos(FastMath.PI * (k + 0.5) / n);
+            for (int j = 0; j < n; ++j) {
+                cosines[j][k] = FastMath.cos(FastMath.PI * j * (k + 0.5) / n);
+            }
+        }
+        for (int k = 0; k < checks.length; ++k) {
+            checks[k] = FastMath.cos(FastMath.PI * k / (2 * n));
+        }
+        this.values    = new double[3][n];
+        this.candidate = new double[3 * n];
+        this.scratch   = new double[3];
+        this.steps     = new ArrayList<>();
+
+    }
+
+    /** Fit an ephemeris on a propagator.
+     * <p>
+     * The propagator is sampled by calling its {@link
+     * Propagator#getPVCoordinates(AbsoluteDate, Frame) getPVCoordinates} method,
+     * mostly in chronological order. Central attraction coefficient and mass
+     * are taken from the state at {@code start}.
+     * </p>
+     * @param propagator propagator to fit
+     * @param start start date of the ephemeris
+     * @param end end date of the ephemeris (must be after start)
+     * @return fitted ephemeris
+     * @exception OrekitException if propagator cannot be sampled
+     */
+    public ChebyshevEphemeris fit(final Propagator propagator,
+                                  final AbsoluteDate start, final AbsoluteDate end)
+        throws OrekitException {
+        if (end.durationFrom(start) <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED,
+                                                     end.durationFrom(start), 0.0);
+        }
+        final SpacecraftState s0 = propagator.propagate(start);
+        reset(start, s0.getMu(), s0.getMass());
+        fitSpan(propagator, end, true);
+        return buildEphemeris();
+    }
+
+    /** Get the ephemeris generated during last propagation in master mode.
+     * @return ephemeris generated during last propagation
+     * @exception OrekitException if no propagation has been completed
+     */
+    public ChebyshevEphemeris getEphemeris() throws OrekitException {
+        if (ephemeris == null) {
+            throw new OrekitException(OrekitMessages.PROPAGATOR_NOT_IN_EPHEMERIS_GENERATION_MODE);
+        }
+        return ephemeris;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final SpacecraftState s0, final AbsoluteDate t) {
+        steps.clear();
+        ephemeris = null;
+        reference = null;
+        mu        = s0.getMu();
+        mass      = s0.getMass();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handleStep(final OrekitStepInterpolator interpolator, final boolean isLast)
+        throws OrekitException {
+
+        steps.add(interpolator);
+        final StepsProvider provider = new StepsProvider();
+
+        if (interpolator.isForward()) {
+            if (reference == null) {
+                reset(interpolator.getPreviousState().getDate(), mu, mass);
+            }
+            final AbsoluteDate available = interpolator.getCurrentState().getDate();
+            if (isLast || available.durationFrom(reference) - bounds[nbSegments] >= BUFFERED_SEGMENTS * maxSegment) {
+                fitSpan(provider, available, isLast);
+                // drop the steps that are not needed anymore
+                final AbsoluteDate fitted = reference.shiftedBy(bounds[nbSegments]);
+                while (steps.size() > 1 && steps.get(0).getCurrentState().getDate().compareTo(fitted) <= 0) {
+                    steps.remove(0);
+                }
+            }
+        } else if (isLast) {
+            // backward propagation: all steps have been retained, we fit them in one go
+            reset(interpolator.getCurrentState().getDate(), mu, mass);
+            fitSpan(provider, steps.get(0).getPreviousState().getDate(), true);
+        }
+
+        if (isLast) {
+            ephemeris = buildEphemeris();
+            steps.clear();
+        }
+
+    }
+
+    /** Reset the ephemeris being built.
+     * @param start start date
+     * @param newMu central attraction coefficient (m³/s²)
+     * @param newMass spacecraft mass (kg)
+     */
+    private void reset(final AbsoluteDate start, final double newMu, final double newMass) {
+        reference    = start;
+        bounds       = new double[16];
+        coefficients = new double[(bounds.length - 1) * candidate.length];
+        nbSegments   = 0;
+        trial        = maxSegment;
+        mu           = newMu;
+        mass         = newMass;
+    }
+
+    /** Build the ephemeris from the fitted segments.
+     * @return fitted ephemeris
+     */
+    private ChebyshevEphemeris buildEphemeris() {
+        return new ChebyshevEphemeris(reference,
+                                      Arrays.copyOf(bounds, nbSegments + 1),
+                                      degree,
+                                      Arrays.copyOf(coefficients, nbSegments * candidate.length),
+                                      frame, mu, mass);
+    }
+
+    /** Fit segments up to some date.
+     * @param provider provider for the positions and velocities
+     * @param end end of the available data
+     * @param complete if true, the last segment is shortened to end exactly
+     * at {@code end}, otherwise fitting stops as soon as next segment would go
+     * beyond {@code end}
+     * @exception OrekitException if provider cannot be sampled or if a segment
+     * with {@link #MIN_SEGMENT_DURATION minimum duration} still does not fulfill
+     * the tolerances
+     */
+    private void fitSpan(final PVCoordinatesProvider provider, final AbsoluteDate end,
+                         final boolean complete)
+        throws OrekitException {
+
+        final double endOffset = end.durationFrom(reference);
+        while (bounds[nbSegments] < endOffset) {
+
+            final double  start     = bounds[nbSegments];
+            final double  remaining = endOffset - start;
+            final boolean truncated = remaining <= trial;
+            if (truncated && !complete) {
+                // wait for more data
+                return;
+            }
+
+            // avoid ending with a sliver segment, as short segments amplify
+            // rounding errors in the velocity derived from the polynomials
+            double duration = trial;
+            if (truncated) {
+                duration = remaining;
+            } else if (complete && remaining < 2 * trial) {
+                duration = 0.5 * remaining;
+            }
+            boolean shrunk   = false;
+            while (!fitSegment(provider, start, duration)) {
+                if (duration <= MIN_SEGMENT_DURATION) {
+                    throw new OrekitException(OrekitMessages.CHEBYSHEV_SEGMENT_TOLERANCE_NOT_FULFILLED,
+                                              reference.shiftedBy(start), duration,
+                                              positionError, positionTolerance,
+                                              velocityError, velocityTolerance);
+                }
+                duration = FastMath.max(0.5 * duration, MIN_SEGMENT_DURATION);
+                shrunk   = true;
+            }
+
+            // store the accepted segment
+            if (nbSegments + 2 > bounds.length) {
+                bounds       = Arrays.copyOf(bounds, 2 * bounds.length);
+                coefficients = Arrays.copyOf(coefficients, (bounds.length - 1) * candidate.length);
+            }
+            System.arraycopy(candidate, 0, coefficients, nbSegments * candidate.length, candidate.length);
+            bounds[++nbSegments] = (truncated && !shrunk) ? endOffset : start + duration;
+
+            trial = shrunk ? duration : FastMath.min(maxSegment, GROWTH * duration);
+
+        }
+
+    }
+
+    /** Fit one segment.
+     * <p>
+     * The coefficients are stored in the {@link #candidate} array and
+     * the maximum errors at check points in the {@link #positionError}
+     * and {@link #velocityError} fields.
+     * </p>
+     * @param provider provider for the positions and velocities
+     * @param start segment start, as an offset from reference date
+     * @param duration segment duration
+     * @return true if the fitted segment fulfills the tolerances
+     * @exception OrekitException if provider cannot be sampled
+     */
+    private boolean fitSegment(final PVCoordinatesProvider provider,
+                               final double start, final double duration)
+        throws OrekitException {
+
+        final int    n      = degree + 1;
+        final double middle = start + 0.5 * duration;
+
+        // sample positions at interpolation nodes
+        for (int k = 0; k < n; ++k) {
+            final PVCoordinates pv =
+                    provider.getPVCoordinates(reference.shiftedBy(middle + 0.5 * duration * nodes[k]), frame);
+            values[0][k] = pv.getPosition().getX();
+            values[1][k] = pv.getPosition().getY();
+            values[2][k] = pv.getPosition().getZ();
+        }
+
+        // compute Chebyshev coefficients using discrete cosine transform
+        for (int i = 0; i < 3; ++i) {
+            for (int j = 0; j < n; ++j) {
+                double sum = 0;
+                for (int k = 0; k < n; ++k) {
+                    sum += values[i][k] * cosines[j][k];
+                }
+                candidate[i * n + j] = (j == 0 ? 1.0 : 2.0) * sum / n;
+            }
+        }
+
+        // check the fit at interleaved points
+        final double scale = 2 / duration;
+        double pErr2 = 0;
+        double vErr2 = 0;
+        for (final double x : checks) {
+            final TimeStampedPVCoordinates pv =
+                    provider.getPVCoordinates(reference.shiftedBy(middle + 0.5 * duration * x), frame);
+            ChebyshevEphemeris.clenshaw(candidate, 0, degree, x, scratch, 0);
+            final double dpx = scratch[0] - pv.getPosition().getX();
+            final double dvx = scratch[1] * scale - pv.getVelocity().getX();
+            ChebyshevEphemeris.clenshaw(candidate, n, degree, x, scratch, 0);
+            final double dpy = scratch[0] - pv.getPosition().getY();
+            final double dvy = scratch[1] * scale - pv.getVelocity().getY();
+            ChebyshevEphemeris.clenshaw(candidate, 2 * n, degree, x, scratch, 0);
+            final double dpz = scratch[0] - pv.getPosition().getZ();
+            final double dvz = scratch[1] * scale - pv.getVelocity().getZ();
+            pErr2 = FastMath.max(pErr2, dpx * dpx + dpy * dpy + dpz * dpz);
+            vErr2 = FastMath.max(vErr2, dvx * dvx + dvy * dvy + dvz * dvz);
+        }
+        positionError = FastMath.sqrt(pErr2);
+        velocityError = FastMath.sqrt(vErr2);
+
+        return positionError <= positionTolerance && velocityError <= velocityTolerance;
+
+    }
+
+    /** Provider for positions and velocities based on retained steps. */
+    private class StepsProvider implements PVCoordinatesProvider {
+
+        /** Index of the last step used. */
+        private int last;
+
+        /** {@inheritDoc} */
+        @Override
+        public TimeStampedPVCoordinates getPVCoordinates(final AbsoluteDate date, final Frame f)
+            throws OrekitException {
+
+            // start search from last used step, as sampling is mostly chronological
+            for (int i = 0; i < steps.size(); ++i) {
+                final int index = (last + i) % steps.size();
+                final OrekitStepInterpolator step = steps.get(index);
+                final double dtPrevious = date.durationFrom(step.getPreviousState().getDate());
+                final double dtCurrent  = date.durationFrom(step.getCurrentState().getDate());
+                if (dtPrevious * dtCurrent <= 0) {
+                    last = index;
+                    return step.getInterpolatedState(date).getPVCoordinates(f);
+                }
+            }
+
+            // this should never happen as fitting is limited to available steps
+            throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, date,
+                                      steps.get(0).getPreviousState().getDate(),
+                                      steps.get(steps.size() - 1).getCurrentState().getDate());
+
+        }
+
+    }
+
+}
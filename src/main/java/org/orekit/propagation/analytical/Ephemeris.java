@@ -19,7 +19,6 @@ package org.orekit.propagation.analytical;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.exception.MathIllegalArgumentException;
@@ -182,7 +181,7 @@ public class Ephemeris extends AbstractAnalyticalPropagator implements BoundedPr
         } else {
             central = date;
         }
-        final List<SpacecraftState> neighbors = cache.getNeighbors(central).collect(Collectors.toList());
+        final List<SpacecraftState> neighbors = cache.getNeighborsList(central);
         evaluatedState = neighbors.get(0).interpolate(date, neighbors);
 
         final AttitudeProvider attitudeProvider = getAttitudeProvider();
@@ -0,0 +1,256 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+
+/** Batch propagator for whole catalogs of {@link TLE Two-Line Elements}.
+ * <p>
+ * This class holds one initialized {@link TLEPropagator SGP4 or SDP4} model
+ * for each TLE of a catalog and propagates all of them at once to a common
+ * date or to a common grid of dates. Results are position and velocity in
+ * {@link FramesFactory#getTEME() TEME} frame, stored in packed arrays with
+ * six elements per object and per date (x, y, z, v<sub>x</sub>, v<sub>y</sub>,
+ * v<sub>z</sub>), without any intermediate {@link org.orekit.propagation.SpacecraftState
+ * SpacecraftState} or {@link org.orekit.utils.PVCoordinates PVCoordinates} objects.
+ * The objects are split in chunks that are spread across the threads of a
+ * {@link ForkJoinPool}.
+ * </p>
+ * <p>
+ * As the exact same models are used, the results are bit-for-bit identical to
+ * the ones returned by {@link TLEPropagator#getPVCoordinates(AbsoluteDate)} for
+ * each TLE.
+ * </p>
+ * <p>
+ * Large catalogs often contain objects that cannot be propagated at some dates
+ * (for example decayed objects with too low perigee or too large eccentricity).
+ * Such failures do not stop the batch: the six elements corresponding to the
+ * failed object and date are set to {@code Double.NaN} and the number of failures
+ * is returned by the propagation methods.
+ * </p>
+ * <p>
+ * Instances of this class are <em>not</em> thread-safe: the internal models
+ * are updated during propagation, so the propagation methods must not be called
+ * concurrently by several threads (they already use several threads internally).
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class TLEBatchPropagator {
+
+    /** Number of elements per object and per date in packed arrays. */
+    public static final int PV_SIZE = 6;
+
+    /** Minimum number of objects in a chunk processed by a single thread. */
+    private static final int MIN_CHUNK = 64;
+
+    /** Initial TLEs. */
+    private final List<TLE> tles;
+
+    /** Models for all TLEs. */
+    private final TLEPropagator[] propagators;
+
+    /** TLE frame. */
+    private final Frame teme;
+
+    /** Pool executing the tasks. */
+    private final ForkJoinPool pool;
+
+    /** Simple constructor using the {@link ForkJoinPool#commonPool() common pool}.
+     * @param tles catalog of TLEs to propagate
+     * @exception OrekitException if some model cannot be initialized
+     */
+    public TLEBatchPropagator(final List<TLE> tles)
+        throws OrekitException {
+        this(tles, ForkJoinPool.commonPool());
+    }
+
+    /** Simple constructor.
+     * @param tles catalog of TLEs to propagate
+     * @param pool pool executing the propagation tasks
+     * @exception OrekitException if some model cannot be initialized
+     */
+    public TLEBatchPropagator(final List<TLE> tles, final ForkJoinPool pool)
+        throws OrekitException {
+        this.tles        = Collections.unmodifiableList(new ArrayList<>(tles));
+        this.propagators = new TLEPropagator[tles.size()];
+        this.teme        = FramesFactory.getTEME();
+        this.pool        = pool;
+        try {
+            final List<TLE> catalog = this.tles;
+            pool.invoke(new Chunk(index -> {
+                propagators[index] = TLEPropagator.selectExtrapolator(catalog.get(index));
+                return 0;
+            }, 0, propagators.length));
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+    }
+
+    /** Get the number of objects in the catalog.
+     * @return number of objects in the catalog
+     */
+    public int getSize() {
+        return propagators.length;
+    }
+
+    /** Get the TLEs of the catalog.
+     * @return unmodifiable view of the TLEs of the catalog,
+     * in the same order as in the packed arrays
+     */
+    public List<TLE> getTLEs() {
+        return tles;
+    }
+
+    /** Get the frame in which positions and velocities are computed.
+     * @return frame in which positions and velocities are computed (TEME)
+     */
+    public Frame getFrame() {
+        return teme;
+    }
+
+    /** Propagate all objects to a common date.
+     * <p>
+     * Position and velocity of object {@code i} are stored in elements
+     * {@code PV_SIZE * i} to {@code PV_SIZE * i + 5} of the {@code pv} array.
+     * </p>
+     * @param date target date
+     * @param pv array where to store positions and velocities
+     * (must contain at least {@code PV_SIZE * getSize()} elements)
+     * @return number of objects that could not be propagated (and
+     * whose elements have been set to {@code Double.NaN})
+     */
+    public int propagate(final AbsoluteDate date, final double[] pv) {
+        return propagate(new AbsoluteDate[] {
+            date
+        }, pv);
+    }
+
+    /** Propagate all objects to a common grid of dates.
+     * <p>
+     * Position and velocity of object {@code i} at date {@code dates[k]} are stored
+     * in elements {@code PV_SIZE * (k * getSize() + i)} to {@code PV_SIZE * (k * getSize() + i) + 5}
+     * of the {@code pv} array.
+     * </p>
+     * @param dates target dates
+     * @param pv array where to store positions and velocities
+     * (must contain at least {@code PV_SIZE * dates.length * getSize()} elements)
+     * @return number of (object, date) pairs that could not be propagated (and
+     * whose elements have been set to {@code Double.NaN})
+     */
+    public int propagate(final AbsoluteDate[] dates, final double[] pv) {
+
+        final int n = propagators.length;
+        if (pv.length < PV_SIZE * dates.length * n) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     pv.length, PV_SIZE * dates.length * n);
+        }
+
+        return pool.invoke(new Chunk(index -> {
+            int failures = 0;
+            for (int k = 0; k < dates.length; ++k) {
+                final int offset = PV_SIZE * (k * n + index);
+                try {
+                    propagators[index].getPVCoordinates(dates[k], pv, offset);
+                } catch (OrekitException oe) {
+                    Arrays.fill(pv, offset, offset + PV_SIZE, Double.NaN);
+                    ++failures;
+                }
+            }
+            return failures;
+        }, 0, n));
+
+    }
+
+    /** Interface for processing one object of the catalog. */
+    private interface Processor {
+
+        /** Process one object.
+         * @param index index of the object in the catalog
+         * @return number of failures
+         * @exception OrekitException if processing fails
+         */
+        int process(int index) throws OrekitException;
+
+    }
+
+    /** Task processing a contiguous range of objects. */
+    private static class Chunk extends RecursiveTask<Integer> {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171114L;
+
+        /** Processor for individual objects. */
+        private final transient Processor processor;
+
+        /** Index of the first object to process. */
+        private final int from;
+
+        /** Index after the last object to process. */
+        private final int to;
+
+        /** Simple constructor.
+         * @param processor processor for individual objects
+         * @param from index of the first object to process
+         * @param to index after the last object to process
+         */
+        Chunk(final Processor processor, final int from, final int to) {
+            this.processor = processor;
+            this.from      = from;
+            this.to        = to;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Integer compute() {
+            if (to - from <= MIN_CHUNK) {
+                // small enough range, process it directly
+                try {
+                    int failures = 0;
+                    for (int index = from; index < to; ++index) {
+                        failures += processor.process(index);
+                    }
+                    return failures;
+                } catch (OrekitException oe) {
+                    throw new OrekitExceptionWrapper(oe);
+                }
+            } else {
+                // split the range in two halves
+                final int   middle = (from + to) / 2;
+                final Chunk first  = new Chunk(processor, from, middle);
+                first.fork();
+                final int secondFailures = new Chunk(processor, middle, to).compute();
+                return first.join() + secondFailures;
+            }
+        }
+
+    }
+
+}
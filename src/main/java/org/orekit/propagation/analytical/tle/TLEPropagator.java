@@ -237,10 +237,33 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
     public PVCoordinates getPVCoordinates(final AbsoluteDate date)
         throws OrekitException {
 
+        final double[] pv = new double[6];
+        getPVCoordinates(date, pv, 0);
+        return new PVCoordinates(new Vector3D(pv[0], pv[1], pv[2]),
+                                 new Vector3D(pv[3], pv[4], pv[5]));
+
+    }
+
+    /** Get the extrapolated position and velocity from an initial TLE, as packed values.
+     * <p>
+     * The position and velocity are stored as six consecutive elements
+     * (x, y, z, v<sub>x</sub>, v<sub>y</sub>, v<sub>z</sub>) in {@link #getFrame() TEME} frame,
+     * they are exactly the same as the ones returned by {@link #getPVCoordinates(AbsoluteDate)}.
+     * </p>
+     * @param date the final date
+     * @param pv array where to store position and velocity
+     * @param offset index of the first element to store in the array
+     * @exception OrekitException if propagation cannot be performed at given date
+     * @since 9.2
+     */
+    void getPVCoordinates(final AbsoluteDate date, final double[] pv, final int offset)
+        throws OrekitException {
+
         sxpPropagate(date.durationFrom(tle.getDate()) / 60.0);
 
         // Compute PV with previous calculated parameters
-        return computePVCoordinates();
+        computePVCoordinates(pv, offset);
+
     }
 
     /** Computation of the first commons parameters.
@@ -334,11 +357,12 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
     }
 
     /** Retrieves the position and velocity.
-     * @return the computed PVCoordinates.
+     * @param pv array where to store position and velocity
+     * @param offset index of the first element to store in the array
      * @exception OrekitException if current orbit is out of supported range
      * (too large eccentricity, too low perigee ...)
      */
-    private PVCoordinates computePVCoordinates() throws OrekitException {
+    private void computePVCoordinates(final double[] pv, final int offset) throws OrekitException {
 
         // Long period periodics
         final double axn = e * FastMath.cos(omega);
@@ -436,7 +460,9 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
 
         // Position and velocity
         final double cr = 1000 * rk * TLEConstants.EARTH_RADIUS;
-        final Vector3D pos = new Vector3D(cr * ux, cr * uy, cr * uz);
+        pv[offset]     = cr * ux;
+        pv[offset + 1] = cr * uy;
+        pv[offset + 2] = cr * uz;
 
         final double rdot   = TLEConstants.XKE * FastMath.sqrt(a) * esinE / r;
         final double rfdot  = TLEConstants.XKE * FastMath.sqrt(pl) / r;
@@ -448,11 +474,9 @@ public abstract class TLEPropagator extends AbstractAnalyticalPropagator {
         final double vz     = sinik * cosuk;
 
         final double cv = 1000.0 * TLEConstants.EARTH_RADIUS / 60.0;
-        final Vector3D vel = new Vector3D(cv * (rdotk * ux + rfdotk * vx),
-                                          cv * (rdotk * uy + rfdotk * vy),
-                                          cv * (rdotk * uz + rfdotk * vz));
-
-        return new PVCoordinates(pos, vel);
+        pv[offset + 3] = cv * (rdotk * ux + rfdotk * vx);
+        pv[offset + 4] = cv * (rdotk * uy + rfdotk * vy);
+        pv[offset + 5] = cv * (rdotk * uz + rfdotk * vz);
 
     }
 
@@ -0,0 +1,97 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.conjunction;
+
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+
+/** Container for one close approach between two objects.
+ * @see ConjunctionScreener
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class CloseApproach implements TimeStamped {
+
+    /** Index of the first object. */
+    private final int first;
+
+    /** Index of the second object. */
+    private final int second;
+
+    /** Time of closest approach. */
+    private final AbsoluteDate tca;
+
+    /** Miss distance. */
+    private final double missDistance;
+
+    /** Relative speed at time of closest approach. */
+    private final double relativeSpeed;
+
+    /** Simple constructor.
+     * @param first index of the first object
+     * @param second index of the second object
+     * @param tca time of closest approach
+     * @param missDistance miss distance (m)
+     * @param relativeSpeed relative speed at time of closest approach (m/s)
+     */
+    public CloseApproach(final int first, final int second, final AbsoluteDate tca,
+                         final double missDistance, final double relativeSpeed) {
+        this.first         = first;
+        this.second        = second;
+        this.tca           = tca;
+        this.missDistance  = missDistance;
+        this.relativeSpeed = relativeSpeed;
+    }
+
+    /** Get the index of the first object.
+     * @return index of the first object in the screened list
+     * (always smaller than {@link #getSecondIndex() the index of the second object})
+     */
+    public int getFirstIndex() {
+        return first;
+    }
+
+    /** Get the index of the second object.
+     * @return index of the second object in the screened list
+     */
+    public int getSecondIndex() {
+        return second;
+    }
+
+    /** Get the time of closest approach.
+     * @return time of closest approach
+     */
+    @Override
+    public AbsoluteDate getDate() {
+        return tca;
+    }
+
+    /** Get the miss distance.
+     * @return distance between the objects at time of closest approach (m)
+     */
+    public double getMissDistance() {
+        return missDistance;
+    }
+
+    /** Get the relative speed.
+     * @return relative speed of the objects at time of closest approach (m/s)
+     */
+    public double getRelativeSpeed() {
+        return relativeSpeed;
+    }
+
+}
@@ -0,0 +1,636 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.conjunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.analysis.UnivariateFunction;
+import org.hipparchus.analysis.solvers.AllowedSolution;
+import org.hipparchus.analysis.solvers.BracketedUnivariateSolver;
+import org.hipparchus.analysis.solvers.BracketingNthOrderBrentSolver;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathRuntimeException;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.PVCoordinatesProvider;
+
+/** All-versus-all screening of close approaches in a set of objects.
+ * <p>
+ * The objects are any {@link PVCoordinatesProvider}, typically {@link
+ * org.orekit.propagation.Propagator propagators} or {@link
+ * org.orekit.propagation.BoundedPropagator ephemerides}. The screening
+ * avoids the naive evaluation of all pairs at each time step, it uses
+ * several filters:
+ * </p>
+ * <ol>
+ *   <li>an apogee/perigee filter rejecting pairs whose osculating
+ *   radial shells at window start are separated by more than the
+ *   miss distance threshold plus a safety {@link #setApsidesMargin(double)
+ *   margin} accounting for perturbations,</li>
+ *   <li>a spatial hash at coarse time steps: between two consecutive
+ *   samples, each object is enclosed in a bounding box taking into account
+ *   the curvature of its trajectory, boxes are registered in a uniform grid,
+ *   and only pairs of objects sharing a grid cell and whose boxes overlap
+ *   are considered; the grid cells are sized according to a quantile of the
+ *   boxes extents, the few boxes larger than one cell (typically fast objects
+ *   near perigee) are kept in a separate overflow list and checked against
+ *   all other boxes,</li>
+ *   <li>a relative chord filter: between two consecutive samples, the relative
+ *   trajectory remains close to the chord joining the relative positions, so
+ *   pairs for which this chord remains far from the origin are rejected,</li>
+ *   <li>a time of closest approach root finder on the range rate between the
+ *   two objects, in the same spirit as the {@link
+ *   org.orekit.propagation.events.EventState events} handling.</li>
+ * </ol>
+ * <p>
+ * Only two samples per object are kept in memory at any time, so catalogs with
+ * tens of thousands of objects can be screened over long windows. The coarse
+ * step plays the same role as the max check interval of events detectors: it
+ * must be small enough to ensure there are no more than one relative distance
+ * minimum and one relative distance maximum for any pair within one step
+ * (a few minutes is a safe value for low Earth orbits).
+ * </p>
+ * <p>
+ * Objects are sampled in order at increasing dates, but the root finder needs
+ * to evaluate them at arbitrary dates within the current step. Analytical
+ * propagators and ephemerides (including {@link
+ * org.orekit.propagation.integration.IntegratedEphemeris integrated ephemerides})
+ * are well suited for this; numerical propagators should rather be run first in
+ * ephemeris generation mode. If some object cannot be evaluated at a sample date
+ * (for example a decayed TLE), it is silently ignored in the surrounding steps.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class ConjunctionScreener {
+
+    /** Default margin for apogee/perigee filter (m). */
+    public static final double DEFAULT_APSIDES_MARGIN = 50000.0;
+
+    /** Default convergence threshold for time of closest approach (s). */
+    public static final double DEFAULT_CONVERGENCE = 1.0e-3;
+
+    /** Default maximum number of iterations for time of closest approach. */
+    public static final int DEFAULT_MAX_ITER = 100;
+
+    /** Safety factor on gravitational acceleration used in curvature bounds. */
+    private static final double ACCELERATION_SAFETY = 2.0;
+
+    /** Quantile of bounding boxes extents used for sizing grid cells. */
+    private static final double CELL_SIZE_QUANTILE = 0.9;
+
+    /** Number of bits used for each coordinate in grid cells keys. */
+    private static final int CELL_BITS = 21;
+
+    /** Mask for grid cells coordinates. */
+    private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+    /** Screened objects. */
+    private final List<PVCoordinatesProvider> objects;
+
+    /** Inertial frame in which screening is performed. */
+    private final Frame frame;
+
+    /** Central attraction coefficient (m³/s²). */
+    private final double mu;
+
+    /** Miss distance threshold (m). */
+    private final double threshold;
+
+    /** Coarse time step (s). */
+    private final double step;
+
+    /** Margin for apogee/perigee filter (m). */
+    private double apsidesMargin;
+
+    /** Convergence threshold for time of closest approach (s). */
+    private double convergence;
+
+    /** Maximum number of iterations for time of closest approach. */
+    private int maxIter;
+
+    /** Simple constructor.
+     * @param objects objects to screen
+     * @param frame inertial frame in which screening is performed
+     * @param mu central attraction coefficient (m³/s²)
+     * @param threshold miss distance threshold (m)
+     * @param step coarse time step (s)
+     */
+    public ConjunctionScreener(final List<? extends PVCoordinatesProvider> objects,
+                               final Frame frame, final double mu,
+                               final double threshold, final double step) {
+        if (!frame.isPseudoInertial()) {
+            throw new OrekitIllegalArgumentException(OrekitMessages.NON_PSEUDO_INERTIAL_FRAME,
+                                                     frame.getName());
+        }
+        if (threshold <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED,
+                                                     threshold, 0.0);
+        }
+        if (step <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED,
+                                                     step, 0.0);
+        }
+        this.objects       = new ArrayList<>(objects);
+        this.frame         = frame;
+        this.mu            = mu;
+        this.threshold     = threshold;
+        this.step          = step;
+        this.apsidesMargin = DEFAULT_APSIDES_MARGIN;
+        this.convergence   = DEFAULT_CONVERGENCE;
+        this.maxIter       = DEFAULT_MAX_ITER;
+    }
+
+    /** Set the margin for apogee/perigee filter.
+     * <p>
+     * The apogee/perigee filter is based on osculating orbits at window start,
+     * the margin must cover the evolution of perigee and apogee due to perturbations
+     * over the window. Setting the margin to {@code Double.POSITIVE_INFINITY}
+     * disables the filter.
+     * </p>
+     * @param apsidesMargin margin for apogee/perigee filter (m)
+     */
+    public void setApsidesMargin(final double apsidesMargin) {
+        this.apsidesMargin = apsidesMargin;
+    }
+
+    /** Get the margin for apogee/perigee filter.
+     * @return margin for apogee/perigee filter (m)
+     */
+    public double getApsidesMargin() {
+        return apsidesMargin;
+    }
+
+    /** Set the convergence threshold for time of closest approach.
+     * @param convergence convergence threshold for time of closest approach (s)
+     */
+    public void setConvergence(final double convergence) {
+        this.convergence = convergence;
+    }
+
+    /** Get the convergence threshold for time of closest approach.
+     * @return convergence threshold for time of closest approach (s)
+     */
+    public double getConvergence() {
+        return convergence;
+    }
+
+    /** Set the maximum number of iterations for time of closest approach.
+     * @param maxIter maximum number of iterations for time of closest approach
+     */
+    public void setMaxIter(final int maxIter) {
+        this.maxIter = maxIter;
+    }
+
+    /** Get the maximum number of iterations for time of closest approach.
+     * @return maximum number of iterations for time of closest approach
+     */
+    public int getMaxIter() {
+        return maxIter;
+    }
+
+    /** Screen all objects over a time window.
+     * <p>
+     * Close approaches occurring exactly at window boundaries (i.e. objects
+     * already receding from each other at window start or still approaching
+     * each other at window end) are also reported.
+     * </p>
+     * @param start start of the time window
+     * @param end end of the time window
+     * @return close approaches with miss distance below threshold, sorted by date
+     * @exception OrekitException if some object cannot be evaluated during
+     * time of closest approach refinement
+     */
+    public List<CloseApproach> screen(final AbsoluteDate start, final AbsoluteDate end)
+        throws OrekitException {
+
+        final int      n        = objects.size();
+        final double   duration = end.durationFrom(start);
+        final int      nbSteps  = FastMath.max(1, (int) FastMath.ceil(duration / step));
+        final double[] lower    = new double[n];
+        final double[] upper    = new double[n];
+        double[]       pvA      = new double[6 * n];
+        double[]       pvB      = new double[6 * n];
+
+        // apogee/perigee filter, based on osculating orbits at window start
+        sample(start, pvA);
+        for (int i = 0; i < n; ++i) {
+            setUpShell(i, pvA, lower, upper);
+        }
+
+        final List<CloseApproach> approaches = new ArrayList<>();
+        AbsoluteDate ta = start;
+        for (int k = 0; k < nbSteps; ++k) {
+            final AbsoluteDate tb = (k == nbSteps - 1) ? end : start.shiftedBy((k + 1) * step);
+            sample(tb, pvB);
+            screenStep(ta, pvA, tb, pvB, k == 0, k == nbSteps - 1, lower, upper, approaches);
+            final double[] tmp = pvA;
+            pvA = pvB;
+            pvB = tmp;
+            ta  = tb;
+        }
+
+        approaches.sort((a1, a2) -> {
+            final int c = a1.getDate().compareTo(a2.getDate());
+            if (c != 0) {
+                return c;
+            }
+            return a1.getFirstIndex() != a2.getFirstIndex() ?
+                   Integer.compare(a1.getFirstIndex(),  a2.getFirstIndex()) :
+                   Integer.compare(a1.getSecondIndex(), a2.getSecondIndex());
+        });
+        return approaches;
+
+    }
+
+    /** Sample all objects at one date.
+     * @param date sample date
+     * @param pv array where to store positions and velocities
+     * (objects that cannot be evaluated get {@code Double.NaN} elements)
+     */
+    private void sample(final AbsoluteDate date, final double[] pv) {
+        for (int i = 0; i < objects.size(); ++i) {
+            try {
+                final PVCoordinates pvi = objects.get(i).getPVCoordinates(date, frame);
+                pv[6 * i]     = pvi.getPosition().getX();
+                pv[6 * i + 1] = pvi.getPosition().getY();
+                pv[6 * i + 2] = pvi.getPosition().getZ();
+                pv[6 * i + 3] = pvi.getVelocity().getX();
+                pv[6 * i + 4] = pvi.getVelocity().getY();
+                pv[6 * i + 5] = pvi.getVelocity().getZ();
+            } catch (OrekitException oe) {
+                Arrays.fill(pv, 6 * i, 6 * i + 6, Double.NaN);
+            }
+        }
+    }
+
+    /** Set up radial shell for apogee/perigee filter.
+     * @param i index of the object
+     * @param pv samples at window start
+     * @param lower array where to store shells lower radii
+     * @param upper array where to store shells upper radii
+     */
+    private void setUpShell(final int i, final double[] pv, final double[] lower, final double[] upper) {
+
+        final double x  = pv[6 * i];
+        final double y  = pv[6 * i + 1];
+        final double z  = pv[6 * i + 2];
+        final double vx = pv[6 * i + 3];
+        final double vy = pv[6 * i + 4];
+        final double vz = pv[6 * i + 5];
+        if (Double.isNaN(x) || Double.isInfinite(apsidesMargin)) {
+            // no filtering possible
+            lower[i] = Double.NEGATIVE_INFINITY;
+            upper[i] = Double.POSITIVE_INFINITY;
+            return;
+        }
+
+        // osculating perigee and apogee
+        final double r  = FastMath.sqrt(x * x + y * y + z * z);
+        final double v2 = vx * vx + vy * vy + vz * vz;
+        final double hx = y * vz - z * vy;
+        final double hy = z * vx - x * vz;
+        final double hz = x * vy - y * vx;
+        final double p  = (hx * hx + hy * hy + hz * hz) / mu;
+        final double energy = 0.5 * v2 - mu / r;
+        final double e  = FastMath.sqrt(FastMath.max(0.0, 1.0 + 2 * energy * p / mu));
+        final double rp = p / (1 + e);
+        final double ra = (e < 1) ? p / (1 - e) : Double.POSITIVE_INFINITY;
+
+        final double pad = apsidesMargin + 0.5 * threshold;
+        lower[i] = rp - pad;
+        upper[i] = ra + pad;
+
+    }
+
+    /** Screen all pairs over one coarse step.
+     * @param ta step start
+     * @param pvA samples at step start
+     * @param tb step end
+     * @param pvB samples at step end
+     * @param first if true, the step is the first one in the window
+     * @param last if true, the step is the last one in the window
+     * @param lower shells lower radii
+     * @param upper shells upper radii
+     * @param approaches list where to add close approaches
+     * @exception OrekitException if some object cannot be evaluated during
+     * time of closest approach refinement
+     */
+    private void screenStep(final AbsoluteDate ta, final double[] pvA,
+                            final AbsoluteDate tb, final double[] pvB,
+                            final boolean first, final boolean last,
+                            final double[] lower, final double[] upper,
+                            final List<CloseApproach> approaches)
+        throws OrekitException {
+
+        final int    n  = objects.size();
+        final double dt = tb.durationFrom(ta);
+
+        // bounding boxes enclosing each trajectory arc
+        final double[] boxes   = new double[6 * n];
+        final double[] sags    = new double[n];
+        final double[] extents = new double[n];
+        final double[] sorted  = new double[n];
+        int valid = 0;
+        for (int i = 0; i < n; ++i) {
+            final int    o  = 6 * i;
+            final double ra = FastMath.sqrt(pvA[o] * pvA[o] + pvA[o + 1] * pvA[o + 1] + pvA[o + 2] * pvA[o + 2]);
+            final double rb = FastMath.sqrt(pvB[o] * pvB[o] + pvB[o + 1] * pvB[o + 1] + pvB[o + 2] * pvB[o + 2]);
+            if (Double.isNaN(ra) || Double.isNaN(rb)) {
+                boxes[o] = Double.NaN;
+                continue;
+            }
+            // the distance between the trajectory and the chord is bounded by a dt²/8
+            final double rMin = FastMath.min(ra, rb);
+            sags[i] = ACCELERATION_SAFETY * mu * dt * dt / (8 * rMin * rMin);
+            final double pad = sags[i] + 0.5 * threshold;
+            for (int j = 0; j < 3; ++j) {
+                boxes[o + j]     = FastMath.min(pvA[o + j], pvB[o + j]) - pad;
+                boxes[o + j + 3] = FastMath.max(pvA[o + j], pvB[o + j]) + pad;
+                extents[i]       = FastMath.max(extents[i], boxes[o + j + 3] - boxes[o + j]);
+            }
+            sorted[valid++] = extents[i];
+        }
+
+        // size the cells so most boxes span at most two cells along each axis,
+        // a single large box (say a fast object near perigee) does not degrade
+        // the grid for all other objects
+        double cellSize = threshold;
+        if (valid > 0) {
+            Arrays.sort(sorted, 0, valid);
+            final int index = FastMath.max(0, (int) FastMath.ceil(CELL_SIZE_QUANTILE * valid) - 1);
+            cellSize = FastMath.max(cellSize, sorted[index]);
+        }
+
+        // register boxes in a uniform grid, or in the overflow list if too large
+        final Map<Long, List<Integer>> grid     = new HashMap<>();
+        final List<Integer>            overflow = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            final int o = 6 * i;
+            if (Double.isNaN(boxes[o])) {
+                continue;
+            }
+            if (extents[i] > cellSize) {
+                overflow.add(i);
+                continue;
+            }
+            final long ix0 = cell(boxes[o],     cellSize);
+            final long ix1 = cell(boxes[o + 3], cellSize);
+            final long iy0 = cell(boxes[o + 1], cellSize);
+            final long iy1 = cell(boxes[o + 4], cellSize);
+            final long iz0 = cell(boxes[o + 2], cellSize);
+            final long iz1 = cell(boxes[o + 5], cellSize);
+            for (long ix = ix0; ix <= ix1; ++ix) {
+                for (long iy = iy0; iy <= iy1; ++iy) {
+                    for (long iz = iz0; iz <= iz1; ++iz) {
+                        grid.computeIfAbsent(key(ix, iy, iz), c -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+        }
+
+        // check pairs sharing the same cells
+        for (final Map.Entry<Long, List<Integer>> entry : grid.entrySet()) {
+            final long          cellKey = entry.getKey();
+            final List<Integer> list    = entry.getValue();
+            for (int k1 = 0; k1 < list.size() - 1; ++k1) {
+                final int i1 = list.get(k1);
+                final int o1 = 6 * i1;
+                for (int k2 = k1 + 1; k2 < list.size(); ++k2) {
+                    final int i2 = list.get(k2);
+                    final int o2 = 6 * i2;
+
+                    // bounding boxes filter
+                    if (!overlap(boxes, o1, o2)) {
+                        continue;
+                    }
+
+                    // as boxes may share several cells, only process the pair in
+                    // the cell containing the lower corner of the boxes intersection
+                    if (key(cell(FastMath.max(boxes[o1],     boxes[o2]),     cellSize),
+                            cell(FastMath.max(boxes[o1 + 1], boxes[o2 + 1]), cellSize),
+                            cell(FastMath.max(boxes[o1 + 2], boxes[o2 + 2]), cellSize)) != cellKey) {
+                        continue;
+                    }
+
+                    screenPair(i1, i2, sags, lower, upper, ta, pvA, tb, pvB, first, last, approaches);
+
+                }
+            }
+        }
+
+        // check pairs involving at least one oversized box
+        for (final int i1 : overflow) {
+            final int o1 = 6 * i1;
+            for (int i2 = 0; i2 < n; ++i2) {
+                final int o2 = 6 * i2;
+                if (i2 == i1 || Double.isNaN(boxes[o2])) {
+                    continue;
+                }
+                if (extents[i2] > cellSize && i2 < i1) {
+                    // pair of oversized boxes already checked
+                    continue;
+                }
+                if (overlap(boxes, o1, o2)) {
+                    screenPair(i1, i2, sags, lower, upper, ta, pvA, tb, pvB, first, last, approaches);
+                }
+            }
+        }
+
+    }
+
+    /** Screen a pair whose bounding boxes overlap over one coarse step.
+     * @param i1 index of the first object
+     * @param i2 index of the second object
+     * @param sags trajectories sags with respect to chords
+     * @param lower shells lower radii
+     * @param upper shells upper radii
+     * @param ta step start
+     * @param pvA samples at step start
+     * @param tb step end
+     * @param pvB samples at step end
+     * @param first if true, the step is the first one in the window
+     * @param last if true, the step is the last one in the window
+     * @param approaches list where to add close approaches
+     * @exception OrekitException if some object cannot be evaluated during
+     * time of closest approach refinement
+     */
+    private void screenPair(final int i1, final int i2,
+                            final double[] sags, final double[] lower, final double[] upper,
+                            final AbsoluteDate ta, final double[] pvA,
+                            final AbsoluteDate tb, final double[] pvB,
+                            final boolean first, final boolean last,
+                            final List<CloseApproach> approaches)
+        throws OrekitException {
+
+        // apogee/perigee filter
+        if (lower[i1] > upper[i2] || lower[i2] > upper[i1]) {
+            return;
+        }
+
+        // relative chord filter: the relative trajectory remains
+        // close to the chord joining relative positions
+        if (chordDistance(pvA, pvB, 6 * i1, 6 * i2) - (sags[i1] + sags[i2]) > threshold) {
+            return;
+        }
+
+        refine(FastMath.min(i1, i2), FastMath.max(i1, i2),
+               ta, pvA, tb, pvB, first, last, approaches);
+
+    }
+
+    /** Refine a candidate pair over one coarse step.
+     * @param i1 index of the first object
+     * @param i2 index of the second object
+     * @param ta step start
+     * @param pvA samples at step start
+     * @param tb step end
+     * @param pvB samples at step end
+     * @param first if true, the step is the first one in the window
+     * @param last if true, the step is the last one in the window
+     * @param approaches list where to add close approaches
+     * @exception OrekitException if some object cannot be evaluated
+     */
+    private void refine(final int i1, final int i2,
+                        final AbsoluteDate ta, final double[] pvA,
+                        final AbsoluteDate tb, final double[] pvB,
+                        final boolean first, final boolean last,
+                        final List<CloseApproach> approaches)
+        throws OrekitException {
+
+        // range rates at step boundaries
+        final double ga = rangeRate(pvA, 6 * i1, 6 * i2);
+        final double gb = rangeRate(pvB, 6 * i1, 6 * i2);
+
+        final AbsoluteDate tca;
+        if (ga < 0 && gb >= 0) {
+            // the distance reaches a minimum within the step
+            try {
+                final UnivariateFunction f = t -> {
+                    try {
+                        final AbsoluteDate date = ta.shiftedBy(t);
+                        final PVCoordinates relative =
+                                new PVCoordinates(objects.get(i1).getPVCoordinates(date, frame),
+                                                  objects.get(i2).getPVCoordinates(date, frame));
+                        return relative.getPosition().dotProduct(relative.getVelocity());
+                    } catch (OrekitException oe) {
+                        throw new OrekitExceptionWrapper(oe);
+                    }
+                };
+                final BracketedUnivariateSolver<UnivariateFunction> solver =
+                        new BracketingNthOrderBrentSolver(0, convergence, 0, 5);
+                tca = ta.shiftedBy(solver.solve(maxIter, f, 0, tb.durationFrom(ta), AllowedSolution.ANY_SIDE));
+            } catch (OrekitExceptionWrapper oew) {
+                throw oew.getException();
+            } catch (MathRuntimeException mre) {
+                throw new OrekitException(mre);
+            }
+        } else if (first && ga >= 0) {
+            // the objects are already receding from each other at window start
+            tca = ta;
+        } else if (last && gb < 0) {
+            // the objects are still approaching each other at window end
+            tca = tb;
+        } else {
+            return;
+        }
+
+        final PVCoordinates relative = new PVCoordinates(objects.get(i1).getPVCoordinates(tca, frame),
+                                                         objects.get(i2).getPVCoordinates(tca, frame));
+        final double missDistance = relative.getPosition().getNorm();
+        if (missDistance <= threshold) {
+            approaches.add(new CloseApproach(i1, i2, tca, missDistance, relative.getVelocity().getNorm()));
+        }
+
+    }
+
+    /** Compute range rate (up to a factor) between two objects.
+     * @param pv samples
+     * @param o1 offset of the first object in samples
+     * @param o2 offset of the second object in samples
+     * @return dot product of relative position and relative velocity
+     */
+    private static double rangeRate(final double[] pv, final int o1, final int o2) {
+        return (pv[o2]     - pv[o1])     * (pv[o2 + 3] - pv[o1 + 3]) +
+               (pv[o2 + 1] - pv[o1 + 1]) * (pv[o2 + 4] - pv[o1 + 4]) +
+               (pv[o2 + 2] - pv[o1 + 2]) * (pv[o2 + 5] - pv[o1 + 5]);
+    }
+
+    /** Compute the distance between origin and the chord joining relative positions.
+     * @param pvA samples at step start
+     * @param pvB samples at step end
+     * @param o1 offset of the first object in samples
+     * @param o2 offset of the second object in samples
+     * @return distance between origin and the chord joining relative positions
+     */
+    private static double chordDistance(final double[] pvA, final double[] pvB, final int o1, final int o2) {
+        final double xA = pvA[o2]     - pvA[o1];
+        final double yA = pvA[o2 + 1] - pvA[o1 + 1];
+        final double zA = pvA[o2 + 2] - pvA[o1 + 2];
+        final double dx = pvB[o2]     - pvB[o1]     - xA;
+        final double dy = pvB[o2 + 1] - pvB[o1 + 1] - yA;
+        final double dz = pvB[o2 + 2] - pvB[o1 + 2] - zA;
+        final double d2 = dx * dx + dy * dy + dz * dz;
+        final double s  = (d2 == 0) ? 0 : FastMath.max(0, FastMath.min(1, -(xA * dx + yA * dy + zA * dz) / d2));
+        final double x  = xA + s * dx;
+        final double y  = yA + s * dy;
+        final double z  = zA + s * dz;
+        return FastMath.sqrt(x * x + y * y + z * z);
+    }
+
+    /** Check if two bounding boxes overlap.
+     * @param boxes bounding boxes
+     * @param o1 offset of the first box
+     * @param o2 offset of the second box
+     * @return true if the boxes overlap
+     */
+    private static boolean overlap(final double[] boxes, final int o1, final int o2) {
+        return boxes[o1]     <= boxes[o2 + 3] && boxes[o2]     <= boxes[o1 + 3] &&
+               boxes[o1 + 1] <= boxes[o2 + 4] && boxes[o2 + 1] <= boxes[o1 + 4] &&
+               boxes[o1 + 2] <= boxes[o2 + 5] && boxes[o2 + 2] <= boxes[o1 + 5];
+    }
+
+    /** Get the grid index of a coordinate.
+     * @param coordinate coordinate
+     * @param cellSize size of grid cells
+     * @return grid index
+     */
+    private static long cell(final double coordinate, final double cellSize) {
+        return (long) FastMath.floor(coordinate / cellSize);
+    }
+
+    /** Build the key of a grid cell.
+     * @param ix index along X
+     * @param iy index along Y
+     * @param iz index along Z
+     * @return cell key
+     */
+    private static long key(final long ix, final long iy, final long iz) {
+        return ((ix & CELL_MASK) << (2 * CELL_BITS)) | ((iy & CELL_MASK) << CELL_BITS) | (iz & CELL_MASK);
+    }
+
+}
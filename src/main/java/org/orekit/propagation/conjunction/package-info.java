@@ -0,0 +1,32 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ *
+ * This package provides classes to screen close approaches between objects.
+ * <p>
+ * The {@link org.orekit.propagation.conjunction.ConjunctionScreener ConjunctionScreener}
+ * class screens all pairs of a set of objects over a time window, using apogee/perigee
+ * and spatial filters to avoid evaluating all pairs, and refining the remaining candidates
+ * to find the time of closest approach. The results are provided as {@link
+ * org.orekit.propagation.conjunction.CloseApproach CloseApproach} instances.
+ * </p>
+ *
+ * @author Luc Maisonobe
+ * @since 9.2
+ *
+ */
+package org.orekit.propagation.conjunction;
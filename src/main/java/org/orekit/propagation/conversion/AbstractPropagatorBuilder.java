@@ -46,7 +46,7 @@ public abstract class AbstractPropagatorBuilder implements PropagatorBuilder {
     private static final double MU_SCALE = FastMath.scalb(1.0, 32);
 
     /** Date of the initial orbit. */
-    private final AbsoluteDate initialOrbitDate;
+    private AbsoluteDate initialOrbitDate;
 
     /** Frame in which the orbit is propagated. */
     private final Frame frame;
@@ -200,6 +200,28 @@ public abstract class AbstractPropagatorBuilder implements PropagatorBuilder {
 
     }
 
+    /** Reset the orbit in the propagator builder.
+     * <p>
+     * All orbital parameters drivers values (selected or not) are set from
+     * the new orbit and the builder initial orbit date becomes the new orbit date.
+     * The drivers reference values, scales and selection status are not changed.
+     * This is typically used by sequential estimators that restart propagation
+     * from the last estimated state.
+     * </p>
+     * @param newOrbit new orbit to set in the builder
+     * @exception OrekitException if some orbital parameter cannot be set
+     * @since 9.2
+     */
+    public void resetOrbit(final Orbit newOrbit) throws OrekitException {
+        final double[] orbitArray = new double[6];
+        orbitType.mapOrbitToArray(newOrbit, positionAngle, orbitArray, null);
+        final int n = orbitalDrivers.getNbParams();
+        for (int i = 0; i < n; ++i) {
+            orbitalDrivers.getDrivers().get(i).setValue(orbitArray[i]);
+        }
+        this.initialOrbitDate = newOrbit.getDate();
+    }
+
     /** Build an initial orbit using the current selected parameters.
      * <p>
      * This method is a stripped down version of {@link #buildPropagator(double[])}
@@ -37,11 +37,14 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
     public static final int DEFAULT_MAX_ITER = 100;
 
     /** Serializable UID. */
-    private static final long serialVersionUID = 20131202l;
+    private static final long serialVersionUID = 20171201L;
 
     /** Max check interval. */
     private final double maxCheck;
 
+    /** State-dependent max check interval (null if only fixed interval is used). */
+    private AdaptableInterval adaptableInterval;
+
     /** Convergence threshold. */
     private final double threshold;
 
@@ -67,6 +70,7 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
         this.maxIter   = maxIter;
         this.handler   = handler;
         this.forward   = true;
+        this.adaptableInterval = null;
     }
 
     /** {@inheritDoc} */
@@ -82,6 +86,12 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
         return maxCheck;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public AdaptableInterval getAdaptableInterval() {
+        return adaptableInterval;
+    }
+
     /** {@inheritDoc} */
     public int getMaxIterationCount() {
         return maxIter;
@@ -102,7 +112,25 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
      * @since 6.1
      */
     public T withMaxCheck(final double newMaxCheck) {
-        return create(newMaxCheck, getThreshold(), getMaxIterationCount(), getHandler());
+        return keepAdaptableInterval(create(newMaxCheck, getThreshold(), getMaxIterationCount(), getHandler()));
+    }
+
+    /**
+     * Setup a state-dependent maximum checking interval.
+     * <p>
+     * The state-dependent interval is used by propagators that support it (analytical
+     * propagators and ephemerides), whereas the {@link #getMaxCheckInterval() fixed
+     * interval} is still used by integrated propagators. Passing a null interval
+     * reverts to fixed interval only.
+     * </p>
+     * @param newMaxCheck state-dependent maximum checking interval
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @since 9.2
+     */
+    public T withMaxCheck(final AdaptableInterval newMaxCheck) {
+        final T detector = create(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler());
+        ((AbstractDetector<?>) detector).adaptableInterval = newMaxCheck;
+        return detector;
     }
 
     /**
@@ -115,7 +143,7 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
      * @since 6.1
      */
     public T withMaxIter(final int newMaxIter) {
-        return create(getMaxCheckInterval(), getThreshold(), newMaxIter,  getHandler());
+        return keepAdaptableInterval(create(getMaxCheckInterval(), getThreshold(), newMaxIter,  getHandler()));
     }
 
     /**
@@ -128,7 +156,7 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
      * @since 6.1
      */
     public T withThreshold(final double newThreshold) {
-        return create(getMaxCheckInterval(), newThreshold, getMaxIterationCount(),  getHandler());
+        return keepAdaptableInterval(create(getMaxCheckInterval(), newThreshold, getMaxIterationCount(), getHandler()));
     }
 
     /**
@@ -141,7 +169,22 @@ public abstract class AbstractDetector<T extends EventDetector> implements Event
      * @since 6.1
      */
     public T withHandler(final EventHandler<? super T> newHandler) {
-        return create(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), newHandler);
+        return keepAdaptableInterval(create(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), newHandler));
+    }
+
+    /** Copy the state-dependent maximum checking interval of this instance to a new detector.
+     * <p>
+     * This method must be called by specific configuration methods in derived
+     * classes that build new detectors without calling {@link #create(double,
+     * double, int, EventHandler) create}.
+     * </p>
+     * @param detector new detector built from this instance
+     * @return detector, with the same state-dependent maximum checking interval as this instance
+     * @since 9.2
+     */
+    protected T keepAdaptableInterval(final T detector) {
+        ((AbstractDetector<?>) detector).adaptableInterval = adaptableInterval;
+        return detector;
     }
 
     /** Get the handler.
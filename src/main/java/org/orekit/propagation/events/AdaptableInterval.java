@@ -0,0 +1,47 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.io.Serializable;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.SpacecraftState;
+
+/** This interface represents an event checking interval that depends on state.
+ * <p>
+ * It allows events detectors to check their switching function scarcely when
+ * the spacecraft is known to be far from any event, and more densely when an
+ * event may be close. The interval returned must be small enough to ensure
+ * no event can be missed, i.e. the switching function must not change sign
+ * twice within one interval.
+ * </p>
+ * @see EventDetector#getAdaptableInterval()
+ * @see AbstractDetector#withMaxCheck(AdaptableInterval)
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+@FunctionalInterface
+public interface AdaptableInterval extends Serializable {
+
+    /** Get the current value of maximal time interval between switching function checks.
+     * @param state current state
+     * @return current value of maximal time interval (s) between switching function checks
+     * @exception OrekitException if interval cannot be computed
+     */
+    double currentInterval(SpacecraftState state) throws OrekitException;
+
+}
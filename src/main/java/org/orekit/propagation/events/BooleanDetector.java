@@ -233,6 +233,41 @@ public class BooleanDetector extends AbstractDetector<BooleanDetector> {
         return ret;
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * If no state-dependent interval has been set on this instance but some
+     * of the combined detectors have one, the smallest of all the combined
+     * detectors intervals (state-dependent or fixed) is used.
+     * </p>
+     */
+    @Override
+    public AdaptableInterval getAdaptableInterval() {
+
+        final AdaptableInterval own = super.getAdaptableInterval();
+        if (own != null) {
+            return own;
+        }
+
+        boolean adaptable = false;
+        for (final EventDetector detector : detectors) {
+            adaptable = adaptable || detector.getAdaptableInterval() != null;
+        }
+        if (!adaptable) {
+            return null;
+        }
+
+        return s -> {
+            double min = Double.POSITIVE_INFINITY;
+            for (final EventDetector detector : detectors) {
+                final AdaptableInterval interval = detector.getAdaptableInterval();
+                min = FastMath.min(min,
+                                   (interval == null) ? detector.getMaxCheckInterval() : interval.currentInterval(s));
+            }
+            return min;
+        };
+
+    }
+
     @Override
     protected BooleanDetector create(final double newMaxCheck,
                                      final double newThreshold,
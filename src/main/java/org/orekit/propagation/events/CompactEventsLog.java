@@ -0,0 +1,255 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.time.AbsoluteDate;
+
+/** Events sink storing only a few selected fields of each event in columns.
+ * <p>
+ * For each event, this sink stores the date (as an offset with respect to
+ * a reference date), the index of the triggered detector, the direction of
+ * the switching function and the values of some user-selected {@link Column
+ * columns} computed from the event state. The states themselves are not kept.
+ * All fields are stored in primitive arrays, so memory consumption is only
+ * a few tens of bytes per event, instead of the full states kept by the
+ * default {@link EventsLogger}. As offsets are stored as primitive doubles,
+ * dates accuracy degrades slowly far from the reference date, it remains
+ * better than one microsecond for several decades.
+ * </p>
+ * <pre>
+ * CompactEventsLog log = new CompactEventsLog(reference,
+ *                                             s -&gt; s.getA(),
+ *                                             s -&gt; s.getMass());
+ * EventsLogger logger = new EventsLogger(log);
+ * propagator.addEventDetector(logger.monitorDetector(detector));
+ * </pre>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @see EventsLogger#EventsLogger(EventsSink)
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class CompactEventsLog implements EventsSink {
+
+    /** Initial capacity. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Reference date for events dates. */
+    private final AbsoluteDate reference;
+
+    /** Selected columns. */
+    private final Column[] columns;
+
+    /** Triggered detectors, in order of first occurrence. */
+    private final List<EventDetector> detectors;
+
+    /** Index of the triggered detectors. */
+    private final Map<EventDetector, Integer> indices;
+
+    /** Events dates offsets with respect to reference date. */
+    private double[] offsets;
+
+    /** Events detectors indices. */
+    private int[] detectorsIndices;
+
+    /** Events directions. */
+    private final BitSet increasing;
+
+    /** Events selected values, one row per event. */
+    private double[] values;
+
+    /** Number of logged events. */
+    private int size;
+
+    /** Simple constructor.
+     * @param reference reference date for events dates
+     * @param columns selected columns
+     */
+    public CompactEventsLog(final AbsoluteDate reference, final Column... columns) {
+        this.reference        = reference;
+        this.columns          = columns.clone();
+        this.detectors        = new ArrayList<>();
+        this.indices          = new IdentityHashMap<>();
+        this.offsets          = new double[INITIAL_CAPACITY];
+        this.detectorsIndices = new int[INITIAL_CAPACITY];
+        this.increasing       = new BitSet(INITIAL_CAPACITY);
+        this.values           = new double[INITIAL_CAPACITY * columns.length];
+        this.size             = 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void logEvent(final EventsLogger.LoggedEvent event) throws OrekitException {
+
+        if (size == offsets.length) {
+            // grow arrays
+            final int capacity = 2 * offsets.length;
+            offsets          = Arrays.copyOf(offsets, capacity);
+            detectorsIndices = Arrays.copyOf(detectorsIndices, capacity);
+            values           = Arrays.copyOf(values, capacity * columns.length);
+        }
+
+        final SpacecraftState state = event.getState();
+        Integer index = indices.get(event.getEventDetector());
+        if (index == null) {
+            index = detectors.size();
+            detectors.add(event.getEventDetector());
+            indices.put(event.getEventDetector(), index);
+        }
+
+        offsets[size]          = state.getDate().durationFrom(reference);
+        detectorsIndices[size] = index;
+        increasing.set(size, event.isIncreasing());
+        for (int i = 0; i < columns.length; ++i) {
+            values[size * columns.length + i] = columns[i].value(state);
+        }
+        ++size;
+
+    }
+
+    /** Clear the logged events.
+     * <p>
+     * The detectors indices are preserved.
+     * </p>
+     */
+    public void clear() {
+        increasing.clear();
+        size = 0;
+    }
+
+    /** Get the number of logged events.
+     * @return number of logged events
+     */
+    public int size() {
+        return size;
+    }
+
+    /** Get the reference date.
+     * @return reference date for events dates
+     */
+    public AbsoluteDate getReference() {
+        return reference;
+    }
+
+    /** Get the number of selected columns.
+     * @return number of selected columns
+     */
+    public int getColumnsNumber() {
+        return columns.length;
+    }
+
+    /** Get the triggered detectors.
+     * @return unmodifiable list of the triggered detectors, in order of first occurrence
+     */
+    public List<EventDetector> getDetectors() {
+        return Collections.unmodifiableList(detectors);
+    }
+
+    /** Get the offset of an event date.
+     * @param i index of the event
+     * @return offset of the event date with respect to {@link #getReference() reference date} (s)
+     */
+    public double getOffset(final int i) {
+        checkIndex(i);
+        return offsets[i];
+    }
+
+    /** Get the date of an event.
+     * @param i index of the event
+     * @return date of the event
+     */
+    public AbsoluteDate getDate(final int i) {
+        return reference.shiftedBy(getOffset(i));
+    }
+
+    /** Get the index of the detector triggered by an event.
+     * @param i index of the event
+     * @return index of the triggered detector in {@link #getDetectors()}
+     */
+    public int getDetectorIndex(final int i) {
+        checkIndex(i);
+        return detectorsIndices[i];
+    }
+
+    /** Get the detector triggered by an event.
+     * @param i index of the event
+     * @return triggered detector
+     */
+    public EventDetector getDetector(final int i) {
+        return detectors.get(getDetectorIndex(i));
+    }
+
+    /** Get the direction of an event.
+     * @param i index of the event
+     * @return true if the switching function was increasing at event
+     */
+    public boolean isIncreasing(final int i) {
+        checkIndex(i);
+        return increasing.get(i);
+    }
+
+    /** Get a selected value of an event.
+     * @param i index of the event
+     * @param column index of the column
+     * @return value of the column at event
+     */
+    public double getValue(final int i, final int column) {
+        checkIndex(i);
+        if (column < 0 || column >= columns.length) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE,
+                                                     column, 0, columns.length - 1);
+        }
+        return values[i * columns.length + column];
+    }
+
+    /** Check an event index.
+     * @param i index of the event
+     */
+    private void checkIndex(final int i) {
+        if (i < 0 || i >= size) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE,
+                                                     i, 0, size - 1);
+        }
+    }
+
+    /** Interface for columns extracted from events states. */
+    @FunctionalInterface
+    public interface Column {
+
+        /** Extract the value of the column.
+         * @param state event state
+         * @return value of the column
+         * @exception OrekitException if value cannot be computed
+         */
+        double value(SpacecraftState state) throws OrekitException;
+
+    }
+
+}
@@ -19,9 +19,11 @@ package org.orekit.propagation.events;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.util.FastMath;
 import org.orekit.errors.OrekitException;
+import org.orekit.orbits.Orbit;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.handlers.EventHandler;
 import org.orekit.propagation.events.handlers.StopOnIncreasing;
+import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.PVCoordinatesProvider;
 
 /** Finder for satellite eclipse related events.
@@ -41,6 +43,15 @@ public class EclipseDetector extends AbstractDetector<EclipseDetector> {
     /** Serializable UID. */
     private static final long serialVersionUID = 20131118L;
 
+    /** Relative margin on Keplerian bounds for adaptive maximum checking interval. */
+    private static final double KEPLERIAN_MARGIN = 0.1;
+
+    /** Absolute margin on radial velocity for adaptive maximum checking interval (m/s). */
+    private static final double RADIAL_VELOCITY_MARGIN = 10.0;
+
+    /** Relative distance below which occulting body is considered to be the central body. */
+    private static final double CENTRAL_BODY_TOLERANCE = 1.0e-3;
+
     /** Occulting body. */
     private final PVCoordinatesProvider occulting;
 
@@ -157,9 +168,10 @@ public class EclipseDetector extends AbstractDetector<EclipseDetector> {
      * @since 6.1
      */
     public EclipseDetector withUmbra() {
-        return new EclipseDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
-                                   occulted, occultedRadius, occulting, occultingRadius,
-                                   true);
+        return keepAdaptableInterval(new EclipseDetector(getMaxCheckInterval(), getThreshold(),
+                                                         getMaxIterationCount(), getHandler(),
+                                                         occulted, occultedRadius, occulting, occultingRadius,
+                                                         true));
     }
 
     /**
@@ -172,9 +184,53 @@ public class EclipseDetector extends AbstractDetector<EclipseDetector> {
      * @since 6.1
      */
     public EclipseDetector withPenumbra() {
-        return new EclipseDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
-                                   occulted, occultedRadius, occulting, occultingRadius,
-                                   false);
+        return keepAdaptableInterval(new EclipseDetector(getMaxCheckInterval(), getThreshold(),
+                                                         getMaxIterationCount(), getHandler(),
+                                                         occulted, occultedRadius, occulting, occultingRadius,
+                                                         false));
+    }
+
+    /**
+     * Setup a state-dependent maximum checking interval based on shadow geometry.
+     * <p>
+     * The interval is a conservative bound of the time needed for the angular
+     * distance between the spacecraft and the shadow cone (i.e. the value of the
+     * switching function) to vanish. It considers the fastest angular motion
+     * and the fastest radial motion allowed by the current osculating orbit (with
+     * margins for perturbations), and the motion of the occulted body.
+     * </p>
+     * <p>
+     * The interval is never smaller than the fixed {@link #getMaxCheckInterval()
+     * maximum checking interval}, which is used as is when the spacecraft is close
+     * to shadow boundaries, when its orbit is not elliptic or when the occulting
+     * body is not the central body of the orbit.
+     * </p>
+     * <p>
+     * As the interval depends on the configuration of the detector, it is
+     * rebuilt when a new detector is derived from this one by the other
+     * configuration methods (for example {@link #withUmbra()}).
+     * </p>
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #withMaxCheck(AdaptableInterval)
+     * @since 9.2
+     */
+    public EclipseDetector withAdaptiveMaxCheck() {
+        return withMaxCheck(new ShadowInterval());
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The state-dependent interval set up by {@link #withAdaptiveMaxCheck()}
+     * depends on the detector configuration, so it is rebuilt for the new
+     * detector rather than copied.
+     * </p>
+     */
+    @Override
+    protected EclipseDetector keepAdaptableInterval(final EclipseDetector detector) {
+        if (getAdaptableInterval() instanceof ShadowInterval) {
+            return detector.withAdaptiveMaxCheck();
+        }
+        return super.keepAdaptableInterval(detector);
     }
 
     /** Get the occulting body.
@@ -238,4 +294,55 @@ public class EclipseDetector extends AbstractDetector<EclipseDetector> {
         return totalEclipse ? (angle - ro + rs) : (angle - ro - rs);
     }
 
+    /** State-dependent maximum checking interval based on shadow geometry. */
+    private class ShadowInterval implements AdaptableInterval {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171201L;
+
+        /** {@inheritDoc} */
+        @Override
+        public double currentInterval(final SpacecraftState s) throws OrekitException {
+
+            final double fixed = getMaxCheckInterval();
+
+            final Orbit    orbit = s.getOrbit();
+            final double   e     = orbit.getE();
+            final Vector3D psat  = s.getPVCoordinates().getPosition();
+            final Vector3D ping  = occulting.getPVCoordinates(s.getDate(), s.getFrame()).getPosition();
+            if (e >= 1.0 || ping.getNorm() > CENTRAL_BODY_TOLERANCE * psat.getNorm()) {
+                return fixed;
+            }
+
+            // Keplerian bounds on spacecraft motion around occulting body
+            final double rMin = orbit.getA() * (1 - e);
+            if (rMin <= occultingRadius) {
+                return fixed;
+            }
+            final double p        = orbit.getA() * (1 - e * e);
+            final double vMax     = (1 + KEPLERIAN_MARGIN) * FastMath.sqrt(orbit.getMu() * (1 + e) / rMin);
+            final double rDotMax  = (1 + KEPLERIAN_MARGIN) * e * FastMath.sqrt(orbit.getMu() / p) +
+                                    RADIAL_VELOCITY_MARGIN;
+            final double thetaDot = (1 + KEPLERIAN_MARGIN) *
+                                    orbit.getKeplerianMeanMotion() * FastMath.sqrt(1 + e) / FastMath.pow(1 - e, 1.5);
+
+            // rate of the occulting body direction and apparent radius
+            final double occultingRate = thetaDot +
+                                         occultingRadius * rDotMax /
+                                         (rMin * FastMath.sqrt(rMin * rMin - occultingRadius * occultingRadius));
+
+            // rate of the occulted body direction and apparent radius
+            final PVCoordinates pvted = occulted.getPVCoordinates(s.getDate(), s.getFrame());
+            final double        dted  = pvted.getPosition().subtract(psat).getNorm();
+            if (dted <= occultedRadius) {
+                return fixed;
+            }
+            final double occultedRate = 2 * (vMax + pvted.getVelocity().getNorm()) / dted;
+
+            return FastMath.max(fixed, FastMath.abs(g(s)) / (occultingRate + occultedRate));
+
+        }
+
+    }
+
 }
@@ -16,9 +16,14 @@
  */
 package org.orekit.propagation.events;
 
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
 import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
 import org.orekit.frames.TopocentricFrame;
+import org.orekit.frames.Transform;
 import org.orekit.models.AtmosphericRefractionModel;
+import org.orekit.orbits.Orbit;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.handlers.EventHandler;
 import org.orekit.propagation.events.handlers.StopOnDecreasing;
@@ -44,6 +49,15 @@ public class ElevationDetector extends AbstractDetector<ElevationDetector> {
     /** Serializable UID. */
     private static final long serialVersionUID = 20131118L;
 
+    /** Margin on lowest elevation for adaptive maximum checking interval (rad). */
+    private static final double ELEVATION_MARGIN = FastMath.toRadians(1.0);
+
+    /** Relative margin on Keplerian bounds for adaptive maximum checking interval. */
+    private static final double KEPLERIAN_MARGIN = 0.1;
+
+    /** Azimuth sampling step for elevation mask lowest point (rad). */
+    private static final double AZIMUTH_STEP = FastMath.toRadians(0.1);
+
     /** Elevation mask used for calculations, if defined. */
     private final ElevationMask elevationMask;
 
@@ -189,6 +203,67 @@ public class ElevationDetector extends AbstractDetector<ElevationDetector> {
 
     }
 
+    /**
+     * Setup a state-dependent maximum checking interval based on visibility geometry.
+     * <p>
+     * The interval is a conservative bound of the time needed for the spacecraft
+     * to reach the visibility circle of the station, considering the highest
+     * altitude and the fastest angular motion allowed by the current osculating
+     * orbit (with a 10% margin for perturbations) and the body rotation. The lowest
+     * elevation considered is the minimum elevation or the lowest point of the
+     * elevation mask, minus a 1° margin for refraction and for the difference
+     * between geodetic and geocentric verticals.
+     * </p>
+     * <p>
+     * The interval is never smaller than the fixed {@link #getMaxCheckInterval()
+     * maximum checking interval}, which is used as is when the spacecraft is close
+     * to or inside the visibility circle, or when its orbit is not elliptic. So short
+     * passes are still found with the fixed interval, but the switching function is
+     * checked only a few times per orbit when the spacecraft is far from the station.
+     * </p>
+     * <p>
+     * As the interval depends on the configuration of the detector, it is
+     * rebuilt when a new detector is derived from this one by the other
+     * configuration methods (for example {@link #withConstantElevation(double)}).
+     * </p>
+     * @return a new detector with updated configuration (the instance is not changed)
+     * @see #withMaxCheck(AdaptableInterval)
+     * @since 9.2
+     */
+    public ElevationDetector withAdaptiveMaxCheck() {
+        return withMaxCheck(new VisibilityInterval());
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * The state-dependent interval set up by {@link #withAdaptiveMaxCheck()}
+     * depends on the detector configuration, so it is rebuilt for the new
+     * detector rather than copied.
+     * </p>
+     */
+    @Override
+    protected ElevationDetector keepAdaptableInterval(final ElevationDetector detector) {
+        if (getAdaptableInterval() instanceof VisibilityInterval) {
+            return detector.withAdaptiveMaxCheck();
+        }
+        return super.keepAdaptableInterval(detector);
+    }
+
+    /** Get the lowest elevation at which events can be triggered, without refraction.
+     * @return lowest elevation (rad)
+     */
+    double getLowestElevation() {
+        if (elevationMask == null) {
+            return minElevation;
+        } else {
+            double lowest = Double.POSITIVE_INFINITY;
+            for (double azimuth = 0; azimuth < 2 * FastMath.PI; azimuth += AZIMUTH_STEP) {
+                lowest = FastMath.min(lowest, elevationMask.getElevation(azimuth));
+            }
+            return lowest;
+        }
+    }
+
     /**
      * Setup the minimum elevation for detection.
      * <p>
@@ -200,8 +275,9 @@ public class ElevationDetector extends AbstractDetector<ElevationDetector> {
      * @since 6.1
      */
     public ElevationDetector withConstantElevation(final double newMinElevation) {
-        return new ElevationDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
-                                     newMinElevation, null, refractionModel, topo);
+        return keepAdaptableInterval(new ElevationDetector(getMaxCheckInterval(), getThreshold(),
+                                                           getMaxIterationCount(), getHandler(),
+                                                           newMinElevation, null, refractionModel, topo));
     }
 
     /**
@@ -212,8 +288,9 @@ public class ElevationDetector extends AbstractDetector<ElevationDetector> {
      * @see #getElevationMask()
      */
     public ElevationDetector withElevationMask(final ElevationMask newElevationMask) {
-        return new ElevationDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
-                                     Double.NaN, newElevationMask, refractionModel, topo);
+        return keepAdaptableInterval(new ElevationDetector(getMaxCheckInterval(), getThreshold(),
+                                                           getMaxIterationCount(), getHandler(),
+                                                           Double.NaN, newElevationMask, refractionModel, topo));
     }
 
     /**
@@ -229,8 +306,72 @@ public class ElevationDetector extends AbstractDetector<ElevationDetector> {
      * @see #getRefractionModel()
      */
     public ElevationDetector withRefraction(final AtmosphericRefractionModel newRefractionModel) {
-        return new ElevationDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
-                                     minElevation, elevationMask, newRefractionModel, topo);
+        return keepAdaptableInterval(new ElevationDetector(getMaxCheckInterval(), getThreshold(),
+                                                           getMaxIterationCount(), getHandler(),
+                                                           minElevation, elevationMask, newRefractionModel, topo));
+    }
+
+    /** State-dependent maximum checking interval based on visibility circle geometry. */
+    private class VisibilityInterval implements AdaptableInterval {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171201L;
+
+        /** Fixed maximum checking interval. */
+        private final double fixed;
+
+        /** Body frame. */
+        private final Frame body;
+
+        /** Station position in body frame. */
+        private final Vector3D station;
+
+        /** Distance of station to body center. */
+        private final double rStation;
+
+        /** Lowest elevation at which events can be triggered, including margin. */
+        private final double lowest;
+
+        /** Simple constructor.
+         */
+        VisibilityInterval() {
+            this.fixed    = getMaxCheckInterval();
+            this.body     = topo.getParentShape().getBodyFrame();
+            this.station  = topo.getParentShape().transform(topo.getPoint());
+            this.rStation = station.getNorm();
+            this.lowest   = getLowestElevation() - ELEVATION_MARGIN;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double currentInterval(final SpacecraftState s) throws OrekitException {
+
+            final Orbit  orbit = s.getOrbit();
+            final double e     = orbit.getE();
+            if (e >= 1.0) {
+                return fixed;
+            }
+
+            // angular distance between spacecraft and the widest possible visibility circle
+            final Transform toBody     = s.getFrame().getTransformTo(body, s.getDate());
+            final Vector3D  position   = toBody.transformPosition(s.getPVCoordinates().getPosition());
+            final double    rMax       = (1 + KEPLERIAN_MARGIN) * orbit.getA() * (1 + e);
+            final double    visibility = FastMath.acos(FastMath.min(1.0, rStation * FastMath.cos(lowest) / rMax)) -
+                                         lowest;
+            final double    distance   = Vector3D.angle(position, station) - visibility;
+            if (distance <= 0) {
+                return fixed;
+            }
+
+            // fastest angular motion of the spacecraft direction with respect to body
+            final double rate = (1 + KEPLERIAN_MARGIN) *
+                                orbit.getKeplerianMeanMotion() * FastMath.sqrt(1 + e) / FastMath.pow(1 - e, 1.5) +
+                                toBody.getRotationRate().getNorm();
+
+            return FastMath.max(fixed, distance / rate);
+
+        }
+
     }
 
 }
@@ -83,6 +83,30 @@ public interface EventDetector extends Serializable {
      */
     double getMaxCheckInterval();
 
+    /** Get the state-dependent maximal time interval between switching function checks.
+     * <p>
+     * When this method returns a non-null value, the interval it provides is used
+     * instead of the fixed {@link #getMaxCheckInterval()} by propagators that support
+     * it, i.e. analytical propagators and ephemerides. The default implementation
+     * returns null.
+     * </p>
+     * <p>
+     * <em>Limitation:</em> integrated propagators (numerical, DSST, ...) ignore
+     * this interval and always use the fixed {@link #getMaxCheckInterval()}, because
+     * the underlying ordinary differential equations integrators register events
+     * handlers with a fixed maximal checking interval. The fixed interval must
+     * therefore remain small enough to detect all events when a detector is used
+     * with an integrated propagator. Integrated ephemerides generated afterwards
+     * do honor the state-dependent interval.
+     * </p>
+     * @return state-dependent maximal time interval between switching function checks,
+     * or null if only the fixed {@link #getMaxCheckInterval()} should be used
+     * @since 9.2
+     */
+    default AdaptableInterval getAdaptableInterval() {
+        return null;
+    }
+
     /** Get maximal number of iterations in the event time search.
      * @return maximal number of iterations in the event time search
      */
@@ -129,6 +129,18 @@ public class EventEnablingPredicateFilter<T extends EventDetector>
         return new EventEnablingPredicateFilter<T>(newMaxCheck, newThreshold, newMaxIter, newHandler, rawDetector, enabler);
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * If no state-dependent interval has been set on this instance, the
+     * one from the raw detector is used.
+     * </p>
+     */
+    @Override
+    public AdaptableInterval getAdaptableInterval() {
+        final AdaptableInterval own = super.getAdaptableInterval();
+        return (own == null) ? rawDetector.getAdaptableInterval() : own;
+    }
+
     /**  {@inheritDoc} */
     public void init(final SpacecraftState s0, final AbsoluteDate t) {
 
@@ -128,6 +128,18 @@ public class EventSlopeFilter<T extends EventDetector> extends AbstractDetector<
         return new EventSlopeFilter<T>(newMaxCheck, newThreshold, newMaxIter, newHandler, rawDetector, filter);
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * If no state-dependent interval has been set on this instance, the
+     * one from the raw detector is used.
+     * </p>
+     */
+    @Override
+    public AdaptableInterval getAdaptableInterval() {
+        final AdaptableInterval own = super.getAdaptableInterval();
+        return (own == null) ? rawDetector.getAdaptableInterval() : own;
+    }
+
     /**  {@inheritDoc} */
     public void init(final SpacecraftState s0, final AbsoluteDate t) {
 
@@ -28,6 +28,8 @@ import org.orekit.errors.OrekitExceptionWrapper;
 import org.orekit.errors.OrekitInternalError;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.propagation.instrumentation.InstrumentedBracketingSolver;
+import org.orekit.propagation.instrumentation.Probe;
 import org.orekit.propagation.sampling.OrekitStepInterpolator;
 import org.orekit.time.AbsoluteDate;
 
@@ -102,6 +104,9 @@ public class EventState<T extends EventDetector> implements Serializable {
      */
     private boolean increasing;
 
+    /** Probe for instrumentation (null if not instrumented). */
+    private transient Probe probe;
+
     /** Simple constructor.
      * @param detector monitored event detector
      */
@@ -121,6 +126,7 @@ public class EventState<T extends EventDetector> implements Serializable {
         earliestTimeConsidered = null;
         afterEvent             = null;
         afterG                 = Double.NaN;
+        probe                  = null;
 
     }
 
@@ -131,6 +137,18 @@ public class EventState<T extends EventDetector> implements Serializable {
         return detector;
     }
 
+    /** Set the probe for instrumentation.
+     * <p>
+     * When a probe is set, the g function calls, the root finding
+     * evaluations and the events occurrences are recorded in it.
+     * </p>
+     * @param probe probe for instrumentation (null if not instrumented)
+     * @since 9.2
+     */
+    public void setProbe(final Probe probe) {
+        this.probe = probe;
+    }
+
     /** Initialize event handler at the start of a propagation.
      * <p>
      * This method is called once at the start of the propagation. It
@@ -156,7 +174,14 @@ public class EventState<T extends EventDetector> implements Serializable {
     private double g(final SpacecraftState s) throws OrekitException {
         if (!s.getDate().equals(lastT)) {
             lastT = s.getDate();
-            lastG = detector.g(s);
+            if (probe == null) {
+                lastG = detector.g(s);
+            } else {
+                final long start      = probe.startTime();
+                final long startBytes = probe.startBytes();
+                lastG = detector.g(s);
+                probe.record(start, startBytes);
+            }
         }
         return lastG;
     }
@@ -210,30 +235,66 @@ public class EventState<T extends EventDetector> implements Serializable {
             // we cannot do anything on such a small step, don't trigger any events
             return false;
         }
-        // number of points to check in the current step
-        final int n = FastMath.max(1, (int) FastMath.ceil(FastMath.abs(dt) / detector.getMaxCheckInterval()));
-        final double h = dt / n;
-
+        final AdaptableInterval adaptable = detector.getAdaptableInterval();
+        if (adaptable == null) {
+
+            // number of points to check in the current step
+            final int n = FastMath.max(1, (int) FastMath.ceil(FastMath.abs(dt) / detector.getMaxCheckInterval()));
+            final double h = dt / n;
+
+            AbsoluteDate ta = t0;
+            double ga = g0;
+            for (int i = 0; i < n; ++i) {
+
+                // evaluate handler value at the end of the substep
+                final AbsoluteDate tb = (i == n - 1) ? t1 : t0.shiftedBy((i + 1) * h);
+                final double gb = g(interpolator.getInterpolatedState(tb));
+
+                // check events occurrence
+                if (gb == 0.0 || (g0Positive ^ (gb > 0))) {
+                    // there is a sign change: an event is expected during this step
+                    if (findRoot(interpolator, ta, ga, tb, gb)) {
+                        return true;
+                    }
+                } else {
+                    // no sign change: there is no event for now
+                    ta = tb;
+                    ga = gb;
+                }
 
-        AbsoluteDate ta = t0;
-        double ga = g0;
-        for (int i = 0; i < n; ++i) {
+            }
 
-            // evaluate handler value at the end of the substep
-            final AbsoluteDate tb = (i == n - 1) ? t1 : t0.shiftedBy((i + 1) * h);
-            final double gb = g(interpolator.getInterpolatedState(tb));
+        } else {
 
-            // check events occurrence
-            if (gb == 0.0 || (g0Positive ^ (gb > 0))) {
-                // there is a sign change: an event is expected during this step
-                if (findRoot(interpolator, ta, ga, tb, gb)) {
-                    return true;
+            // the points to check depend on state
+            AbsoluteDate    ta = t0;
+            double          ga = g0;
+            SpacecraftState sc = interpolator.getInterpolatedState(t0);
+            boolean         last;
+            do {
+
+                // evaluate handler value at the end of the substep
+                final double       interval  = FastMath.max(detector.getThreshold(),
+                                                            FastMath.abs(adaptable.currentInterval(sc)));
+                final double       remaining = t1.durationFrom(sc.getDate());
+                last = FastMath.abs(remaining) <= interval;
+                final AbsoluteDate tb = last ? t1 : sc.getDate().shiftedBy(FastMath.copySign(interval, dt));
+                sc = interpolator.getInterpolatedState(tb);
+                final double gb = g(sc);
+
+                // check events occurrence
+                if (gb == 0.0 || (g0Positive ^ (gb > 0))) {
+                    // there is a sign change: an event is expected during this step
+                    if (findRoot(interpolator, ta, ga, tb, gb)) {
+                        return true;
+                    }
+                } else {
+                    // no sign change: there is no event for now
+                    ta = tb;
+                    ga = gb;
                 }
-            } else {
-                // no sign change: there is no event for now
-                ta = tb;
-                ga = gb;
-            }
+
+            } while (!last);
 
         }
 
@@ -267,8 +328,9 @@ public class EventState<T extends EventDetector> implements Serializable {
 
         final double convergence = detector.getThreshold();
         final int maxIterationCount = detector.getMaxIterationCount();
-        final BracketedUnivariateSolver<UnivariateFunction> solver =
-                new BracketingNthOrderBrentSolver(0, convergence, 0, 5);
+        final BracketedUnivariateSolver<UnivariateFunction> solver = (probe == null) ?
+                new BracketingNthOrderBrentSolver(0, convergence, 0, 5) :
+                new InstrumentedBracketingSolver(convergence, probe);
 
         // event time, just at or before the actual root.
         AbsoluteDate beforeRootT = null;
@@ -474,6 +536,9 @@ public class EventState<T extends EventDetector> implements Serializable {
         check(pendingEvent);
         check(state.getDate().equals(this.pendingEventTime));
 
+        if (probe != null) {
+            probe.recordEvent();
+        }
         final EventHandler.Action action = detector.eventOccurred(state, increasing == forward);
         final SpacecraftState newState;
         if (action == EventHandler.Action.RESET_STATE) {
@@ -41,6 +41,10 @@ import org.orekit.time.AbsoluteDate;
  * and store the corresponding events as {@link LoggedEvent} instances.
  * After propagation is complete, the user can retrieve all the events
  * that have occurred at once by calling method {@link #getLoggedEvents()}.</p>
+ * <p>For very long propagations, keeping all events with their states in
+ * memory may be too costly. In this case, the logger can be built with an
+ * {@link EventsSink} that receives each event as soon as it occurs, so events
+ * can be processed during propagation and memory does not grow.</p>
  *
  * @author Luc Maisonobe
  */
@@ -52,13 +56,34 @@ public class EventsLogger implements Serializable {
     /** List of occurred events. */
     private final List<LoggedEvent> log;
 
+    /** Sink for occurred events (null if events are stored in {@link #log}). */
+    private final EventsSink sink;
+
     /** Simple constructor.
      * <p>
      * Build an empty logger for events detectors.
      * </p>
      */
     public EventsLogger() {
-        log = new ArrayList<EventsLogger.LoggedEvent>();
+        log  = new ArrayList<EventsLogger.LoggedEvent>();
+        sink = null;
+    }
+
+    /** Constructor for a streaming logger.
+     * <p>
+     * Build a logger for events detectors that does not store the events,
+     * but pushes them to a sink as soon as they occur. With such a logger,
+     * {@link #getLoggedEvents()} always returns an empty list.
+     * </p>
+     * <p>
+     * The logger is serializable only if the sink is serializable.
+     * </p>
+     * @param sink sink for events
+     * @since 9.2
+     */
+    public EventsLogger(final EventsSink sink) {
+        this.log  = new ArrayList<EventsLogger.LoggedEvent>();
+        this.sink = sink;
     }
 
     /** Monitor an event detector.
@@ -99,7 +124,8 @@ public class EventsLogger implements Serializable {
      * event if the {@link #clearLoggedEvents() clearLoggedEvents} method
      * is called and the logger reused in another propagation.
      * </p>
-     * @return an immutable copy of the logged events
+     * @return an immutable copy of the logged events (always
+     * empty if the logger has been built with an {@link EventsSink})
      */
     public List<LoggedEvent> getLoggedEvents() {
         return new ArrayList<EventsLogger.LoggedEvent>(log);
@@ -204,12 +230,31 @@ public class EventsLogger implements Serializable {
             return new LoggingWrapper<T>(newMaxCheck, newThreshold, newMaxIter, newHandler, detector);
         }
 
+        /** {@inheritDoc}
+         * <p>
+         * If no state-dependent interval has been set on this instance, the
+         * one from the wrapped detector is used.
+         * </p>
+         */
+        @Override
+        public AdaptableInterval getAdaptableInterval() {
+            final AdaptableInterval own = super.getAdaptableInterval();
+            return (own == null) ? detector.getAdaptableInterval() : own;
+        }
+
         /** Log an event.
          * @param state state at event trigger date
          * @param increasing indicator if the event switching function was increasing
+         * @exception OrekitException if the event sink cannot handle the event
          */
-        public void logEvent(final SpacecraftState state, final boolean increasing) {
-            log.add(new LoggedEvent(detector, state, increasing));
+        public void logEvent(final SpacecraftState state, final boolean increasing)
+            throws OrekitException {
+            final LoggedEvent event = new LoggedEvent(detector, state, increasing);
+            if (sink == null) {
+                log.add(event);
+            } else {
+                sink.logEvent(event);
+            }
         }
 
         /** {@inheritDoc} */
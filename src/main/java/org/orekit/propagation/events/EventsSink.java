@@ -0,0 +1,46 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import org.orekit.errors.OrekitException;
+
+/** Interface for receiving events logged by an {@link EventsLogger} as they occur.
+ * <p>
+ * Sinks allow processing events during propagation, without keeping
+ * them all in memory until propagation ends. Typical implementations
+ * forward the events to a consumer, put them in a bounded queue read by
+ * another thread, or store only some selected fields, as {@link
+ * CompactEventsLog} does.
+ * </p>
+ * <p>
+ * The states of the events are the ones provided to the detectors,
+ * they are not copied, so sinks can keep them or drop them as needed.
+ * </p>
+ * @see EventsLogger#EventsLogger(EventsSink)
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+@FunctionalInterface
+public interface EventsSink {
+
+    /** Receive one event.
+     * @param event logged event
+     * @exception OrekitException if the event cannot be handled
+     */
+    void logEvent(EventsLogger.LoggedEvent event) throws OrekitException;
+
+}
@@ -130,8 +130,9 @@ public class GeographicZoneDetector extends AbstractDetector<GeographicZoneDetec
      * @return a new detector with updated configuration (the instance is not changed)
      */
     public GeographicZoneDetector withMargin(final double newMargin) {
-        return new GeographicZoneDetector(getMaxCheckInterval(), getThreshold(), getMaxIterationCount(), getHandler(),
-                                          body, zone, cap, newMargin);
+        return keepAdaptableInterval(new GeographicZoneDetector(getMaxCheckInterval(), getThreshold(),
+                                                                getMaxIterationCount(), getHandler(),
+                                                                body, zone, cap, newMargin));
     }
 
     /** Get the body on which the geographic zone is defined.
@@ -0,0 +1,375 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * Finder for satellite raising/setting events over a network of ground stations.
+ * <p>
+ * This class is equivalent to one {@link ElevationDetector} per station, but
+ * the spacecraft position is transformed to the Earth-fixed frame only once per
+ * date and state, and all station elevations are computed from this shared position.
+ * The stations are configured using regular elevation detectors, and all their
+ * topocentric frames must be defined with respect to the same body frame.
+ * </p>
+ * <p>
+ * The network itself is not an events detector. It provides one {@link StationDetector}
+ * per station by calling {@link #getDetectors()}, and these detectors must all be
+ * registered to the propagator. Each station detector has its own switching function,
+ * so events from different stations are located independently from each other, even
+ * when they occur within the same maximum checking interval. The station detectors
+ * share a cache holding the Earth-fixed positions for the last evaluated dates, so the
+ * frame transform is computed only once per date when all detectors are evaluated on
+ * the same states.
+ * </p>
+ * <p>
+ * Propagators evaluate each detector over all the sub-steps of a step before evaluating
+ * the next detector, so the cache must be large enough to hold all the sub-steps of one
+ * step for the position to be shared. This number is the step duration divided by the
+ * maximum checking interval. Analytical propagators perform only one step between
+ * events, so it may be large when they are used for long durations. When a station
+ * detector finds an event, it restarts its sub-steps from the event date, so its
+ * following sub-steps are not shared with the other stations until the next step.
+ * </p>
+ * <p>
+ * The station detectors use the maximum checking interval, convergence threshold,
+ * maximum number of iterations and handler of the elevation detectors defining the
+ * stations. The handlers are called with the elevation detector of the station as
+ * their detector argument, so the same handlers can be used with or without the network.
+ * </p>
+ * @see ElevationDetector
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class MultiStationElevationDetector implements Serializable {
+
+    /** Default number of dates in the positions cache. */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20171215L;
+
+    /** Number of dates in the positions cache. */
+    private final int cacheSize;
+
+    /** Cache for spacecraft position in body frame (null if there are no stations). */
+    private final PositionCache cache;
+
+    /** Stations. */
+    private final List<StationGeometry> stations;
+
+    /**
+     * Creates an instance of multi-station elevation detector without any stations.
+     * <p>
+     * uses default value for cache size ({@link #DEFAULT_CACHE_SIZE}).</p>
+     * @see #withStation(ElevationDetector)
+     */
+    public MultiStationElevationDetector() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates an instance of multi-station elevation detector without any stations
+     * and override of default cache size.
+     * @param cacheSize number of dates in the positions cache
+     * @see #withStation(ElevationDetector)
+     */
+    public MultiStationElevationDetector(final int cacheSize) {
+        this(cacheSize, null, Collections.emptyList());
+    }
+
+    /** Private constructor with full parameters.
+     * @param cacheSize number of dates in the positions cache
+     * @param cache cache for spacecraft position in body frame (null if there are no stations)
+     * @param stations stations
+     */
+    private MultiStationElevationDetector(final int cacheSize, final PositionCache cache,
+                                          final List<StationGeometry> stations) {
+        this.cacheSize = cacheSize;
+        this.cache     = cache;
+        this.stations  = stations;
+    }
+
+    /**
+     * Add a station to the network.
+     * @param station elevation detector defining the station
+     * @return a new network with updated configuration (the instance is not changed)
+     * @exception OrekitIllegalArgumentException if the station is not defined with
+     * respect to the same body frame as the already existing stations
+     */
+    public MultiStationElevationDetector withStation(final ElevationDetector station)
+        throws OrekitIllegalArgumentException {
+
+        final Frame stationBodyFrame = station.getTopocentricFrame().getParentShape().getBodyFrame();
+        if (cache != null && cache.bodyFrame != stationBodyFrame) {
+            throw new OrekitIllegalArgumentException(OrekitMessages.FRAMES_MISMATCH,
+                                                     stationBodyFrame.getName(), cache.bodyFrame.getName());
+        }
+
+        final List<StationGeometry> newStations = new ArrayList<>(stations.size() + 1);
+        newStations.addAll(stations);
+        newStations.add(new StationGeometry(station));
+
+        return new MultiStationElevationDetector(cacheSize, new PositionCache(stationBodyFrame, cacheSize),
+                                                 Collections.unmodifiableList(newStations));
+
+    }
+
+    /** Get the stations.
+     * @return unmodifiable list of elevation detectors defining the stations
+     */
+    public List<ElevationDetector> getStations() {
+        final List<ElevationDetector> list = new ArrayList<>(stations.size());
+        for (final StationGeometry station : stations) {
+            list.add(station.getDetector());
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /** Get the events detectors for all stations.
+     * <p>
+     * All the returned detectors must be registered to the propagator.
+     * They share a cache for the spacecraft position in body frame.
+     * </p>
+     * @return unmodifiable list of events detectors, one for each station,
+     * in the same order as {@link #getStations()}
+     */
+    public List<StationDetector> getDetectors() {
+        final List<StationDetector> list = new ArrayList<>(stations.size());
+        for (final StationGeometry geometry : stations) {
+            final ElevationDetector station = geometry.getDetector();
+            final StationDetector detector =
+                            new StationDetector(station.getMaxCheckInterval(), station.getThreshold(),
+                                                station.getMaxIterationCount(), new StationHandler(station),
+                                                geometry, cache);
+            list.add(station.getAdaptableInterval() == null ?
+                     detector : detector.withMaxCheck(station.getAdaptableInterval()));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /** Events detector for one station of the network.
+     * <p>
+     * The switching function is the same as the one of the {@link ElevationDetector}
+     * defining the station, but it uses the spacecraft position in body frame shared
+     * with the other stations of the network.
+     * </p>
+     */
+    public static class StationDetector extends AbstractDetector<StationDetector> {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171215L;
+
+        /** Station geometry. */
+        private final StationGeometry geometry;
+
+        /** Cache for spacecraft position in body frame. */
+        private final PositionCache cache;
+
+        /** Private constructor with full parameters.
+         * @param maxCheck maximum checking interval (s)
+         * @param threshold convergence threshold (s)
+         * @param maxIter maximum number of iterations in the event time search
+         * @param handler event handler to call at event occurrences
+         * @param geometry station geometry
+         * @param cache cache for spacecraft position in body frame
+         */
+        private StationDetector(final double maxCheck, final double threshold, final int maxIter,
+                                final EventHandler<? super StationDetector> handler,
+                                final StationGeometry geometry, final PositionCache cache) {
+            super(maxCheck, threshold, maxIter, handler);
+            this.geometry = geometry;
+            this.cache    = cache;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected StationDetector create(final double newMaxCheck, final double newThreshold,
+                                         final int newMaxIter,
+                                         final EventHandler<? super StationDetector> newHandler) {
+            return new StationDetector(newMaxCheck, newThreshold, newMaxIter, newHandler, geometry, cache);
+        }
+
+        /** Get the elevation detector defining the station.
+         * @return elevation detector defining the station
+         */
+        public ElevationDetector getStation() {
+            return geometry.getDetector();
+        }
+
+        /** Get the topocentric frame of the station.
+         * @return topocentric frame of the station
+         */
+        public TopocentricFrame getTopocentricFrame() {
+            return geometry.getDetector().getTopocentricFrame();
+        }
+
+        /** Compute the value of the switching function.
+         * This function is the difference between the current elevation
+         * (and azimuth if necessary) and the reference mask or minimum value.
+         * @param s the current state information: date, kinematics, attitude
+         * @return value of the switching function
+         * @exception OrekitException if some frame conversion cannot be performed
+         */
+        @Override
+        public double g(final SpacecraftState s) throws OrekitException {
+            return geometry.getElevationMargin(cache.getBodyPosition(s));
+        }
+
+    }
+
+    /** Handler delegating events to the handler of the station elevation detector. */
+    private static class StationHandler implements EventHandler<StationDetector>, Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171215L;
+
+        /** Elevation detector defining the station. */
+        private final ElevationDetector station;
+
+        /** Simple constructor.
+         * @param station elevation detector defining the station
+         */
+        StationHandler(final ElevationDetector station) {
+            this.station = station;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Action eventOccurred(final SpacecraftState s, final StationDetector detector,
+                                    final boolean increasing)
+            throws OrekitException {
+            return station.getHandler().eventOccurred(s, station, increasing);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public SpacecraftState resetState(final StationDetector detector, final SpacecraftState oldState)
+            throws OrekitException {
+            return station.getHandler().resetState(station, oldState);
+        }
+
+    }
+
+    /** Cache for the spacecraft position in body frame, keyed by date and state. */
+    private static class PositionCache implements Serializable {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171215L;
+
+        /** Body frame shared by all stations. */
+        private final Frame bodyFrame;
+
+        /** Number of dates in the cache. */
+        private final int capacity;
+
+        /** Cached entries, oldest first (lazily built). */
+        private transient Map<AbsoluteDate, Entry> entries;
+
+        /** Simple constructor.
+         * @param bodyFrame body frame shared by all stations
+         * @param capacity number of dates in the cache
+         */
+        PositionCache(final Frame bodyFrame, final int capacity) {
+            this.bodyFrame = bodyFrame;
+            this.capacity  = capacity;
+        }
+
+        /** Get the spacecraft position in body frame.
+         * <p>
+         * The cached position is reused only if the state has the same date,
+         * frame and position as the state used to compute it, so the cache
+         * remains consistent if the detectors are shared between propagators.
+         * </p>
+         * @param s spacecraft state
+         * @return spacecraft position in body frame
+         * @exception OrekitException if some frame conversion cannot be performed
+         */
+        synchronized Vector3D getBodyPosition(final SpacecraftState s) throws OrekitException {
+
+            if (entries == null) {
+                entries = new LinkedHashMap<AbsoluteDate, Entry>(2 * capacity, 0.75f, false) {
+
+                    /** Serializable UID. */
+                    private static final long serialVersionUID = 20171215L;
+
+                    /** {@inheritDoc} */
+                    @Override
+                    protected boolean removeEldestEntry(final Map.Entry<AbsoluteDate, Entry> eldest) {
+                        return size() > capacity;
+                    }
+
+                };
+            }
+
+            final Vector3D position = s.getPVCoordinates().getPosition();
+            final Entry    entry    = entries.get(s.getDate());
+            if (entry != null && entry.frame == s.getFrame() && entry.position.equals(position)) {
+                return entry.bodyPosition;
+            }
+
+            final Vector3D bodyPosition =
+                            s.getFrame().getTransformTo(bodyFrame, s.getDate()).transformPosition(position);
+            entries.put(s.getDate(), new Entry(s.getFrame(), position, bodyPosition));
+            return bodyPosition;
+
+        }
+
+    }
+
+    /** Entry of the position cache. */
+    private static class Entry {
+
+        /** State frame. */
+        private final Frame frame;
+
+        /** Spacecraft position in state frame. */
+        private final Vector3D position;
+
+        /** Spacecraft position in body frame. */
+        private final Vector3D bodyPosition;
+
+        /** Simple constructor.
+         * @param frame state frame
+         * @param position spacecraft position in state frame
+         * @param bodyPosition spacecraft position in body frame
+         */
+        Entry(final Frame frame, final Vector3D position, final Vector3D bodyPosition) {
+            this.frame        = frame;
+            this.position     = position;
+            this.bodyPosition = bodyPosition;
+        }
+
+    }
+
+}
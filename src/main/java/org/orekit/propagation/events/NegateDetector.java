@@ -83,6 +83,18 @@ public class NegateDetector extends AbstractDetector<NegateDetector> {
         return -this.original.g(s);
     }
 
+    /** {@inheritDoc}
+     * <p>
+     * If no state-dependent interval has been set on this instance, the
+     * one from the original detector is used.
+     * </p>
+     */
+    @Override
+    public AdaptableInterval getAdaptableInterval() {
+        final AdaptableInterval own = super.getAdaptableInterval();
+        return (own == null) ? this.original.getAdaptableInterval() : own;
+    }
+
     @Override
     protected NegateDetector create(
             final double newMaxCheck,
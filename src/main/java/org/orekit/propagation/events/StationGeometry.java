@@ -0,0 +1,159 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.io.Serializable;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.frames.Frame;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.models.AtmosphericRefractionModel;
+import org.orekit.utils.ElevationMask;
+
+/** Ground station geometry precomputed in the body frame.
+ * <p>
+ * This class allows computing the same elevation margin as {@link
+ * ElevationDetector#g(org.orekit.propagation.SpacecraftState)} for spacecraft positions
+ * already expressed in the body frame, without any frame transform.
+ * It is intended to share one transform between many stations.
+ * </p>
+ * @see MultiStationElevationDetector
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class StationGeometry implements Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20171201L;
+
+    /** Elevation detector defining the station. */
+    private final ElevationDetector detector;
+
+    /** Station position in body frame. */
+    private final Vector3D position;
+
+    /** East direction in body frame. */
+    private final Vector3D east;
+
+    /** North direction in body frame. */
+    private final Vector3D north;
+
+    /** Zenith direction in body frame. */
+    private final Vector3D zenith;
+
+    /** Lowest elevation at which the station can see a spacecraft, without refraction. */
+    private final double lowestElevation;
+
+    /** Simple constructor.
+     * <p>
+     * Only the topocentric frame, the minimum elevation or elevation mask and the
+     * refraction model of the station detector are used, its checking settings and
+     * handler are ignored.
+     * </p>
+     * @param detector elevation detector defining the station
+     */
+    public StationGeometry(final ElevationDetector detector) {
+        final TopocentricFrame topo = detector.getTopocentricFrame();
+        this.detector        = detector;
+        this.position        = topo.getParentShape().transform(topo.getPoint());
+        this.east            = topo.getEast();
+        this.north           = topo.getNorth();
+        this.zenith          = topo.getZenith();
+        this.lowestElevation = detector.getLowestElevation();
+    }
+
+    /** Get the elevation detector defining the station.
+     * @return elevation detector defining the station
+     */
+    public ElevationDetector getDetector() {
+        return detector;
+    }
+
+    /** Get the body frame in which geometry is defined.
+     * @return body frame in which geometry is defined
+     */
+    public Frame getBodyFrame() {
+        return detector.getTopocentricFrame().getParentShape().getBodyFrame();
+    }
+
+    /** Get the station position.
+     * @return station position in body frame
+     */
+    public Vector3D getPosition() {
+        return position;
+    }
+
+    /** Get the zenith direction.
+     * @return zenith direction in body frame
+     */
+    public Vector3D getZenith() {
+        return zenith;
+    }
+
+    /** Get the lowest elevation at which the station can see a spacecraft.
+     * @return minimum elevation, or lowest point of the elevation mask,
+     * without refraction (rad)
+     */
+    public double getLowestElevation() {
+        return lowestElevation;
+    }
+
+    /** Compute the true elevation of a spacecraft.
+     * @param spacecraft spacecraft position in body frame
+     * @return elevation without refraction (rad)
+     */
+    public double getElevation(final Vector3D spacecraft) {
+        final Vector3D los = spacecraft.subtract(position);
+        return FastMath.asin(FastMath.max(-1.0,
+                                          FastMath.min(1.0, Vector3D.dotProduct(los, zenith) / los.getNorm())));
+    }
+
+    /** Compute the elevation margin of a spacecraft.
+     * <p>
+     * This method computes the same value as {@link ElevationDetector#g(org.orekit.propagation.SpacecraftState)}.
+     * </p>
+     * @param spacecraft spacecraft position in body frame
+     * @return difference between current elevation and reference mask or minimum value
+     */
+    public double getElevationMargin(final Vector3D spacecraft) {
+
+        final double trueElevation = getElevation(spacecraft);
+
+        final AtmosphericRefractionModel refractionModel = detector.getRefractionModel();
+        final double calculatedElevation;
+        if (refractionModel != null) {
+            calculatedElevation = trueElevation + refractionModel.getRefraction(trueElevation);
+        } else {
+            calculatedElevation = trueElevation;
+        }
+
+        final ElevationMask elevationMask = detector.getElevationMask();
+        if (elevationMask != null) {
+            final Vector3D los     = spacecraft.subtract(position);
+            final double   azimuth = MathUtils.normalizeAngle(FastMath.atan2(Vector3D.dotProduct(los, east),
+                                                                             Vector3D.dotProduct(los, north)),
+                                                              FastMath.PI);
+            return calculatedElevation - elevationMask.getElevation(azimuth);
+        } else {
+            return calculatedElevation - detector.getMinElevation();
+        }
+
+    }
+
+}
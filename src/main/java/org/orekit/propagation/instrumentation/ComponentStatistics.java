@@ -0,0 +1,136 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+/** Immutable snapshot of the statistics gathered for one propagation component.
+ * @see PropagationInstrumentation#getSnapshot()
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class ComponentStatistics {
+
+    /** Type of the instrumented component. */
+    private final ComponentType type;
+
+    /** Name of the instrumented component. */
+    private final String name;
+
+    /** Number of calls. */
+    private final long calls;
+
+    /** Cumulated wall clock time in nanoseconds. */
+    private final long nanos;
+
+    /** Cumulated allocated bytes. */
+    private final long allocatedBytes;
+
+    /** Number of events occurred. */
+    private final long events;
+
+    /** Number of function evaluations performed by root finding. */
+    private final long rootFindingEvaluations;
+
+    /** Simple constructor.
+     * @param type type of the instrumented component
+     * @param name name of the instrumented component
+     * @param calls number of calls
+     * @param nanos cumulated wall clock time in nanoseconds
+     * @param allocatedBytes cumulated allocated bytes
+     * @param events number of events occurred
+     * @param rootFindingEvaluations number of function evaluations performed by root finding
+     */
+    public ComponentStatistics(final ComponentType type, final String name,
+                               final long calls, final long nanos, final long allocatedBytes,
+                               final long events, final long rootFindingEvaluations) {
+        this.type                   = type;
+        this.name                   = name;
+        this.calls                  = calls;
+        this.nanos                  = nanos;
+        this.allocatedBytes         = allocatedBytes;
+        this.events                 = events;
+        this.rootFindingEvaluations = rootFindingEvaluations;
+    }
+
+    /** Get the type of the instrumented component.
+     * @return type of the instrumented component
+     */
+    public ComponentType getType() {
+        return type;
+    }
+
+    /** Get the name of the instrumented component.
+     * <p>
+     * The name is the simple name of the component class, with a
+     * numerical suffix when several components of the same class
+     * and type are instrumented (for example {@code ThirdBodyAttraction}
+     * and {@code ThirdBodyAttraction-2}).
+     * </p>
+     * @return name of the instrumented component
+     */
+    public String getName() {
+        return name;
+    }
+
+    /** Get the number of calls.
+     * <p>
+     * For {@link ComponentType#FORCE_MODEL force models}, this is the number
+     * of contributions to state derivatives, for {@link ComponentType#EVENT_DETECTOR
+     * events detectors}, this is the number of g function calls, and for
+     * {@link ComponentType#STEP_HANDLER step handlers}, this is the number
+     * of steps handled.
+     * </p>
+     * @return number of calls
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /** Get the cumulated wall clock time.
+     * @return cumulated wall clock time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /** Get the cumulated allocated bytes.
+     * @return cumulated allocated bytes (0 if allocations are not tracked)
+     * @see PropagationInstrumentation#isTrackingAllocations()
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /** Get the number of events occurred.
+     * @return number of events occurred (always 0 for components
+     * that are not events detectors)
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /** Get the number of function evaluations performed by root finding.
+     * <p>
+     * These evaluations are a subset of the {@link #getCalls() g function calls}.
+     * </p>
+     * @return number of function evaluations performed by root finding
+     * (always 0 for components that are not events detectors)
+     */
+    public long getRootFindingEvaluations() {
+        return rootFindingEvaluations;
+    }
+
+}
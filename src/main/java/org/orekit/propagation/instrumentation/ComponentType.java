@@ -0,0 +1,42 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+/** Enumerate for the types of propagation components that can be instrumented.
+ * @see PropagationInstrumentation
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public enum ComponentType {
+
+    /** Force model, instrumented at each {@link
+     * org.orekit.forces.ForceModel#addContribution(org.orekit.propagation.SpacecraftState,
+     * org.orekit.propagation.numerical.TimeDerivativesEquations) contribution}
+     * to the state derivatives. */
+    FORCE_MODEL,
+
+    /** Event detector, instrumented at each {@link
+     * org.orekit.propagation.events.EventDetector#g(org.orekit.propagation.SpacecraftState)
+     * switching function} call. */
+    EVENT_DETECTOR,
+
+    /** Step handler, instrumented at each {@link
+     * org.orekit.propagation.sampling.OrekitStepHandler#handleStep(org.orekit.propagation.sampling.OrekitStepInterpolator,
+     * boolean) step} handled. */
+    STEP_HANDLER;
+
+}
@@ -0,0 +1,67 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.LongSupplier;
+
+/** Per-thread allocation counter based on HotSpot management extensions.
+ * <p>
+ * This class is the only one referencing the {@code com.sun.management} package.
+ * It is loaded reflectively by {@link PropagationInstrumentation}, so the library
+ * still works on Java virtual machines that do not provide this package.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+final class HotSpotAllocationCounter implements LongSupplier {
+
+    /** Underlying thread management bean. */
+    private final com.sun.management.ThreadMXBean bean;
+
+    /** Simple constructor.
+     * @param bean underlying thread management bean
+     */
+    private HotSpotAllocationCounter(final com.sun.management.ThreadMXBean bean) {
+        this.bean = bean;
+    }
+
+    /** Create a counter, enabling allocation tracking in the virtual machine.
+     * @return per-thread allocation counter, or null if not supported
+     */
+    static LongSupplier create() {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (hotSpotBean.isThreadAllocatedMemorySupported()) {
+                hotSpotBean.setThreadAllocatedMemoryEnabled(true);
+                return new HotSpotAllocationCounter(hotSpotBean);
+            }
+        }
+        return null;
+    }
+
+    /** Get the number of bytes allocated by the current thread.
+     * @return number of bytes allocated by the current thread
+     */
+    @Override
+    public long getAsLong() {
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
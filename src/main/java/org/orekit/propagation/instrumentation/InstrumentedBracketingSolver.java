@@ -0,0 +1,59 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+import org.hipparchus.analysis.UnivariateFunction;
+import org.hipparchus.analysis.solvers.BracketingNthOrderBrentSolver;
+
+/** Bracketing solver recording its evaluations in a {@link Probe probe}.
+ * <p>
+ * This solver is configured exactly as the default solver used for events
+ * detection, it only adds the number of evaluations performed by each root
+ * finding to the probe of the event detector.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class InstrumentedBracketingSolver extends BracketingNthOrderBrentSolver {
+
+    /** Maximal order of the solver. */
+    private static final int MAXIMAL_ORDER = 5;
+
+    /** Probe in which evaluations are recorded. */
+    private final Probe probe;
+
+    /** Simple constructor.
+     * @param convergence convergence threshold (absolute accuracy)
+     * @param probe probe in which evaluations are recorded
+     */
+    public InstrumentedBracketingSolver(final double convergence, final Probe probe) {
+        super(0, convergence, 0, MAXIMAL_ORDER);
+        this.probe = probe;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Interval solveInterval(final int maxEval, final UnivariateFunction f,
+                                  final double min, final double max, final double startValue) {
+        try {
+            return super.solveInterval(maxEval, f, min, max, startValue);
+        } finally {
+            probe.recordRootFinding(getEvaluations());
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Probe recording statistics for one instrumented propagation component.
+ * <p>
+ * Probes are created by {@link PropagationInstrumentation#getProbe(ComponentType, Object)}.
+ * A typical measurement is performed as follows:
+ * </p>
+ * <pre>
+ *   final long t0 = probe.startTime();
+ *   final long b0 = probe.startBytes();
+ *   component.doSomething();
+ *   probe.record(t0, b0);
+ * </pre>
+ * <p>
+ * Counters are thread-safe, so statistics can be read while they are updated.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class Probe {
+
+    /** Instrumentation this probe belongs to. */
+    private final PropagationInstrumentation instrumentation;
+
+    /** Type of the instrumented component. */
+    private final ComponentType type;
+
+    /** Name of the instrumented component. */
+    private final String name;
+
+    /** Number of calls. */
+    private final LongAdder calls;
+
+    /** Cumulated wall clock time in nanoseconds. */
+    private final LongAdder nanos;
+
+    /** Cumulated allocated bytes. */
+    private final LongAdder bytes;
+
+    /** Number of events occurred. */
+    private final LongAdder events;
+
+    /** Number of function evaluations performed by root finding. */
+    private final LongAdder rootFindingEvaluations;
+
+    /** Simple constructor.
+     * @param instrumentation instrumentation this probe belongs to
+     * @param type type of the instrumented component
+     * @param name name of the instrumented component
+     */
+    Probe(final PropagationInstrumentation instrumentation,
+          final ComponentType type, final String name) {
+        this.instrumentation        = instrumentation;
+        this.type                   = type;
+        this.name                   = name;
+        this.calls                  = new LongAdder();
+        this.nanos                  = new LongAdder();
+        this.bytes                  = new LongAdder();
+        this.events                 = new LongAdder();
+        this.rootFindingEvaluations = new LongAdder();
+    }
+
+    /** Get the type of the instrumented component.
+     * @return type of the instrumented component
+     */
+    public ComponentType getType() {
+        return type;
+    }
+
+    /** Get the name of the instrumented component.
+     * @return name of the instrumented component
+     */
+    public String getName() {
+        return name;
+    }
+
+    /** Get the start time of a measurement.
+     * @return start time, in nanoseconds
+     * @see #record(long, long)
+     */
+    public long startTime() {
+        return System.nanoTime();
+    }
+
+    /** Get the start allocation counter of a measurement.
+     * @return start allocation counter, in bytes
+     * @see #record(long, long)
+     */
+    public long startBytes() {
+        return instrumentation.getAllocatedBytes();
+    }
+
+    /** Record one call.
+     * @param startTime start time, as returned by {@link #startTime()}
+     * @param startBytes start allocation counter, as returned by {@link #startBytes()}
+     */
+    public void record(final long startTime, final long startBytes) {
+        final long endBytes = instrumentation.getAllocatedBytes();
+        nanos.add(System.nanoTime() - startTime);
+        bytes.add(endBytes - startBytes);
+        calls.increment();
+    }
+
+    /** Record one event occurrence.
+     */
+    public void recordEvent() {
+        events.increment();
+    }
+
+    /** Record function evaluations performed while locating an event.
+     * @param evaluations number of function evaluations
+     */
+    public void recordRootFinding(final int evaluations) {
+        rootFindingEvaluations.add(evaluations);
+    }
+
+    /** Get the current statistics.
+     * @return current statistics
+     */
+    public ComponentStatistics getStatistics() {
+        return new ComponentStatistics(type, name,
+                                       calls.sum(), nanos.sum(), bytes.sum(),
+                                       events.sum(), rootFindingEvaluations.sum());
+    }
+
+    /** Reset all counters to zero.
+     */
+    void reset() {
+        calls.reset();
+        nanos.reset();
+        bytes.reset();
+        events.reset();
+        rootFindingEvaluations.reset();
+    }
+
+}
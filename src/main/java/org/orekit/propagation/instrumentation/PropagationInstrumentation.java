@@ -0,0 +1,175 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/** Instrumentation of propagations.
+ * <p>
+ * An instance of this class can be {@link
+ * org.orekit.propagation.AbstractPropagator#setInstrumentation(PropagationInstrumentation)
+ * set} on integrated and analytical propagators. Each force model, event detector
+ * and step handler involved in propagation then gets a dedicated {@link Probe probe}
+ * recording call counts, wall clock time and allocation estimates. Probes are
+ * created the first time a component is seen and reused afterwards, so statistics
+ * accumulate over successive propagations until {@link #reset()} is called.
+ * </p>
+ * <p>
+ * Allocation estimates rely on the per-thread allocation counters provided by
+ * some Java virtual machines (for example {@code com.sun.management.ThreadMXBean}
+ * in HotSpot). When these counters are not available, or when allocation tracking
+ * has not been requested at construction, allocated bytes are always reported as 0.
+ * </p>
+ * <p>
+ * Instances can be shared between several propagators. The {@link #getSnapshot()}
+ * method can be called from any thread, even while propagation is running, which
+ * allows periodic scraping by a metrics system.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class PropagationInstrumentation {
+
+    /** Marker for lambda expressions classes names (which include a non-reproducible suffix). */
+    private static final String LAMBDA_MARKER = "$$Lambda$";
+
+    /** Name of the class providing HotSpot allocation counters. */
+    private static final String HOTSPOT_COUNTER = "org.orekit.propagation.instrumentation.HotSpotAllocationCounter";
+
+    /** Registered probes, in registration order. */
+    private final List<Probe> probes;
+
+    /** Probes indexed by instrumented component identity. */
+    private final Map<Object, Probe> registry;
+
+    /** Per-thread allocation counters (null if allocations are not tracked). */
+    private final LongSupplier allocationCounter;
+
+    /** Simple constructor, without allocation tracking.
+     */
+    public PropagationInstrumentation() {
+        this(false);
+    }
+
+    /** Simple constructor.
+     * @param trackAllocations if true, allocations will be estimated
+     * (if the Java virtual machine supports it)
+     */
+    public PropagationInstrumentation(final boolean trackAllocations) {
+        this.probes            = new ArrayList<Probe>();
+        this.registry          = new IdentityHashMap<Object, Probe>();
+        this.allocationCounter = trackAllocations ? getAllocationCounter() : null;
+    }
+
+    /** Get the per-thread allocation counter from the Java virtual machine.
+     * <p>
+     * The counter class is loaded reflectively, as it depends on HotSpot
+     * specific management extensions that may be missing.
+     * </p>
+     * @return per-thread allocation counter, or null if not supported
+     */
+    private static LongSupplier getAllocationCounter() {
+        try {
+            return (LongSupplier) Class.forName(HOTSPOT_COUNTER).getDeclaredMethod("create").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            // the virtual machine does not provide allocation counters
+            return null;
+        }
+    }
+
+    /** Check if allocations are tracked.
+     * @return true if allocations are tracked
+     */
+    public boolean isTrackingAllocations() {
+        return allocationCounter != null;
+    }
+
+    /** Get the probe associated with a component.
+     * <p>
+     * If the component has not been seen before, a new probe is created
+     * and registered, otherwise the existing probe is returned.
+     * </p>
+     * @param type type of the component
+     * @param component instrumented component (compared by identity)
+     * @return probe associated with the component
+     */
+    public synchronized Probe getProbe(final ComponentType type, final Object component) {
+        Probe probe = registry.get(component);
+        if (probe == null) {
+            probe = new Probe(this, type, createName(type, component));
+            registry.put(component, probe);
+            probes.add(probe);
+        }
+        return probe;
+    }
+
+    /** Create a unique name for a component.
+     * @param type type of the component
+     * @param component instrumented component
+     * @return name based on component class (with a stable name for lambda expressions),
+     * with a suffix if needed for uniqueness
+     */
+    private String createName(final ComponentType type, final Object component) {
+        final Class<?> cls    = component.getClass();
+        final String   simple = cls.getSimpleName().isEmpty() ? cls.getName() : cls.getSimpleName();
+        final int      lambda = simple.indexOf(LAMBDA_MARKER);
+        final String   base   = (lambda < 0) ? simple : (simple.substring(0, lambda) + "$Lambda");
+        int count = 0;
+        for (final Probe probe : probes) {
+            if (probe.getType() == type &&
+                (probe.getName().equals(base) || probe.getName().startsWith(base + "-"))) {
+                ++count;
+            }
+        }
+        return count == 0 ? base : (base + "-" + (count + 1));
+    }
+
+    /** Get a snapshot of all statistics gathered so far.
+     * @return statistics for all instrumented components, in registration order
+     */
+    public synchronized List<ComponentStatistics> getSnapshot() {
+        final List<ComponentStatistics> snapshot = new ArrayList<ComponentStatistics>(probes.size());
+        for (final Probe probe : probes) {
+            snapshot.add(probe.getStatistics());
+        }
+        return snapshot;
+    }
+
+    /** Reset all statistics gathered so far.
+     * <p>
+     * The probes are kept, only their counters are reset to zero.
+     * </p>
+     */
+    public synchronized void reset() {
+        for (final Probe probe : probes) {
+            probe.reset();
+        }
+    }
+
+    /** Get the number of bytes allocated so far by current thread.
+     * @return number of bytes allocated so far by current thread
+     * (always 0 if allocations are not tracked)
+     */
+    long getAllocatedBytes() {
+        return allocationCounter == null ? 0L : allocationCounter.getAsLong();
+    }
+
+}
@@ -0,0 +1,35 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ *
+ * This package provides classes to instrument propagations.
+ * <p>
+ * When a {@link org.orekit.propagation.instrumentation.PropagationInstrumentation
+ * PropagationInstrumentation} is set on a propagator, the force models, events
+ * detectors and step handlers involved in propagation are monitored by {@link
+ * org.orekit.propagation.instrumentation.Probe probes} that record call counts,
+ * wall clock time and allocation estimates. Probes can be read at any time, even
+ * from another thread, using {@link
+ * org.orekit.propagation.instrumentation.PropagationInstrumentation#getSnapshot()
+ * snapshots}, typically to feed a metrics system.
+ * </p>
+ *
+ * @author Luc Maisonobe
+ * @since 9.2
+ *
+ */
+package org.orekit.propagation.instrumentation;
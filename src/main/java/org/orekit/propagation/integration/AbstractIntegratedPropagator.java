@@ -16,12 +16,14 @@
  */
 package org.orekit.propagation.integration;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.hipparchus.exception.MathRuntimeException;
 import org.hipparchus.ode.DenseOutputModel;
@@ -53,9 +55,14 @@ import org.orekit.propagation.BoundedPropagator;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.EventDetector;
 import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.propagation.instrumentation.ComponentType;
+import org.orekit.propagation.instrumentation.InstrumentedBracketingSolver;
+import org.orekit.propagation.instrumentation.Probe;
+import org.orekit.propagation.instrumentation.PropagationInstrumentation;
 import org.orekit.propagation.sampling.OrekitStepHandler;
 import org.orekit.propagation.sampling.OrekitStepInterpolator;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ComputationContext;
 
 
 /** Common handling of {@link org.orekit.propagation.Propagator Propagator}
@@ -96,6 +103,9 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
      */
     private boolean meanOrbit;
 
+    /** Flag for sharing intermediate computations at each date. */
+    private boolean computationContextEnabled;
+
     /** Build a new instance.
      * @param integrator numerical integrator to use for propagation.
      * @param meanOrbit output only the mean orbit.
@@ -106,6 +116,7 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         this.integrator     = integrator;
         this.meanOrbit      = meanOrbit;
         this.resetAtEnd     = true;
+        this.computationContextEnabled = false;
     }
 
     /** Allow/disallow resetting the initial state at end of propagation.
@@ -124,6 +135,32 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         this.resetAtEnd = resetAtEnd;
     }
 
+    /** Enable/disable sharing of intermediate computations at each date.
+     * <p>
+     * When enabled, a {@link ComputationContext computation context} is active
+     * throughout integration. Frames transforms and celestial bodies positions
+     * needed by force models, attitude providers and events detectors are then
+     * computed only once at each date and shared, instead of being recomputed by
+     * each user. By default, sharing is disabled.
+     * </p>
+     * @param computationContextEnabled if true, intermediate computations are
+     * shared at each date
+     * @see #isComputationContextEnabled()
+     * @since 9.2
+     */
+    public void setComputationContextEnabled(final boolean computationContextEnabled) {
+        this.computationContextEnabled = computationContextEnabled;
+    }
+
+    /** Check if sharing of intermediate computations at each date is enabled.
+     * @return true if intermediate computations are shared at each date
+     * @see #setComputationContextEnabled(boolean)
+     * @since 9.2
+     */
+    public boolean isComputationContextEnabled() {
+        return computationContextEnabled;
+    }
+
     /** Initialize the mapper. */
     protected void initMapper() {
         stateMapper = createMapper(null, Double.NaN, null, null, null, null);
@@ -282,14 +319,30 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
     }
 
     /** Wrap an Orekit event detector and register it to the integrator.
+     * <p>
+     * The integrator only supports a fixed maximal checking interval, so the
+     * {@link EventDetector#getAdaptableInterval() state-dependent interval}
+     * of the detector, if any, is ignored and {@link
+     * EventDetector#getMaxCheckInterval()} is used.
+     * </p>
      * @param integ integrator into which event detector should be registered
      * @param detector event detector to wrap
      */
     protected void setUpEventDetector(final ODEIntegrator integ, final EventDetector detector) {
-        integ.addEventHandler(new AdaptedEventDetector(detector),
-                              detector.getMaxCheckInterval(),
-                              detector.getThreshold(),
-                              detector.getMaxIterationCount());
+        final PropagationInstrumentation instrumentation = getInstrumentation();
+        if (instrumentation == null) {
+            integ.addEventHandler(new AdaptedEventDetector(detector, null),
+                                  detector.getMaxCheckInterval(),
+                                  detector.getThreshold(),
+                                  detector.getMaxIterationCount());
+        } else {
+            final Probe probe = instrumentation.getProbe(ComponentType.EVENT_DETECTOR, detector);
+            integ.addEventHandler(new AdaptedEventDetector(detector, probe),
+                                  detector.getMaxCheckInterval(),
+                                  detector.getThreshold(),
+                                  detector.getMaxIterationCount(),
+                                  new InstrumentedBracketingSolver(detector.getThreshold(), probe));
+        }
     }
 
     /** {@inheritDoc}
@@ -350,6 +403,41 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         integrator.addStepHandler(ephemeris);
     }
 
+    /** Set the propagator to ephemeris generation mode, storing steps in a file.
+     * <p>
+     * This mode is similar to {@link #setEphemerisMode()}, but the integration steps
+     * are not kept in memory. They are gathered in chunks which are written to a
+     * temporary file as soon as they are complete, and read back lazily when the
+     * generated ephemeris is used, using a small least recently used cache. This
+     * allows generating ephemerides for propagations spanning several years.
+     * The temporary file is deleted when the generated {@link IntegratedEphemeris}
+     * is {@link IntegratedEphemeris#close() closed}, or as soon as propagation ends
+     * if no ephemeris has been generated, for example because integration failed.
+     * </p>
+     * <p>
+     * Note that this method has the side effect of replacing the step handlers
+     * of the underlying integrator set up in the {@link
+     * #AbstractIntegratedPropagator(ODEIntegrator, boolean) constructor}. So if a specific
+     * step handler is needed, it should be added after this method has been called.
+     * </p>
+     * @param directory directory where to create the temporary file
+     * (if null, the default temporary directory will be used)
+     * @param stepsPerChunk number of integration steps per chunk
+     * @param residentChunks maximum number of chunks kept in memory when
+     * the ephemeris is used
+     * @see PagedDenseOutputModel
+     * @since 9.2
+     */
+    public void setEphemerisMode(final File directory, final int stepsPerChunk, final int residentChunks) {
+        super.setEphemerisMode();
+        integrator.clearStepHandlers();
+        final EphemerisModeHandler ephemeris =
+                new EphemerisModeHandler(null,
+                    () -> new PagedDenseOutputModel(directory, stepsPerChunk, residentChunks));
+        modeHandler = ephemeris;
+        integrator.addStepHandler(ephemeris);
+    }
+
     /** {@inheritDoc} */
     public BoundedPropagator getGeneratedEphemeris()
         throws IllegalStateException {
@@ -464,6 +552,9 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
             // mathematical integration
             final ODEStateAndDerivative mathFinalState;
+            if (computationContextEnabled) {
+                ComputationContext.enter();
+            }
             try {
                 beforeIntegration(getInitialState(), tEnd);
                 mathFinalState = integrator.integrate(mathODE, mathInitialState,
@@ -471,6 +562,14 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
                 afterIntegration();
             } catch (OrekitExceptionWrapper oew) {
                 throw oew.getException();
+            } finally {
+                if (computationContextEnabled) {
+                    ComputationContext.exit();
+                }
+                if (modeHandler instanceof EphemerisModeHandler) {
+                    // if integration failed, no ephemeris owns the model
+                    ((EphemerisModeHandler) modeHandler).discardUnusedModel();
+                }
             }
 
             // get final state
@@ -776,6 +875,9 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         /** Underlying event detector. */
         private final EventDetector detector;
 
+        /** Probe for instrumentation (null if not instrumented). */
+        private final Probe probe;
+
         /** Time of the previous call to g. */
         private double lastT;
 
@@ -784,9 +886,11 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
 
         /** Build a wrapped event detector.
          * @param detector event detector to wrap
+         * @param probe probe for instrumentation (null if not instrumented)
         */
-        AdaptedEventDetector(final EventDetector detector) {
+        AdaptedEventDetector(final EventDetector detector, final Probe probe) {
             this.detector = detector;
+            this.probe    = probe;
             this.lastT    = Double.NaN;
             this.lastG    = Double.NaN;
         }
@@ -810,7 +914,14 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
             try {
                 if (!Precision.equals(lastT, s.getTime(), 0)) {
                     lastT = s.getTime();
-                    lastG = detector.g(getCompleteState(s.getTime(), s.getCompleteState(), s.getCompleteDerivative()));
+                    if (probe == null) {
+                        lastG = detector.g(getCompleteState(s.getTime(), s.getCompleteState(), s.getCompleteDerivative()));
+                    } else {
+                        final long t0 = probe.startTime();
+                        final long b0 = probe.startBytes();
+                        lastG = detector.g(getCompleteState(s.getTime(), s.getCompleteState(), s.getCompleteDerivative()));
+                        probe.record(t0, b0);
+                    }
                 }
                 return lastG;
             } catch (OrekitException oe) {
@@ -822,6 +933,10 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         public Action eventOccurred(final ODEStateAndDerivative s, final boolean increasing) {
             try {
 
+                if (probe != null) {
+                    probe.recordEvent();
+                }
+
                 final EventHandler.Action whatNext = detector.eventOccurred(getCompleteState(s.getTime(),
                                                                                              s.getCompleteState(),
                                                                                              s.getCompleteDerivative()),
@@ -881,6 +996,9 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         /** Flag for handler . */
         private boolean activate;
 
+        /** Probe for instrumentation (null if not instrumented). */
+        private Probe probe;
+
         /** Build an instance.
          * @param handler underlying handler to wrap
          */
@@ -898,6 +1016,9 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         public void init(final ODEStateAndDerivative s0, final double t) {
             try {
                 if (activate) {
+                    final PropagationInstrumentation instrumentation = getInstrumentation();
+                    probe = (instrumentation == null) ?
+                            null : instrumentation.getProbe(ComponentType.STEP_HANDLER, handler);
                     handler.init(getCompleteState(s0.getTime(), s0.getCompleteState(), s0.getCompleteDerivative()),
                                  stateMapper.mapDoubleToDate(t));
                 }
@@ -910,7 +1031,14 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         public void handleStep(final ODEStateInterpolator interpolator, final boolean isLast) {
             try {
                 if (activate) {
-                    handler.handleStep(new AdaptedStepInterpolator(interpolator), isLast);
+                    if (probe == null) {
+                        handler.handleStep(new AdaptedStepInterpolator(interpolator), isLast);
+                    } else {
+                        final long t0 = probe.startTime();
+                        final long b0 = probe.startBytes();
+                        handler.handleStep(new AdaptedStepInterpolator(interpolator), isLast);
+                        probe.record(t0, b0);
+                    }
                 }
             } catch (OrekitException pe) {
                 throw new OrekitExceptionWrapper(pe);
@@ -1057,11 +1185,14 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
         /** User's integration step handler. May be null. */
         private final AdaptedStepHandler handler;
 
+        /** Factory for the underlying raw mathematical models. */
+        private final Supplier<DenseOutputModel> modelFactory;
+
         /** Creates a new instance of EphemerisModeHandler which must be
          *  filled by the propagator.
          */
         EphemerisModeHandler() {
-            this.handler = null;
+            this(null, DenseOutputModel::new);
         }
 
         /** Creates a new instance of EphemerisModeHandler which must be
@@ -1069,14 +1200,26 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
          *  @param handler the handler to notify of every integrator step.
          */
         EphemerisModeHandler(final OrekitStepHandler handler) {
-            this.handler = new AdaptedStepHandler(handler);
+            this(handler, DenseOutputModel::new);
+        }
+
+        /** Creates a new instance of EphemerisModeHandler which must be
+         *  filled by the propagator.
+         *  @param handler the handler to notify of every integrator step (may be null)
+         *  @param modelFactory factory for the underlying raw mathematical models
+         *  @since 9.2
+         */
+        EphemerisModeHandler(final OrekitStepHandler handler,
+                             final Supplier<DenseOutputModel> modelFactory) {
+            this.handler      = (handler == null) ? null : new AdaptedStepHandler(handler);
+            this.modelFactory = modelFactory;
         }
 
         /** {@inheritDoc} */
         public void initialize(final boolean activateHandlers,
                                final AbsoluteDate targetDate) {
             this.activate = activateHandlers;
-            this.model    = new DenseOutputModel();
+            this.model    = modelFactory.get();
             this.endDate  = targetDate;
 
             // ephemeris will be generated when last step is processed
@@ -1093,6 +1236,20 @@ public abstract class AbstractIntegratedPropagator extends AbstractPropagator {
             return ephemeris;
         }
 
+        /** Discard the model if no ephemeris has been generated from it.
+         * <p>
+         * This happens when integration fails or when handlers are not
+         * activated. Paged models are closed, so their temporary file is deleted.
+         * </p>
+         * @exception OrekitException if the model cannot be closed
+         * @since 9.2
+         */
+        public void discardUnusedModel() throws OrekitException {
+            if (ephemeris == null && model instanceof PagedDenseOutputModel) {
+                ((PagedDenseOutputModel) model).close();
+            }
+        }
+
         /** {@inheritDoc} */
         public void handleStep(final ODEStateInterpolator interpolator, final boolean isLast)
             throws OrekitExceptionWrapper {
@@ -74,7 +74,7 @@ import org.orekit.utils.TimeStampedPVCoordinates;
  * @author V&eacute;ronique Pommier-Maurussane
  */
 public class IntegratedEphemeris
-    extends AbstractAnalyticalPropagator implements BoundedPropagator, Serializable  {
+    extends AbstractAnalyticalPropagator implements BoundedPropagator, Serializable, AutoCloseable  {
 
     /** Serializable UID. */
     private static final long serialVersionUID = 20140213L;
@@ -244,6 +244,23 @@ public class IntegratedEphemeris
         return updateAdditionalStates(basicPropagate(getMinDate()));
     }
 
+    /** Release the resources held by the underlying model.
+     * <p>
+     * This is needed only for ephemerides generated after calling {@link
+     * AbstractIntegratedPropagator#setEphemerisMode(java.io.File, int, int)},
+     * whose steps are stored in a temporary file which is deleted by this method.
+     * It does nothing for ephemerides stored in memory.
+     * </p>
+     * @exception OrekitException if the temporary file cannot be deleted
+     * @since 9.2
+     */
+    @Override
+    public void close() throws OrekitException {
+        if (model instanceof PagedDenseOutputModel) {
+            ((PagedDenseOutputModel) model).close();
+        }
+    }
+
     /** Replace the instance with a data transfer object for serialization.
      * @return data transfer object that will be serialized
      * @exception NotSerializableException if the state mapper cannot be serialized (typically for DSST propagator)
@@ -0,0 +1,425 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hipparchus.exception.DummyLocalizable;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalStateException;
+import org.hipparchus.ode.DenseOutputModel;
+import org.hipparchus.ode.ODEStateAndDerivative;
+import org.hipparchus.ode.sampling.ODEStateInterpolator;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitIllegalStateException;
+import org.orekit.errors.OrekitMessages;
+
+/** Dense output model storing integration steps in a file rather than in memory.
+ * <p>
+ * Steps are gathered in chunks containing a fixed number of steps. Each chunk
+ * is serialized and appended to a temporary file as soon as it is complete, so
+ * only one chunk is kept in memory during integration. When the model is queried,
+ * chunks are read back lazily and kept in a small least recently used cache, so
+ * memory consumption does not depend on the propagation duration.
+ * </p>
+ * <p>
+ * The temporary file is deleted when the model is {@link #close() closed}, so
+ * users should close either the model or the {@link IntegratedEphemeris#close()
+ * ephemeris} that wraps it as soon as it is not needed anymore. Serializing the
+ * model copies the file content into the serialization stream, and deserializing
+ * it creates a new temporary file in the default temporary directory, which must
+ * also be closed.
+ * </p>
+ * <p>
+ * This class is used by {@link AbstractIntegratedPropagator integrated propagators}
+ * when ephemeris generation mode is set up with {@link
+ * AbstractIntegratedPropagator#setEphemerisMode(File, int, int)}. The {@link
+ * #append(DenseOutputModel)} method is not supported.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class PagedDenseOutputModel extends DenseOutputModel implements AutoCloseable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20171017L;
+
+    /** Size of the buffer used when copying the file. */
+    private static final int BUFFER_SIZE = 65536;
+
+    /** Number of steps per chunk. */
+    private final int stepsPerChunk;
+
+    /** Maximum number of chunks resident in memory. */
+    private final int residentChunks;
+
+    /** Initial integration time. */
+    private double initialTime;
+
+    /** Final integration time. */
+    private double finalTime;
+
+    /** Integration direction indicator. */
+    private boolean forward;
+
+    /** Number of chunks written to the file. */
+    private int nbChunks;
+
+    /** Initial time of each chunk. */
+    private double[] chunkStart;
+
+    /** Offset of each chunk in the file (with one extra element for file end). */
+    private long[] offsets;
+
+    /** Directory where to create the file (null for default temporary directory). */
+    private transient File directory;
+
+    /** File holding the serialized chunks. */
+    private transient File file;
+
+    /** Indicator for closed model. */
+    private transient boolean closed;
+
+    /** Chunk being built during integration. */
+    private transient DenseOutputModel current;
+
+    /** Number of steps in the chunk being built. */
+    private transient int currentSteps;
+
+    /** Least recently used cache of resident chunks. */
+    private transient Map<Integer, DenseOutputModel> resident;
+
+    /** Simple constructor.
+     * @param directory directory where to create the temporary file
+     * (if null, the default temporary directory will be used)
+     * @param stepsPerChunk number of integration steps per chunk
+     * @param residentChunks maximum number of chunks kept in memory when
+     * the model is queried
+     */
+    public PagedDenseOutputModel(final File directory, final int stepsPerChunk, final int residentChunks) {
+        if (stepsPerChunk < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL,
+                                                     stepsPerChunk, 1);
+        }
+        if (residentChunks < 1) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL,
+                                                     residentChunks, 1);
+        }
+        this.directory      = directory;
+        this.stepsPerChunk  = stepsPerChunk;
+        this.residentChunks = residentChunks;
+        this.initialTime    = Double.NaN;
+        this.finalTime      = Double.NaN;
+        this.forward        = true;
+        this.nbChunks       = 0;
+        this.chunkStart     = new double[0];
+        this.offsets        = new long[1];
+    }
+
+    /** Get the number of chunks written to the file.
+     * @return number of chunks written to the file
+     */
+    public int getNbChunks() {
+        return nbChunks;
+    }
+
+    /** Get the file holding the serialized chunks.
+     * @return file holding the serialized chunks (null before integration starts)
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * This operation is not supported by paged models.
+     * </p>
+     * @exception MathIllegalStateException always thrown
+     */
+    @Override
+    public void append(final DenseOutputModel model) throws MathIllegalStateException {
+        throw new MathIllegalStateException(LocalizedCoreFormats.UNSUPPORTED_OPERATION);
+    }
+
+    /** Close the model, deleting the file holding the serialized chunks.
+     * <p>
+     * Once closed, the model cannot be queried nor serialized anymore.
+     * Closing an already closed model has no effect.
+     * </p>
+     * @exception OrekitException if the file cannot be deleted
+     */
+    @Override
+    public synchronized void close() throws OrekitException {
+        closed   = true;
+        resident = null;
+        current  = null;
+        deleteFile();
+    }
+
+    /** Delete the file holding the serialized chunks, if any.
+     * @exception OrekitException if the file cannot be deleted
+     */
+    private void deleteFile() throws OrekitException {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException ioe) {
+                throw new OrekitException(ioe, new DummyLocalizable(ioe.getMessage()));
+            }
+        }
+    }
+
+    /** Check the model has not been closed.
+     * @exception OrekitIllegalStateException if the model has been closed
+     */
+    private void checkNotClosed() throws OrekitIllegalStateException {
+        if (closed) {
+            throw new OrekitIllegalStateException(OrekitMessages.EPHEMERIS_FILE_CLOSED, file);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final ODEStateAndDerivative initialState, final double targetTime) {
+        try {
+            // a model reused for another integration does not need its previous file anymore
+            deleteFile();
+            closed       = false;
+            initialTime  = initialState.getTime();
+            finalTime    = targetTime;
+            forward      = targetTime >= initialTime;
+            nbChunks     = 0;
+            chunkStart   = new double[16];
+            offsets      = new long[17];
+            file         = createFile(directory);
+            current      = new DenseOutputModel();
+            currentSteps = 0;
+            resident     = null;
+        } catch (OrekitException oe) {
+            throw new OrekitExceptionWrapper(oe);
+        } catch (IOException ioe) {
+            throw new OrekitExceptionWrapper(new OrekitException(ioe, new DummyLocalizable(ioe.getMessage())));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handleStep(final ODEStateInterpolator interpolator, final boolean isLast) {
+
+        if (nbChunks == 0 && currentSteps == 0) {
+            initialTime = interpolator.getPreviousState().getTime();
+            forward     = interpolator.isForward();
+        }
+
+        final boolean full = ++currentSteps == stepsPerChunk;
+        current.handleStep(interpolator, full || isLast);
+        if (full || isLast) {
+            flush();
+        }
+
+        if (isLast) {
+            finalTime = interpolator.getCurrentState().getTime();
+            current   = null;
+        }
+
+    }
+
+    /** Write the current chunk to the file.
+     */
+    private void flush() {
+
+        if (nbChunks + 1 >= offsets.length) {
+            final int newSize = 2 * chunkStart.length;
+            chunkStart = Arrays.copyOf(chunkStart, newSize);
+            offsets    = Arrays.copyOf(offsets, newSize + 1);
+        }
+
+        try (OutputStream os = new FileOutputStream(file, true)) {
+            final byte[] bytes = serialize(current);
+            os.write(bytes);
+            chunkStart[nbChunks]  = current.getInitialTime();
+            offsets[nbChunks + 1] = offsets[nbChunks] + bytes.length;
+            ++nbChunks;
+        } catch (IOException ioe) {
+            throw new OrekitExceptionWrapper(new OrekitException(ioe, new DummyLocalizable(ioe.getMessage())));
+        }
+
+        current      = new DenseOutputModel();
+        currentSteps = 0;
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getInitialTime() {
+        return initialTime;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getFinalTime() {
+        return finalTime;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ODEStateAndDerivative getInterpolatedState(final double time) {
+        return getChunk(locateChunk(time)).getInterpolatedState(time);
+    }
+
+    /** Find the chunk covering a time.
+     * @param time time to locate
+     * @return index of the chunk covering the time (first or
+     * last chunk if time is out of range)
+     */
+    private int locateChunk(final double time) {
+        final double sign = forward ? 1.0 : -1.0;
+        int low  = 0;
+        int high = nbChunks - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) / 2;
+            if (sign * chunkStart[middle] <= sign * time) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /** Get a chunk, loading it from the file if needed.
+     * @param index index of the chunk
+     * @return chunk
+     */
+    private synchronized DenseOutputModel getChunk(final int index) {
+
+        checkNotClosed();
+        if (resident == null) {
+            resident = new LinkedHashMap<Integer, DenseOutputModel>(2 * residentChunks, 0.75f, true) {
+
+                /** Serializable UID. */
+                private static final long serialVersionUID = 20171017L;
+
+                /** {@inheritDoc} */
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Integer, DenseOutputModel> eldest) {
+                    return size() > residentChunks;
+                }
+
+            };
+        }
+
+        DenseOutputModel chunk = resident.get(index);
+        if (chunk == null) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                final byte[] bytes = new byte[(int) (offsets[index + 1] - offsets[index])];
+                raf.seek(offsets[index]);
+                raf.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    chunk = (DenseOutputModel) ois.readObject();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new OrekitExceptionWrapper(new OrekitException(e, new DummyLocalizable(e.getMessage())));
+            }
+            resident.put(index, chunk);
+        }
+
+        return chunk;
+
+    }
+
+    /** Serialize a chunk.
+     * @param chunk chunk to serialize
+     * @return serialized chunk
+     * @exception IOException if chunk cannot be serialized
+     */
+    private static byte[] serialize(final DenseOutputModel chunk) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(chunk);
+        }
+        return bos.toByteArray();
+    }
+
+    /** Create the temporary file.
+     * @param dir directory where to create the file (may be null)
+     * @return new empty temporary file
+     * @exception IOException if file cannot be created
+     */
+    private static File createFile(final File dir) throws IOException {
+        return File.createTempFile("orekit-ephemeris-", ".chunks", dir);
+    }
+
+    /** Serialize the model, including the content of the file.
+     * @param out output stream
+     * @exception IOException if model cannot be serialized
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        checkNotClosed();
+        out.defaultWriteObject();
+        if (nbChunks > 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                long remaining = offsets[nbChunks];
+                while (remaining > 0) {
+                    final int n = (int) FastMath.min(buffer.length, remaining);
+                    raf.readFully(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                    remaining -= n;
+                }
+            }
+        }
+    }
+
+    /** Deserialize the model, copying the chunks in a new temporary file.
+     * @param in input stream
+     * @exception IOException if model cannot be deserialized
+     * @exception ClassNotFoundException if a class cannot be found
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        file = createFile(null);
+        if (nbChunks > 0) {
+            try (OutputStream os = new FileOutputStream(file)) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                long remaining = offsets[nbChunks];
+                while (remaining > 0) {
+                    final int n = (int) FastMath.min(buffer.length, remaining);
+                    in.readFully(buffer, 0, n);
+                    os.write(buffer, 0, n);
+                    remaining -= n;
+                }
+            }
+        }
+    }
+
+}
@@ -19,8 +19,6 @@ package org.orekit.propagation.numerical;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.hipparchus.analysis.differentiation.DSFactory;
-import org.hipparchus.analysis.differentiation.DerivativeStructure;
 import org.hipparchus.geometry.euclidean.threed.FieldRotation;
 import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
@@ -34,84 +32,88 @@ import org.orekit.propagation.FieldSpacecraftState;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.utils.FieldAngularCoordinates;
 import org.orekit.utils.FieldPVCoordinates;
+import org.orekit.utils.Gradient;
+import org.orekit.utils.GradientField;
 import org.orekit.utils.ParameterDriver;
 import org.orekit.utils.TimeStampedFieldAngularCoordinates;
 import org.orekit.utils.TimeStampedFieldPVCoordinates;
 
 /** Converter for states and parameters arrays.
+ * <p>
+ * As state transition matrices only need first order derivatives, this
+ * converter relies on the lightweight {@link Gradient} type rather than on
+ * general {@link org.hipparchus.analysis.differentiation.DerivativeStructure
+ * DerivativeStructure} instances.
+ * </p>
  * @author Luc Maisonobe
- * @since 9.0
+ * @since 9.2
  */
-class DSConverter {
+class GradientConverter {
 
     /** Dimension of the state. */
     private final int freeStateParameters;
 
     /** States with various number of additional parameters for force models. */
-    private final List<FieldSpacecraftState<DerivativeStructure>> dsStates;
+    private final List<FieldSpacecraftState<Gradient>> gStates;
 
     /** Simple constructor.
-     * @param state
      * @param state regular state
      * @param freeStateParameters number of free parameters, either 3 (position),
      * 6 (position-velocity) or 7 (position-velocity-mass)
      * @param provider provider to use if attitude needs to be recomputed
      * @exception OrekitException if attitude cannot be computed
      */
-    DSConverter(final SpacecraftState state, final int freeStateParameters, final AttitudeProvider provider)
+    GradientConverter(final SpacecraftState state, final int freeStateParameters, final AttitudeProvider provider)
         throws OrekitException {
 
         this.freeStateParameters = freeStateParameters;
 
-        // prepare derivation variables, position, optionally velocity and mass
-        final DSFactory factory = new DSFactory(freeStateParameters, 1);
-
         // position always has derivatives
         final Vector3D pos = state.getPVCoordinates().getPosition();
-        final FieldVector3D<DerivativeStructure> posDS = new FieldVector3D<>(factory.variable(0, pos.getX()),
-                        factory.variable(1, pos.getY()),
-                        factory.variable(2, pos.getZ()));
+        final FieldVector3D<Gradient> posG = new FieldVector3D<>(Gradient.variable(freeStateParameters, 0, pos.getX()),
+                        Gradient.variable(freeStateParameters, 1, pos.getY()),
+                        Gradient.variable(freeStateParameters, 2, pos.getZ()));
 
         // velocity may have derivatives or not
         final Vector3D vel = state.getPVCoordinates().getVelocity();
-        final FieldVector3D<DerivativeStructure> velDS;
+        final FieldVector3D<Gradient> velG;
         if (freeStateParameters > 3) {
-            velDS = new FieldVector3D<>(factory.variable(3, vel.getX()),
-                            factory.variable(4, vel.getY()),
-                            factory.variable(5, vel.getZ()));
+            velG = new FieldVector3D<>(Gradient.variable(freeStateParameters, 3, vel.getX()),
+                            Gradient.variable(freeStateParameters, 4, vel.getY()),
+                            Gradient.variable(freeStateParameters, 5, vel.getZ()));
         } else {
-            velDS = new FieldVector3D<>(factory.constant(vel.getX()),
-                            factory.constant(vel.getY()),
-                            factory.constant(vel.getZ()));
+            velG = new FieldVector3D<>(Gradient.constant(freeStateParameters, vel.getX()),
+                            Gradient.constant(freeStateParameters, vel.getY()),
+                            Gradient.constant(freeStateParameters, vel.getZ()));
         }
 
         // acceleration never has derivatives
         final Vector3D acc = state.getPVCoordinates().getAcceleration();
-        final FieldVector3D<DerivativeStructure> accDS = new FieldVector3D<>(factory.constant(acc.getX()),
-                        factory.constant(acc.getY()),
-                        factory.constant(acc.getZ()));
+        final FieldVector3D<Gradient> accG = new FieldVector3D<>(Gradient.constant(freeStateParameters, acc.getX()),
+                        Gradient.constant(freeStateParameters, acc.getY()),
+                        Gradient.constant(freeStateParameters, acc.getZ()));
 
         // mass may have derivatives or not
-        final DerivativeStructure dsM = (freeStateParameters > 6) ?
-                                                                   factory.variable(6, state.getMass()) :
-                                                                       factory.constant(state.getMass());
+        final Gradient gM = (freeStateParameters > 6) ?
+                                                                   Gradient.variable(freeStateParameters, 6, state.getMass()) :
+                                                                       Gradient.constant(freeStateParameters, state.getMass());
 
-        final FieldOrbit<DerivativeStructure> dsOrbit =
-                        new FieldCartesianOrbit<>(new TimeStampedFieldPVCoordinates<>(state.getDate(), posDS, velDS, accDS),
+        final FieldOrbit<Gradient> gOrbit =
+                        new FieldCartesianOrbit<>(new TimeStampedFieldPVCoordinates<>(state.getDate(), posG, velG, accG),
                                         state.getFrame(), state.getMu());
 
-        final FieldAttitude<DerivativeStructure> dsAttitude;
+        final FieldAttitude<Gradient> gAttitude;
         if (freeStateParameters > 3) {
             // compute attitude partial derivatives with respect to position/velocity
-            dsAttitude = provider.getAttitude(dsOrbit, dsOrbit.getDate(), dsOrbit.getFrame());
+            gAttitude = provider.getAttitude(gOrbit, gOrbit.getDate(), gOrbit.getFrame());
         } else {
             // force model does not depend on attitude, don't bother recomputing it
-            dsAttitude = new FieldAttitude<>(factory.getDerivativeField(), state.getAttitude());
+            gAttitude = new FieldAttitude<>(GradientField.getField(freeStateParameters), state.getAttitude());
         }
 
         // initialize the list with the state having 0 formce model parameters
-        dsStates = new ArrayList<>();
-        dsStates.add(new FieldSpacecraftState<>(dsOrbit, dsAttitude, dsM));
+        gStates = new ArrayList<>();
+        gStates.add(new FieldSpacecraftState<>(gOrbit, gAttitude, gM));
 
     }
 
@@ -126,7 +128,7 @@ class DSConverter {
      * @param forceModel force model
      * @return state with the number of parameters consistent with force model
      */
-    public FieldSpacecraftState<DerivativeStructure> getState(final ForceModel forceModel) {
+    public FieldSpacecraftState<Gradient> getState(final ForceModel forceModel) {
 
         // count the required number of parameters
         int nbParams = 0;
@@ -137,78 +139,77 @@ class DSConverter {
         }
 
         // fill in intermediate slots
-        while (dsStates.size() < nbParams + 1) {
-            dsStates.add(null);
+        while (gStates.size() < nbParams + 1) {
+            gStates.add(null);
         }
 
-        if (dsStates.get(nbParams) == null) {
+        if (gStates.get(nbParams) == null) {
             // it is the first time we need this number of parameters
             // we need to create the state
-            final DSFactory factory = new DSFactory(freeStateParameters + nbParams, 1);
-            final FieldSpacecraftState<DerivativeStructure> s0 = dsStates.get(0);
+            final int freeParameters = freeStateParameters + nbParams;
+            final FieldSpacecraftState<Gradient> s0 = gStates.get(0);
 
             // orbit
-            final FieldPVCoordinates<DerivativeStructure> pv0 = s0.getPVCoordinates();
-            final FieldOrbit<DerivativeStructure> dsOrbit =
+            final FieldPVCoordinates<Gradient> pv0 = s0.getPVCoordinates();
+            final FieldOrbit<Gradient> gOrbit =
                             new FieldCartesianOrbit<>(new TimeStampedFieldPVCoordinates<>(s0.getDate().toAbsoluteDate(),
-                                                                                          extend(pv0.getPosition(),     factory),
-                                                                                          extend(pv0.getVelocity(),     factory),
-                                                                                          extend(pv0.getAcceleration(), factory)),
+                                                                                          extend(pv0.getPosition(),     freeParameters),
+                                                                                          extend(pv0.getVelocity(),     freeParameters),
+                                                                                          extend(pv0.getAcceleration(), freeParameters)),
                                                       s0.getFrame(), s0.getMu());
 
             // attitude
-            final FieldAngularCoordinates<DerivativeStructure> ac0 = s0.getAttitude().getOrientation();
-            final FieldAttitude<DerivativeStructure> dsAttitude =
+            final FieldAngularCoordinates<Gradient> ac0 = s0.getAttitude().getOrientation();
+            final FieldAttitude<Gradient> gAttitude =
                             new FieldAttitude<>(s0.getAttitude().getReferenceFrame(),
-                                                new TimeStampedFieldAngularCoordinates<>(dsOrbit.getDate(),
-                                                                                         extend(ac0.getRotation(), factory),
-                                                                                         extend(ac0.getRotationRate(), factory),
-                                                                                         extend(ac0.getRotationAcceleration(), factory)));
+                                                new TimeStampedFieldAngularCoordinates<>(gOrbit.getDate(),
+                                                                                         extend(ac0.getRotation(), freeParameters),
+                                                                                         extend(ac0.getRotationRate(), freeParameters),
+                                                                                         extend(ac0.getRotationAcceleration(), freeParameters)));
 
             // mass
-            final DerivativeStructure dsM = extend(s0.getMass(), factory);
+            final Gradient gM = extend(s0.getMass(), freeParameters);
 
-            dsStates.set(nbParams, new FieldSpacecraftState<>(dsOrbit, dsAttitude, dsM));
+            gStates.set(nbParams, new FieldSpacecraftState<>(gOrbit, gAttitude, gM));
 
         }
 
-        return dsStates.get(nbParams);
+        return gStates.get(nbParams);
 
     }
 
     /** Add zero derivatives.
      * @param original original scalar
-     * @param factory factory for the extended derivatives
+     * @param freeParameters total number of free parameters
      * @return extended scalar
      */
-    private DerivativeStructure extend(final DerivativeStructure original, final DSFactory factory) {
-        final double[] originalDerivatives = original.getAllDerivatives();
-        final double[] extendedDerivatives = new double[factory.getCompiler().getSize()];
-        System.arraycopy(originalDerivatives, 0, extendedDerivatives, 0, originalDerivatives.length);
-        return factory.build(extendedDerivatives);
+    private Gradient extend(final Gradient original, final int freeParameters) {
+        final double[] extendedGradient = new double[freeParameters];
+        System.arraycopy(original.getGradient(), 0, extendedGradient, 0, original.getFreeParameters());
+        return new Gradient(original.getValue(), extendedGradient);
     }
 
     /** Add zero derivatives.
      * @param original original vector
-     * @param factory factory for the extended derivatives
+     * @param freeParameters total number of free parameters
      * @return extended vector
      */
-    private FieldVector3D<DerivativeStructure> extend(final FieldVector3D<DerivativeStructure> original, final DSFactory factory) {
-        return new FieldVector3D<>(extend(original.getX(), factory),
-                        extend(original.getY(), factory),
-                        extend(original.getZ(), factory));
+    private FieldVector3D<Gradient> extend(final FieldVector3D<Gradient> original, final int freeParameters) {
+        return new FieldVector3D<>(extend(original.getX(), freeParameters),
+                        extend(original.getY(), freeParameters),
+                        extend(original.getZ(), freeParameters));
     }
 
     /** Add zero derivatives.
      * @param original original rotation
-     * @param factory factory for the extended derivatives
+     * @param freeParameters total number of free parameters
      * @return extended rotation
      */
-    private FieldRotation<DerivativeStructure> extend(final FieldRotation<DerivativeStructure> original, final DSFactory factory) {
-        return new FieldRotation<>(extend(original.getQ0(), factory),
-                        extend(original.getQ1(), factory),
-                        extend(original.getQ2(), factory),
-                        extend(original.getQ3(), factory),
+    private FieldRotation<Gradient> extend(final FieldRotation<Gradient> original, final int freeParameters) {
+        return new FieldRotation<>(extend(original.getQ0(), freeParameters),
+                        extend(original.getQ1(), freeParameters),
+                        extend(original.getQ2(), freeParameters),
+                        extend(original.getQ3(), freeParameters),
                         false);
     }
 
@@ -216,18 +217,17 @@ class DSConverter {
      * @param state state as returned by {@link #getState(ForceModel)}
      * @param forceModel force model associated with the parameters
      * @return force model parameters
-     * @since 9.0
      */
-    public DerivativeStructure[] getParameters(final FieldSpacecraftState<DerivativeStructure> state,
+    public Gradient[] getParameters(final FieldSpacecraftState<Gradient> state,
                                                final ForceModel forceModel) {
-        final DSFactory factory = state.getMass().getFactory();
+        final int freeParameters = state.getMass().getFreeParameters();
         final ParameterDriver[] drivers = forceModel.getParametersDrivers();
-        final DerivativeStructure[] parameters = new DerivativeStructure[drivers.length];
+        final Gradient[] parameters = new Gradient[drivers.length];
         int index = freeStateParameters;
         for (int i = 0; i < drivers.length; ++i) {
             parameters[i] = drivers[i].isSelected() ?
-                            factory.variable(index++, drivers[i].getValue()) :
-                            factory.constant(drivers[i].getValue());
+                            Gradient.variable(freeParameters, index++, drivers[i].getValue()) :
+                            Gradient.constant(freeParameters, drivers[i].getValue());
         }
         return parameters;
     }
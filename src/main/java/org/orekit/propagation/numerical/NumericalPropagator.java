@@ -40,6 +40,9 @@ import org.orekit.orbits.OrbitType;
 import org.orekit.orbits.PositionAngle;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.events.EventDetector;
+import org.orekit.propagation.instrumentation.ComponentType;
+import org.orekit.propagation.instrumentation.Probe;
+import org.orekit.propagation.instrumentation.PropagationInstrumentation;
 import org.orekit.propagation.integration.AbstractIntegratedPropagator;
 import org.orekit.propagation.integration.StateMapper;
 import org.orekit.time.AbsoluteDate;
@@ -468,13 +471,30 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         /** Jacobian of the orbital parameters with respect to the Cartesian parameters. */
         private double[][] jacobian;
 
+        /** Indicator for Cartesian propagation, where the Jacobian is identity. */
+        private final boolean cartesian;
+
+        /** Probes for force models instrumentation (null if not instrumented). */
+        private final Probe[] probes;
+
         /** Simple constructor.
          * @param integrator numerical integrator to use for propagation.
          */
         Main(final ODEIntegrator integrator) {
 
-            this.yDot     = new double[7];
-            this.jacobian = new double[6][6];
+            this.yDot      = new double[7];
+            this.jacobian  = new double[6][6];
+            this.cartesian = getOrbitType() == OrbitType.CARTESIAN;
+
+            final PropagationInstrumentation instrumentation = getInstrumentation();
+            if (instrumentation == null) {
+                this.probes = null;
+            } else {
+                this.probes = new Probe[forceModels.size()];
+                for (int i = 0; i < probes.length; ++i) {
+                    probes[i] = instrumentation.getProbe(ComponentType.FORCE_MODEL, forceModels.get(i));
+                }
+            }
 
             for (final ForceModel forceModel : forceModels) {
                 forceModel.getEventsDetectors().forEach(detector -> setUpEventDetector(integrator, detector));
@@ -497,19 +517,40 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
 
             orbit = state.getOrbit();
             Arrays.fill(yDot, 0.0);
-            orbit.getJacobianWrtCartesian(getPositionAngleType(), jacobian);
+
+            if (!cartesian) {
+                // in Cartesian parameters, the Jacobian is identity and is not needed
+                orbit.getJacobianWrtCartesian(getPositionAngleType(), jacobian);
+            }
 
             // compute the contributions of all perturbing forces,
             // using the Kepler contribution at the end since
             // NewtonianAttraction is always the last instance in the list
-            for (final ForceModel forceModel : forceModels) {
-                forceModel.addContribution(state, this);
-            }
+            addContributions(state);
 
             return yDot.clone();
 
         }
 
+        /** Add the contributions of all force models.
+         * @param state current state
+         * @exception OrekitException if some specific error occurs
+         */
+        private void addContributions(final SpacecraftState state) throws OrekitException {
+            if (probes == null) {
+                for (final ForceModel forceModel : forceModels) {
+                    forceModel.addContribution(state, this);
+                }
+            } else {
+                for (int i = 0; i < probes.length; ++i) {
+                    final long t0 = probes[i].startTime();
+                    final long b0 = probes[i].startBytes();
+                    forceModels.get(i).addContribution(state, this);
+                    probes[i].record(t0, b0);
+                }
+            }
+        }
+
         /** {@inheritDoc} */
         @Override
         public void addKeplerContribution(final double mu) {
@@ -519,9 +560,15 @@ public class NumericalPropagator extends AbstractIntegratedPropagator {
         /** {@inheritDoc} */
         public void addNonKeplerianAcceleration(final Vector3D gamma)
             throws OrekitException {
-            for (int i = 0; i < 6; ++i) {
-                final double[] jRow = jacobian[i];
-                yDot[i] += jRow[3] * gamma.getX() + jRow[4] * gamma.getY() + jRow[5] * gamma.getZ();
+            if (cartesian) {
+                yDot[3] += gamma.getX();
+                yDot[4] += gamma.getY();
+                yDot[5] += gamma.getZ();
+            } else {
+                for (int i = 0; i < 6; ++i) {
+                    final double[] jRow = jacobian[i];
+                    yDot[i] += jRow[3] * gamma.getX() + jRow[4] * gamma.getY() + jRow[5] * gamma.getZ();
+                }
             }
         }
 
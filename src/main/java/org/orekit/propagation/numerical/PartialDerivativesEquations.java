@@ -19,7 +19,6 @@ package org.orekit.propagation.numerical;
 import java.util.IdentityHashMap;
 import java.util.Map;
 
-import org.hipparchus.analysis.differentiation.DerivativeStructure;
 import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
 import org.orekit.errors.OrekitException;
 import org.orekit.errors.OrekitMessages;
@@ -27,6 +26,7 @@ import org.orekit.forces.ForceModel;
 import org.orekit.propagation.FieldSpacecraftState;
 import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.integration.AdditionalEquations;
+import org.orekit.utils.Gradient;
 import org.orekit.utils.ParameterDriver;
 import org.orekit.utils.ParameterDriversList;
 
@@ -305,20 +305,20 @@ public class PartialDerivativesEquations implements AdditionalEquations {
         final double[][] dAccdPos   = new double[dim][dim];
         final double[][] dAccdVel   = new double[dim][dim];
 
-        final DSConverter fullConverter    = new DSConverter(s, 6, propagator.getAttitudeProvider());
-        final DSConverter posOnlyConverter = new DSConverter(s, 3, propagator.getAttitudeProvider());
+        final GradientConverter fullConverter    = new GradientConverter(s, 6, propagator.getAttitudeProvider());
+        final GradientConverter posOnlyConverter = new GradientConverter(s, 3, propagator.getAttitudeProvider());
 
         // compute acceleration Jacobians, finishing with the largest force: Newtonian attraction
         for (final ForceModel forceModel : propagator.getAllForceModels()) {
 
-            final DSConverter converter = forceModel.dependsOnPositionOnly() ? posOnlyConverter : fullConverter;
-            final FieldSpacecraftState<DerivativeStructure> dsState = converter.getState(forceModel);
-            final DerivativeStructure[] parameters = converter.getParameters(dsState, forceModel);
+            final GradientConverter converter = forceModel.dependsOnPositionOnly() ? posOnlyConverter : fullConverter;
+            final FieldSpacecraftState<Gradient> gState = converter.getState(forceModel);
+            final Gradient[] parameters = converter.getParameters(gState, forceModel);
 
-            final FieldVector3D<DerivativeStructure> acceleration = forceModel.acceleration(dsState, parameters);
-            final double[] derivativesX = acceleration.getX().getAllDerivatives();
-            final double[] derivativesY = acceleration.getY().getAllDerivatives();
-            final double[] derivativesZ = acceleration.getZ().getAllDerivatives();
+            final FieldVector3D<Gradient> acceleration = forceModel.acceleration(gState, parameters);
+            final double[] derivativesX = acceleration.getX().getGradient();
+            final double[] derivativesY = acceleration.getY().getGradient();
+            final double[] derivativesZ = acceleration.getZ().getGradient();
 
             // update Jacobians with respect to state
             addToRow(derivativesX, 0, converter.getFreeStateParameters(), dAccdPos, dAccdVel);
@@ -329,10 +329,10 @@ public class PartialDerivativesEquations implements AdditionalEquations {
             for (ParameterDriver driver : forceModel.getParametersDrivers()) {
                 if (driver.isSelected()) {
                     final int parameterIndex = map.get(driver);
-                    ++index;
                     dAccdParam[0][parameterIndex] += derivativesX[index];
                     dAccdParam[1][parameterIndex] += derivativesY[index];
                     dAccdParam[2][parameterIndex] += derivativesZ[index];
+                    ++index;
                 }
             }
 
@@ -436,11 +436,11 @@ public class PartialDerivativesEquations implements AdditionalEquations {
                           final double[][] dAccdPos, final double[][] dAccdVel) {
 
         for (int i = 0; i < 3; ++i) {
-            dAccdPos[index][i] += derivatives[i + 1];
+            dAccdPos[index][i] += derivatives[i];
         }
         if (freeStateParameters > 3) {
             for (int i = 0; i < 3; ++i) {
-                dAccdVel[index][i] += derivatives[i + 4];
+                dAccdVel[index][i] += derivatives[i + 3];
             }
         }
 
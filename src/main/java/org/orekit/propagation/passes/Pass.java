@@ -0,0 +1,149 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.passes;
+
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+
+/** Container for one visibility pass of a satellite over a ground station.
+ * @see PassPredictor
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class Pass implements TimeStamped {
+
+    /** Index of the satellite. */
+    private final int satellite;
+
+    /** Index of the station. */
+    private final int station;
+
+    /** Acquisition of signal. */
+    private final AbsoluteDate aos;
+
+    /** Loss of signal. */
+    private final AbsoluteDate los;
+
+    /** Time of closest approach. */
+    private final AbsoluteDate tca;
+
+    /** Maximum elevation. */
+    private final double maxElevation;
+
+    /** Indicator for passes already in progress at window start. */
+    private final boolean truncatedStart;
+
+    /** Indicator for passes still in progress at window end. */
+    private final boolean truncatedEnd;
+
+    /** Simple constructor.
+     * @param satellite index of the satellite
+     * @param station index of the station
+     * @param aos acquisition of signal
+     * @param los loss of signal
+     * @param tca time of closest approach
+     * @param maxElevation maximum elevation, without refraction (rad)
+     * @param truncatedStart if true, the pass was already in progress at window start
+     * @param truncatedEnd if true, the pass was still in progress at window end
+     */
+    public Pass(final int satellite, final int station,
+                final AbsoluteDate aos, final AbsoluteDate los, final AbsoluteDate tca,
+                final double maxElevation, final boolean truncatedStart, final boolean truncatedEnd) {
+        this.satellite      = satellite;
+        this.station        = station;
+        this.aos            = aos;
+        this.los            = los;
+        this.tca            = tca;
+        this.maxElevation   = maxElevation;
+        this.truncatedStart = truncatedStart;
+        this.truncatedEnd   = truncatedEnd;
+    }
+
+    /** Get the index of the satellite.
+     * @return index of the satellite in the predictor list
+     */
+    public int getSatelliteIndex() {
+        return satellite;
+    }
+
+    /** Get the index of the station.
+     * @return index of the station in the predictor list
+     */
+    public int getStationIndex() {
+        return station;
+    }
+
+    /** Get the pass start date.
+     * @return acquisition of signal
+     * @see #getAOS()
+     */
+    @Override
+    public AbsoluteDate getDate() {
+        return aos;
+    }
+
+    /** Get the acquisition of signal.
+     * @return acquisition of signal (window start if {@link #isTruncatedStart()} is true)
+     */
+    public AbsoluteDate getAOS() {
+        return aos;
+    }
+
+    /** Get the loss of signal.
+     * @return loss of signal (window end if {@link #isTruncatedEnd()} is true)
+     */
+    public AbsoluteDate getLOS() {
+        return los;
+    }
+
+    /** Get the time of closest approach.
+     * @return date of maximum elevation within the pass
+     */
+    public AbsoluteDate getTCA() {
+        return tca;
+    }
+
+    /** Get the maximum elevation.
+     * @return elevation at {@link #getTCA() time of closest approach}, without refraction (rad)
+     */
+    public double getMaxElevation() {
+        return maxElevation;
+    }
+
+    /** Check if the pass was already in progress at window start.
+     * <p>
+     * This also occurs when the pass starts just after the satellite could
+     * be evaluated again, after some dates where it could not.
+     * </p>
+     * @return true if the pass was already in progress at window start
+     */
+    public boolean isTruncatedStart() {
+        return truncatedStart;
+    }
+
+    /** Check if the pass was still in progress at window end.
+     * <p>
+     * This also occurs when the satellite cannot be evaluated anymore
+     * during the pass.
+     * </p>
+     * @return true if the pass was still in progress at window end
+     */
+    public boolean isTruncatedEnd() {
+        return truncatedEnd;
+    }
+
+}
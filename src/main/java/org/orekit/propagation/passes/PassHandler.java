@@ -0,0 +1,48 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.passes;
+
+/** Interface for handling passes as soon as they are found by a {@link PassPredictor}.
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+@FunctionalInterface
+public interface PassHandler {
+
+    /** Handle one pass.
+     * <p>
+     * Passes of one satellite are handled in chronological order, but
+     * passes of different satellites are interleaved in an unspecified
+     * order. Calls are serialized, so implementations do not need to be
+     * thread-safe, even when prediction uses several threads.
+     * </p>
+     * @param pass pass to handle
+     */
+    void handlePass(Pass pass);
+
+    /** Handle one interval during which a satellite could not be evaluated.
+     * <p>
+     * Skipped intervals are handled with the same ordering and serialization
+     * guarantees as passes. The default implementation does nothing.
+     * </p>
+     * @param interval skipped interval to handle
+     */
+    default void handleSkippedInterval(SkippedInterval interval) {
+        // nothing by default
+    }
+
+}
@@ -0,0 +1,668 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.passes;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.hipparchus.analysis.UnivariateFunction;
+import org.hipparchus.analysis.solvers.AllowedSolution;
+import org.hipparchus.analysis.solvers.BracketedUnivariateSolver;
+import org.hipparchus.analysis.solvers.BracketingNthOrderBrentSolver;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathRuntimeException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.optim.MaxEval;
+import org.hipparchus.optim.nonlinear.scalar.GoalType;
+import org.hipparchus.optim.univariate.BrentOptimizer;
+import org.hipparchus.optim.univariate.SearchInterval;
+import org.hipparchus.optim.univariate.UnivariateObjectiveFunction;
+import org.hipparchus.util.FastMath;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitExceptionWrapper;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.events.ElevationDetector;
+import org.orekit.propagation.events.StationGeometry;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.PVCoordinatesProvider;
+
+/** Prediction of visibility passes of many satellites over many ground stations.
+ * <p>
+ * The satellites are any {@link PVCoordinatesProvider}, typically {@link
+ * org.orekit.propagation.analytical.tle.TLEPropagator TLE propagators} or {@link
+ * org.orekit.propagation.BoundedPropagator ephemerides}. The stations are
+ * configured using regular {@link ElevationDetector elevation detectors}, from
+ * which only the topocentric frame, the minimum elevation or elevation mask,
+ * and the refraction model are used. All topocentric frames must be defined
+ * with respect to the same body frame.
+ * </p>
+ * <p>
+ * The prediction avoids driving one propagator with one elevation detector
+ * for each (satellite, station) pair. It works in several stages:
+ * </p>
+ * <ol>
+ *   <li>each satellite is sampled at coarse time steps directly in the
+ *   body frame, so only one frame transform per sample is shared by all
+ *   stations,</li>
+ *   <li>a visibility cone filter: between two consecutive samples, the
+ *   trajectory remains close to the chord joining the samples, so steps
+ *   during which this chord remains far below the visibility cone of a
+ *   station (built from the lowest elevation of its mask, with a margin
+ *   for refraction) are rejected without computing any elevation,</li>
+ *   <li>for the remaining steps, the elevation margins are computed at step
+ *   boundaries, and sign changes are refined by a root finder to get the
+ *   acquisition and loss of signal, in the same spirit as the {@link
+ *   org.orekit.propagation.events.EventState events} handling,</li>
+ *   <li>the time of closest approach is found by maximizing the elevation
+ *   between acquisition and loss of signal.</li>
+ * </ol>
+ * <p>
+ * The coarse step plays the same role as the max check interval of events
+ * detectors: passes shorter than the step may be missed. Passes in progress
+ * at window boundaries are reported with {@link Pass#isTruncatedStart() truncated}
+ * {@link Pass#isTruncatedEnd() flags}. If a satellite cannot be evaluated at
+ * some sample date because the date is out of its validity range (for example
+ * a decayed TLE or a date outside of an ephemeris), its passes in progress are
+ * ended at the last valid sample, and it is ignored until it can be evaluated
+ * again. The corresponding {@link SkippedInterval skipped intervals} are reported
+ * along with the passes. Any other error stops the prediction.
+ * </p>
+ * <p>
+ * Satellites are processed in parallel by the threads of a {@link ForkJoinPool},
+ * each satellite being processed by one thread only, so the providers do not need
+ * to be thread-safe but must be independent of each other. Passes can be streamed
+ * to a {@link PassHandler} as soon as they are found.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class PassPredictor {
+
+    /** Default convergence threshold for passes boundaries (s). */
+    public static final double DEFAULT_CONVERGENCE = 1.0e-3;
+
+    /** Default maximum number of iterations for passes boundaries. */
+    public static final int DEFAULT_MAX_ITER = 100;
+
+    /** Margin on lowest elevation for visibility cone filter, covering refraction (rad). */
+    private static final double ELEVATION_MARGIN = FastMath.toRadians(1.0);
+
+    /** Safety factor on accelerations used in curvature bounds. */
+    private static final double ACCELERATION_SAFETY = 2.0;
+
+    /** Errors meaning a satellite cannot be evaluated at some date. */
+    private static final Set<OrekitMessages> OUT_OF_VALIDITY =
+            EnumSet.of(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL,
+                       OrekitMessages.TRAJECTORY_INSIDE_BRILLOUIN_SPHERE,
+                       OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE,
+                       OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
+                       OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER);
+
+    /** Satellites. */
+    private final List<PVCoordinatesProvider> satellites;
+
+    /** Stations. */
+    private final List<StationGeometry> stations;
+
+    /** Body frame shared by all stations. */
+    private final Frame bodyFrame;
+
+    /** Sine of the visibility cones elevations. */
+    private final double[] sinCone;
+
+    /** Cosine of the visibility cones elevations. */
+    private final double[] cosCone;
+
+    /** Central attraction coefficient (m³/s²). */
+    private final double mu;
+
+    /** Coarse time step (s). */
+    private final double step;
+
+    /** Pool executing the tasks. */
+    private final ForkJoinPool pool;
+
+    /** Convergence threshold for passes boundaries (s). */
+    private double convergence;
+
+    /** Maximum number of iterations for passes boundaries. */
+    private int maxIter;
+
+    /** Simple constructor using the {@link ForkJoinPool#commonPool() common pool}.
+     * @param satellites satellites
+     * @param stations stations
+     * @param mu central attraction coefficient (m³/s²)
+     * @param step coarse time step (s)
+     */
+    public PassPredictor(final List<? extends PVCoordinatesProvider> satellites,
+                         final List<ElevationDetector> stations,
+                         final double mu, final double step) {
+        this(satellites, stations, mu, step, ForkJoinPool.commonPool());
+    }
+
+    /** Simple constructor.
+     * @param satellites satellites
+     * @param stations stations
+     * @param mu central attraction coefficient (m³/s²)
+     * @param step coarse time step (s)
+     * @param pool pool executing the prediction tasks
+     */
+    public PassPredictor(final List<? extends PVCoordinatesProvider> satellites,
+                         final List<ElevationDetector> stations,
+                         final double mu, final double step, final ForkJoinPool pool) {
+
+        if (stations.isEmpty()) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, 0, 1);
+        }
+        if (step <= 0) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED,
+                                                     step, 0.0);
+        }
+
+        this.satellites = new ArrayList<>(satellites);
+        this.stations   = new ArrayList<>(stations.size());
+        this.sinCone    = new double[stations.size()];
+        this.cosCone    = new double[stations.size()];
+        for (final ElevationDetector station : stations) {
+            final StationGeometry geometry = new StationGeometry(station);
+            if (!this.stations.isEmpty() && geometry.getBodyFrame() != this.stations.get(0).getBodyFrame()) {
+                throw new OrekitIllegalArgumentException(OrekitMessages.FRAMES_MISMATCH,
+                                                         geometry.getBodyFrame().getName(),
+                                                         this.stations.get(0).getBodyFrame().getName());
+            }
+            final double cone = FastMath.max(-0.5 * FastMath.PI,
+                                             geometry.getLowestElevation() - ELEVATION_MARGIN);
+            sinCone[this.stations.size()] = FastMath.sin(cone);
+            cosCone[this.stations.size()] = FastMath.cos(cone);
+            this.stations.add(geometry);
+        }
+
+        this.bodyFrame   = this.stations.get(0).getBodyFrame();
+        this.mu          = mu;
+        this.step        = step;
+        this.pool        = pool;
+        this.convergence = DEFAULT_CONVERGENCE;
+        this.maxIter     = DEFAULT_MAX_ITER;
+
+    }
+
+    /** Set the convergence threshold for passes boundaries.
+     * @param convergence convergence threshold for passes boundaries (s)
+     */
+    public void setConvergence(final double convergence) {
+        this.convergence = convergence;
+    }
+
+    /** Get the convergence threshold for passes boundaries.
+     * @return convergence threshold for passes boundaries (s)
+     */
+    public double getConvergence() {
+        return convergence;
+    }
+
+    /** Set the maximum number of iterations for passes boundaries.
+     * @param maxIter maximum number of iterations for passes boundaries
+     */
+    public void setMaxIter(final int maxIter) {
+        this.maxIter = maxIter;
+    }
+
+    /** Get the maximum number of iterations for passes boundaries.
+     * @return maximum number of iterations for passes boundaries
+     */
+    public int getMaxIter() {
+        return maxIter;
+    }
+
+    /** Predict all passes over a time window.
+     * @param start start of the time window
+     * @param end end of the time window
+     * @return all passes, sorted by acquisition of signal, then satellite index, then station index,
+     * and intervals during which some satellites could not be evaluated
+     * @exception OrekitException if some satellite cannot be evaluated during
+     * passes boundaries refinement, or for errors not related to validity range
+     */
+    public PassesPrediction predict(final AbsoluteDate start, final AbsoluteDate end)
+        throws OrekitException {
+        final List<Pass>            passes  = new ArrayList<>();
+        final List<SkippedInterval> skipped = new ArrayList<>();
+        predict(start, end, new PassHandler() {
+
+            /** {@inheritDoc} */
+            @Override
+            public void handlePass(final Pass pass) {
+                passes.add(pass);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void handleSkippedInterval(final SkippedInterval interval) {
+                skipped.add(interval);
+            }
+
+        });
+        passes.sort((p1, p2) -> {
+            final int c = p1.getAOS().compareTo(p2.getAOS());
+            if (c != 0) {
+                return c;
+            }
+            return p1.getSatelliteIndex() != p2.getSatelliteIndex() ?
+                   Integer.compare(p1.getSatelliteIndex(), p2.getSatelliteIndex()) :
+                   Integer.compare(p1.getStationIndex(),   p2.getStationIndex());
+        });
+        skipped.sort((s1, s2) -> {
+            final int c = s1.getStart().compareTo(s2.getStart());
+            return c != 0 ? c : Integer.compare(s1.getSatelliteIndex(), s2.getSatelliteIndex());
+        });
+        return new PassesPrediction(passes, skipped);
+    }
+
+    /** Predict all passes over a time window, streaming them as soon as they are found.
+     * @param start start of the time window
+     * @param end end of the time window
+     * @param handler handler for the passes
+     * @exception OrekitException if some satellite cannot be evaluated during
+     * passes boundaries refinement, or for errors not related to validity range
+     */
+    public void predict(final AbsoluteDate start, final AbsoluteDate end, final PassHandler handler)
+        throws OrekitException {
+
+        // rotation rate of the body frame, with a 10% margin
+        final double omega = 1.1 * bodyFrame.getTransformTo(FramesFactory.getGCRF(), start).
+                                   getRotationRate().getNorm();
+
+        // serialize calls to the handler
+        final PassHandler serialized = new PassHandler() {
+
+            /** {@inheritDoc} */
+            @Override
+            public void handlePass(final Pass pass) {
+                synchronized (handler) {
+                    handler.handlePass(pass);
+                }
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void handleSkippedInterval(final SkippedInterval interval) {
+                synchronized (handler) {
+                    handler.handleSkippedInterval(interval);
+                }
+            }
+
+        };
+
+        try {
+            pool.invoke(new SatellitesTask(index -> new Scanner(index, omega, serialized).scan(start, end),
+                                           0, satellites.size()));
+        } catch (OrekitExceptionWrapper oew) {
+            throw oew.getException();
+        }
+
+    }
+
+    /** Interface for processing one satellite. */
+    private interface Processor {
+
+        /** Process one satellite.
+         * @param index index of the satellite
+         * @exception OrekitException if processing fails
+         */
+        void process(int index) throws OrekitException;
+
+    }
+
+    /** Task processing a contiguous range of satellites. */
+    private static class SatellitesTask extends RecursiveAction {
+
+        /** Serializable UID. */
+        private static final long serialVersionUID = 20171201L;
+
+        /** Processor for individual satellites. */
+        private final transient Processor processor;
+
+        /** Index of the first satellite to process. */
+        private final int from;
+
+        /** Index after the last satellite to process. */
+        private final int to;
+
+        /** Simple constructor.
+         * @param processor processor for individual satellites
+         * @param from index of the first satellite to process
+         * @param to index after the last satellite to process
+         */
+        SatellitesTask(final Processor processor, final int from, final int to) {
+            this.processor = processor;
+            this.from      = from;
+            this.to        = to;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                // single satellite, process it directly
+                try {
+                    for (int index = from; index < to; ++index) {
+                        processor.process(index);
+                    }
+                } catch (OrekitException oe) {
+                    throw new OrekitExceptionWrapper(oe);
+                }
+            } else {
+                // split the range in two halves
+                final int middle = (from + to) / 2;
+                invokeAll(new SatellitesTask(processor, from, middle),
+                          new SatellitesTask(processor, middle, to));
+            }
+        }
+
+    }
+
+    /** Scanner for the passes of one satellite over all stations. */
+    private class Scanner {
+
+        /** Index of the satellite. */
+        private final int index;
+
+        /** Satellite. */
+        private final PVCoordinatesProvider satellite;
+
+        /** Bound on body frame rotation rate (rad/s). */
+        private final double omega;
+
+        /** Handler for the passes. */
+        private final PassHandler handler;
+
+        /** Signed distances to visibility cones at current step start (m). */
+        private final double[] distances;
+
+        /** Elevation margins at current step start (NaN if not computed). */
+        private final double[] margins;
+
+        /** Acquisition of signal of passes in progress (null if no pass in progress). */
+        private final AbsoluteDate[] aos;
+
+        /** Indicators for passes already in progress at window start. */
+        private final boolean[] truncated;
+
+        /** Error raised at the last failed sample. */
+        private OrekitException failure;
+
+        /** Simple constructor.
+         * @param index index of the satellite
+         * @param omega bound on body frame rotation rate (rad/s)
+         * @param handler handler for the passes
+         */
+        Scanner(final int index, final double omega, final PassHandler handler) {
+            this.index     = index;
+            this.satellite = satellites.get(index);
+            this.omega     = omega;
+            this.handler   = handler;
+            this.distances = new double[stations.size()];
+            this.margins   = new double[stations.size()];
+            this.aos       = new AbsoluteDate[stations.size()];
+            this.truncated = new boolean[stations.size()];
+        }
+
+        /** Scan a time window.
+         * @param start start of the time window
+         * @param end end of the time window
+         * @exception OrekitException if satellite cannot be evaluated during
+         * passes boundaries refinement, or for errors not related to validity range
+         */
+        void scan(final AbsoluteDate start, final AbsoluteDate end)
+            throws OrekitException {
+
+            final double duration = end.durationFrom(start);
+            final int    nbSteps  = FastMath.max(1, (int) FastMath.ceil(duration / step));
+
+            AbsoluteDate    ta        = start;
+            PVCoordinates   pvA       = sample(start);
+            AbsoluteDate    skipStart = null;
+            OrekitException skipCause = null;
+            if (pvA != null) {
+                restart(start, pvA);
+            } else {
+                skipStart = start;
+                skipCause = failure;
+            }
+
+            for (int k = 0; k < nbSteps; ++k) {
+                final AbsoluteDate  tb  = (k == nbSteps - 1) ? end : start.shiftedBy((k + 1) * step);
+                final PVCoordinates pvB = sample(tb);
+                if (pvA != null && pvB != null) {
+                    scanStep(ta, pvA, tb, pvB);
+                } else if (pvA != null) {
+                    // the satellite cannot be evaluated anymore
+                    closeAll(ta);
+                    skipStart = ta;
+                    skipCause = failure;
+                } else if (pvB != null) {
+                    // the satellite can be evaluated again
+                    handler.handleSkippedInterval(new SkippedInterval(index, skipStart, tb, skipCause));
+                    restart(tb, pvB);
+                }
+                ta  = tb;
+                pvA = pvB;
+            }
+
+            if (pvA != null) {
+                closeAll(end);
+            } else {
+                handler.handleSkippedInterval(new SkippedInterval(index, skipStart, end, skipCause));
+            }
+
+        }
+
+        /** Restart scanning at one sample.
+         * @param date sample date
+         * @param pv sample position and velocity in body frame
+         */
+        private void restart(final AbsoluteDate date, final PVCoordinates pv) {
+            for (int j = 0; j < stations.size(); ++j) {
+                distances[j] = coneDistance(j, pv.getPosition());
+                margins[j]   = (distances[j] > 0) ? Double.NaN : stations.get(j).getElevationMargin(pv.getPosition());
+                if (margins[j] >= 0) {
+                    aos[j]       = date;
+                    truncated[j] = true;
+                }
+            }
+        }
+
+        /** Scan one step.
+         * @param ta step start
+         * @param pvA sample at step start in body frame
+         * @param tb step end
+         * @param pvB sample at step end in body frame
+         * @exception OrekitException if satellite cannot be evaluated during
+         * passes boundaries refinement
+         */
+        private void scanStep(final AbsoluteDate ta, final PVCoordinates pvA,
+                              final AbsoluteDate tb, final PVCoordinates pvB)
+            throws OrekitException {
+
+            // bound on the distance between trajectory and chord
+            final Vector3D pA    = pvA.getPosition();
+            final Vector3D pB    = pvB.getPosition();
+            final double   dt    = tb.durationFrom(ta);
+            final double   rMin  = FastMath.min(pA.getNorm(), pB.getNorm());
+            final double   rMax  = FastMath.max(pA.getNorm(), pB.getNorm());
+            final double   vMax  = FastMath.max(pvA.getVelocity().getNorm(), pvB.getVelocity().getNorm());
+            final double   acc   = ACCELERATION_SAFETY * mu / (rMin * rMin) +
+                                   omega * omega * rMax + 2 * omega * vMax;
+            final double   sag   = acc * dt * dt / 8;
+            final double   chord = Vector3D.distance(pA, pB);
+
+            for (int j = 0; j < stations.size(); ++j) {
+
+                final double distanceB = coneDistance(j, pB);
+
+                // visibility cone filter: the signed distance to the cone is 1-Lipschitz,
+                // so it remains positive along the arc if this lower bound is positive
+                if (aos[j] == null && 0.5 * (distances[j] + distanceB - chord) - sag > 0) {
+                    distances[j] = distanceB;
+                    margins[j]   = Double.NaN;
+                    continue;
+                }
+
+                final StationGeometry station = stations.get(j);
+                final double marginA = Double.isNaN(margins[j]) ? station.getElevationMargin(pA) : margins[j];
+                final double marginB = station.getElevationMargin(pB);
+                if (aos[j] == null && marginA < 0 && marginB >= 0) {
+                    // acquisition of signal
+                    aos[j]       = findRoot(j, ta, tb);
+                    truncated[j] = false;
+                } else if (aos[j] != null && marginB < 0) {
+                    // loss of signal
+                    close(j, findRoot(j, ta, tb), false);
+                }
+
+                distances[j] = distanceB;
+                margins[j]   = marginB;
+
+            }
+
+        }
+
+        /** Close all passes in progress.
+         * @param los loss of signal
+         * @exception OrekitException if satellite cannot be evaluated
+         */
+        private void closeAll(final AbsoluteDate los) throws OrekitException {
+            for (int j = 0; j < stations.size(); ++j) {
+                if (aos[j] != null) {
+                    close(j, los, true);
+                }
+            }
+        }
+
+        /** Close one pass.
+         * @param j index of the station
+         * @param los loss of signal
+         * @param truncatedEnd if true, the pass is still in progress at loss of signal
+         * @exception OrekitException if satellite cannot be evaluated
+         */
+        private void close(final int j, final AbsoluteDate los, final boolean truncatedEnd)
+            throws OrekitException {
+
+            final StationGeometry station = stations.get(j);
+            final AbsoluteDate    start   = aos[j];
+            final double          length  = los.durationFrom(start);
+
+            // time of closest approach
+            AbsoluteDate tca = start;
+            if (length > 0) {
+                try {
+                    final UnivariateFunction f = t -> station.getElevation(position(start.shiftedBy(t)));
+                    final BrentOptimizer optimizer = new BrentOptimizer(1.0e-10, convergence);
+                    tca = start.shiftedBy(optimizer.optimize(new MaxEval(maxIter),
+                                                             new UnivariateObjectiveFunction(f),
+                                                             GoalType.MAXIMIZE,
+                                                             new SearchInterval(0, length)).getPoint());
+                } catch (OrekitExceptionWrapper oew) {
+                    throw oew.getException();
+                } catch (MathRuntimeException mre) {
+                    throw new OrekitException(mre);
+                }
+            }
+
+            handler.handlePass(new Pass(index, j, start, los, tca,
+                                        station.getElevation(position(tca)),
+                                        truncated[j], truncatedEnd));
+            aos[j] = null;
+
+        }
+
+        /** Find the date at which elevation margin crosses zero.
+         * @param j index of the station
+         * @param ta step start
+         * @param tb step end
+         * @return date at which elevation margin crosses zero
+         * @exception OrekitException if satellite cannot be evaluated
+         */
+        private AbsoluteDate findRoot(final int j, final AbsoluteDate ta, final AbsoluteDate tb)
+            throws OrekitException {
+            try {
+                final StationGeometry station = stations.get(j);
+                final UnivariateFunction f = t -> station.getElevationMargin(position(ta.shiftedBy(t)));
+                final BracketedUnivariateSolver<UnivariateFunction> solver =
+                        new BracketingNthOrderBrentSolver(0, convergence, 0, 5);
+                return ta.shiftedBy(solver.solve(maxIter, f, 0, tb.durationFrom(ta), AllowedSolution.ANY_SIDE));
+            } catch (OrekitExceptionWrapper oew) {
+                throw oew.getException();
+            } catch (MathRuntimeException mre) {
+                throw new OrekitException(mre);
+            }
+        }
+
+        /** Compute signed distance to the visibility cone of a station.
+         * @param j index of the station
+         * @param position satellite position in body frame
+         * @return signed distance to the visibility cone, positive below the cone (m)
+         */
+        private double coneDistance(final int j, final Vector3D position) {
+            final StationGeometry station = stations.get(j);
+            final Vector3D        d       = position.subtract(station.getPosition());
+            final double          h       = Vector3D.dotProduct(d, station.getZenith());
+            final double          rho     = FastMath.sqrt(FastMath.max(0.0, d.getNormSq() - h * h));
+            return rho * sinCone[j] - h * cosCone[j];
+        }
+
+        /** Sample satellite.
+         * @param date sample date
+         * @return position and velocity in body frame, or null if satellite
+         * cannot be evaluated because date is out of its validity range
+         * @exception OrekitException if satellite cannot be evaluated for
+         * errors not related to validity range
+         */
+        private PVCoordinates sample(final AbsoluteDate date) throws OrekitException {
+            try {
+                return satellite.getPVCoordinates(date, bodyFrame);
+            } catch (OrekitException oe) {
+                if (OUT_OF_VALIDITY.contains(oe.getSpecifier())) {
+                    failure = oe;
+                    return null;
+                }
+                throw oe;
+            }
+        }
+
+        /** Compute satellite position for refinement.
+         * @param date date
+         * @return position in body frame
+         */
+        private Vector3D position(final AbsoluteDate date) {
+            try {
+                return satellite.getPVCoordinates(date, bodyFrame).getPosition();
+            } catch (OrekitException oe) {
+                throw new OrekitExceptionWrapper(oe);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.passes;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Container for the results of a {@link PassPredictor}.
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class PassesPrediction {
+
+    /** Passes. */
+    private final List<Pass> passes;
+
+    /** Intervals during which some satellites could not be evaluated. */
+    private final List<SkippedInterval> skipped;
+
+    /** Simple constructor.
+     * @param passes passes
+     * @param skipped intervals during which some satellites could not be evaluated
+     */
+    public PassesPrediction(final List<Pass> passes, final List<SkippedInterval> skipped) {
+        this.passes  = Collections.unmodifiableList(passes);
+        this.skipped = Collections.unmodifiableList(skipped);
+    }
+
+    /** Get the passes.
+     * @return unmodifiable list of passes, sorted by acquisition of signal,
+     * then satellite index, then station index
+     */
+    public List<Pass> getPasses() {
+        return passes;
+    }
+
+    /** Get the intervals during which some satellites could not be evaluated.
+     * @return unmodifiable list of skipped intervals, sorted by start date,
+     * then satellite index (empty if all satellites could be evaluated
+     * throughout the time window)
+     */
+    public List<SkippedInterval> getSkippedIntervals() {
+        return skipped;
+    }
+
+}
@@ -0,0 +1,99 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.passes;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeStamped;
+
+/** Container for one time interval during which a satellite could not be evaluated.
+ * <p>
+ * The interval extends from the last sample at which the satellite could be
+ * evaluated (or window start) to the first sample at which it can be evaluated
+ * again (or window end). No passes are predicted within this interval, and
+ * passes in progress at interval boundaries are reported with truncated flags.
+ * </p>
+ * @see PassPredictor
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class SkippedInterval implements TimeStamped {
+
+    /** Index of the satellite. */
+    private final int satellite;
+
+    /** Interval start. */
+    private final AbsoluteDate start;
+
+    /** Interval end. */
+    private final AbsoluteDate end;
+
+    /** Error that prevented evaluating the satellite. */
+    private final OrekitException cause;
+
+    /** Simple constructor.
+     * @param satellite index of the satellite
+     * @param start interval start
+     * @param end interval end
+     * @param cause error that prevented evaluating the satellite at the first failed sample
+     */
+    public SkippedInterval(final int satellite, final AbsoluteDate start, final AbsoluteDate end,
+                           final OrekitException cause) {
+        this.satellite = satellite;
+        this.start     = start;
+        this.end       = end;
+        this.cause     = cause;
+    }
+
+    /** Get the index of the satellite.
+     * @return index of the satellite in the predictor list
+     */
+    public int getSatelliteIndex() {
+        return satellite;
+    }
+
+    /** Get the interval start date.
+     * @return interval start
+     * @see #getStart()
+     */
+    @Override
+    public AbsoluteDate getDate() {
+        return start;
+    }
+
+    /** Get the interval start.
+     * @return last sample at which the satellite could be evaluated, or window start
+     */
+    public AbsoluteDate getStart() {
+        return start;
+    }
+
+    /** Get the interval end.
+     * @return first sample at which the satellite could be evaluated again, or window end
+     */
+    public AbsoluteDate getEnd() {
+        return end;
+    }
+
+    /** Get the error that prevented evaluating the satellite.
+     * @return error that prevented evaluating the satellite at the first failed sample
+     */
+    public OrekitException getCause() {
+        return cause;
+    }
+
+}
@@ -0,0 +1,33 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ *
+ * This package provides classes to predict visibility passes of satellites over ground stations.
+ * <p>
+ * The {@link org.orekit.propagation.passes.PassPredictor PassPredictor} class computes all
+ * passes of a set of satellites over a network of ground stations within a time window.
+ * Each satellite is sampled only once for all stations, visibility cones filter out
+ * most (satellite, station, step) triplets, and the remaining candidates are refined
+ * to find acquisition of signal, loss of signal and time of closest approach. The
+ * results are provided as {@link org.orekit.propagation.passes.Pass Pass} instances.
+ * </p>
+ *
+ * @author Luc Maisonobe
+ * @since 9.2
+ *
+ */
+package org.orekit.propagation.passes;
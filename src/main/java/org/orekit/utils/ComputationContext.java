@@ -0,0 +1,249 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.orekit.errors.OrekitException;
+import org.orekit.time.AbsoluteDate;
+
+/** Date-keyed memoization context for intermediate computations.
+ * <p>
+ * During one evaluation of the equations of motion, force models, attitude
+ * providers and events detectors all need the same frames transforms and
+ * the same celestial bodies positions, at the same date. When a context is
+ * {@link #enter() entered} by the current thread, these intermediate results
+ * are computed only once and shared by all users until the date changes.
+ * </p>
+ * <p>
+ * The context is thread-confined, so it does not need any synchronization.
+ * It holds only values computed at one date: as soon as a value is requested
+ * for a different date, all previous values are dropped. Values are also dropped
+ * when the context is {@link #exit() exited} or {@link #invalidate() invalidated},
+ * which must be done when some mutable frame (for example an {@link
+ * org.orekit.frames.UpdatableFrame}) is changed.
+ * </p>
+ * <p>
+ * Computations may request other values themselves. Nested requests at the same
+ * date are memoized as usual, whereas nested requests at another date are simply
+ * computed, so the values of the enclosing computation are preserved.
+ * </p>
+ * <p>
+ * When no context has been entered by the current thread, values are
+ * simply computed at each call, exactly as if this class did not exist.
+ * </p>
+ * @see org.orekit.propagation.integration.AbstractIntegratedPropagator#setComputationContextEnabled(boolean)
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class ComputationContext {
+
+    /** Maximum number of values memoized for one date. */
+    private static final int MAX_VALUES = 256;
+
+    /** Global version of the memoized values, incremented on invalidation. */
+    private static final AtomicLong VERSION = new AtomicLong(0l);
+
+    /** Per-thread content. */
+    private static final ThreadLocal<Content> CONTENT = ThreadLocal.withInitial(() -> new Content());
+
+    /** Private constructor.
+     * <p>This class is a utility class, it should neither have a public
+     * nor a default constructor. This private constructor prevents
+     * the compiler from generating one automatically.</p>
+     */
+    private ComputationContext() {
+    }
+
+    /** Enter a computation context for the current thread.
+     * <p>
+     * Contexts may be nested, values are kept until the outermost context is exited.
+     * Each call to this method <em>must</em> be paired with a call to {@link #exit()},
+     * typically in a {@code finally} clause.
+     * </p>
+     */
+    public static void enter() {
+        CONTENT.get().depth++;
+    }
+
+    /** Exit a computation context for the current thread.
+     * @see #enter()
+     */
+    public static void exit() {
+        final Content content = CONTENT.get();
+        if (--content.depth <= 0) {
+            content.depth = 0;
+            content.clear();
+        }
+    }
+
+    /** Check if a computation context is active for the current thread.
+     * @return true if a computation context is active for the current thread
+     */
+    public static boolean isActive() {
+        return CONTENT.get().depth > 0;
+    }
+
+    /** Invalidate all memoized values, in all threads.
+     * <p>
+     * This method must be called when some object that contributes
+     * to memoized values is changed without its date changing.
+     * </p>
+     */
+    public static void invalidate() {
+        VERSION.incrementAndGet();
+    }
+
+    /** Get a value, using memoized value if available.
+     * <p>
+     * If no context is active for the current thread, the value is simply computed.
+     * </p>
+     * @param owner object owning the value (compared by identity)
+     * @param key key of the value for the owner (compared by identity)
+     * @param date date at which value is computed
+     * @param computation computation to use if value is not memoized yet
+     * @param <V> type of the value
+     * @return memoized or computed value
+     * @exception OrekitException if value cannot be computed
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> V getValue(final Object owner, final Object key, final AbsoluteDate date,
+                                 final Computation<V> computation)
+        throws OrekitException {
+
+        final Content content = CONTENT.get();
+        if (content.depth <= 0 || date == null) {
+            // no memoization
+            return computation.compute();
+        }
+
+        // drop values computed at another date or before an invalidation
+        final long version = VERSION.get();
+        if (content.version != version || !date.equals(content.date)) {
+            if (content.computing > 0) {
+                // we are nested within a computation at another date,
+                // its values must not be dropped, so we don't memoize this one
+                return computation.compute();
+            }
+            content.clear();
+            content.version = version;
+            content.date    = date;
+        }
+
+        final Pair pair = new Pair(owner, key);
+        V value = (V) content.values.get(pair);
+        if (value == null) {
+            ++content.computing;
+            try {
+                value = computation.compute();
+            } finally {
+                --content.computing;
+            }
+            if (VERSION.get() == version && content.version == version && date.equals(content.date)) {
+                if (content.values.size() >= MAX_VALUES) {
+                    // prevent unbounded growth when many transient objects are used
+                    content.values.clear();
+                }
+                content.values.put(pair, value);
+            }
+        }
+
+        return value;
+
+    }
+
+    /** Interface for memoized computations.
+     * @param <V> type of the value
+     */
+    public interface Computation<V> {
+
+        /** Compute the value.
+         * @return computed value (must not be null)
+         * @exception OrekitException if value cannot be computed
+         */
+        V compute() throws OrekitException;
+
+    }
+
+    /** Per-thread content of the context. */
+    private static class Content {
+
+        /** Number of nested entered contexts. */
+        private int depth;
+
+        /** Number of nested computations in progress. */
+        private int computing;
+
+        /** Version of the memoized values. */
+        private long version;
+
+        /** Date of the memoized values. */
+        private AbsoluteDate date;
+
+        /** Memoized values. */
+        private final Map<Pair, Object> values = new HashMap<Pair, Object>();
+
+        /** Clear all memoized values. */
+        void clear() {
+            date = null;
+            values.clear();
+        }
+
+    }
+
+    /** Identity-based key for memoized values. */
+    private static class Pair {
+
+        /** Owner of the value. */
+        private final Object owner;
+
+        /** Key of the value for the owner. */
+        private final Object key;
+
+        /** Simple constructor.
+         * @param owner owner of the value
+         * @param key key of the value for the owner
+         */
+        Pair(final Object owner, final Object key) {
+            this.owner = owner;
+            this.key   = key;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(final Object other) {
+            if (other == this) {
+                return true;
+            }
+            if (other instanceof Pair) {
+                final Pair pair = (Pair) other;
+                return owner == pair.owner && key == pair.key;
+            }
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner) + System.identityHashCode(key);
+        }
+
+    }
+
+}
@@ -21,8 +21,8 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
@@ -35,6 +35,12 @@ import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeStamped;
 
 /** Generic thread-safe cache for {@link TimeStamped time-stamped} data.
+ * <p>
+ * The list of slots and the entries of each slot are immutable snapshots
+ * that are replaced atomically whenever the cache is updated. Cache hits
+ * are therefore served without any locking, only the threads that need to
+ * create, extend or evict slots serialize on an internal lock.
+ * </p>
 
  * @param <T> Type of the cached data.
 
@@ -66,11 +72,11 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
     /** Number of entries in a neighbors array. */
     private final int neighborsSize;
 
-    /** Independent time slots cached. */
-    private final List<Slot> slots;
+    /** Independent time slots cached (immutable snapshot, replaced on update). */
+    private volatile List<Slot> slots;
 
     /** Number of calls to the getNeighbors method. */
-    private final AtomicInteger getNeighborsCalls;
+    private final LongAdder getNeighborsCalls;
 
     /** Number of calls to the generate method. */
     private final AtomicInteger generateCalls;
@@ -78,8 +84,8 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
     /** Number of evictions. */
     private final AtomicInteger evictions;
 
-    /** Global lock. */
-    private final ReadWriteLock lock;
+    /** Lock for cache updates (lookups in existing data do not use it). */
+    private final ReentrantLock lock;
 
     /** Simple constructor.
      * @param neighborsSize fixed size of the arrays to be returned by {@link
@@ -109,11 +115,11 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
         this.newSlotQuantumGap = FastMath.round(newSlotInterval / QUANTUM_STEP);
         this.generator         = generator;
         this.neighborsSize     = neighborsSize;
-        this.slots             = new ArrayList<Slot>(maxSlots);
-        this.getNeighborsCalls = new AtomicInteger(0);
+        this.slots             = new ArrayList<Slot>(0);
+        this.getNeighborsCalls = new LongAdder();
         this.generateCalls     = new AtomicInteger(0);
         this.evictions         = new AtomicInteger(0);
-        this.lock              = new ReentrantReadWriteLock();
+        this.lock              = new ReentrantLock();
 
     }
 
@@ -157,7 +163,7 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
      * @see #getGenerateCalls()
      */
     public int getGetNeighborsCalls() {
-        return getNeighborsCalls.get();
+        return getNeighborsCalls.intValue();
     }
 
     /** Get the number of calls to the generate method.
@@ -193,32 +199,18 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
      * @return number of slots in use
      */
     public int getSlots() {
-
-        lock.readLock().lock();
-        try {
-            return slots.size();
-        } finally {
-            lock.readLock().unlock();
-        }
-
+        return slots.size();
     }
 
     /** Get the total number of entries cached.
      * @return total number of entries cached
      */
     public int getEntries() {
-
-        lock.readLock().lock();
-        try {
-            int entries = 0;
-            for (final Slot slot : slots) {
-                entries += slot.getEntries();
-            }
-            return entries;
-        } finally {
-            lock.readLock().unlock();
+        int entries = 0;
+        for (final Slot slot : slots) {
+            entries += slot.getEntries();
         }
-
+        return entries;
     }
 
     /** Get the earliest cached entry.
@@ -227,17 +219,11 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
      * @see #getSlots()
      */
     public T getEarliest() throws IllegalStateException {
-
-        lock.readLock().lock();
-        try {
-            if (slots.isEmpty()) {
-                throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
-            }
-            return slots.get(0).getEarliest();
-        } finally {
-            lock.readLock().unlock();
+        final List<Slot> current = slots;
+        if (current.isEmpty()) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
         }
-
+        return current.get(0).getEarliest();
     }
 
     /** Get the latest cached entry.
@@ -246,17 +232,11 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
      * @see #getSlots()
      */
     public T getLatest() throws IllegalStateException {
-
-        lock.readLock().lock();
-        try {
-            if (slots.isEmpty()) {
-                throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
-            }
-            return slots.get(slots.size() - 1).getLatest();
-        } finally {
-            lock.readLock().unlock();
+        final List<Slot> current = slots;
+        if (current.isEmpty()) {
+            throw new OrekitIllegalStateException(OrekitMessages.NO_CACHED_ENTRIES);
         }
-
+        return current.get(current.size() - 1).getLatest();
     }
 
     /** Get the fixed size of the arrays to be returned by {@link #getNeighbors(AbsoluteDate)}.
@@ -287,21 +267,30 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
      */
     public Stream<T> getNeighbors(final AbsoluteDate central) throws TimeStampedCacheException {
 
-        lock.readLock().lock();
+        getNeighborsCalls.increment();
+        final long dateQuantum = quantum(central);
+
+        // optimistic attempt, using only the current snapshots
+        final List<Slot> current = slots;
+        if (!current.isEmpty()) {
+            final Stream<T> neighbors = current.get(slotIndex(current, dateQuantum)).getCachedNeighbors(dateQuantum);
+            if (neighbors != null) {
+                // cache hit, no lock was needed
+                return neighbors;
+            }
+        }
+
+        // the cache must be updated, we need to serialize with other updating threads
+        lock.lock();
         try {
-            getNeighborsCalls.incrementAndGet();
-            final long dateQuantum = quantum(central);
             return selectSlot(central, dateQuantum).getNeighbors(central, dateQuantum);
         } finally {
-            lock.readLock().unlock();
+            lock.unlock();
         }
 
     }
 
     /** Convert a date to a rough global quantum.
-     * <p>
-     * We own a global read lock while calling this method.
-     * </p>
      * @param date date to convert
      * @return quantum corresponding to the date
      */
@@ -312,7 +301,7 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
 
     /** Select a slot containing a date.
      * <p>
-     * We own a global read lock while calling this method.
+     * We own the update lock while calling this method.
      * </p>
      * @param date target date
      * @param dateQuantum global quantum of the date
@@ -323,89 +312,74 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
     private Slot selectSlot(final AbsoluteDate date, final long dateQuantum)
         throws TimeStampedCacheException {
 
-        Slot selected = null;
-
-        int index = slots.isEmpty() ? 0 : slotIndex(dateQuantum);
-        if (slots.isEmpty() ||
-            slots.get(index).getEarliestQuantum() > dateQuantum + newSlotQuantumGap ||
-            slots.get(index).getLatestQuantum()   < dateQuantum - newSlotQuantumGap) {
-            // no existing slot is suitable
-
-            // upgrade the read lock to a write lock so we can change the list of available slots
-            lock.readLock().unlock();
-            lock.writeLock().lock();
-
-            try {
-                // check slots again as another thread may have changed
-                // the list while we were waiting for the write lock
-                index = slots.isEmpty() ? 0 : slotIndex(dateQuantum);
-                if (slots.isEmpty() ||
-                    slots.get(index).getEarliestQuantum() > dateQuantum + newSlotQuantumGap ||
-                    slots.get(index).getLatestQuantum()   < dateQuantum - newSlotQuantumGap) {
-
-                    // we really need to create a new slot in the current thread
-                    // (no other threads have created it while we were waiting for the lock)
-                    if ((!slots.isEmpty()) &&
-                        slots.get(index).getLatestQuantum() < dateQuantum - newSlotQuantumGap) {
-                        ++index;
-                    }
+        // check slots again as another thread may have changed
+        // the list while we were waiting for the lock
+        final List<Slot> current = slots;
+        int index = current.isEmpty() ? 0 : slotIndex(current, dateQuantum);
+        if (current.isEmpty() ||
+            current.get(index).getEarliestQuantum() > dateQuantum + newSlotQuantumGap ||
+            current.get(index).getLatestQuantum()   < dateQuantum - newSlotQuantumGap) {
+            // no existing slot is suitable, we really need to create a new slot
+
+            if ((!current.isEmpty()) &&
+                current.get(index).getLatestQuantum() < dateQuantum - newSlotQuantumGap) {
+                ++index;
+            }
 
-                    if (slots.size() >= maxSlots) {
-                        // we must prevent exceeding allowed max
+            // prepare the new list of slots, leaving the published one untouched
+            final List<Slot> updated = new ArrayList<Slot>(FastMath.min(current.size() + 1, maxSlots));
+            updated.addAll(current);
 
-                        // select the oldest accessed slot for eviction
-                        int evict = 0;
-                        for (int i = 0; i < slots.size(); ++i) {
-                            if (slots.get(i).getLastAccess() < slots.get(evict).getLastAccess()) {
-                                evict = i;
-                            }
-                        }
+            if (updated.size() >= maxSlots) {
+                // we must prevent exceeding allowed max
 
-                        // evict the selected slot
-                        evictions.incrementAndGet();
-                        slots.remove(evict);
-
-                        if (evict < index) {
-                            // adjust index of created slot as it was shifted by the eviction
-                            index--;
-                        }
+                // select the oldest accessed slot for eviction
+                int evict = 0;
+                for (int i = 0; i < updated.size(); ++i) {
+                    if (updated.get(i).getLastAccess() < updated.get(evict).getLastAccess()) {
+                        evict = i;
                     }
+                }
 
-                    slots.add(index, new Slot(date));
+                // evict the selected slot
+                evictions.incrementAndGet();
+                updated.remove(evict);
 
+                if (evict < index) {
+                    // adjust index of created slot as it was shifted by the eviction
+                    index--;
                 }
-
-            } finally {
-                // downgrade back to a read lock
-                lock.readLock().lock();
-                lock.writeLock().unlock();
             }
-        }
 
-        selected = slots.get(index);
+            final Slot created = new Slot(date);
+            updated.add(index, created);
+
+            // publish the new list
+            slots = updated;
 
+            return created;
 
-        return selected;
+        }
+
+        return current.get(index);
 
     }
 
     /** Get the index of the slot in which a date could be cached.
-     * <p>
-     * We own a global read lock while calling this method.
-     * </p>
+     * @param current snapshot of the slots list (must not be empty)
      * @param dateQuantum quantum of the date to search for
      * @return the slot in which the date could be cached
      */
-    private int slotIndex(final long dateQuantum) {
+    private int slotIndex(final List<Slot> current, final long dateQuantum) {
 
         int  iInf = 0;
-        final long qInf = slots.get(iInf).getEarliestQuantum();
-        int  iSup = slots.size() - 1;
-        final long qSup = slots.get(iSup).getLatestQuantum();
+        final long qInf = current.get(iInf).getEarliestQuantum();
+        int  iSup = current.size() - 1;
+        final long qSup = current.get(iSup).getLatestQuantum();
         while (iSup - iInf > 0) {
             final int iInterp = (int) ((iInf * (qSup - dateQuantum) + iSup * (dateQuantum - qInf)) / (qSup - qInf));
             final int iMed    = FastMath.max(iInf, FastMath.min(iInterp, iSup));
-            final Slot slot   = slots.get(iMed);
+            final Slot slot   = current.get(iMed);
             if (dateQuantum < slot.getEarliestQuantum()) {
                 iSup = iMed - 1;
             } else if (dateQuantum > slot.getLatestQuantum()) {
@@ -422,20 +396,14 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
     /** Time slot. */
     private final class Slot {
 
-        /** Cached time-stamped entries. */
-        private final List<Entry> cache;
-
-        /** Earliest quantum. */
-        private AtomicLong earliestQuantum;
-
-        /** Latest quantum. */
-        private AtomicLong latestQuantum;
+        /** Cached time-stamped entries (immutable snapshot, replaced on update). */
+        private volatile List<Entry> cache;
 
         /** Index from a previous recent call. */
-        private AtomicInteger guessedIndex;
+        private final AtomicInteger guessedIndex;
 
         /** Last access time. */
-        private AtomicLong lastAccess;
+        private final AtomicLong lastAccess;
 
         /** Simple constructor.
          * @param date central date for initial entries to insert in the slot
@@ -444,24 +412,22 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
          */
         Slot(final AbsoluteDate date) throws TimeStampedCacheException {
 
-            // allocate cache
-            this.cache = new ArrayList<Entry>();
-
             // set up first entries
             AbsoluteDate generationDate = date;
 
             generateCalls.incrementAndGet();
-            for (final T entry : generateAndCheck(null, generationDate)) {
-                cache.add(new Entry(entry, quantum(entry.getDate())));
+            final List<T> first = generateAndCheck(null, generationDate);
+            final List<Entry> initial = new ArrayList<Entry>(first.size());
+            for (final T entry : first) {
+                initial.add(new Entry(entry, quantum(entry.getDate())));
             }
-            earliestQuantum = new AtomicLong(cache.get(0).getQuantum());
-            latestQuantum   = new AtomicLong(cache.get(cache.size() - 1).getQuantum());
+            this.cache = initial;
 
             while (cache.size() < neighborsSize) {
                 // we need to generate more entries
 
-                final AbsoluteDate entry0 = cache.get(0).getData().getDate();
-                final AbsoluteDate entryN = cache.get(cache.size() - 1).getData().getDate();
+                final AbsoluteDate entry0 = getEarliest().getDate();
+                final AbsoluteDate entryN = getLatest().getDate();
                 generateCalls.incrementAndGet();
 
                 final AbsoluteDate existingDate;
@@ -495,21 +461,23 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
          * @return quantum of the earliest date contained in the slot
          */
         public long getEarliestQuantum() {
-            return earliestQuantum.get();
+            return cache.get(0).getQuantum();
         }
 
         /** Get the latest entry contained in the slot.
          * @return latest entry contained in the slot
          */
         public T getLatest() {
-            return cache.get(cache.size() - 1).getData();
+            final List<Entry> entries = cache;
+            return entries.get(entries.size() - 1).getData();
         }
 
         /** Get the quantum of the latest date contained in the slot.
          * @return quantum of the latest date contained in the slot
          */
         public long getLatestQuantum() {
-            return latestQuantum.get();
+            final List<Entry> entries = cache;
+            return entries.get(entries.size() - 1).getQuantum();
         }
 
         /** Get the number of entries contained din the slot.
@@ -524,12 +492,13 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
          * if there are fewer than 2 entries)
          */
         private double getMeanStep() {
-            if (cache.size() < 2) {
+            final List<Entry> entries = cache;
+            if (entries.size() < 2) {
                 return 1.0;
             } else {
-                final AbsoluteDate t0 = cache.get(0).getData().getDate();
-                final AbsoluteDate tn = cache.get(cache.size() - 1).getData().getDate();
-                return tn.durationFrom(t0) / (cache.size() - 1);
+                final AbsoluteDate t0 = entries.get(0).getData().getDate();
+                final AbsoluteDate tn = entries.get(entries.size() - 1).getData().getDate();
+                return tn.durationFrom(t0) / (entries.size() - 1);
             }
         }
 
@@ -540,6 +509,26 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
             return lastAccess.get();
         }
 
+        /** Get the entries surrounding a central date, if they are already cached.
+         * <p>
+         * This method does not change the slot and does not need any lock,
+         * it works on the current snapshot of the entries.
+         * </p>
+         * @param dateQuantum global quantum of the date
+         * @return a new stream containing date neighbors, or null if
+         * the slot does not contain a balanced neighborhood for the date
+         * @see #getNeighbors(AbsoluteDate, long)
+         */
+        public Stream<T> getCachedNeighbors(final long dateQuantum) {
+            final List<Entry> entries = cache;
+            final int firstNeighbor = entryIndex(entries, dateQuantum) - (neighborsSize - 1) / 2;
+            if (firstNeighbor < 0 || firstNeighbor + neighborsSize > entries.size()) {
+                // the slot would need to be updated
+                return null;
+            }
+            return neighbors(entries, firstNeighbor);
+        }
+
         /** Get the entries surrounding a central date.
          * <p>
          * If the central date is well within covered slot, the returned array
@@ -551,127 +540,120 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
          * cached entries. A typical example of the later case is leap seconds cache,
          * since the number of leap seconds cannot be arbitrarily increased.
          * </p>
+         * <p>
+         * We own the update lock while calling this method.
+         * </p>
          * @param central central date
          * @param dateQuantum global quantum of the date
          * @return a new array containing date neighbors
          * @exception TimeStampedCacheException if entries are not chronologically
          * sorted or if new data cannot be generated
-         * @see #getBefore(AbsoluteDate)
-         * @see #getAfter(AbsoluteDate)
+         * @see #getCachedNeighbors(long)
          */
         public Stream<T> getNeighbors(final AbsoluteDate central, final long dateQuantum)
             throws TimeStampedCacheException {
 
-            int index         = entryIndex(central, dateQuantum);
-            int firstNeighbor = index - (neighborsSize - 1) / 2;
-
-            if (firstNeighbor < 0 || firstNeighbor + neighborsSize > cache.size()) {
-                // the cache is not balanced around the desired date, we can try to generate new data
-
-                // upgrade the read lock to a write lock so we can change the list of available slots
-                lock.readLock().unlock();
-                lock.writeLock().lock();
-
-                try {
-                    // check entries again as another thread may have changed
-                    // the list while we were waiting for the write lock
-                    boolean loop = true;
-                    while (loop) {
-                        index         = entryIndex(central, dateQuantum);
-                        firstNeighbor = index - (neighborsSize - 1) / 2;
-                        if (firstNeighbor < 0 || firstNeighbor + neighborsSize > cache.size()) {
-
-                            // estimate which data we need to be generated
-                            final double step = getMeanStep();
-                            final AbsoluteDate existingDate;
-                            final AbsoluteDate generationDate;
-                            final boolean simplyRebalance;
-                            if (firstNeighbor < 0) {
-                                existingDate    = cache.get(0).getData().getDate();
-                                generationDate  = existingDate.getDate().shiftedBy(step * firstNeighbor);
-                                simplyRebalance = existingDate.getDate().compareTo(central) <= 0;
-                            } else {
-                                existingDate    = cache.get(cache.size() - 1).getData().getDate();
-                                generationDate  = existingDate.getDate().shiftedBy(step * (firstNeighbor + neighborsSize - cache.size()));
-                                simplyRebalance = existingDate.getDate().compareTo(central) >= 0;
-                            }
-                            generateCalls.incrementAndGet();
-
-                            // generated data and add it to the slot
-                            try {
-                                if (firstNeighbor < 0) {
-                                    insertAtStart(generateAndCheck(existingDate, generationDate));
-                                } else {
-                                    appendAtEnd(generateAndCheck(existingDate, generationDate));
-                                }
-                            } catch (TimeStampedCacheException tce) {
-                                if (simplyRebalance) {
-                                    // we were simply trying to rebalance an unbalanced interval near slot end
-                                    // we failed, but the central date is already covered by the existing (unbalanced) data
-                                    // so we ignore the exception and stop the loop, we will continue with what we have
-                                    loop = false;
-                                } else {
-                                    throw tce;
-                                }
-                            }
+            // check entries again as another thread may have changed
+            // the list while we were waiting for the lock
+            boolean loop = true;
+            while (loop) {
+                final List<Entry> entries = cache;
+                final int firstNeighbor   = entryIndex(entries, dateQuantum) - (neighborsSize - 1) / 2;
+                if (firstNeighbor < 0 || firstNeighbor + neighborsSize > entries.size()) {
+                    // the cache is not balanced around the desired date, we can try to generate new data
+
+                    // estimate which data we need to be generated
+                    final double step = getMeanStep();
+                    final AbsoluteDate existingDate;
+                    final AbsoluteDate generationDate;
+                    final boolean simplyRebalance;
+                    if (firstNeighbor < 0) {
+                        existingDate    = entries.get(0).getData().getDate();
+                        generationDate  = existingDate.getDate().shiftedBy(step * firstNeighbor);
+                        simplyRebalance = existingDate.getDate().compareTo(central) <= 0;
+                    } else {
+                        existingDate    = entries.get(entries.size() - 1).getData().getDate();
+                        generationDate  = existingDate.getDate().shiftedBy(step * (firstNeighbor + neighborsSize - entries.size()));
+                        simplyRebalance = existingDate.getDate().compareTo(central) >= 0;
+                    }
+                    generateCalls.incrementAndGet();
 
+                    // generated data and add it to the slot
+                    try {
+                        if (firstNeighbor < 0) {
+                            insertAtStart(generateAndCheck(existingDate, generationDate));
                         } else {
+                            appendAtEnd(generateAndCheck(existingDate, generationDate));
+                        }
+                    } catch (TimeStampedCacheException tce) {
+                        if (simplyRebalance) {
+                            // we were simply trying to rebalance an unbalanced interval near slot end
+                            // we failed, but the central date is already covered by the existing (unbalanced) data
+                            // so we ignore the exception and stop the loop, we will continue with what we have
                             loop = false;
+                        } else {
+                            throw tce;
                         }
                     }
-                } finally {
-                    // downgrade back to a read lock
-                    lock.readLock().lock();
-                    lock.writeLock().unlock();
-                }
 
+                } else {
+                    loop = false;
+                }
             }
 
-            if (firstNeighbor + neighborsSize > cache.size()) {
+            final List<Entry> entries = cache;
+            int firstNeighbor = entryIndex(entries, dateQuantum) - (neighborsSize - 1) / 2;
+            if (firstNeighbor + neighborsSize > entries.size()) {
                 // we end up with a non-balanced neighborhood,
                 // adjust the start point to fit within the cache
-                firstNeighbor = cache.size() - neighborsSize;
+                firstNeighbor = entries.size() - neighborsSize;
             }
             if (firstNeighbor < 0) {
                 firstNeighbor = 0;
             }
+
+            return neighbors(entries, firstNeighbor);
+
+        }
+
+        /** Build the stream of neighbors.
+         * @param entries snapshot of the entries
+         * @param firstNeighbor index of the first neighbor
+         * @return a new stream containing date neighbors
+         */
+        private Stream<T> neighbors(final List<Entry> entries, final int firstNeighbor) {
             final Stream.Builder<T> builder = Stream.builder();
             for (int i = 0; i < neighborsSize; ++i) {
-                builder.accept(cache.get(firstNeighbor + i).getData());
+                builder.accept(entries.get(firstNeighbor + i).getData());
             }
-
             return builder.build();
-
         }
 
         /** Get the index of the entry corresponding to a date.
-         * <p>
-         * We own a local read lock while calling this method.
-         * </p>
-         * @param date date
+         * @param entries snapshot of the entries
          * @param dateQuantum global quantum of the date
          * @return index in the array such that entry[index] is before
          * date and entry[index + 1] is after date (or they are at array boundaries)
          */
-        private int entryIndex(final AbsoluteDate date, final long dateQuantum) {
+        private int entryIndex(final List<Entry> entries, final long dateQuantum) {
 
             // first quick guesses, assuming a recent search was close enough
             final int guess = guessedIndex.get();
-            if (guess > 0 && guess < cache.size()) {
-                if (cache.get(guess).getQuantum() <= dateQuantum) {
-                    if (guess + 1 < cache.size() && cache.get(guess + 1).getQuantum() > dateQuantum) {
+            if (guess > 0 && guess < entries.size()) {
+                if (entries.get(guess).getQuantum() <= dateQuantum) {
+                    if (guess + 1 < entries.size() && entries.get(guess + 1).getQuantum() > dateQuantum) {
                         // good guess!
                         return guess;
                     } else {
                         // perhaps we have simply shifted just one point forward ?
-                        if (guess + 2 < cache.size() && cache.get(guess + 2).getQuantum() > dateQuantum) {
+                        if (guess + 2 < entries.size() && entries.get(guess + 2).getQuantum() > dateQuantum) {
                             guessedIndex.set(guess + 1);
                             return guess + 1;
                         }
                     }
                 } else {
                     // perhaps we have simply shifted just one point backward ?
-                    if (guess > 1 && cache.get(guess - 1).getQuantum() <= dateQuantum) {
+                    if (guess > 1 && entries.get(guess - 1).getQuantum() <= dateQuantum) {
                         guessedIndex.set(guess - 1);
                         return guess - 1;
                     }
@@ -679,24 +661,24 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
             }
 
             // quick guesses have failed, we need to perform a full blown search
-            if (dateQuantum < getEarliestQuantum()) {
+            final long qInf = entries.get(0).getQuantum();
+            final long qSup = entries.get(entries.size() - 1).getQuantum();
+            if (dateQuantum < qInf) {
                 // date if before the first entry
                 return -1;
-            } else if (dateQuantum > getLatestQuantum()) {
+            } else if (dateQuantum > qSup) {
                 // date is after the last entry
-                return cache.size();
+                return entries.size();
             } else {
 
                 // try to get an existing entry
                 int  iInf = 0;
-                final long qInf = cache.get(iInf).getQuantum();
-                int  iSup = cache.size() - 1;
-                final long qSup = cache.get(iSup).getQuantum();
+                int  iSup = entries.size() - 1;
                 while (iSup - iInf > 0) {
                     // within a continuous slot, entries are expected to be roughly linear
                     final int iInterp = (int) ((iInf * (qSup - dateQuantum) + iSup * (dateQuantum - qInf)) / (qSup - qInf));
                     final int iMed    = FastMath.max(iInf + 1, FastMath.min(iInterp, iSup));
-                    final Entry entry = cache.get(iMed);
+                    final Entry entry = entries.get(iMed);
                     if (dateQuantum < entry.getQuantum()) {
                         iSup = iMed - 1;
                     } else if (dateQuantum > entry.getQuantum()) {
@@ -715,77 +697,84 @@ public class GenericTimeStampedCache<T extends TimeStamped> implements TimeStamp
         }
 
         /** Insert data at slot start.
+         * <p>
+         * The current entries are not modified, a new snapshot is published.
+         * </p>
          * @param data data to insert
          * @exception TimeStampedCacheException if new data cannot be generated
          */
         private void insertAtStart(final List<T> data) throws TimeStampedCacheException {
 
             // insert data at start
-            boolean inserted = false;
-            final long q0 = earliestQuantum.get();
+            final List<Entry> entries = cache;
+            final List<Entry> updated = new ArrayList<Entry>(data.size() + entries.size());
+            final long q0 = entries.get(0).getQuantum();
             for (int i = 0; i < data.size(); ++i) {
                 final long quantum = quantum(data.get(i).getDate());
                 if (quantum < q0) {
-                    cache.add(i, new Entry(data.get(i), quantum));
-                    inserted = true;
+                    updated.add(new Entry(data.get(i), quantum));
                 } else {
                     break;
                 }
             }
 
-            if (!inserted) {
+            if (updated.isEmpty()) {
                 throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_BEFORE,
-                                                              cache.get(0).getData().getDate());
+                                                              entries.get(0).getData().getDate());
             }
+            updated.addAll(entries);
 
             // evict excess data at end
-            final AbsoluteDate t0 = cache.get(0).getData().getDate();
-            while (cache.size() > neighborsSize &&
-                   cache.get(cache.size() - 1).getData().getDate().durationFrom(t0) > maxSpan) {
-                cache.remove(cache.size() - 1);
+            final AbsoluteDate t0 = updated.get(0).getData().getDate();
+            while (updated.size() > neighborsSize &&
+                   updated.get(updated.size() - 1).getData().getDate().durationFrom(t0) > maxSpan) {
+                updated.remove(updated.size() - 1);
             }
 
-            // update boundaries
-            earliestQuantum.set(cache.get(0).getQuantum());
-            latestQuantum.set(cache.get(cache.size() - 1).getQuantum());
+            // publish the new entries
+            cache = updated;
 
         }
 
         /** Append data at slot end.
+         * <p>
+         * The current entries are not modified, a new snapshot is published.
+         * </p>
          * @param data data to append
          * @exception TimeStampedCacheException if new data cannot be generated
          */
         private void appendAtEnd(final List<T> data) throws TimeStampedCacheException {
 
             // append data at end
-            boolean appended = false;
-            final long qn = latestQuantum.get();
-            final int  n  = cache.size();
+            final List<Entry> entries = cache;
+            final List<Entry> updated = new ArrayList<Entry>(data.size() + entries.size());
+            updated.addAll(entries);
+            final long qn = entries.get(entries.size() - 1).getQuantum();
+            final int  n  = entries.size();
             for (int i = data.size() - 1; i >= 0; --i) {
                 final long quantum = quantum(data.get(i).getDate());
                 if (quantum > qn) {
-                    cache.add(n, new Entry(data.get(i), quantum));
-                    appended = true;
+                    updated.add(n, new Entry(data.get(i), quantum));
                 } else {
                     break;
                 }
             }
 
-            if (!appended) {
+            if (updated.size() == n) {
                 throw new TimeStampedCacheException(OrekitMessages.UNABLE_TO_GENERATE_NEW_DATA_AFTER,
-                                                    cache.get(cache.size() - 1).getData().getDate());
+                                                    entries.get(n - 1).getData().getDate());
             }
 
             // evict excess data at start
-            final AbsoluteDate tn = cache.get(cache.size() - 1).getData().getDate();
-            while (cache.size() > neighborsSize &&
-                   tn.durationFrom(cache.get(0).getData().getDate()) > maxSpan) {
-                cache.remove(0);
+            final AbsoluteDate tn = updated.get(updated.size() - 1).getData().getDate();
+            int first = 0;
+            while (updated.size() - first > neighborsSize &&
+                   tn.durationFrom(updated.get(first).getData().getDate()) > maxSpan) {
+                ++first;
             }
 
-            // update boundaries
-            earliestQuantum.set(cache.get(0).getQuantum());
-            latestQuantum.set(cache.get(cache.size() - 1).getQuantum());
+            // publish the new entries
+            cache = first == 0 ? updated : new ArrayList<Entry>(updated.subList(first, updated.size()));
 
         }
 
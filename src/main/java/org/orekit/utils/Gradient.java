@@ -0,0 +1,727 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.hipparchus.Field;
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathArrays;
+import org.hipparchus.util.MathUtils;
+import org.orekit.errors.OrekitIllegalArgumentException;
+
+/** First order automatic differentiation element.
+ * <p>
+ * This class holds a value and its gradient with respect to a fixed number
+ * of free parameters. It computes the same values and first order derivatives
+ * as {@link org.hipparchus.analysis.differentiation.DerivativeStructure
+ * DerivativeStructure} built with derivation order 1, but as the gradient is
+ * stored in a plain array and the chain rule is applied directly in each method,
+ * it avoids the generic multiplication and composition tables needed for
+ * arbitrary orders. It is intended for computations that only need first order
+ * derivatives, like state transition matrices.
+ * </p>
+ * <p>
+ * Instances are immutable. Combining instances with different numbers of free
+ * parameters triggers an {@link OrekitIllegalArgumentException}.
+ * </p>
+ * @author Luc Maisonobe
+ * @since 9.2
+ */
+public class Gradient implements RealFieldElement<Gradient>, Serializable {
+
+    /** Serializable UID. */
+    private static final long serialVersionUID = 20171017L;
+
+    /** Value of the function. */
+    private final double value;
+
+    /** Gradient of the function. */
+    private final double[] grad;
+
+    /** Build an instance, without copying the gradient array.
+     * @param value value of the function
+     * @param grad gradient of the function (stored as is, not copied)
+     * @param dummy dummy parameter to distinguish from the public constructor
+     */
+    private Gradient(final double value, final double[] grad, final boolean dummy) {
+        this.value = value;
+        this.grad  = grad;
+    }
+
+    /** Build an instance from a value and a gradient.
+     * @param value value of the function
+     * @param gradient gradient of the function (will be copied)
+     */
+    public Gradient(final double value, final double... gradient) {
+        this(value, gradient.clone(), true);
+    }
+
+    /** Build an instance representing a constant.
+     * @param freeParameters number of free parameters
+     * @param value value of the constant
+     * @return constant instance, with zero gradient
+     */
+    public static Gradient constant(final int freeParameters, final double value) {
+        return new Gradient(value, new double[freeParameters], true);
+    }
+
+    /** Build an instance representing a free parameter.
+     * @param freeParameters number of free parameters
+     * @param index index of the variable (from 0 to {@code freeParameters - 1})
+     * @param value value of the variable
+     * @return instance representing the free parameter
+     */
+    public static Gradient variable(final int freeParameters, final int index, final double value) {
+        final double[] g = new double[freeParameters];
+        g[index] = 1.0;
+        return new Gradient(value, g, true);
+    }
+
+    /** Get the value of the function.
+     * @return value of the function
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /** Get the number of free parameters.
+     * @return number of free parameters
+     */
+    public int getFreeParameters() {
+        return grad.length;
+    }
+
+    /** Get one partial derivative.
+     * @param n index of the free parameter
+     * @return partial derivative with respect to free parameter n
+     */
+    public double getPartialDerivative(final int n) {
+        return grad[n];
+    }
+
+    /** Get the gradient.
+     * @return a copy of the gradient
+     */
+    public double[] getGradient() {
+        return grad.clone();
+    }
+
+    /** Add the gradient to an array.
+     * <p>
+     * This method is intended for accumulating Jacobians without
+     * copying the gradient.
+     * </p>
+     * @param scale scale factor to apply to the gradient
+     * @param from index of the first free parameter to add
+     * @param to array where to add the scaled partial derivatives
+     * @param toStart index of the first element to update in {@code to}
+     * @param length number of partial derivatives to add
+     */
+    public void addScaledGradientTo(final double scale, final int from,
+                                    final double[] to, final int toStart, final int length) {
+        for (int i = 0; i < length; ++i) {
+            to[toStart + i] += scale * grad[from + i];
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getReal() {
+        return value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Field<Gradient> getField() {
+        return GradientField.getField(grad.length);
+    }
+
+    /** Check dimensions compatibility.
+     * @param g instance to check against the instance
+     */
+    private void checkDimensions(final Gradient g) {
+        if (g.grad.length != grad.length) {
+            throw new OrekitIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                                                     g.grad.length, grad.length);
+        }
+    }
+
+    /** Build an instance with the same gradient scaled.
+     * @param newValue value of the new instance
+     * @param scale scale factor to apply to the gradient
+     * @return new instance
+     */
+    private Gradient compose(final double newValue, final double scale) {
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = scale * grad[i];
+        }
+        return new Gradient(newValue, g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient add(final double a) {
+        return new Gradient(value + a, grad, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient add(final Gradient a) {
+        checkDimensions(a);
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = grad[i] + a.grad[i];
+        }
+        return new Gradient(value + a.value, g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient subtract(final double a) {
+        return new Gradient(value - a, grad, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient subtract(final Gradient a) {
+        checkDimensions(a);
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = grad[i] - a.grad[i];
+        }
+        return new Gradient(value - a.value, g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient negate() {
+        return compose(-value, -1.0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient multiply(final int n) {
+        return compose(n * value, n);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient multiply(final double a) {
+        return compose(a * value, a);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient multiply(final Gradient a) {
+        checkDimensions(a);
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = grad[i] * a.value + value * a.grad[i];
+        }
+        return new Gradient(value * a.value, g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient divide(final double a) {
+        return compose(value / a, 1.0 / a);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient divide(final Gradient a) {
+        checkDimensions(a);
+        final double inv  = 1.0 / a.value;
+        final double q    = value * inv;
+        final double[] g  = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = (grad[i] - q * a.grad[i]) * inv;
+        }
+        return new Gradient(q, g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient remainder(final double a) {
+        return new Gradient(FastMath.IEEEremainder(value, a), grad, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient remainder(final Gradient a) {
+        checkDimensions(a);
+        final double rem = FastMath.IEEEremainder(value, a.value);
+        final double k   = FastMath.rint((value - rem) / a.value);
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = grad[i] - k * a.grad[i];
+        }
+        return new Gradient(rem, g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient abs() {
+        if (Double.doubleToLongBits(value) < 0) {
+            // we use the bits representation to also handle -0.0
+            return negate();
+        } else {
+            return this;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient ceil() {
+        return constant(grad.length, FastMath.ceil(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient floor() {
+        return constant(grad.length, FastMath.floor(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient rint() {
+        return constant(grad.length, FastMath.rint(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long round() {
+        return FastMath.round(value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient signum() {
+        return constant(grad.length, FastMath.signum(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient copySign(final Gradient sign) {
+        return copySign(sign.value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient copySign(final double sign) {
+        final long m = Double.doubleToLongBits(value);
+        final long s = Double.doubleToLongBits(sign);
+        if ((m >= 0 && s >= 0) || (m < 0 && s < 0)) {
+            // sign is currently OK
+            return this;
+        }
+        return negate();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient scalb(final int n) {
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = FastMath.scalb(grad[i], n);
+        }
+        return new Gradient(FastMath.scalb(value, n), g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient hypot(final Gradient y) {
+
+        checkDimensions(y);
+
+        if (Double.isInfinite(value) || Double.isInfinite(y.value)) {
+            return constant(grad.length, Double.POSITIVE_INFINITY);
+        } else if (Double.isNaN(value) || Double.isNaN(y.value)) {
+            return constant(grad.length, Double.NaN);
+        } else {
+
+            final int expX = FastMath.getExponent(value);
+            final int expY = FastMath.getExponent(y.value);
+            if (expX > expY + 27) {
+                // y is negligible with respect to x
+                return abs();
+            } else if (expY > expX + 27) {
+                // x is negligible with respect to y
+                return y.abs();
+            } else {
+
+                // find an intermediate scale to avoid both overflow and underflow
+                final int middleExp = (expX + expY) / 2;
+
+                // scale parameters without losing precision
+                final Gradient scaledX = scalb(-middleExp);
+                final Gradient scaledY = y.scalb(-middleExp);
+
+                // compute scaled hypotenuse
+                final Gradient scaledH =
+                        scaledX.multiply(scaledX).add(scaledY.multiply(scaledY)).sqrt();
+
+                // remove scaling
+                return scaledH.scalb(middleExp);
+
+            }
+
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient reciprocal() {
+        final double inv = 1.0 / value;
+        return compose(inv, -inv * inv);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient sqrt() {
+        final double s = FastMath.sqrt(value);
+        return compose(s, 0.5 / s);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient cbrt() {
+        final double c = FastMath.cbrt(value);
+        return compose(c, 1.0 / (3 * c * c));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient rootN(final int n) {
+        if (n == 2) {
+            return sqrt();
+        } else if (n == 3) {
+            return cbrt();
+        } else {
+            final double r = FastMath.pow(value, 1.0 / n);
+            return compose(r, 1.0 / (n * FastMath.pow(r, n - 1)));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient pow(final double p) {
+        if (p == 0) {
+            return constant(grad.length, 1.0);
+        }
+        return compose(FastMath.pow(value, p), p * FastMath.pow(value, p - 1));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient pow(final int n) {
+        if (n == 0) {
+            return constant(grad.length, 1.0);
+        }
+        return compose(FastMath.pow(value, n), n * FastMath.pow(value, n - 1));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient pow(final Gradient e) {
+        checkDimensions(e);
+        return log().multiply(e).exp();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient exp() {
+        final double exp = FastMath.exp(value);
+        return compose(exp, exp);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient expm1() {
+        return compose(FastMath.expm1(value), FastMath.exp(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient log() {
+        return compose(FastMath.log(value), 1.0 / value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient log1p() {
+        return compose(FastMath.log1p(value), 1.0 / (1.0 + value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient log10() {
+        return compose(FastMath.log10(value), 1.0 / (value * FastMath.log(10.0)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient cos() {
+        return compose(FastMath.cos(value), -FastMath.sin(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient sin() {
+        return compose(FastMath.sin(value), FastMath.cos(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient tan() {
+        final double t = FastMath.tan(value);
+        return compose(t, 1 + t * t);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient acos() {
+        return compose(FastMath.acos(value), -1.0 / FastMath.sqrt(1 - value * value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient asin() {
+        return compose(FastMath.asin(value), 1.0 / FastMath.sqrt(1 - value * value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient atan() {
+        return compose(FastMath.atan(value), 1.0 / (1 + value * value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient atan2(final Gradient x) {
+        checkDimensions(x);
+        final double inv = 1.0 / (x.value * x.value + value * value);
+        final double[] g = new double[grad.length];
+        for (int i = 0; i < g.length; ++i) {
+            g[i] = (x.value * grad[i] - value * x.grad[i]) * inv;
+        }
+        return new Gradient(FastMath.atan2(value, x.value), g, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient cosh() {
+        return compose(FastMath.cosh(value), FastMath.sinh(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient sinh() {
+        return compose(FastMath.sinh(value), FastMath.cosh(value));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient tanh() {
+        final double t = FastMath.tanh(value);
+        return compose(t, 1 - t * t);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient acosh() {
+        return compose(FastMath.acosh(value), 1.0 / FastMath.sqrt(value * value - 1));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient asinh() {
+        return compose(FastMath.asinh(value), 1.0 / FastMath.sqrt(value * value + 1));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient atanh() {
+        return compose(FastMath.atanh(value), 1.0 / (1 - value * value));
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * As in {@link org.hipparchus.analysis.differentiation.DerivativeStructure
+     * DerivativeStructure}, the value is computed with high accuracy but the
+     * gradient is computed with regular arithmetic.
+     * </p>
+     */
+    @Override
+    public Gradient linearCombination(final Gradient[] a, final Gradient[] b) {
+
+        MathUtils.checkDimension(a.length, b.length);
+
+        final double[] aValues = new double[a.length];
+        final double[] bValues = new double[b.length];
+        final double[] g       = new double[grad.length];
+        for (int i = 0; i < a.length; ++i) {
+            a[i].checkDimensions(this);
+            b[i].checkDimensions(this);
+            aValues[i] = a[i].value;
+            bValues[i] = b[i].value;
+            for (int j = 0; j < g.length; ++j) {
+                g[j] += a[i].grad[j] * bValues[i] + aValues[i] * b[i].grad[j];
+            }
+        }
+
+        return new Gradient(MathArrays.linearCombination(aValues, bValues), g, true);
+
+    }
+
+    /** {@inheritDoc}
+     * <p>
+     * As in {@link org.hipparchus.analysis.differentiation.DerivativeStructure
+     * DerivativeStructure}, the value is computed with high accuracy but the
+     * gradient is computed with regular arithmetic.
+     * </p>
+     */
+    @Override
+    public Gradient linearCombination(final double[] a, final Gradient[] b) {
+
+        MathUtils.checkDimension(a.length, b.length);
+
+        final double[] bValues = new double[b.length];
+        final double[] g       = new double[grad.length];
+        for (int i = 0; i < a.length; ++i) {
+            b[i].checkDimensions(this);
+            bValues[i] = b[i].value;
+            for (int j = 0; j < g.length; ++j) {
+                g[j] += a[i] * b[i].grad[j];
+            }
+        }
+
+        return new Gradient(MathArrays.linearCombination(a, bValues), g, true);
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient linearCombination(final Gradient a1, final Gradient b1,
+                                      final Gradient a2, final Gradient b2) {
+        return linearCombination(new Gradient[] {
+            a1, a2
+        }, new Gradient[] {
+            b1, b2
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient linearCombination(final double a1, final Gradient b1,
+                                      final double a2, final Gradient b2) {
+        return linearCombination(new double[] {
+            a1, a2
+        }, new Gradient[] {
+            b1, b2
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient linearCombination(final Gradient a1, final Gradient b1,
+                                      final Gradient a2, final Gradient b2,
+                                      final Gradient a3, final Gradient b3) {
+        return linearCombination(new Gradient[] {
+            a1, a2, a3
+        }, new Gradient[] {
+            b1, b2, b3
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient linearCombination(final double a1, final Gradient b1,
+                                      final double a2, final Gradient b2,
+                                      final double a3, final Gradient b3) {
+        return linearCombination(new double[] {
+            a1, a2, a3
+        }, new Gradient[] {
+            b1, b2, b3
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient linearCombination(final Gradient a1, final Gradient b1,
+                                      final Gradient a2, final Gradient b2,
+                                      final Gradient a3, final Gradient b3,
+                                      final Gradient a4, final Gradient b4) {
+        return linearCombination(new Gradient[] {
+            a1, a2, a3, a4
+        }, new Gradient[] {
+            b1, b2, b3, b4
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Gradient linearCombination(final double a1, final Gradient b1,
+                                      final double a2, final Gradient b2,
+                                      final double a3, final Gradient b3,
+                                      final double a4, final Gradient b4) {
+        return linearCombination(new double[] {
+            a1, a2, a3, a4
+        }, new Gradient[] {
+            b1, b2, b3, b4
+        });
+    }
+
+    /** Test for the equality of two gradients.
+     * <p>
+     * Gradients are considered equal if they have the same number
+     * of free parameters and the same value and partial derivatives.
+     * </p>
+     * @param other object to test for equality to this
+     * @return true if two gradients are equal
+     */
+    @Override
+    public boolean equals(final Object other) {
+
+        if (this == other) {
+            return true;
+        }
+
+        if (other instanceof Gradient) {
+            final Gradient rhs = (Gradient) other;
+            return Double.doubleToLongBits(value) == Double.doubleToLongBits(rhs.value) &&
+                   Arrays.equals(grad, rhs.grad);
+        }
+
+        return false;
+
+    }
+
+    /** Get a hashCode for the gradient.
+     * @return a hash code value for this object
+     */
+    @Override
+    public int hashCode() {
+        return 227 + 229 * grad.length + 233 * Double.hashCode(value) + 239 * Arrays.hashCode(grad);
+    }
+
+}
@@ -17,6 +17,7 @@
 package org.orekit.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +38,13 @@ import org.orekit.time.TimeStamped;
  * immutability. This strategy is suitable when all of the cached data is stored
  * in memory. (For example, {@link org.orekit.time.UTCScale UTCScale}) This
  * class then provides convenient methods for accessing the data.
+ * <p>
+ * Lookups are performed on a primitive array of time offsets. For regularly
+ * spaced data, the index is computed directly. For irregularly spaced data,
+ * the index found by the last lookup is used as a hint, so almost chronological
+ * accesses only check the same or the next interval before reverting to a binary
+ * search.
+ * </p>
  *
  * @author Evan Ward
  * @param <T>  the type of data
@@ -68,6 +76,29 @@ public class ImmutableTimeStampedCache<T extends TimeStamped>
      */
     private final int neighborsSize;
 
+    /**
+     * Offsets of the data dates with respect to the earliest one.
+     * @since 9.2
+     */
+    private final double[] offsets;
+
+    /**
+     * Step between data dates if they are regularly spaced, 0 otherwise.
+     * @since 9.2
+     */
+    private final double step;
+
+    /**
+     * Index found by the last lookup.
+     * <p>
+     * This field is shared among threads without synchronization. This is safe
+     * as it is only a hint: any value in the data range leads to the correct
+     * index, only the lookup speed depends on the hint being close or not.
+     * </p>
+     * @since 9.2
+     */
+    private int hint;
+
     /**
      * Create a new cache with the given neighbors size and data.
      *
@@ -98,6 +129,26 @@ public class ImmutableTimeStampedCache<T extends TimeStamped>
         // sort and copy data first
         this.data = new ArrayList<T>(data);
         Collections.sort(this.data, CMP);
+
+        // set up lookup array
+        final AbsoluteDate earliest = this.data.get(0).getDate();
+        this.offsets = new double[this.data.size()];
+        for (int i = 0; i < offsets.length; ++i) {
+            offsets[i] = this.data.get(i).getDate().durationFrom(earliest);
+        }
+
+        // check if data are regularly spaced, allowing for small jitter,
+        // as the direct index computation is corrected afterwards
+        final int last = offsets.length - 1;
+        double regular = last > 0 ? offsets[last] / last : 0;
+        for (int i = 0; regular > 0 && i <= last; ++i) {
+            if (FastMath.abs(offsets[i] - i * regular) > 0.1 * regular) {
+                regular = 0;
+            }
+        }
+        this.step = regular;
+        this.hint = 0;
+
     }
 
     /**
@@ -106,11 +157,47 @@ public class ImmutableTimeStampedCache<T extends TimeStamped>
     private ImmutableTimeStampedCache() {
         this.data = null;
         this.neighborsSize = 0;
+        this.offsets = null;
+        this.step = 0;
     }
 
     /** {@inheritDoc} */
     public Stream<T> getNeighbors(final AbsoluteDate central)
         throws TimeStampedCacheException {
+        final int start = findStart(central);
+        return this.data.subList(start, start + this.neighborsSize).stream();
+    }
+
+    /**
+     * Get the entries surrounding a central date, as a list.
+     * <p>
+     * This method is similar to {@link #getNeighbors(AbsoluteDate)}, but it
+     * returns an unmodifiable view of the cached data rather than a stream,
+     * thus avoiding to copy the neighbors when callers need random access to them.
+     * </p>
+     * @param central central date
+     * @return unmodifiable list of cached entries surrounding the specified date.
+     *         The size of the list is guaranteed to be {@link #getNeighborsSize()}.
+     * @throws TimeStampedCacheException if {@code central} is outside the range
+     *         of data this cache is capable of providing.
+     * @since 9.2
+     */
+    public List<T> getNeighborsList(final AbsoluteDate central)
+        throws TimeStampedCacheException {
+        final int start = findStart(central);
+        return Collections.unmodifiableList(this.data.subList(start, start + this.neighborsSize));
+    }
+
+    /**
+     * Find the index of the first neighbor of a central date.
+     *
+     * @param central central date
+     * @return index of the first neighbor
+     * @throws TimeStampedCacheException if {@code central} is outside the range
+     *         of data this cache is capable of providing.
+     */
+    private int findStart(final AbsoluteDate central)
+        throws TimeStampedCacheException {
 
         // find central index
         final int i = findIndex(central);
@@ -125,13 +212,11 @@ public class ImmutableTimeStampedCache<T extends TimeStamped>
         }
 
         // force unbalanced range if necessary
-        int start = FastMath.max(0, i - (this.neighborsSize - 1) / 2);
+        final int start = FastMath.max(0, i - (this.neighborsSize - 1) / 2);
         final int end = FastMath.min(this.data.size(), start +
                                                        this.neighborsSize);
-        start = end - this.neighborsSize;
+        return end - this.neighborsSize;
 
-        // return list without copying
-        return this.data.subList(start, end).stream();
     }
 
     /**
@@ -144,16 +229,48 @@ public class ImmutableTimeStampedCache<T extends TimeStamped>
      *         {@code t} is after the last entry.
      */
     private int findIndex(final AbsoluteDate t) {
-        // Guaranteed log(n) time
-        int i = Collections.binarySearch(this.data, t, CMP);
-        if (i == -this.data.size() - 1) {
+
+        final int    last = offsets.length - 1;
+        final double dt   = t.durationFrom(this.data.get(0).getDate());
+        if (dt < 0) {
+            // before first entry
+            return -1;
+        } else if (dt > offsets[last]) {
             // beyond last entry
-            i = this.data.size();
-        } else if (i < 0) {
-            // did not find exact match, but contained in data interval
-            i = -i - 2;
+            return this.data.size();
+        }
+
+        int i;
+        if (step > 0) {
+            // regularly spaced data, direct computation of an initial guess
+            i = FastMath.min((int) (dt / step), last);
+        } else {
+            i = hint;
+            if (offsets[i] > dt || (i < last && offsets[i + 1] <= dt)) {
+                if (i < last - 1 && offsets[i + 1] <= dt && offsets[i + 2] > dt) {
+                    // almost chronological access, we just moved to next interval
+                    ++i;
+                } else {
+                    // random access, we need a full search (guaranteed log(n) time)
+                    i = Arrays.binarySearch(offsets, dt);
+                    if (i < 0) {
+                        i = -i - 2;
+                    }
+                }
+            }
+        }
+
+        // fix initial guess (it may be wrong due to jitter or duplicated dates)
+        while (i > 0 && offsets[i] > dt) {
+            --i;
         }
+        while (i < last && offsets[i + 1] <= dt) {
+            ++i;
+        }
+
+        hint = i;
         return i;
+
     }
 
     public int getNeighborsSize() {
@@ -197,6 +314,13 @@ public class ImmutableTimeStampedCache<T extends TimeStamped>
             throw new TimeStampedCacheException(OrekitMessages.NO_CACHED_ENTRIES);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public List<T> getNeighborsList(final AbsoluteDate central)
+            throws TimeStampedCacheException {
+            throw new TimeStampedCacheException(OrekitMessages.NO_CACHED_ENTRIES);
+        }
+
         /** {@inheritDoc} */
         @Override
         public int getNeighborsSize() {
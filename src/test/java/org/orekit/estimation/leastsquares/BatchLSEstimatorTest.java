@@ -17,13 +17,18 @@
 package org.orekit.estimation.leastsquares;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.linear.RealMatrix;
 import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem.Evaluation;
 import org.hipparchus.optim.nonlinear.vector.leastsquares.LevenbergMarquardtOptimizer;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
 import org.junit.Assert;
 import org.junit.Test;
 import org.orekit.attitudes.LofOffset;
@@ -32,13 +37,17 @@ import org.orekit.errors.OrekitMessages;
 import org.orekit.estimation.Context;
 import org.orekit.estimation.EstimationTestUtils;
 import org.orekit.estimation.Force;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.EstimationModifier;
 import org.orekit.estimation.measurements.EstimationsProvider;
 import org.orekit.estimation.measurements.InterSatellitesRangeMeasurementCreator;
 import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.measurements.PV;
 import org.orekit.estimation.measurements.PVMeasurementCreator;
 import org.orekit.estimation.measurements.Range;
 import org.orekit.estimation.measurements.RangeMeasurementCreator;
 import org.orekit.estimation.measurements.RangeRateMeasurementCreator;
+import org.orekit.estimation.measurements.modifiers.Bias;
 import org.orekit.estimation.measurements.modifiers.OnBoardAntennaRangeModifier;
 import org.orekit.forces.radiation.RadiationSensitive;
 import org.orekit.frames.LOFType;
@@ -50,6 +59,7 @@ import org.orekit.orbits.PositionAngle;
 import org.orekit.propagation.BoundedPropagator;
 import org.orekit.propagation.Propagator;
 import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.ParameterDriver;
 import org.orekit.utils.ParameterDriversList;
@@ -700,6 +710,141 @@ public class BatchLSEstimatorTest {
 
     }
 
+    @Test
+    public void testParallelEvaluation() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+        final Vector3D antennaPhaseCenter = new Vector3D(-1.2, 2.3, -0.7);
+
+        // create perfect range measurements with antenna offset
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           createAntennaBuilder(context));
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context, antennaPhaseCenter),
+                                                               1.0, 3.0, 300.0);
+        final OnBoardAntennaRangeModifier obaModifier = new OnBoardAntennaRangeModifier(antennaPhaseCenter);
+        for (final ObservedMeasurement<?> range : measurements) {
+            ((Range) range).addModifier(obaModifier);
+        }
+
+        // sequential reference
+        final BatchLSEstimator sequential = createAntennaEstimator(context, measurements);
+        final NumericalPropagator[] sequentialPropagators = sequential.estimate();
+
+        // parallel evaluation of the same problem
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BatchLSEstimator parallel = createAntennaEstimator(context, measurements);
+            parallel.setExecutor(executor);
+            final NumericalPropagator[] parallelPropagators = parallel.estimate();
+
+            // results must be identical, not only close
+            Assert.assertEquals(sequential.getIterationsCount(),  parallel.getIterationsCount());
+            Assert.assertEquals(sequential.getEvaluationsCount(), parallel.getEvaluationsCount());
+            Assert.assertEquals(0.0,
+                                sequential.getOptimum().getPoint().getLInfDistance(parallel.getOptimum().getPoint()),
+                                0.0);
+            Assert.assertEquals(0.0,
+                                sequential.getOptimum().getJacobian().subtract(parallel.getOptimum().getJacobian()).getNorm(),
+                                0.0);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(sequentialPropagators[0].getInitialState().getPVCoordinates().getPosition(),
+                                                  parallelPropagators[0].getInitialState().getPVCoordinates().getPosition()),
+                                0.0);
+            Assert.assertEquals(measurements.size(), parallel.getLastEstimations().size());
+            for (final ObservedMeasurement<?> measurement : measurements) {
+                Assert.assertArrayEquals(sequential.getLastEstimations().get(measurement).getEstimatedValue(),
+                                         parallel.getLastEstimations().get(measurement).getEstimatedValue(),
+                                         0.0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testParallelEvaluationFailure() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+
+        // create perfect range measurements
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           propagatorBuilder);
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 3.0, 300.0);
+
+        // one measurement in the middle cannot be estimated
+        final AbsoluteDate failureDate = measurements.get(measurements.size() / 2).getDate();
+        final EstimationModifier<Range> failingModifier = new EstimationModifier<Range>() {
+            /** {@inheritDoc} */
+            @Override
+            public List<ParameterDriver> getParametersDrivers() {
+                return Collections.emptyList();
+            }
+            /** {@inheritDoc} */
+            @Override
+            public void modify(final EstimatedMeasurement<Range> estimated) throws DummyException {
+                if (estimated.getDate().equals(failureDate)) {
+                    throw new DummyException();
+                }
+            }
+        };
+
+        final BatchLSEstimator estimator = new BatchLSEstimator(new LevenbergMarquardtOptimizer(),
+                                                                propagatorBuilder);
+        for (final ObservedMeasurement<?> range : measurements) {
+            ((Range) range).addModifier(failingModifier);
+            estimator.addMeasurement(range);
+        }
+        estimator.setParametersConvergenceThreshold(1.0e-2);
+        estimator.setMaxIterations(10);
+        estimator.setMaxEvaluations(20);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            estimator.setExecutor(executor);
+            estimator.estimate();
+            Assert.fail("an exception should have been thrown");
+        } catch (DummyException de) {
+            // expected
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    private NumericalPropagatorBuilder createAntennaBuilder(final Context context)
+        throws OrekitException {
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        propagatorBuilder.setAttitudeProvider(new LofOffset(propagatorBuilder.getFrame(), LOFType.LVLH));
+        return propagatorBuilder;
+    }
+
+    private BatchLSEstimator createAntennaEstimator(final Context context,
+                                                    final List<ObservedMeasurement<?>> measurements)
+        throws OrekitException {
+        final BatchLSEstimator estimator = new BatchLSEstimator(new LevenbergMarquardtOptimizer(),
+                                                                createAntennaBuilder(context));
+        for (final ObservedMeasurement<?> range : measurements) {
+            estimator.addMeasurement(range);
+        }
+        estimator.setParametersConvergenceThreshold(1.0e-2);
+        estimator.setMaxIterations(10);
+        estimator.setMaxEvaluations(20);
+        ParameterDriver aDriver = estimator.getOrbitalParametersDrivers(true).getDrivers().get(0);
+        aDriver.setValue(aDriver.getValue() + 1.2);
+        return estimator;
+    }
+
     private static class DummyException extends OrekitException {
         private static final long serialVersionUID = 1L;
         public DummyException() {
@@ -707,6 +852,121 @@ public class BatchLSEstimatorTest {
         }
     }
 
+    @Test
+    public void testIncrementalEstimation() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+
+        // create noisy PV measurements over three orbits
+        final NumericalPropagatorBuilder referenceBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           referenceBuilder);
+        final RandomGenerator random = new Well19937a(0x3b1d5a6e7c8f9021l);
+        final List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+        for (final ObservedMeasurement<?> perfect :
+            EstimationTestUtils.createMeasurements(propagator, new PVMeasurementCreator(), 0.0, 3.0, 300.0)) {
+            final double[] pv = perfect.getObservedValue();
+            measurements.add(new PV(perfect.getDate(),
+                                    new Vector3D(pv[0] + random.nextGaussian(),
+                                                 pv[1] + random.nextGaussian(),
+                                                 pv[2] + random.nextGaussian()),
+                                    new Vector3D(pv[3] + 0.001 * random.nextGaussian(),
+                                                 pv[4] + 0.001 * random.nextGaussian(),
+                                                 pv[5] + 0.001 * random.nextGaussian()),
+                                    1.0, 0.001, 1.0));
+        }
+
+        // add noisy range measurements with an estimated bias
+        final Bias<Range> bias = new Bias<>(new String[] { "range-bias" }, new double[] { 0.0 },
+                                            new double[] { 1.0 },
+                                            new double[] { -1.0e4 }, new double[] { 1.0e4 });
+        final ParameterDriver biasDriver = bias.getParametersDrivers().get(0);
+        biasDriver.setSelected(true);
+        for (final ObservedMeasurement<?> perfect :
+            EstimationTestUtils.createMeasurements(EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                                        referenceBuilder),
+                                                   new RangeMeasurementCreator(context), 0.0, 3.0, 60.0)) {
+            final Range range  = (Range) perfect;
+            final Range biased = new Range(range.getStation(), range.getDate(),
+                                           range.getObservedValue()[0] + 3.0 + random.nextGaussian(),
+                                           1.0, 1.0);
+            biased.addModifier(bias);
+            measurements.add(biased);
+        }
+        measurements.sort((m1, m2) -> m1.getDate().compareTo(m2.getDate()));
+
+        final double period = context.initialOrbit.getKeplerianPeriod();
+        final AbsoluteDate t1 = context.initialOrbit.getDate().shiftedBy(period);
+        final AbsoluteDate t2 = context.initialOrbit.getDate().shiftedBy(2 * period);
+
+        // without previous solution, incremental estimation falls back to full estimation
+        final BatchLSEstimator incremental = createIncrementalEstimator(context);
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            if (measurement.getDate().compareTo(t2) <= 0) {
+                incremental.addMeasurement(measurement);
+            }
+        }
+        final Orbit first = incremental.estimateIncrementally()[0].getInitialState().getOrbit();
+        final double firstBias = biasDriver.getValue();
+        Assert.assertTrue(incremental.getIterationsCount() > 0);
+
+        // slide the arc by one orbit
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            if (measurement.getDate().compareTo(t1) < 0) {
+                incremental.removeMeasurement(measurement);
+            } else if (measurement.getDate().compareTo(t2) > 0) {
+                incremental.addMeasurement(measurement);
+            }
+        }
+        final int iterations = incremental.getIterationsCount();
+        final Orbit updated = incremental.estimateIncrementally()[0].getInitialState().getOrbit();
+        final double updatedBias = biasDriver.getValue();
+        Assert.assertEquals(iterations, incremental.getIterationsCount());
+
+        // reference full estimation on the slid arc
+        final BatchLSEstimator full = createIncrementalEstimator(context);
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            if (measurement.getDate().compareTo(t1) >= 0) {
+                full.addMeasurement(measurement);
+            }
+        }
+        final Orbit reference = full.estimate()[0].getInitialState().getOrbit();
+        final double referenceBias = biasDriver.getValue();
+
+        final double slideShift  = distance(first, reference);
+        final double updateError = distance(updated, reference);
+        Assert.assertEquals(0.056, slideShift, 1.0e-3);
+        Assert.assertEquals(0.0, updateError, 1.0e-6);
+        Assert.assertEquals(0.138, firstBias - referenceBias, 1.0e-3);
+        Assert.assertEquals(referenceBias, updatedBias, 1.0e-6);
+
+        // validation by full estimation starts from the updated solution
+        final Orbit validated = incremental.estimate()[0].getInitialState().getOrbit();
+        Assert.assertTrue(incremental.getIterationsCount() <= 2);
+        Assert.assertEquals(0.0, distance(validated, reference), 1.0e-6);
+
+    }
+
+    private BatchLSEstimator createIncrementalEstimator(final Context context)
+        throws OrekitException {
+        final NumericalPropagatorBuilder builder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final BatchLSEstimator estimator = new BatchLSEstimator(new LevenbergMarquardtOptimizer(),
+                                                                builder);
+        estimator.setParametersConvergenceThreshold(1.0e-3);
+        estimator.setMaxIterations(10);
+        estimator.setMaxEvaluations(20);
+        return estimator;
+    }
+
+    private double distance(final Orbit o1, final Orbit o2) {
+        return Vector3D.distance(o1.getPVCoordinates().getPosition(),
+                                 o2.getPVCoordinates().getPosition());
+    }
+
     @Test
     public void testKeplerRangeRate() throws OrekitException {
 
@@ -0,0 +1,171 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hipparchus.exception.NullArgumentException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.GaussNewtonOptimizer;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresBuilder;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresOptimizer;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresOptimizer.Optimum;
+import org.hipparchus.optim.nonlinear.vector.leastsquares.LeastSquaresProblem;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.Context;
+import org.orekit.estimation.EstimationTestUtils;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.measurements.Range;
+import org.orekit.estimation.measurements.RangeMeasurementCreator;
+import org.orekit.estimation.measurements.modifiers.Bias;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList.DelegatingDriver;
+
+public class BlockSparseGaussNewtonOptimizerTest {
+
+    @Test
+    public void testPerPassRangeBiases() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+
+        // create perfect range measurements
+        final Propagator propagator =
+                        EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                             context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                                                                   1.0e-6, 60.0, 1.0));
+        final List<ObservedMeasurement<?>> perfect =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 3.0, 300.0);
+
+        // estimate with block-sparse solver and with dense solver
+        final Map<String, Double> trueBiases   = new HashMap<>();
+        final BatchLSEstimator    blockSparse  = createEstimator(context, new BlockSparseGaussNewtonOptimizer(),
+                                                                 perfect, trueBiases);
+        final BatchLSEstimator    dense        = createEstimator(context, new GaussNewtonOptimizer(),
+                                                                 perfect, new HashMap<>());
+        final Orbit blockSparseOrbit = blockSparse.estimate()[0].getInitialState().getOrbit();
+        final Orbit denseOrbit       = dense.estimate()[0].getInitialState().getOrbit();
+        Assert.assertEquals(4, trueBiases.size());
+        Assert.assertEquals(trueBiases.size(), blockSparse.getMeasurementsParametersDrivers(true).getNbParams());
+
+        // both solvers find the same solution, which is the true one
+        Assert.assertEquals(dense.getIterationsCount(), blockSparse.getIterationsCount());
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(denseOrbit.getPVCoordinates().getPosition(),
+                                              blockSparseOrbit.getPVCoordinates().getPosition()),
+                            1.0e-6);
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(context.initialOrbit.getPVCoordinates().getPosition(),
+                                              blockSparseOrbit.getPVCoordinates().getPosition()),
+                            1.0e-3);
+        final List<DelegatingDriver> blockSparseDrivers = blockSparse.getMeasurementsParametersDrivers(true).getDrivers();
+        final List<DelegatingDriver> denseDrivers       = dense.getMeasurementsParametersDrivers(true).getDrivers();
+        for (int i = 0; i < blockSparseDrivers.size(); ++i) {
+            final ParameterDriver driver = blockSparseDrivers.get(i);
+            Assert.assertEquals(trueBiases.get(driver.getName()), driver.getValue(), 1.0e-4);
+            Assert.assertEquals(driver.getName(), denseDrivers.get(i).getName());
+            Assert.assertEquals(driver.getValue(), denseDrivers.get(i).getValue(), 1.0e-7);
+        }
+
+        // covariance is still available from the optimum
+        final RealMatrix covariances = blockSparse.getPhysicalCovariances(1.0e-10);
+        Assert.assertEquals(6 + trueBiases.size(), covariances.getRowDimension());
+        Assert.assertEquals(0.0,
+                            covariances.subtract(dense.getPhysicalCovariances(1.0e-10)).getNorm(),
+                            1.0e-8 * covariances.getNorm());
+
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void testNoChecker() {
+        final LeastSquaresProblem problem = new LeastSquaresBuilder().
+                                            model(point -> null).
+                                            start(new double[1]).
+                                            target(new double[1]).
+                                            maxEvaluations(10).
+                                            maxIterations(10).
+                                            build();
+        final Optimum optimum = new BlockSparseGaussNewtonOptimizer().optimize(problem);
+        Assert.fail("an exception should have been thrown, got " + optimum);
+    }
+
+    private BatchLSEstimator createEstimator(final Context context,
+                                             final LeastSquaresOptimizer optimizer,
+                                             final List<ObservedMeasurement<?>> perfect,
+                                             final Map<String, Double> trueBiases)
+        throws OrekitException {
+
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, false,
+                                              1.0e-6, 60.0, 1.0);
+        final BatchLSEstimator estimator = new BatchLSEstimator(optimizer, propagatorBuilder);
+
+        // one bias per station pass
+        final Map<GroundStation, AbsoluteDate> lastDates = new HashMap<>();
+        final Map<GroundStation, Bias<Range>>  biases    = new HashMap<>();
+        final List<ObservedMeasurement<?>>     biased    = new ArrayList<>();
+        for (final ObservedMeasurement<?> measurement : perfect) {
+            final Range         range   = (Range) measurement;
+            final GroundStation station = range.getStation();
+            final AbsoluteDate  last    = lastDates.get(station);
+            if (last == null || range.getDate().durationFrom(last) > 600.0) {
+                // new pass
+                final String name  = station.getBaseFrame().getName() + "-bias-" + trueBiases.size();
+                final double value = (trueBiases.size() % 2 == 0 ? 1 : -1) * (2.0 + 0.5 * trueBiases.size());
+                trueBiases.put(name, value);
+                final Bias<Range> bias = new Bias<>(new String[] { name }, new double[] { 0.0 },
+                                                    new double[] { 1.0 },
+                                                    new double[] { -1.0e4 }, new double[] { 1.0e4 });
+                bias.getParametersDrivers().get(0).setSelected(true);
+                biases.put(station, bias);
+            }
+            lastDates.put(station, range.getDate());
+            final Bias<Range> bias    = biases.get(station);
+            final Range       shifted = new Range(station, range.getDate(),
+                                                  range.getObservedValue()[0] +
+                                                  trueBiases.get(bias.getParametersDrivers().get(0).getName()),
+                                                  range.getTheoreticalStandardDeviation()[0],
+                                                  range.getBaseWeight()[0]);
+            shifted.addModifier(bias);
+            biased.add(shifted);
+        }
+
+        for (final ObservedMeasurement<?> measurement : biased) {
+            estimator.addMeasurement(measurement);
+        }
+        estimator.setParametersConvergenceThreshold(1.0e-3);
+        estimator.setMaxIterations(20);
+        estimator.setMaxEvaluations(20);
+        return estimator;
+
+    }
+
+}
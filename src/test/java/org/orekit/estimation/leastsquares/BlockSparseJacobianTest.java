@@ -0,0 +1,120 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockSparseJacobianTest {
+
+    @Test
+    public void testEntries() {
+        final BlockSparseJacobian jacobian = new BlockSparseJacobian(3, 2, 5);
+        Assert.assertEquals(3, jacobian.getRowDimension());
+        Assert.assertEquals(7, jacobian.getColumnDimension());
+        Assert.assertEquals(2, jacobian.getNbGlobal());
+        Assert.assertEquals(5, jacobian.getNbLocal());
+
+        jacobian.setEntry(0, 1, 1.5);
+        jacobian.setEntry(0, 4, 2.5);
+        jacobian.addToEntry(0, 4, 1.0);
+        jacobian.setEntry(1, 6, 0.0);
+        jacobian.addToEntry(2, 2, -1.0);
+        Assert.assertEquals(1.5, jacobian.getEntry(0, 1), 1.0e-15);
+        Assert.assertEquals(3.5, jacobian.getEntry(0, 4), 1.0e-15);
+        Assert.assertEquals(0.0, jacobian.getEntry(0, 5), 1.0e-15);
+        Assert.assertEquals(-1.0, jacobian.getEntry(2, 2), 1.0e-15);
+
+        // zeros are not stored
+        Assert.assertEquals(1, jacobian.getLocalCount(0));
+        Assert.assertEquals(0, jacobian.getLocalCount(1));
+        Assert.assertEquals(2, jacobian.getLocalColumns(0)[0]);
+
+        Assert.assertArrayEquals(new double[] { 0.0, 1.5, 0.0, 0.0, 3.5, 0.0, 0.0 },
+                                 jacobian.getRow(0), 1.0e-15);
+
+        jacobian.zero();
+        Assert.assertEquals(0.0, jacobian.getEntry(0, 1), 1.0e-15);
+        Assert.assertEquals(0.0, jacobian.getEntry(0, 4), 1.0e-15);
+        Assert.assertEquals(0, jacobian.getLocalCount(0));
+
+    }
+
+    @Test
+    public void testConsistencyWithDense() {
+        final RandomGenerator random = new Well19937a(0x6a2f1c83e4d5b790l);
+        final BlockSparseJacobian sparse = new BlockSparseJacobian(20, 4, 12);
+        final RealMatrix          dense  = MatrixUtils.createRealMatrix(20, 16);
+        for (int i = 0; i < 20; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                final double v = random.nextDouble();
+                sparse.setEntry(i, j, v);
+                dense.setEntry(i, j, v);
+            }
+            // more local entries than initial capacity
+            for (int k = 0; k < 6; ++k) {
+                final int    j = 4 + random.nextInt(12);
+                final double v = random.nextDouble();
+                sparse.addToEntry(i, j, v);
+                dense.addToEntry(i, j, v);
+            }
+        }
+
+        final BlockSparseJacobian copy = sparse.copy();
+        sparse.zero();
+        Assert.assertEquals(0.0, dense.subtract(copy).getNorm(), 1.0e-15);
+        Assert.assertEquals(0.0, dense.transpose().multiply(dense).subtract(copy.transpose().multiply(copy)).getNorm(),
+                            1.0e-13);
+        for (int i = 0; i < 20; ++i) {
+            Assert.assertArrayEquals(dense.getRow(i), copy.getRow(i), 1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testCopyTo() {
+        final BlockSparseJacobian sparse = new BlockSparseJacobian(3, 2, 5);
+        sparse.setEntry(0, 1, 1.5);
+        sparse.setEntry(0, 4, 2.5);
+        sparse.setEntry(2, 6, -1.0);
+
+        // destination entries are all overwritten, including zero ones
+        final RealMatrix dense = MatrixUtils.createRealMatrix(3, 7);
+        for (int i = 0; i < 3; ++i) {
+            for (int j = 0; j < 7; ++j) {
+                dense.setEntry(i, j, 10.0 * i + j);
+            }
+        }
+        sparse.copyTo(dense);
+        for (int i = 0; i < 3; ++i) {
+            for (int j = 0; j < 7; ++j) {
+                Assert.assertEquals(sparse.getEntry(i, j), dense.getEntry(i, j), 0.0);
+            }
+        }
+
+    }
+
+    @Test(expected = org.hipparchus.exception.MathIllegalArgumentException.class)
+    public void testOutOfRange() {
+        new BlockSparseJacobian(3, 2, 5).getEntry(1, 7);
+    }
+
+}
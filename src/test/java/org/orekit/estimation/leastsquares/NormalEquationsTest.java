@@ -0,0 +1,157 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.leastsquares;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.ArrayRealVector;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.QRDecomposition;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.linear.RealVector;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.measurements.PV;
+import org.orekit.time.AbsoluteDate;
+
+public class NormalEquationsTest {
+
+    @Test
+    public void testSchurComplementSolve() {
+        // 6 global parameters, 3 local parameters per group, one group per 10 rows
+        final int nbGlobal = 6;
+        final int nbGroups = 8;
+        final RandomGenerator random = new Well19937a(0x1f3e5d7c9b2a4860l);
+        final BlockSparseJacobian jacobian = createJacobian(random, nbGlobal, nbGroups);
+        final RealVector residuals = createResiduals(random, jacobian.getRowDimension());
+
+        final NormalEquations normalEquations = new NormalEquations(nbGlobal, 3 * nbGroups);
+        normalEquations.addRows(jacobian, residuals);
+        final RealVector delta = normalEquations.solve();
+
+        // reference: dense least squares solution of J δ = -r
+        final RealMatrix dense = MatrixUtils.createRealMatrix(jacobian.getData());
+        final RealVector reference = new QRDecomposition(dense).getSolver().solve(residuals.mapMultiply(-1.0));
+        Assert.assertEquals(0.0, delta.subtract(reference).getNorm(), 1.0e-10 * reference.getNorm());
+
+        // without block structure, all parameters are considered global
+        final NormalEquations denseEquations = new NormalEquations(dense.getColumnDimension(), 0);
+        denseEquations.addRows(dense, residuals);
+        Assert.assertEquals(0.0, denseEquations.solve().subtract(reference).getNorm(), 1.0e-10 * reference.getNorm());
+
+    }
+
+    @Test
+    public void testStructureFromDenseJacobian() {
+        final int nbGlobal = 6;
+        final int nbGroups = 5;
+        final RandomGenerator random = new Well19937a(0x47c1d9e02b8a3f65l);
+        final BlockSparseJacobian jacobian = createJacobian(random, nbGlobal, nbGroups);
+        final RealVector residuals = createResiduals(random, jacobian.getRowDimension());
+
+        final NormalEquations sparse = new NormalEquations(nbGlobal, 3 * nbGroups);
+        sparse.addRows(jacobian, residuals);
+        final NormalEquations dense = new NormalEquations(nbGlobal, 3 * nbGroups);
+        dense.addRows(MatrixUtils.createRealMatrix(jacobian.getData()), residuals);
+        Assert.assertEquals(0.0, sparse.solve().subtract(dense.solve()).getNorm(), 1.0e-12);
+
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws OrekitException {
+        final int nbGlobal = 6;
+        final int nbGroups = 6;
+        final RandomGenerator random = new Well19937a(0x8d2b6f41a7c3e059l);
+        final BlockSparseJacobian jacobian = createJacobian(random, nbGlobal, nbGroups);
+        final RealVector residuals = createResiduals(random, jacobian.getRowDimension());
+
+        // each measurement has two rows
+        final List<ObservedMeasurement<?>> measurements = new ArrayList<>();
+        for (int i = 0; i < jacobian.getRowDimension(); i += 2) {
+            measurements.add(new PV(AbsoluteDate.J2000_EPOCH.shiftedBy(i), Vector3D.ZERO, Vector3D.ZERO,
+                                    1.0, 1.0, 1.0));
+        }
+
+        // add all measurements, then remove the first ones
+        final NormalEquations incremental = new NormalEquations(nbGlobal, 3 * nbGroups);
+        for (int k = 0; k < measurements.size(); ++k) {
+            incremental.add(measurements.get(k), residuals.getSubVector(2 * k, 2).toArray(), jacobian, 2 * k);
+        }
+        Assert.assertEquals(measurements.size(), incremental.getMeasurementsNumber());
+        final Set<ObservedMeasurement<?>> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(measurements.subList(5, measurements.size()));
+        Assert.assertEquals(5, incremental.retainAll(kept));
+        Assert.assertFalse(incremental.contains(measurements.get(0)));
+        Assert.assertTrue(incremental.contains(measurements.get(5)));
+
+        // build directly from the kept measurements
+        final NormalEquations direct = new NormalEquations(nbGlobal, 3 * nbGroups);
+        for (int k = 5; k < measurements.size(); ++k) {
+            direct.add(measurements.get(k), residuals.getSubVector(2 * k, 2).toArray(), jacobian, 2 * k);
+        }
+        final RealVector delta = direct.solve();
+        Assert.assertEquals(0.0, incremental.solve().subtract(delta).getNorm(), 1.0e-10 * delta.getNorm());
+        Assert.assertEquals(direct.getRMS(), incremental.getRMS(), 1.0e-15);
+
+        // after shifting to the linear solution, there is nothing left to correct
+        final double rms = incremental.getRMS();
+        incremental.shift(delta);
+        Assert.assertTrue(incremental.getRMS() < rms);
+        Assert.assertEquals(0.0, incremental.solve().getNorm(), 1.0e-10 * delta.getNorm());
+
+    }
+
+    private BlockSparseJacobian createJacobian(final RandomGenerator random,
+                                               final int nbGlobal, final int nbGroups) {
+        final int rowsPerGroup = 10;
+        final BlockSparseJacobian jacobian = new BlockSparseJacobian(rowsPerGroup * nbGroups, nbGlobal, 3 * nbGroups);
+        for (int g = 0; g < nbGroups; ++g) {
+            for (int r = 0; r < rowsPerGroup; ++r) {
+                final int i = g * rowsPerGroup + r;
+                for (int j = 0; j < nbGlobal; ++j) {
+                    jacobian.setEntry(i, j, 2 * random.nextDouble() - 1);
+                }
+                // each row involves two of the three local parameters of its group
+                final int skipped = r % 3;
+                for (int l = 0; l < 3; ++l) {
+                    if (l != skipped) {
+                        jacobian.setEntry(i, nbGlobal + 3 * g + l, 2 * random.nextDouble() - 1);
+                    }
+                }
+            }
+        }
+        return jacobian;
+    }
+
+    private RealVector createResiduals(final RandomGenerator random, final int n) {
+        final RealVector residuals = new ArrayRealVector(n);
+        for (int i = 0; i < n; ++i) {
+            residuals.setEntry(i, random.nextGaussian());
+        }
+        return residuals;
+    }
+
+}
@@ -37,6 +37,7 @@ import java.util.TreeSet;
 
 import org.hipparchus.exception.LocalizedCoreFormats;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
 import org.hipparchus.linear.RealMatrix;
 import org.hipparchus.optim.nonlinear.vector.leastsquares.GaussNewtonOptimizer;
 import org.hipparchus.optim.nonlinear.vector.leastsquares.GaussNewtonOptimizer.Decomposition;
@@ -69,6 +70,8 @@ import org.orekit.estimation.measurements.modifiers.AngularRadioRefractionModifi
 import org.orekit.estimation.measurements.modifiers.Bias;
 import org.orekit.estimation.measurements.modifiers.OutlierFilter;
 import org.orekit.estimation.measurements.modifiers.RangeTroposphericDelayModifier;
+import org.orekit.estimation.sequential.ConstantProcessNoise;
+import org.orekit.estimation.sequential.KalmanEstimator;
 import org.orekit.forces.PolynomialParametricAcceleration;
 import org.orekit.forces.drag.DragForce;
 import org.orekit.forces.drag.DragSensitive;
@@ -182,6 +185,60 @@ public class OrbitDeterminationTest {
 
     }
 
+    @Test
+    // Sequential orbit determination for Lageos2, benchmarked against batch least squares
+    public void testLageos2Kalman()
+        throws URISyntaxException, IllegalArgumentException, IOException,
+               OrekitException, ParseException {
+
+        // input in tutorial resources directory/output
+        final String inputPath = OrbitDeterminationTest.class.getClassLoader().getResource("orbit-determination/Lageos2/od_test_Lageos2.in").toURI().getPath();
+        final File input  = new File(inputPath);
+
+        // configure Orekit data acces
+        Utils.setDataRoot("orbit-determination/Lageos2:potential/icgem-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new ICGEMFormatReader("eigen-6s-truncated", true));
+
+        // batch least squares reference
+        final long batchStart = System.nanoTime();
+        final ResultOD batch = run(input, false);
+        final double batchTime = 1.0e-9 * (System.nanoTime() - batchStart);
+
+        // sequential estimation on the same data
+        final long kalmanStart = System.nanoTime();
+        final KalmanEstimator kalman = runKalman(input);
+        final double kalmanTime = 1.0e-9 * (System.nanoTime() - kalmanStart);
+        final PVCoordinates kalmanPV = kalman.getEstimatedPropagator().
+                                       propagate(batch.estimatedPV.getDate()).
+                                       getPVCoordinates();
+        final boolean print = false;
+        if (print) {
+            System.out.format(Locale.US, "batch: %8.3fs, Kalman: %8.3fs (%d measurements)%n",
+                              batchTime, kalmanTime, kalman.getProcessedMeasurementsCount());
+        }
+
+        // the filtered solution is consistent with the batch one
+        Assert.assertEquals(258, kalman.getProcessedMeasurementsCount());
+        Assert.assertEquals(0.0, Vector3D.distance(batch.getEstimatedPV().getPosition(), kalmanPV.getPosition()), 2.0);
+        Assert.assertEquals(0.0, Vector3D.distance(batch.getEstimatedPV().getVelocity(), kalmanPV.getVelocity()), 1.0e-3);
+        final List<DelegatingDriver> batchParameters = new ArrayList<DelegatingDriver>();
+        batchParameters.addAll(batch.measurementsParameters.getDrivers());
+        sortParametersChanges(batchParameters);
+        final List<DelegatingDriver> kalmanParameters = new ArrayList<DelegatingDriver>();
+        kalmanParameters.addAll(kalman.getMeasurementsParametersDrivers().getDrivers());
+        sortParametersChanges(kalmanParameters);
+        Assert.assertEquals(batchParameters.size(), kalmanParameters.size());
+        final RealMatrix covariance = kalman.getPhysicalEstimatedCovarianceMatrix();
+        for (int i = 0; i < batchParameters.size(); ++i) {
+            Assert.assertEquals(batchParameters.get(i).getName(), kalmanParameters.get(i).getName());
+            Assert.assertEquals(batchParameters.get(i).getValue(), kalmanParameters.get(i).getValue(), 0.5);
+        }
+        for (int i = 0; i < covariance.getRowDimension(); ++i) {
+            Assert.assertTrue(FastMath.sqrt(covariance.getEntry(i, i)) < 10.0);
+        }
+
+    }
+
     @Test
     // Orbit determination for range, azimuth elevation measurements
     public void testW3B()
@@ -539,6 +596,83 @@ public class OrbitDeterminationTest {
                             estimator.getPhysicalCovariances(1.0e-10));
     }
 
+    private KalmanEstimator runKalman(final File input)
+        throws IOException, IllegalArgumentException, OrekitException, ParseException {
+
+        // read input parameters
+        KeyValueFileParser<ParameterKey> parser = new KeyValueFileParser<ParameterKey>(ParameterKey.class);
+        parser.parseInput(input.getAbsolutePath(), new FileInputStream(input));
+
+        // gravity field
+        GravityFieldFactory.addPotentialCoefficientsReader(new ICGEMFormatReader("eigen-5c.gfc", true));
+        final NormalizedSphericalHarmonicsProvider gravityField = createGravityField(parser);
+
+        // Orbit initial guess
+        final Orbit initialGuess = createOrbit(parser, gravityField.getMu());
+
+        // IERS conventions
+        final IERSConventions conventions;
+        if (!parser.containsKey(ParameterKey.IERS_CONVENTIONS)) {
+            conventions = IERSConventions.IERS_2010;
+        } else {
+            conventions = IERSConventions.valueOf("IERS_" + parser.getInt(ParameterKey.IERS_CONVENTIONS));
+        }
+
+        // central body
+        final OneAxisEllipsoid body = createBody(parser);
+
+        // propagator builder
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        createPropagatorBuilder(parser, conventions, gravityField, body, initialGuess);
+
+        // measurements
+        final List<ObservedMeasurement<?>> measurements = new ArrayList<ObservedMeasurement<?>>();
+        for (final String fileName : parser.getStringsList(ParameterKey.MEASUREMENTS_FILES, ',')) {
+            measurements.addAll(readMeasurements(new File(input.getParentFile(), fileName),
+                                                 createStationsData(parser, body),
+                                                 createPVData(parser),
+                                                 createSatRangeBias(parser),
+                                                 createWeights(parser),
+                                                 createRangeOutliersManager(parser),
+                                                 createRangeRateOutliersManager(parser),
+                                                 createAzElOutliersManager(parser),
+                                                 createPVOutliersManager(parser)));
+        }
+
+        // estimated measurements parameters
+        final ParameterDriversList measurementsParameters = new ParameterDriversList();
+        for (final ObservedMeasurement<?> measurement : measurements) {
+            for (final ParameterDriver driver : measurement.getParametersDrivers()) {
+                if (driver.isSelected()) {
+                    measurementsParameters.add(driver);
+                }
+            }
+        }
+        measurementsParameters.sort();
+
+        // loose initial covariance
+        final int nbOrbital     = 6;
+        int nbPropagation = 0;
+        for (final ParameterDriver driver : propagatorBuilder.getPropagationParametersDrivers().getDrivers()) {
+            if (driver.isSelected()) {
+                ++nbPropagation;
+            }
+        }
+        final int n = nbOrbital + nbPropagation + measurementsParameters.getNbParams();
+        final double[] variances = new double[n];
+        for (int i = 0; i < n; ++i) {
+            variances[i] = (i < 3) ? 1.0e4 : ((i < 6) ? 1.0e-2 : 1.0e2);
+        }
+        final RealMatrix initialCovariance = MatrixUtils.createRealDiagonalMatrix(variances);
+
+        final KalmanEstimator kalman = new KalmanEstimator(propagatorBuilder, measurementsParameters,
+                                                           new ConstantProcessNoise(initialCovariance,
+                                                                                    MatrixUtils.createRealMatrix(n, n)));
+        kalman.processMeasurements(measurements);
+        return kalman;
+
+    }
+
     /** Sort parameters changes.
      * @param parameters parameters list
      */
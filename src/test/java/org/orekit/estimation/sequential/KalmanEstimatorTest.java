@@ -0,0 +1,250 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.estimation.sequential;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.linear.MatrixUtils;
+import org.hipparchus.linear.RealMatrix;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitException;
+import org.orekit.estimation.Context;
+import org.orekit.estimation.EstimationTestUtils;
+import org.orekit.estimation.Force;
+import org.orekit.estimation.measurements.EstimatedMeasurement;
+import org.orekit.estimation.measurements.GroundStation;
+import org.orekit.estimation.measurements.ObservedMeasurement;
+import org.orekit.estimation.measurements.PVMeasurementCreator;
+import org.orekit.estimation.measurements.RangeMeasurementCreator;
+import org.orekit.forces.radiation.RadiationSensitive;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.conversion.NumericalPropagatorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.ParameterDriver;
+import org.orekit.utils.ParameterDriversList;
+
+public class KalmanEstimatorTest {
+
+    @Test
+    public void testKeplerPV() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+
+        // create perfect PV measurements
+        final NumericalPropagatorBuilder referenceBuilder =
+                        context.createBuilder(OrbitType.CARTESIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           referenceBuilder);
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new PVMeasurementCreator(),
+                                                               0.0, 1.0, 300.0);
+
+        // estimation starts from a wrong orbit
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.CARTESIAN, PositionAngle.TRUE, false,
+                                              1.0e-6, 60.0, 1.0);
+        final KalmanEstimator kalman = new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                                           new ConstantProcessNoise(initialCovariance(1.0e3, 1.0e-1),
+                                                                                    MatrixUtils.createRealMatrix(6, 6)));
+        Assert.assertEquals(0, kalman.getProcessedMeasurementsCount());
+        Assert.assertEquals(0.0, kalman.getCurrentDate().durationFrom(context.initialOrbit.getDate()), 1.0e-15);
+        Assert.assertEquals(1000.0, distance(context.initialOrbit, kalman.getEstimatedOrbit()), 1.0e-6);
+
+        final NumericalPropagator estimated = kalman.processMeasurements(measurements);
+        Assert.assertEquals(measurements.size(), kalman.getProcessedMeasurementsCount());
+        final AbsoluteDate last = measurements.get(measurements.size() - 1).getDate();
+        Assert.assertEquals(0.0, kalman.getCurrentDate().durationFrom(last), 1.0e-15);
+        Assert.assertEquals(0.0, estimated.getInitialState().getDate().durationFrom(last), 1.0e-15);
+
+        final Orbit reference = EstimationTestUtils.createPropagator(context.initialOrbit, referenceBuilder).
+                                propagate(last).getOrbit();
+        Assert.assertEquals(0.0, distance(reference, kalman.getEstimatedOrbit()), 1.0e-4);
+
+        // covariance has shrunk from the initial values
+        final RealMatrix covariance = kalman.getPhysicalEstimatedCovarianceMatrix();
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertTrue(FastMath.sqrt(covariance.getEntry(i, i)) < 0.4);
+            Assert.assertTrue(FastMath.sqrt(covariance.getEntry(i + 3, i + 3)) < 2.0e-4);
+        }
+
+    }
+
+    @Test
+    public void testKeplerRange() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+
+        // create perfect range measurements
+        final NumericalPropagatorBuilder referenceBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           referenceBuilder);
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 4.0, 60.0);
+
+        // estimation starts from a wrong orbit
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, false,
+                                              1.0e-6, 60.0, 1.0);
+        final RealMatrix initialP = MatrixUtils.createRealDiagonalMatrix(new double[] {
+            1.0e6, 1.0e-6, 1.0e-6, 1.0e-6, 1.0e-6, 1.0e-6
+        });
+        final KalmanEstimator kalman = new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                                           new ConstantProcessNoise(initialP,
+                                                                                    MatrixUtils.createRealMatrix(6, 6)));
+        final int[] count = new int[1];
+        kalman.setObserver(new KalmanObserver() {
+            /** {@inheritDoc} */
+            @Override
+            public void evaluationPerformed(int processedMeasurements, Orbit estimatedOrbit,
+                                            EstimatedMeasurement<?> predictedMeasurement,
+                                            ParameterDriversList estimatedOrbitalParameters,
+                                            ParameterDriversList estimatedPropagatorParameters,
+                                            ParameterDriversList estimatedMeasurementsParameters,
+                                            RealMatrix physicalCovariance) {
+                Assert.assertEquals(++count[0], processedMeasurements);
+                Assert.assertEquals(6, estimatedOrbitalParameters.getNbParams());
+                Assert.assertEquals(0, estimatedPropagatorParameters.getNbParams());
+                Assert.assertEquals(0, estimatedMeasurementsParameters.getNbParams());
+                Assert.assertEquals(0.0,
+                                    estimatedOrbit.getDate().durationFrom(predictedMeasurement.getDate()),
+                                    1.0e-15);
+            }
+        });
+
+        kalman.processMeasurements(measurements);
+        Assert.assertEquals(measurements.size(), count[0]);
+
+        final AbsoluteDate last = kalman.getCurrentDate();
+        final Orbit reference = EstimationTestUtils.createPropagator(context.initialOrbit, referenceBuilder).
+                                propagate(last).getOrbit();
+        Assert.assertEquals(0.0, distance(reference, kalman.getEstimatedOrbit()), 0.15);
+
+    }
+
+    @Test
+    public void testKeplerRangeWithParameters() throws OrekitException {
+
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+
+        // create perfect range measurements, with radiation pressure
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.KEPLERIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0, Force.SOLAR_RADIATION_PRESSURE);
+        final Propagator propagator = EstimationTestUtils.createPropagator(context.initialOrbit,
+                                                                           propagatorBuilder);
+        final List<ObservedMeasurement<?>> measurements =
+                        EstimationTestUtils.createMeasurements(propagator,
+                                                               new RangeMeasurementCreator(context),
+                                                               1.0, 4.0, 60.0);
+        final AbsoluteDate last = measurements.get(measurements.size() - 1).getDate();
+        final Orbit reference = EstimationTestUtils.createPropagator(context.initialOrbit, propagatorBuilder).
+                                propagate(last).getOrbit();
+
+        // estimate reflection coefficient, starting from a wrong value
+        ParameterDriver crDriver = null;
+        for (final ParameterDriver driver : propagatorBuilder.getPropagationParametersDrivers().getDrivers()) {
+            if (driver.getName().equals(RadiationSensitive.REFLECTION_COEFFICIENT)) {
+                crDriver = driver;
+            }
+        }
+        final double cr = crDriver.getValue();
+        crDriver.setSelected(true);
+        crDriver.setValue(1.5 * cr);
+
+        // estimate station offsets, starting from wrong values
+        final GroundStation station = context.stations.get(0);
+        final ParameterDriversList measurementsParameters = new ParameterDriversList();
+        for (final ParameterDriver driver : Arrays.asList(station.getEastOffsetDriver(),
+                                                          station.getNorthOffsetDriver(),
+                                                          station.getZenithOffsetDriver())) {
+            driver.setSelected(true);
+            driver.setValue(2.0);
+            measurementsParameters.add(driver);
+        }
+
+        final RealMatrix initialP = MatrixUtils.createRealDiagonalMatrix(new double[] {
+            1.0e-2, 1.0e-12, 1.0e-12, 1.0e-12, 1.0e-12, 1.0e-12,
+            1.0,
+            1.0e1, 1.0e1, 1.0e1
+        });
+        final KalmanEstimator kalman = new KalmanEstimator(propagatorBuilder, measurementsParameters,
+                                                           new ConstantProcessNoise(initialP,
+                                                                                    MatrixUtils.createRealMatrix(10, 10)));
+        Assert.assertEquals(1, kalman.getPropagatorParametersDrivers().getNbParams());
+        Assert.assertEquals(3, kalman.getMeasurementsParametersDrivers().getNbParams());
+        kalman.processMeasurements(measurements);
+
+        Assert.assertEquals(0.0, distance(reference, kalman.getEstimatedOrbit()), 0.15);
+        final RealMatrix covariance = kalman.getPhysicalEstimatedCovarianceMatrix();
+        Assert.assertEquals(cr, crDriver.getValue(), 0.05);
+        Assert.assertEquals(0.0, crDriver.getValue() - cr, 0.5 * FastMath.sqrt(covariance.getEntry(6, 6)));
+        for (int i = 0; i < 3; ++i) {
+            final ParameterDriver driver = measurementsParameters.getDrivers().get(i);
+            Assert.assertEquals(0.0, driver.getValue(), 0.05);
+            Assert.assertTrue(FastMath.sqrt(covariance.getEntry(7 + i, 7 + i)) < 0.2);
+        }
+
+    }
+
+    @Test
+    public void testWrongCovarianceDimension() throws OrekitException {
+        Context context = EstimationTestUtils.eccentricContext("regular-data:potential:tides");
+        final NumericalPropagatorBuilder propagatorBuilder =
+                        context.createBuilder(OrbitType.CARTESIAN, PositionAngle.TRUE, true,
+                                              1.0e-6, 60.0, 1.0);
+        try {
+            new KalmanEstimator(propagatorBuilder, new ParameterDriversList(),
+                                new ConstantProcessNoise(MatrixUtils.createRealIdentityMatrix(7),
+                                                         MatrixUtils.createRealIdentityMatrix(7)));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(LocalizedCoreFormats.DIMENSIONS_MISMATCH_2x2, oe.getSpecifier());
+            Assert.assertEquals(7, ((Integer) oe.getParts()[0]).intValue());
+            Assert.assertEquals(6, ((Integer) oe.getParts()[2]).intValue());
+        }
+    }
+
+    private RealMatrix initialCovariance(final double sigmaP, final double sigmaV) {
+        return MatrixUtils.createRealDiagonalMatrix(new double[] {
+            sigmaP * sigmaP, sigmaP * sigmaP, sigmaP * sigmaP,
+            sigmaV * sigmaV, sigmaV * sigmaV, sigmaV * sigmaV
+        });
+    }
+
+    private double distance(final Orbit o1, final Orbit o2) throws OrekitException {
+        final PVCoordinates pv1 = o1.getPVCoordinates();
+        final PVCoordinates pv2 = o2.getPVCoordinates(o1.getFrame());
+        return Vector3D.distance(pv1.getPosition(), pv2.getPosition());
+    }
+
+}
@@ -21,9 +21,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.hipparchus.util.Decimal64;
 import org.hipparchus.util.Decimal64Field;
+import org.hipparchus.util.FastMath;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -125,6 +132,20 @@ public class EOPHistoryTest {
         }
     }
 
+    @Test
+    public void testEntriesBuiltOnce() throws OrekitException {
+        EOPHistory history = new EOPHistory(IERSConventions.IERS_2010,
+                                            FramesFactory.getEOPHistory(IERSConventions.IERS_2010, true).getEntries(),
+                                            true);
+        FieldAbsoluteDate<Decimal64> date = new FieldAbsoluteDate<>(Decimal64Field.getInstance(),
+                                                                    2005, 1, 1, TimeScalesFactory.getUTC());
+        Assert.assertEquals(-0.5036372, history.getUT1MinusUTC(date).getReal(), 1.0e-7);
+        List<EOPEntry> entries = history.getEntries();
+        history.getUT1MinusUTC(date.shiftedBy(Constants.JULIAN_DAY));
+        history.getPoleCorrection(date);
+        Assert.assertSame(entries, history.getEntries());
+    }
+
     @Test
     public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
         EOPHistory history = FramesFactory.getEOPHistory(IERSConventions.IERS_2010, true);
@@ -141,10 +162,12 @@ public class EOPHistoryTest {
         EOPHistory deserialized  = (EOPHistory) ois.readObject();
         Assert.assertEquals(history.getStartDate(), deserialized.getStartDate());
         Assert.assertEquals(history.getEndDate(), deserialized.getEndDate());
-        Assert.assertEquals(history.getEntries().size(), deserialized.getEntries().size());
-        for (int i = 0; i < history.getEntries().size(); ++i) {
-            EOPEntry e1 = history.getEntries().get(i);
-            EOPEntry e2 = deserialized.getEntries().get(i);
+        List<EOPEntry> entries1 = history.getEntries();
+        List<EOPEntry> entries2 = deserialized.getEntries();
+        Assert.assertEquals(entries1.size(), entries2.size());
+        for (int i = 0; i < entries1.size(); ++i) {
+            EOPEntry e1 = entries1.get(i);
+            EOPEntry e2 = entries2.get(i);
             Assert.assertEquals(e1.getMjd(),         e2.getMjd());
             Assert.assertEquals(e1.getDate(),        e2.getDate());
             Assert.assertEquals(e1.getUT1MinusUTC(), e2.getUT1MinusUTC(), 1.0e-10);
@@ -182,6 +205,74 @@ public class EOPHistoryTest {
 
     }
 
+    @Test
+    public void testConcurrentTidalCorrections() throws OrekitException, InterruptedException, ExecutionException {
+
+        final EOPHistory reference = FramesFactory.getEOPHistory(IERSConventions.IERS_2010, false);
+        final EOPHistory shared    = new EOPHistory(IERSConventions.IERS_2010, reference.getEntries(), false);
+        final AbsoluteDate date0   = new AbsoluteDate(2004, 8, 16, 20, 0, 0, TimeScalesFactory.getUTC());
+
+        // many threads querying nearby but different dates in the same fresh cache
+        final int nbThreads = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < nbThreads; ++i) {
+            final int id = i;
+            results.add(executor.submit(() -> {
+                for (double dt = id * 97.0; dt < 20 * Constants.JULIAN_DAY; dt += 1234.5) {
+                    final AbsoluteDate date = date0.shiftedBy(dt);
+                    if (FastMath.abs(shared.getUT1MinusUTC(date) - reference.getUT1MinusUTC(date)) > 1.0e-15 ||
+                        FastMath.abs(shared.getLOD(date)         - reference.getLOD(date))         > 1.0e-15) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        executor.shutdown();
+        for (final Future<Boolean> result : results) {
+            Assert.assertTrue(result.get());
+        }
+
+    }
+
+    @Test
+    public void testDoubleAndFieldConsistency() throws OrekitException {
+        final EOPHistory daily = FramesFactory.getEOPHistory(IERSConventions.IERS_2010, true);
+        checkDoubleAndFieldConsistency(daily);
+
+        // remove some entries, so direct day index computation cannot be used
+        final List<EOPEntry> sparse = new ArrayList<EOPEntry>();
+        for (int i = 0; i < daily.getEntries().size(); ++i) {
+            if (i % 3 != 1) {
+                sparse.add(daily.getEntries().get(i));
+            }
+        }
+        checkDoubleAndFieldConsistency(new EOPHistory(IERSConventions.IERS_2010, sparse, true));
+
+        // tidal corrections
+        checkDoubleAndFieldConsistency(FramesFactory.getEOPHistory(IERSConventions.IERS_2010, false));
+
+    }
+
+    private void checkDoubleAndFieldConsistency(final EOPHistory history) {
+        for (AbsoluteDate date = history.getStartDate();
+             date.compareTo(history.getEndDate()) <= 0;
+             date = date.shiftedBy(12345.0)) {
+            final FieldAbsoluteDate<Decimal64> fDate = new FieldAbsoluteDate<>(Decimal64Field.getInstance(), date);
+            Assert.assertEquals(history.getUT1MinusUTC(fDate).getReal(), history.getUT1MinusUTC(date), 1.0e-14);
+            Assert.assertEquals(history.getLOD(fDate).getReal(),         history.getLOD(date),         1.0e-15);
+            Assert.assertEquals(history.getPoleCorrection(fDate).getXp().getReal(),
+                                history.getPoleCorrection(date).getXp(), 1.0e-20);
+            Assert.assertEquals(history.getPoleCorrection(fDate).getYp().getReal(),
+                                history.getPoleCorrection(date).getYp(), 1.0e-20);
+            Assert.assertEquals(history.getEquinoxNutationCorrection(fDate)[0].getReal(),
+                                history.getEquinoxNutationCorrection(date)[0], 1.0e-20);
+            Assert.assertEquals(history.getNonRotatinOriginNutationCorrection(fDate)[1].getReal(),
+                                history.getNonRotatinOriginNutationCorrection(date)[1], 1.0e-20);
+        }
+    }
+
     @Before
     public void setUp() {
         Utils.setDataRoot("regular-data");
@@ -109,6 +109,63 @@ public class FrameTest {
 
     }
 
+    @Test
+    public void testCachedPaths() throws OrekitException {
+
+        Random random = new Random(0x3d7c4a9b1f2e6085l);
+        final AbsoluteDate date = new AbsoluteDate();
+
+        // build a tree with more leaves than the number of cached paths in a frame
+        Frame eme2000 = FramesFactory.getEME2000();
+        Frame branch  = new Frame(new Frame(eme2000, randomTransform(random), "B1"), randomTransform(random), "B2");
+        Frame[] leaves = new Frame[20];
+        for (int i = 0; i < leaves.length; ++i) {
+            leaves[i] = new Frame(i % 2 == 0 ? branch : eme2000, randomTransform(random), "L" + i);
+        }
+
+        // repeated calls in various orders must always select the right path
+        for (int k = 0; k < 5; ++k) {
+            for (int i = 0; i < leaves.length; ++i) {
+                final Frame from = leaves[(7 * i + k) % leaves.length];
+                final Frame to   = leaves[(3 * i + 2 * k + 1) % leaves.length];
+                final Transform direct  = from.getTransformTo(to, date);
+                final Transform viaRoot = new Transform(date,
+                                                        from.getTransformTo(eme2000, date),
+                                                        eme2000.getTransformTo(to, date));
+                checkNoTransform(new Transform(date, direct, viaRoot.getInverse()), random);
+                checkNoTransform(new Transform(date, branch.getTransformTo(to, date),
+                                               to.getTransformTo(branch, date)),
+                                 random);
+            }
+        }
+
+    }
+
+    @Test
+    public void testTransformsBatch() throws OrekitException {
+
+        Random random = new Random(0x5e2f1d8c7a4b3960l);
+        final Frame eme2000 = FramesFactory.getEME2000();
+        final Frame itrf    = FramesFactory.getITRF(IERSConventions.IERS_2010, false);
+        final Frame leaf    = new Frame(itrf, randomTransform(random), "leaf");
+        final AbsoluteDate start = new AbsoluteDate(2003, 10, 14, 2, 0, 0.0, TimeScalesFactory.getUTC());
+        final double step = 37.5;
+        final int    count = 200;
+
+        for (final Frame[] pair : new Frame[][] {
+            { eme2000, leaf }, { leaf, eme2000 }, { itrf, leaf }, { leaf, itrf }, { leaf, leaf }
+        }) {
+            final Transform[] batch = pair[0].getTransformsTo(pair[1], start, step, count);
+            Assert.assertEquals(count, batch.length);
+            for (int i = 0; i < count; ++i) {
+                final AbsoluteDate date = start.shiftedBy(i * step);
+                final Transform single = pair[0].getTransformTo(pair[1], date);
+                checkNoTransform(new Transform(date, batch[i], single.getInverse()), random);
+            }
+        }
+
+    }
+
     @Test
     public void testDepthAndAncestor() throws OrekitException{
         Random random = new Random(0x01f8d3b944123044l);
@@ -0,0 +1,203 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.frames;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.Decimal64;
+import org.hipparchus.util.Decimal64Field;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.AngularDerivativesFilter;
+import org.orekit.utils.IERSConventions;
+
+public class MappedTransformProviderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Frame gcrf;
+    private Frame itrf;
+    private AbsoluteDate t0;
+
+    @Test
+    public void testAccuracy1Minute() throws OrekitException, IOException {
+        doTestAccuracy(60.0, AngularDerivativesFilter.USE_R, 8, 3.0e-13, 6.0e-13);
+    }
+
+    @Test
+    public void testAccuracy10Minutes() throws OrekitException, IOException {
+        doTestAccuracy(600.0, AngularDerivativesFilter.USE_R, 8, 1.0e-12, 6.0e-13);
+    }
+
+    @Test
+    public void testAccuracy1Hour() throws OrekitException, IOException {
+        doTestAccuracy(3600.0, AngularDerivativesFilter.USE_R, 8, 1.5e-11, 6.0e-13);
+    }
+
+    @Test
+    public void testAccuracy6Hours() throws OrekitException, IOException {
+        doTestAccuracy(21600.0, AngularDerivativesFilter.USE_RR, 6, 5.0e-9, 8.0e-13);
+    }
+
+    private void doTestAccuracy(final double step, final AngularDerivativesFilter filter, final int points,
+                                final double rotationTolerance, final double rateTolerance)
+        throws OrekitException, IOException {
+
+        final File file = tempFolder.newFile("gcrf-itrf.bin");
+        MappedTransformProvider.write(file, gcrf, itrf, t0, t0.shiftedBy(3 * 86400.0), step);
+        final MappedTransformProvider provider = new MappedTransformProvider(file, filter, points);
+        Assert.assertEquals(0.0, provider.getStartDate().durationFrom(t0), 1.0e-15);
+        Assert.assertEquals(step, provider.getStep(), 1.0e-15);
+        Assert.assertTrue(provider.getEndDate().durationFrom(t0) >= 3 * 86400.0);
+
+        final Frame mapped = new Frame(gcrf, provider, "mapped ITRF");
+        double maxRotationError = 0;
+        double maxRateError     = 0;
+        // stay away from table ends, where the interpolation sample is unbalanced
+        final double margin = (points / 2) * step;
+        for (double dt = margin; dt <= 3 * 86400.0 - margin; dt += 317.0) {
+            final AbsoluteDate date  = t0.shiftedBy(dt);
+            final Transform    ref   = gcrf.getTransformTo(itrf, date);
+            final Transform    table = gcrf.getTransformTo(mapped, date);
+            maxRotationError = FastMath.max(maxRotationError,
+                                            Rotation.distance(ref.getRotation(), table.getRotation()));
+            maxRateError     = FastMath.max(maxRateError,
+                                            Vector3D.distance(ref.getRotationRate(), table.getRotationRate()));
+        }
+        Assert.assertEquals(0.0, maxRotationError, rotationTolerance);
+        Assert.assertEquals(0.0, maxRateError,     rateTolerance);
+
+    }
+
+    @Test
+    public void testField() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("gcrf-itrf.bin");
+        MappedTransformProvider.write(file, gcrf, itrf, t0, t0.shiftedBy(86400.0), 3600.0);
+        final MappedTransformProvider provider = new MappedTransformProvider(file);
+        for (double dt = 0; dt <= 86400.0; dt += 1234.5) {
+            final AbsoluteDate date = t0.shiftedBy(dt);
+            final Transform                 t  = provider.getTransform(date);
+            final FieldTransform<Decimal64> ft =
+                    provider.getTransform(new FieldAbsoluteDate<>(Decimal64Field.getInstance(), date));
+            Assert.assertEquals(0.0, Rotation.distance(t.getRotation(), ft.getRotation().toRotation()), 1.0e-15);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(t.getRotationRate(), ft.getRotationRate().toVector3D()),
+                                1.0e-20);
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("gcrf-itrf.bin");
+        MappedTransformProvider.write(file, gcrf, itrf, t0, t0.shiftedBy(86400.0), 3600.0);
+        final MappedTransformProvider provider = new MappedTransformProvider(file);
+        provider.getTransform(provider.getStartDate());
+        provider.getTransform(provider.getEndDate());
+        for (final AbsoluteDate date : new AbsoluteDate[] {
+            provider.getStartDate().shiftedBy(-0.001), provider.getEndDate().shiftedBy(0.001)
+        }) {
+            try {
+                provider.getTransform(date);
+                Assert.fail("an exception should have been thrown");
+            } catch (OrekitException oe) {
+                Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, oe.getSpecifier());
+            }
+        }
+    }
+
+    @Test
+    public void testNotATable() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("not-a-table.bin");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < 1000; ++i) {
+                out.write(i);
+            }
+        }
+        try {
+            new MappedTransformProvider(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_A_SUPPORTED_TRANSFORM_TABLE_FILE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testTooFewPoints() throws OrekitException, IOException {
+        final File file = tempFolder.newFile("gcrf-itrf.bin");
+        MappedTransformProvider.write(file, gcrf, itrf, t0, t0.shiftedBy(7200.0), 3600.0);
+        try {
+            new MappedTransformProvider(file);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NOT_ENOUGH_DATA_FOR_INTERPOLATION, oe.getSpecifier());
+            Assert.assertEquals(3, ((Integer) oe.getParts()[0]).intValue());
+        }
+    }
+
+    @Test
+    public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
+
+        final File file = tempFolder.newFile("gcrf-itrf.bin");
+        MappedTransformProvider.write(file, gcrf, itrf, t0, t0.shiftedBy(86400.0), 3600.0);
+        final MappedTransformProvider provider = new MappedTransformProvider(file, AngularDerivativesFilter.USE_RR, 6);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(provider);
+        Assert.assertTrue(bos.size() < 500);
+
+        ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+        ObjectInputStream     ois = new ObjectInputStream(bis);
+        MappedTransformProvider deserialized  = (MappedTransformProvider) ois.readObject();
+        for (double dt = 0; dt <= 86400.0; dt += 1234.5) {
+            final AbsoluteDate date = t0.shiftedBy(dt);
+            Assert.assertEquals(0.0,
+                                Rotation.distance(provider.getTransform(date).getRotation(),
+                                                  deserialized.getTransform(date).getRotation()),
+                                1.0e-20);
+        }
+
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        gcrf = FramesFactory.getGCRF();
+        itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, false);
+        t0   = new AbsoluteDate(2004, 8, 16, 20, 0, 0.0, TimeScalesFactory.getUTC());
+    }
+
+}
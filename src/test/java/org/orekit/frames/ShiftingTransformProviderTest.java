@@ -138,6 +138,41 @@ public class ShiftingTransformProviderTest {
 
     }
 
+    @Test
+    public void testBatch() throws OrekitException {
+
+        AbsoluteDate t0 = AbsoluteDate.GALILEO_EPOCH;
+        ShiftingTransformProvider singleProvider =
+                new ShiftingTransformProvider(new CirclingProvider(t0, 0.2),
+                                              CartesianDerivativesFilter.USE_PVA,
+                                              AngularDerivativesFilter.USE_RRA,
+                                              5, 0.8, 10, 60.0, 60.0);
+        ShiftingTransformProvider batchProvider =
+                new ShiftingTransformProvider(new CirclingProvider(t0, 0.2),
+                                              CartesianDerivativesFilter.USE_PVA,
+                                              AngularDerivativesFilter.USE_RRA,
+                                              5, 0.8, 10, 60.0, 60.0);
+
+        // dates spanning several grid intervals, including grid points themselves
+        final AbsoluteDate[] dates = new AbsoluteDate[401];
+        for (int i = 0; i < dates.length; ++i) {
+            dates[i] = t0.shiftedBy(0.01 * i);
+        }
+
+        final Transform[] batch = batchProvider.getTransforms(dates);
+        Assert.assertEquals(dates.length, batch.length);
+        for (int i = 0; i < dates.length; ++i) {
+            final Transform single = singleProvider.getTransform(dates[i]);
+            Assert.assertEquals(0.0, dates[i].durationFrom(batch[i].getDate()), 0.0);
+            Assert.assertEquals(0.0, Vector3D.distance(single.getTranslation(),      batch[i].getTranslation()),      0.0);
+            Assert.assertEquals(0.0, Vector3D.distance(single.getVelocity(),         batch[i].getVelocity()),         0.0);
+            Assert.assertEquals(0.0, Vector3D.distance(single.getAcceleration(),     batch[i].getAcceleration()),     0.0);
+            Assert.assertEquals(0.0, Rotation.distance(single.getRotation(),         batch[i].getRotation()),         0.0);
+            Assert.assertEquals(0.0, Vector3D.distance(single.getRotationRate(),     batch[i].getRotationRate()),     0.0);
+        }
+
+    }
+
     @Test(expected=OrekitException.class)
     public void testForwardException() throws OrekitException {
         ShiftingTransformProvider shiftingProvider =
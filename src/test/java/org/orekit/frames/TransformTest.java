@@ -758,6 +758,81 @@ public class TransformTest {
         }
     }
 
+    @Test
+    public void testPackedPositionsAndVectors() {
+        RandomGenerator random = new Well19937a(0x7d1f2e93c54a086bl);
+        for (int i = 0; i < 20; ++i) {
+            Transform transform = randomTransform(random);
+            final int offset = 2;
+            final int count  = 50;
+            final double[] in = new double[offset + 3 * count];
+            for (int j = 0; j < in.length; ++j) {
+                in[j] = (random.nextDouble() - 0.5) * 1.0e4;
+            }
+            final double[] positions = new double[3 * count + 1];
+            transform.transformPositions(in, offset, positions, 1, count);
+            final double[] vectors = in.clone();
+            transform.transformVectors(vectors, offset, count);
+            for (int j = 0; j < count; ++j) {
+                final int k = offset + 3 * j;
+                final Vector3D v = new Vector3D(in[k], in[k + 1], in[k + 2]);
+                checkVector(transform.transformPosition(v),
+                            new Vector3D(positions[1 + 3 * j], positions[2 + 3 * j], positions[3 + 3 * j]),
+                            1.0e-15);
+                checkVector(transform.transformVector(v),
+                            new Vector3D(vectors[k], vectors[k + 1], vectors[k + 2]),
+                            1.0e-15);
+            }
+            Assert.assertEquals(in[0], vectors[0], 0.0);
+            Assert.assertEquals(in[1], vectors[1], 0.0);
+        }
+    }
+
+    @Test
+    public void testPackedPVCoordinates() {
+        RandomGenerator random = new Well19937a(0x1c9a6e3b4d27f580l);
+        for (final CartesianDerivativesFilter filter : CartesianDerivativesFilter.values()) {
+            final int stride = 3 * (filter.getMaxOrder() + 1);
+            for (int i = 0; i < 20; ++i) {
+                Transform transform = randomTransform(random);
+                final int count  = 30;
+                final double[] in = new double[stride * count];
+                for (int j = 0; j < in.length; ++j) {
+                    in[j] = (random.nextDouble() - 0.5) * 1.0e4;
+                }
+                final double[] out = in.clone();
+                transform.transformPVCoordinates(filter, out, 0, count);
+                for (int j = 0; j < count; ++j) {
+                    final int k = stride * j;
+                    final PVCoordinates pv =
+                            new PVCoordinates(new Vector3D(in[k], in[k + 1], in[k + 2]),
+                                              stride > 3 ? new Vector3D(in[k + 3], in[k + 4], in[k + 5]) : Vector3D.ZERO,
+                                              stride > 6 ? new Vector3D(in[k + 6], in[k + 7], in[k + 8]) : Vector3D.ZERO);
+                    final PVCoordinates ref = transform.transformPVCoordinates(pv);
+                    checkVector(ref.getPosition(), new Vector3D(out[k], out[k + 1], out[k + 2]), 1.0e-15);
+                    if (stride > 3) {
+                        checkVector(ref.getVelocity(), new Vector3D(out[k + 3], out[k + 4], out[k + 5]), 1.0e-15);
+                    }
+                    if (stride > 6) {
+                        checkVector(ref.getAcceleration(), new Vector3D(out[k + 6], out[k + 7], out[k + 8]), 1.0e-15);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPackedIdentity() {
+        final double[] in  = new double[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+        final double[] out = new double[10];
+        Transform.IDENTITY.transformPVCoordinates(CartesianDerivativesFilter.USE_PVA, in, 0, out, 1, 1);
+        for (int i = 0; i < in.length; ++i) {
+            Assert.assertEquals(in[i], out[i + 1], 0.0);
+        }
+        Transform.IDENTITY.transformPositions(in, 3, 2);
+        Assert.assertEquals(9.0, in[8], 0.0);
+    }
+
     @Test
     public void testLinear() {
 
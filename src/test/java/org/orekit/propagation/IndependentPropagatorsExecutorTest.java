@@ -0,0 +1,362 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation;
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.ODEIntegrator;
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.attitudes.AttitudeProvider;
+import org.orekit.attitudes.BodyCenterPointing;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.ForceModel;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.UnnormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.IndependentPropagatorsExecutor.Execution;
+import org.orekit.propagation.IndependentPropagatorsExecutor.Result;
+import org.orekit.propagation.analytical.EcksteinHechlerPropagator;
+import org.orekit.propagation.conversion.KeplerianPropagatorBuilder;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.propagation.sampling.OrekitStepHandler;
+import org.orekit.propagation.sampling.OrekitStepInterpolator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+
+public class IndependentPropagatorsExecutorTest {
+
+    @Test
+    public void testSameResultsAsSequential() throws OrekitException {
+
+        final AbsoluteDate target = orbit.getDate().shiftedBy(3600.0);
+        final int n = 12;
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(3, 4);
+        final List<Result> results =
+                executor.execute(n, i -> build(i), null, target).results().collect(Collectors.toList());
+
+        Assert.assertEquals(n, results.size());
+        final boolean[] seen = new boolean[n];
+        for (final Result result : results) {
+            Assert.assertTrue(result.isSuccessful());
+            Assert.assertNull(result.getException());
+            Assert.assertFalse(seen[result.getIndex()]);
+            seen[result.getIndex()] = true;
+            final SpacecraftState reference = build(result.getIndex()).propagate(target);
+            Assert.assertEquals(0.0, result.getState().getDate().durationFrom(target), 1.0e-15);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                  result.getState().getPVCoordinates().getPosition()),
+                                1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testAlreadyBuilt() throws OrekitException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(600.0);
+        final List<Propagator> propagators = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            propagators.add(buildEcksteinHechler(i));
+        }
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 1);
+        Assert.assertEquals(2, executor.getParallelism());
+        Assert.assertEquals(1, executor.getCapacity());
+        Assert.assertEquals(5, executor.execute(propagators, target).results().filter(r -> r.isSuccessful()).count());
+    }
+
+    @Test
+    public void testStepHandlers() throws OrekitException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(3600.0);
+        final int n = 6;
+        final AtomicInteger[] steps = new AtomicInteger[n];
+        final AbsoluteDate[]  last  = new AbsoluteDate[n];
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 2);
+        final long count = executor.execute(n, i -> buildNumerical(i), i -> {
+            steps[i] = new AtomicInteger(0);
+            return new OrekitStepHandler() {
+                public void handleStep(OrekitStepInterpolator interpolator, boolean isLast)
+                    throws OrekitException {
+                    steps[i].incrementAndGet();
+                    if (isLast) {
+                        last[i] = interpolator.getCurrentState().getDate();
+                    }
+                }
+            };
+        }, target).results().count();
+        Assert.assertEquals(n, count);
+        for (int i = 0; i < n; ++i) {
+            Assert.assertTrue(steps[i].get() > 10);
+            Assert.assertEquals(0.0, last[i].durationFrom(target), 1.0e-15);
+        }
+    }
+
+    @Test
+    public void testFailure() throws OrekitException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(600.0);
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 2);
+        final List<Result> results =
+                executor.execute(6, i -> i == 3 ? buildNotInitializedNumerical() : buildEcksteinHechler(i),
+                                 null, target).results().collect(Collectors.toList());
+        Assert.assertEquals(6, results.size());
+        for (final Result result : results) {
+            if (result.getIndex() == 3) {
+                Assert.assertFalse(result.isSuccessful());
+                Assert.assertNull(result.getState());
+                Assert.assertEquals(OrekitMessages.INITIAL_STATE_NOT_SPECIFIED_FOR_ORBIT_PROPAGATION,
+                                    result.getException().getSpecifier());
+            } else {
+                Assert.assertTrue(result.isSuccessful());
+            }
+        }
+    }
+
+    @Test
+    public void testBackPressure() throws OrekitException, InterruptedException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(600.0);
+        final AtomicInteger built = new AtomicInteger(0);
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 3);
+        final Execution execution = executor.execute(20, i -> {
+            built.incrementAndGet();
+            return buildEcksteinHechler(i);
+        }, null, target);
+
+        // without consumer, workers stop once the queue is full
+        Thread.sleep(500);
+        Assert.assertEquals(executor.getParallelism() + executor.getCapacity(), built.get());
+
+        Assert.assertEquals(20, execution.results().count());
+        Assert.assertEquals(20, built.get());
+        Assert.assertFalse(execution.isCancelled());
+
+    }
+
+    @Test
+    public void testCancel() throws OrekitException, InterruptedException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(10 * Constants.JULIAN_DAY);
+        final AtomicInteger built = new AtomicInteger(0);
+        final AtomicInteger steps = new AtomicInteger(0);
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 2);
+        final Execution execution = executor.execute(100, i -> {
+            built.incrementAndGet();
+            return buildNumerical(i);
+        }, i -> (interpolator, isLast) -> steps.incrementAndGet(), target);
+
+        final Iterator<Result> iterator = execution.results().iterator();
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertTrue(iterator.next().isSuccessful());
+        execution.cancel();
+        Assert.assertTrue(execution.isCancelled());
+        Assert.assertFalse(iterator.hasNext());
+
+        // running propagations stop at their next step
+        Thread.sleep(200);
+        final int stepsAfterCancel = steps.get();
+        Thread.sleep(200);
+        Assert.assertEquals(stepsAfterCancel, steps.get());
+        Assert.assertTrue(built.get() < 10);
+
+    }
+
+    @Test
+    public void testCancelWaitingConsumer() throws OrekitException, InterruptedException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(10 * Constants.JULIAN_DAY);
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 2);
+        final Execution execution = executor.execute(100, i -> buildNumerical(i), null, target);
+
+        // the consumer waits for a result that will never come
+        final Iterator<Result> iterator = execution.results().iterator();
+        final AtomicInteger hasNext = new AtomicInteger(-1);
+        final Thread consumer = new Thread(() -> hasNext.set(iterator.hasNext() ? 1 : 0));
+        consumer.start();
+        Thread.sleep(100);
+        Assert.assertTrue(consumer.isAlive());
+
+        // cancellation wakes it up
+        execution.cancel();
+        consumer.join(1000);
+        Assert.assertFalse(consumer.isAlive());
+        Assert.assertEquals(0, hasNext.get());
+
+    }
+
+    @Test
+    public void testCancelWaitingWorkers() throws OrekitException, InterruptedException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(600.0);
+        final AtomicInteger built = new AtomicInteger(0);
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(2, 3);
+        final Execution execution = executor.execute(20, i -> {
+            built.incrementAndGet();
+            return buildEcksteinHechler(i);
+        }, null, target);
+
+        // without consumer, workers wait for room in the queue
+        Thread.sleep(500);
+        Assert.assertEquals(executor.getParallelism() + executor.getCapacity(), built.get());
+
+        // cancellation interrupts them, they do not start any new tasks
+        execution.cancel();
+        Thread.sleep(200);
+        Assert.assertEquals(executor.getParallelism() + executor.getCapacity(), built.get());
+        Assert.assertEquals(0, execution.results().count());
+
+    }
+
+    @Test
+    public void testFromBuilder() throws OrekitException {
+        final AbsoluteDate target = orbit.getDate().shiftedBy(3600.0);
+        final KeplerianPropagatorBuilder builder = new KeplerianPropagatorBuilder(orbit, PositionAngle.TRUE, 1.0);
+        final List<double[]> parameters = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            final double[] p = builder.getSelectedNormalizedParameters();
+            p[5] += 0.1 * i;
+            parameters.add(p);
+        }
+        final IndependentPropagatorsExecutor executor = new IndependentPropagatorsExecutor(4, 8);
+        final List<Result> results =
+                executor.execute(parameters.size(), IndependentPropagatorsExecutor.fromBuilder(builder, parameters),
+                                 null, target).results().collect(Collectors.toList());
+        Assert.assertEquals(parameters.size(), results.size());
+        for (final Result result : results) {
+            final SpacecraftState reference =
+                    builder.buildPropagator(parameters.get(result.getIndex())).propagate(target);
+            Assert.assertEquals(0.0,
+                                Vector3D.distance(reference.getPVCoordinates().getPosition(),
+                                                  result.getState().getPVCoordinates().getPosition()),
+                                1.0e-15);
+        }
+    }
+
+    @Test
+    public void testWrongSettings() {
+        try {
+            new IndependentPropagatorsExecutor(0, 4);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.NUMBER_TOO_SMALL, oiae.getSpecifier());
+        }
+        try {
+            new IndependentPropagatorsExecutor(4, 0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.NUMBER_TOO_SMALL, oiae.getSpecifier());
+        }
+    }
+
+    private Propagator build(final int i) throws OrekitException {
+        return (i % 2 == 0) ? buildEcksteinHechler(i) : buildNumerical(i);
+    }
+
+    private Orbit shifted(final int i) {
+        return orbit.shiftedBy(60.0 * i);
+    }
+
+    private EcksteinHechlerPropagator buildEcksteinHechler(final int i) throws OrekitException {
+        return new EcksteinHechlerPropagator(shifted(i), attitudeLaw, mass, unnormalizedGravityField);
+    }
+
+    private NumericalPropagator buildNumerical(final int i) throws OrekitException {
+        final Orbit shifted = shifted(i);
+        NumericalPropagator numericalPropagator = buildNotInitializedNumerical();
+        numericalPropagator.setInitialState(new SpacecraftState(shifted,
+                                                                attitudeLaw.getAttitude(shifted,
+                                                                                        shifted.getDate(),
+                                                                                        shifted.getFrame()),
+                                                                mass));
+        return numericalPropagator;
+    }
+
+    private NumericalPropagator buildNotInitializedNumerical() throws OrekitException {
+        OrbitType type = OrbitType.CARTESIAN;
+        double minStep = 0.001;
+        double maxStep = 300;
+        double[][] tolerances = NumericalPropagator.tolerances(10.0, orbit, type);
+        ODEIntegrator integrator = new DormandPrince853Integrator(minStep, maxStep, tolerances[0], tolerances[1]);
+        NumericalPropagator numericalPropagator = new NumericalPropagator(integrator);
+        ForceModel gravity = new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                                                   normalizedGravityField);
+        numericalPropagator.addForceModel(gravity);
+        return numericalPropagator;
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/icgem-format");
+        unnormalizedGravityField = GravityFieldFactory.getUnnormalizedProvider(6, 0);
+        normalizedGravityField   = GravityFieldFactory.getNormalizedProvider(6, 0);
+
+        mass = 2500;
+        double a = 7187990.1979844316;
+        double e = 0.5e-4;
+        double i = 1.7105407051081795;
+        double omega = 1.9674147913622104;
+        double OMEGA = FastMath.toRadians(261);
+        double lv = 0;
+
+        AbsoluteDate date = new AbsoluteDate(new DateComponents(2004, 01, 01),
+                                             TimeComponents.H00,
+                                             TimeScalesFactory.getUTC());
+        orbit = new KeplerianOrbit(a, e, i, omega, OMEGA, lv, PositionAngle.TRUE,
+                                   FramesFactory.getEME2000(), date, normalizedGravityField.getMu());
+        OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                      Constants.WGS84_EARTH_FLATTENING,
+                                                      FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        attitudeLaw = new BodyCenterPointing(orbit.getFrame(), earth);
+    }
+
+    @After
+    public void tearDown() {
+        mass                     = Double.NaN;
+        orbit                    = null;
+        attitudeLaw              = null;
+        unnormalizedGravityField = null;
+        normalizedGravityField   = null;
+    }
+
+    private double mass;
+    private Orbit orbit;
+    private AttitudeProvider attitudeLaw;
+    private UnnormalizedSphericalHarmonicsProvider unnormalizedGravityField;
+    private NormalizedSphericalHarmonicsProvider normalizedGravityField;
+
+}
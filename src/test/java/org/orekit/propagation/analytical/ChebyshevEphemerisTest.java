@@ -0,0 +1,243 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.ICGEMFormatReader;
+import org.orekit.forces.maneuvers.ImpulseManeuver;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.DateDetector;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+
+public class ChebyshevEphemerisTest {
+
+    private Orbit orbit;
+
+    @Test
+    public void testKeplerian() throws OrekitException {
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        final AbsoluteDate end = orbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+        final ChebyshevEphemeris ephemeris =
+                new ChebyshevEphemerisGenerator(orbit.getFrame(), 14, 1.0e-3, 1.0e-6, 3600.0).
+                fit(propagator, orbit.getDate(), end);
+        Assert.assertEquals(0.0, ephemeris.getMinDate().durationFrom(orbit.getDate()), 1.0e-15);
+        Assert.assertEquals(0.0, ephemeris.getMaxDate().durationFrom(end), 1.0e-15);
+        Assert.assertEquals(14, ephemeris.getDegree());
+        Assert.assertEquals(orbit.getMu(), ephemeris.getMu(), 1.0e-15);
+        Assert.assertSame(orbit.getFrame(), ephemeris.getFrame());
+        Assert.assertEquals(53, ephemeris.getNbSegments());
+        checkAccuracy(ephemeris, propagator, 2.0e-3, 2.0e-6);
+    }
+
+    @Test
+    public void testNumericalFitAndStreaming() throws OrekitException {
+
+        final AbsoluteDate end = orbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+
+        final NumericalPropagator reference = createNumerical();
+        reference.setEphemerisMode();
+        reference.propagate(end);
+        final BoundedPropagator integrated = reference.getGeneratedEphemeris();
+
+        // the velocity of the integrated ephemeris is consistent with
+        // its position derivative only at 1.0e-4 m/s level
+        final ChebyshevEphemerisGenerator generator =
+                new ChebyshevEphemerisGenerator(orbit.getFrame(), 14, 1.0e-3, 1.0e-3, 3600.0);
+
+        // fit from an existing propagator
+        final ChebyshevEphemeris fitted = generator.fit(integrated, orbit.getDate(), end);
+        checkAccuracy(fitted, integrated, 2.0e-3, 2.0e-3);
+
+        // streaming from step handlers
+        final NumericalPropagator streamed = createNumerical();
+        streamed.setMasterMode(generator);
+        streamed.propagate(end);
+        final ChebyshevEphemeris ephemeris = generator.getEphemeris();
+        Assert.assertEquals(0.0, ephemeris.getMinDate().durationFrom(orbit.getDate()), 1.0e-15);
+        Assert.assertEquals(0.0, ephemeris.getMaxDate().durationFrom(end), 1.0e-15);
+        checkAccuracy(ephemeris, integrated, 2.0e-3, 2.0e-3);
+        Assert.assertEquals(fitted.getNbSegments(), ephemeris.getNbSegments(), 2);
+
+    }
+
+    @Test
+    public void testBackwardStreaming() throws OrekitException {
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        final AbsoluteDate start = orbit.getDate().shiftedBy(-0.25 * Constants.JULIAN_DAY);
+        final ChebyshevEphemerisGenerator generator =
+                new ChebyshevEphemerisGenerator(orbit.getFrame(), 12, 1.0e-3, 1.0e-6, 1800.0);
+        propagator.setMasterMode(generator);
+        propagator.propagate(start);
+        final ChebyshevEphemeris ephemeris = generator.getEphemeris();
+        Assert.assertEquals(0.0, ephemeris.getMinDate().durationFrom(start), 1.0e-15);
+        Assert.assertEquals(0.0, ephemeris.getMaxDate().durationFrom(orbit.getDate()), 1.0e-15);
+        checkAccuracy(ephemeris, new KeplerianPropagator(orbit), 2.0e-3, 2.0e-6);
+    }
+
+    @Test
+    public void testSerialization()
+        throws OrekitException, IOException, ClassNotFoundException {
+
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        final ChebyshevEphemeris ephemeris =
+                new ChebyshevEphemerisGenerator(orbit.getFrame(), 14, 1.0e-3, 1.0e-6, 3600.0).
+                fit(propagator, orbit.getDate(), orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(ephemeris);
+        Assert.assertTrue("size = " + bos.size(),
+                          bos.size() < 1000 + ephemeris.getNbSegments() * (8 + 3 * 15 * 8));
+
+        ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+        ObjectInputStream     ois = new ObjectInputStream(bis);
+        ChebyshevEphemeris deserialized  = (ChebyshevEphemeris) ois.readObject();
+        Assert.assertEquals(ephemeris.getNbSegments(), deserialized.getNbSegments());
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 317.0) {
+            final AbsoluteDate date = ephemeris.getMinDate().shiftedBy(dt);
+            final PVCoordinates pv1 = ephemeris.getPVCoordinates(date, orbit.getFrame());
+            final PVCoordinates pv2 = deserialized.getPVCoordinates(date, orbit.getFrame());
+            Assert.assertEquals(0.0, Vector3D.distance(pv1.getPosition(), pv2.getPosition()), 1.0e-15);
+            Assert.assertEquals(0.0, Vector3D.distance(pv1.getVelocity(), pv2.getVelocity()), 1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException {
+        final ChebyshevEphemeris ephemeris =
+                new ChebyshevEphemerisGenerator(orbit.getFrame(), 10, 1.0e-3, 1.0e-6, 600.0).
+                fit(new KeplerianPropagator(orbit), orbit.getDate(), orbit.getDate().shiftedBy(3600.0));
+        ephemeris.propagate(orbit.getDate().shiftedBy(3600.0005));
+        try {
+            ephemeris.propagate(orbit.getDate().shiftedBy(3601.0));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, oe.getSpecifier());
+        }
+        try {
+            ephemeris.resetInitialState(ephemeris.getInitialState());
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NON_RESETABLE_STATE, oe.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testDiscontinuity() throws OrekitException {
+        final Propagator propagator = createNumerical();
+        final AbsoluteDate maneuverDate = orbit.getDate().shiftedBy(1000.3);
+        propagator.addEventDetector(new ImpulseManeuver<>(new DateDetector(maneuverDate),
+                                                          new Vector3D(0.0, 10.0, 0.0), 300.0));
+        final ChebyshevEphemerisGenerator generator =
+                new ChebyshevEphemerisGenerator(orbit.getFrame(), 14, 1.0e-3, 1.0e-3, 600.0);
+        propagator.setMasterMode(generator);
+        try {
+            propagator.propagate(orbit.getDate().shiftedBy(3600.0));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.CHEBYSHEV_SEGMENT_TOLERANCE_NOT_FULFILLED, oe.getSpecifier());
+            final AbsoluteDate segmentStart = (AbsoluteDate) oe.getParts()[0];
+            final double       duration     = (Double) oe.getParts()[1];
+            Assert.assertEquals(ChebyshevEphemerisGenerator.MIN_SEGMENT_DURATION, duration, 1.0e-15);
+            Assert.assertTrue(maneuverDate.durationFrom(segmentStart) >= 0);
+            Assert.assertTrue(maneuverDate.durationFrom(segmentStart) <= duration);
+            Assert.assertTrue((Double) oe.getParts()[4] > 1.0);
+        }
+    }
+
+    @Test
+    public void testNoEphemeris() {
+        try {
+            new ChebyshevEphemerisGenerator(orbit.getFrame(), 10, 1.0e-3, 1.0e-6, 600.0).getEphemeris();
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.PROPAGATOR_NOT_IN_EPHEMERIS_GENERATION_MODE, oe.getSpecifier());
+        }
+    }
+
+    @Test(expected = OrekitIllegalArgumentException.class)
+    public void testWrongTolerance() {
+        new ChebyshevEphemerisGenerator(orbit.getFrame(), 10, 0.0, 1.0e-6, 600.0);
+    }
+
+    private void checkAccuracy(final BoundedPropagator ephemeris, final Propagator reference,
+                               final double positionTolerance, final double velocityTolerance)
+        throws OrekitException {
+        final Frame  frame = ephemeris.getFrame();
+        final double span  = ephemeris.getMaxDate().durationFrom(ephemeris.getMinDate());
+        for (double dt = 0; dt <= span; dt += 7.3) {
+            final AbsoluteDate date = ephemeris.getMinDate().shiftedBy(dt);
+            final PVCoordinates pv1 = ephemeris.getPVCoordinates(date, frame);
+            final PVCoordinates pv2 = reference.getPVCoordinates(date, frame);
+            Assert.assertEquals(0.0, Vector3D.distance(pv1.getPosition(), pv2.getPosition()), positionTolerance);
+            Assert.assertEquals(0.0, Vector3D.distance(pv1.getVelocity(), pv2.getVelocity()), velocityTolerance);
+        }
+    }
+
+    private NumericalPropagator createNumerical() throws OrekitException {
+        final double[][] tol = NumericalPropagator.tolerances(0.001, orbit, OrbitType.CARTESIAN);
+        final NumericalPropagator propagator =
+                new NumericalPropagator(new DormandPrince853Integrator(0.001, 300, tol[0], tol[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.addForceModel(new HolmesFeatherstoneAttractionModel(FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                                                       GravityFieldFactory.getNormalizedProvider(6, 0)));
+        propagator.setInitialState(new SpacecraftState(orbit));
+        return propagator;
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/icgem-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new ICGEMFormatReader("eigen-6s-truncated", true));
+        orbit = new KeplerianOrbit(7200000.0, 0.01, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(90.0), FastMath.toRadians(10.0), 0.0,
+                                   PositionAngle.MEAN, FramesFactory.getEME2000(),
+                                   AbsoluteDate.J2000_EPOCH.shiftedBy(584.0),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+}
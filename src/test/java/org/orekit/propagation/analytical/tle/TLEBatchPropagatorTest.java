@@ -0,0 +1,146 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.analytical.tle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.PVCoordinates;
+
+public class TLEBatchPropagatorTest {
+
+    private List<TLE> catalog;
+
+    @Test
+    public void testSingleDate() throws OrekitException {
+        final TLEBatchPropagator batch = new TLEBatchPropagator(catalog);
+        Assert.assertEquals(catalog.size(), batch.getSize());
+        Assert.assertSame(FramesFactory.getTEME(), batch.getFrame());
+        final AbsoluteDate date = new AbsoluteDate(2006, 6, 21, 12, 0, 0.0, TimeScalesFactory.getUTC());
+        final double[] pv = new double[TLEBatchPropagator.PV_SIZE * batch.getSize()];
+        final int failures = batch.propagate(date, pv);
+        Assert.assertEquals(checkReference(new AbsoluteDate[] { date }, pv), failures);
+    }
+
+    @Test
+    public void testGrid() throws OrekitException {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final TLEBatchPropagator batch = new TLEBatchPropagator(catalog, pool);
+            final AbsoluteDate t0 = new AbsoluteDate(2006, 6, 21, 12, 0, 0.0, TimeScalesFactory.getUTC());
+            final AbsoluteDate[] dates = new AbsoluteDate[17];
+            for (int k = 0; k < dates.length; ++k) {
+                dates[k] = t0.shiftedBy(k * 5400.0);
+            }
+            final double[] pv = new double[TLEBatchPropagator.PV_SIZE * dates.length * batch.getSize()];
+            final int failures = batch.propagate(dates, pv);
+            Assert.assertEquals(checkReference(dates, pv), failures);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTLEs() throws OrekitException {
+        final TLEBatchPropagator batch = new TLEBatchPropagator(catalog);
+        Assert.assertEquals(catalog.size(), batch.getTLEs().size());
+        for (int i = 0; i < catalog.size(); ++i) {
+            Assert.assertSame(catalog.get(i), batch.getTLEs().get(i));
+        }
+        try {
+            batch.getTLEs().clear();
+            Assert.fail("an exception should have been thrown");
+        } catch (UnsupportedOperationException uoe) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTooSmallArray() throws OrekitException {
+        final TLEBatchPropagator batch = new TLEBatchPropagator(catalog);
+        try {
+            batch.propagate(catalog.get(0).getDate(), new double[TLEBatchPropagator.PV_SIZE * batch.getSize() - 1]);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.DIMENSIONS_MISMATCH, oiae.getSpecifier());
+        }
+    }
+
+    private int checkReference(final AbsoluteDate[] dates, final double[] pv) throws OrekitException {
+        int failures = 0;
+        for (int i = 0; i < catalog.size(); ++i) {
+            final TLEPropagator reference = TLEPropagator.selectExtrapolator(catalog.get(i));
+            for (int k = 0; k < dates.length; ++k) {
+                final int offset = TLEBatchPropagator.PV_SIZE * (k * catalog.size() + i);
+                try {
+                    final PVCoordinates ref = reference.getPVCoordinates(dates[k]);
+                    Assert.assertEquals(ref.getPosition().getX(), pv[offset],     0.0);
+                    Assert.assertEquals(ref.getPosition().getY(), pv[offset + 1], 0.0);
+                    Assert.assertEquals(ref.getPosition().getZ(), pv[offset + 2], 0.0);
+                    Assert.assertEquals(ref.getVelocity().getX(), pv[offset + 3], 0.0);
+                    Assert.assertEquals(ref.getVelocity().getY(), pv[offset + 4], 0.0);
+                    Assert.assertEquals(ref.getVelocity().getZ(), pv[offset + 5], 0.0);
+                } catch (OrekitException oe) {
+                    for (int j = 0; j < TLEBatchPropagator.PV_SIZE; ++j) {
+                        Assert.assertTrue(Double.isNaN(pv[offset + j]));
+                    }
+                    ++failures;
+                }
+            }
+        }
+        return failures;
+    }
+
+    @Before
+    public void setUp() throws IOException, OrekitException {
+        Utils.setDataRoot("regular-data");
+
+        // load the verification TLEs several times, so the catalog is split between threads
+        final List<TLE> tles = new ArrayList<>();
+        try (BufferedReader reader =
+                        new BufferedReader(new InputStreamReader(TLEBatchPropagatorTest.class.getResourceAsStream("/tle/extrapolationTest-data/SatCode-entry")))) {
+            String line1 = null;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith("1 ")) {
+                    line1 = line;
+                } else if (line.startsWith("2 ")) {
+                    tles.add(new TLE(line1, line));
+                }
+            }
+        }
+        catalog = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            catalog.addAll(tles);
+        }
+
+    }
+
+}
@@ -0,0 +1,346 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.conjunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.geometry.euclidean.threed.Rotation;
+import org.hipparchus.geometry.euclidean.threed.RotationConvention;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.random.RandomGenerator;
+import org.hipparchus.random.Well19937a;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+import org.orekit.utils.PVCoordinatesProvider;
+
+public class ConjunctionScreenerTest {
+
+    private Frame        eme2000;
+    private double       mu;
+    private AbsoluteDate tc;
+    private Orbit        reference;
+
+    @Test
+    public void testSingleEncounter() throws OrekitException {
+        final List<Propagator> objects = new ArrayList<>();
+        objects.add(new KeplerianPropagator(reference));
+        objects.add(crossing(200.0, 0.7, 1.01, 0.0));
+        final ConjunctionScreener screener = new ConjunctionScreener(objects, eme2000, mu, 1000.0, 120.0);
+        final List<CloseApproach> approaches = screener.screen(tc.shiftedBy(-3000.0), tc.shiftedBy(3000.0));
+        Assert.assertEquals(1, approaches.size());
+        Assert.assertEquals(0, approaches.get(0).getFirstIndex());
+        Assert.assertEquals(1, approaches.get(0).getSecondIndex());
+        Assert.assertEquals(0.0, approaches.get(0).getDate().durationFrom(tc), 1.0e-3);
+        Assert.assertEquals(200.0, approaches.get(0).getMissDistance(), 1.0e-3);
+        Assert.assertEquals(reference.getPVCoordinates().getVelocity().getNorm() * 0.69,
+                            approaches.get(0).getRelativeSpeed(), 100.0);
+    }
+
+    @Test
+    public void testWindowStart() throws OrekitException {
+        final List<Propagator> objects = new ArrayList<>();
+        objects.add(new KeplerianPropagator(reference));
+        objects.add(crossing(200.0, 0.7, 1.01, 0.0));
+        final ConjunctionScreener screener = new ConjunctionScreener(objects, eme2000, mu, 1000.0, 120.0);
+
+        // objects are already receding from each other at window start
+        final List<CloseApproach> approaches = screener.screen(tc.shiftedBy(0.1), tc.shiftedBy(3000.0));
+        Assert.assertEquals(1, approaches.size());
+        Assert.assertEquals(0.1, approaches.get(0).getDate().durationFrom(tc), 1.0e-15);
+        Assert.assertTrue(approaches.get(0).getMissDistance() > 200.0);
+        Assert.assertTrue(approaches.get(0).getMissDistance() < 1000.0);
+
+        // too far
+        Assert.assertTrue(screener.screen(tc.shiftedBy(1.0), tc.shiftedBy(3000.0)).isEmpty());
+
+    }
+
+    @Test
+    public void testWindowEnd() throws OrekitException {
+        final List<Propagator> objects = new ArrayList<>();
+        objects.add(new KeplerianPropagator(reference));
+        objects.add(crossing(200.0, 0.7, 1.01, 0.0));
+        final ConjunctionScreener screener = new ConjunctionScreener(objects, eme2000, mu, 1000.0, 120.0);
+
+        // objects are still approaching each other at window end
+        final List<CloseApproach> approaches = screener.screen(tc.shiftedBy(-3000.0), tc.shiftedBy(-0.1));
+        Assert.assertEquals(1, approaches.size());
+        Assert.assertEquals(-0.1, approaches.get(0).getDate().durationFrom(tc), 1.0e-15);
+
+    }
+
+    @Test
+    public void testAgainstBruteForce() throws OrekitException {
+
+        final RandomGenerator random = new Well19937a(0x3d5f78c3e14d6b3bl);
+        final List<PVCoordinatesProvider> objects = new ArrayList<>();
+        objects.add(new KeplerianPropagator(reference));
+        for (int i = 0; i < 24; ++i) {
+            objects.add(crossing(6000.0 * (random.nextDouble() - 0.5),
+                                 0.2 + 2.6 * random.nextDouble(),
+                                 0.98 + 0.04 * random.nextDouble(),
+                                 4.0 * (random.nextDouble() - 0.5)));
+        }
+        for (int i = 0; i < 5; ++i) {
+            // objects far away, rejected by apogee/perigee filter
+            objects.add(new KeplerianPropagator(new KeplerianOrbit(42164000.0, 0.001, 0.01, 0.0, 0.0,
+                                                                   2 * FastMath.PI * random.nextDouble(),
+                                                                   PositionAngle.MEAN, eme2000, tc, mu)));
+        }
+
+        final double threshold = 5000.0;
+        final AbsoluteDate start = tc.shiftedBy(-1800.0);
+        final AbsoluteDate end   = tc.shiftedBy(1800.0);
+        final ConjunctionScreener screener = new ConjunctionScreener(objects, eme2000, mu, threshold, 120.0);
+        final List<CloseApproach> approaches = screener.screen(start, end);
+        Assert.assertTrue(approaches.size() > 20);
+        for (int i = 1; i < approaches.size(); ++i) {
+            Assert.assertTrue(approaches.get(i).getDate().compareTo(approaches.get(i - 1).getDate()) >= 0);
+        }
+
+        final List<CloseApproach> reference = bruteForce(objects, start, end, threshold);
+        int checked = 0;
+        for (final CloseApproach expected : reference) {
+            if (FastMath.abs(expected.getMissDistance() - threshold) < 0.01 * threshold) {
+                // too close to threshold, the approach may or may not be found
+                continue;
+            }
+            CloseApproach found = null;
+            for (final CloseApproach approach : approaches) {
+                if (approach.getFirstIndex()  == expected.getFirstIndex() &&
+                    approach.getSecondIndex() == expected.getSecondIndex() &&
+                    FastMath.abs(approach.getDate().durationFrom(expected.getDate())) < 0.01) {
+                    found = approach;
+                }
+            }
+            if (expected.getMissDistance() < threshold) {
+                Assert.assertNotNull(found);
+                Assert.assertEquals(expected.getMissDistance(), found.getMissDistance(), 1.0e-3);
+                ++checked;
+            } else {
+                Assert.assertNull(found);
+            }
+        }
+        int nonBorderline = 0;
+        for (final CloseApproach approach : approaches) {
+            if (FastMath.abs(approach.getMissDistance() - threshold) >= 0.01 * threshold) {
+                ++nonBorderline;
+            }
+        }
+        Assert.assertEquals(nonBorderline, checked);
+
+        // disabling the apogee/perigee filter does not change anything
+        screener.setApsidesMargin(Double.POSITIVE_INFINITY);
+        Assert.assertEquals(approaches.size(), screener.screen(start, end).size());
+
+    }
+
+    @Test
+    public void testOversizedBoxes() throws OrekitException {
+
+        final RandomGenerator random = new Well19937a(0x6a1c4d2f58b3e907l);
+        final List<PVCoordinatesProvider> objects = new ArrayList<>();
+        objects.add(new KeplerianPropagator(reference));
+        for (int i = 0; i < 20; ++i) {
+            // regular objects, crossing the reference orbit far from the encounter
+            objects.add(crossing(6000.0 * (random.nextDouble() - 0.5),
+                                 0.2 + 2.6 * random.nextDouble(),
+                                 0.98 + 0.04 * random.nextDouble(),
+                                 1000.0 + 2000.0 * random.nextDouble()));
+        }
+
+        // two fast objects, whose bounding boxes are larger than grid cells
+        objects.add(crossing(300.0, 0.7, 1.30, 0.0));
+        objects.add(crossing(-400.0, 1.5, 1.35, 0.0));
+
+        final double threshold = 2000.0;
+        final AbsoluteDate start = tc.shiftedBy(-600.0);
+        final AbsoluteDate end   = tc.shiftedBy(600.0);
+        final ConjunctionScreener screener = new ConjunctionScreener(objects, eme2000, mu, threshold, 120.0);
+        final List<CloseApproach> approaches = screener.screen(start, end);
+
+        final List<CloseApproach> expected = bruteForce(objects, start, end, threshold);
+        int count = 0;
+        for (final CloseApproach e : expected) {
+            if (e.getMissDistance() < threshold) {
+                ++count;
+                CloseApproach found = null;
+                for (final CloseApproach approach : approaches) {
+                    if (approach.getFirstIndex()  == e.getFirstIndex() &&
+                        approach.getSecondIndex() == e.getSecondIndex() &&
+                        FastMath.abs(approach.getDate().durationFrom(e.getDate())) < 0.01) {
+                        found = approach;
+                    }
+                }
+                Assert.assertNotNull(found);
+                Assert.assertEquals(e.getMissDistance(), found.getMissDistance(), 1.0e-3);
+            }
+        }
+        Assert.assertEquals(count, approaches.size());
+
+        // the encounters between the fast objects and with the reference are all found
+        final int fast1 = objects.size() - 2;
+        final int fast2 = objects.size() - 1;
+        Assert.assertTrue(approaches.stream().anyMatch(a -> a.getFirstIndex() == 0     && a.getSecondIndex() == fast1));
+        Assert.assertTrue(approaches.stream().anyMatch(a -> a.getFirstIndex() == 0     && a.getSecondIndex() == fast2));
+        Assert.assertTrue(approaches.stream().anyMatch(a -> a.getFirstIndex() == fast1 && a.getSecondIndex() == fast2));
+
+    }
+
+    @Test
+    public void testNonInertialFrame() throws OrekitException {
+        try {
+            new ConjunctionScreener(Collections.<Propagator>emptyList(),
+                                    FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+                                    mu, 1000.0, 60.0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(OrekitMessages.NON_PSEUDO_INERTIAL_FRAME, oiae.getSpecifier());
+        }
+    }
+
+    @Test
+    public void testWrongSettings() throws OrekitException {
+        try {
+            new ConjunctionScreener(Collections.<Propagator>emptyList(), eme2000, mu, -1000.0, 60.0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED, oiae.getSpecifier());
+        }
+        try {
+            new ConjunctionScreener(Collections.<Propagator>emptyList(), eme2000, mu, 1000.0, 0.0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(LocalizedCoreFormats.NUMBER_TOO_SMALL_BOUND_EXCLUDED, oiae.getSpecifier());
+        }
+        final ConjunctionScreener screener =
+                new ConjunctionScreener(Collections.<Propagator>emptyList(), eme2000, mu, 1000.0, 60.0);
+        Assert.assertEquals(ConjunctionScreener.DEFAULT_APSIDES_MARGIN, screener.getApsidesMargin(), 1.0e-15);
+        Assert.assertEquals(ConjunctionScreener.DEFAULT_CONVERGENCE, screener.getConvergence(), 1.0e-15);
+        Assert.assertEquals(ConjunctionScreener.DEFAULT_MAX_ITER, screener.getMaxIter());
+        screener.setConvergence(1.0e-6);
+        screener.setMaxIter(50);
+        Assert.assertEquals(1.0e-6, screener.getConvergence(), 1.0e-15);
+        Assert.assertEquals(50, screener.getMaxIter());
+    }
+
+    /** Create an object crossing the reference orbit near tc.
+     * @param radialOffset radial offset with respect to reference at crossing (m)
+     * @param angle angle between velocities at crossing (rad)
+     * @param speedFactor velocity ratio with respect to reference
+     * @param delay delay of the crossing with respect to tc (s)
+     * @return propagator for the crossing object
+     */
+    private Propagator crossing(final double radialOffset, final double angle,
+                                final double speedFactor, final double delay)
+        throws OrekitException {
+        final PVCoordinates pv = reference.getPVCoordinates();
+        final Rotation r = new Rotation(pv.getPosition(), angle, RotationConvention.VECTOR_OPERATOR);
+        final Vector3D p = new Vector3D(1.0, pv.getPosition(), radialOffset, pv.getPosition().normalize());
+        final Vector3D v = r.applyTo(new Vector3D(speedFactor, pv.getVelocity()));
+        return new KeplerianPropagator(new CartesianOrbit(new PVCoordinates(p, v), eme2000,
+                                                          tc.shiftedBy(delay), mu));
+    }
+
+    private List<CloseApproach> bruteForce(final List<PVCoordinatesProvider> objects,
+                                           final AbsoluteDate start, final AbsoluteDate end,
+                                           final double threshold)
+        throws OrekitException {
+
+        final int n = (int) FastMath.rint(end.durationFrom(start));
+        final Vector3D[][] positions = new Vector3D[objects.size()][n + 1];
+        for (int i = 0; i < objects.size(); ++i) {
+            for (int k = 0; k <= n; ++k) {
+                positions[i][k] = objects.get(i).getPVCoordinates(start.shiftedBy(k), eme2000).getPosition();
+            }
+        }
+
+        final List<CloseApproach> approaches = new ArrayList<>();
+        for (int i1 = 0; i1 < objects.size(); ++i1) {
+            for (int i2 = i1 + 1; i2 < objects.size(); ++i2) {
+                for (int k = 0; k <= n; ++k) {
+                    final double d     = Vector3D.distance(positions[i1][k], positions[i2][k]);
+                    final double dPrev = (k == 0) ? Double.POSITIVE_INFINITY :
+                                                    Vector3D.distance(positions[i1][k - 1], positions[i2][k - 1]);
+                    final double dNext = (k == n) ? Double.POSITIVE_INFINITY :
+                                                    Vector3D.distance(positions[i1][k + 1], positions[i2][k + 1]);
+                    if (d <= dPrev && d < dNext && d < 2 * threshold) {
+                        // local minimum, refine it by golden section search
+                        double ta = FastMath.max(0, k - 1);
+                        double tb = FastMath.min(n, k + 1);
+                        final double phi = 0.5 * (FastMath.sqrt(5.0) - 1);
+                        while (tb - ta > 1.0e-6) {
+                            final double t1 = tb - phi * (tb - ta);
+                            final double t2 = ta + phi * (tb - ta);
+                            if (distance(objects, i1, i2, start.shiftedBy(t1)) <
+                                distance(objects, i1, i2, start.shiftedBy(t2))) {
+                                tb = t2;
+                            } else {
+                                ta = t1;
+                            }
+                        }
+                        final AbsoluteDate tca = start.shiftedBy(0.5 * (ta + tb));
+                        approaches.add(new CloseApproach(i1, i2, tca, distance(objects, i1, i2, tca), Double.NaN));
+                    }
+                }
+            }
+        }
+
+        return approaches;
+
+    }
+
+    private double distance(final List<PVCoordinatesProvider> objects, final int i1, final int i2,
+                            final AbsoluteDate date)
+        throws OrekitException {
+        return Vector3D.distance(objects.get(i1).getPVCoordinates(date, eme2000).getPosition(),
+                                 objects.get(i2).getPVCoordinates(date, eme2000).getPosition());
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data");
+        eme2000   = FramesFactory.getEME2000();
+        mu        = Constants.EIGEN5C_EARTH_MU;
+        tc        = new AbsoluteDate(2017, 11, 14, 12, 0, 0.0, TimeScalesFactory.getUTC());
+        reference = new KeplerianOrbit(7000000.0, 0.001, FastMath.toRadians(50.0), 0.3, 1.2, 0.4,
+                                       PositionAngle.MEAN, eme2000, tc, mu);
+    }
+
+}
@@ -0,0 +1,140 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+public class CompactEventsLogTest {
+
+    @Test
+    public void testSameAsFullLogger() throws OrekitException {
+
+        final EventDetector apside = new ApsideDetector(orbit).withHandler(new ContinueOnEvent<ApsideDetector>());
+        final EventDetector node   = new NodeDetector(orbit, orbit.getFrame()).withHandler(new ContinueOnEvent<NodeDetector>());
+        final AbsoluteDate  end    = orbit.getDate().shiftedBy(5 * Constants.JULIAN_DAY);
+
+        final EventsLogger full = new EventsLogger();
+        Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.addEventDetector(full.monitorDetector(apside));
+        propagator.addEventDetector(full.monitorDetector(node));
+        propagator.propagate(end);
+
+        final CompactEventsLog compact = new CompactEventsLog(orbit.getDate(),
+                                                              s -> s.getA(),
+                                                              s -> s.getPVCoordinates().getPosition().getNorm());
+        propagator = new KeplerianPropagator(orbit);
+        final EventsLogger logger = new EventsLogger(compact);
+        propagator.addEventDetector(logger.monitorDetector(apside));
+        propagator.addEventDetector(logger.monitorDetector(node));
+        propagator.propagate(end);
+
+        // more events than initial capacity
+        Assert.assertEquals(284, compact.size());
+        Assert.assertEquals(full.getLoggedEvents().size(), compact.size());
+        Assert.assertTrue(logger.getLoggedEvents().isEmpty());
+        Assert.assertSame(orbit.getDate(), compact.getReference());
+        Assert.assertEquals(2, compact.getColumnsNumber());
+        Assert.assertEquals(2, compact.getDetectors().size());
+
+        for (int i = 0; i < compact.size(); ++i) {
+            final EventsLogger.LoggedEvent event = full.getLoggedEvents().get(i);
+            Assert.assertEquals(0.0, compact.getDate(i).durationFrom(event.getState().getDate()), 1.0e-10);
+            Assert.assertEquals(event.getState().getDate().durationFrom(orbit.getDate()),
+                                compact.getOffset(i), 1.0e-15);
+            Assert.assertSame(event.getEventDetector(), compact.getDetector(i));
+            Assert.assertSame(compact.getDetectors().get(compact.getDetectorIndex(i)), compact.getDetector(i));
+            Assert.assertEquals(event.isIncreasing(), compact.isIncreasing(i));
+            Assert.assertEquals(event.getState().getA(), compact.getValue(i, 0), 1.0e-15);
+            Assert.assertEquals(event.getState().getPVCoordinates().getPosition().getNorm(),
+                                compact.getValue(i, 1), 1.0e-15);
+        }
+
+        // apsides alternate between perigee and apogee
+        for (int i = 0; i < compact.size(); ++i) {
+            if (compact.getDetector(i) == apside) {
+                final double r = compact.getValue(i, 1);
+                Assert.assertEquals(compact.isIncreasing(i) ? orbit.getA() * (1 - orbit.getE()) : orbit.getA() * (1 + orbit.getE()),
+                                    r, 1.0e-6);
+            }
+        }
+
+        compact.clear();
+        Assert.assertEquals(0, compact.size());
+        Assert.assertEquals(2, compact.getDetectors().size());
+
+    }
+
+    @Test
+    public void testOutOfRange() throws OrekitException {
+        final CompactEventsLog compact = new CompactEventsLog(orbit.getDate(), s -> s.getMass());
+        final Propagator propagator = new KeplerianPropagator(orbit);
+        propagator.addEventDetector(new EventsLogger(compact).
+                                    monitorDetector(new ApsideDetector(orbit).
+                                                    withHandler(new ContinueOnEvent<ApsideDetector>())));
+        propagator.propagate(orbit.getDate().shiftedBy(orbit.getKeplerianPeriod()));
+        Assert.assertEquals(2, compact.size());
+        checkOutOfRange(() -> compact.getOffset(2));
+        checkOutOfRange(() -> compact.getDate(-1));
+        checkOutOfRange(() -> compact.isIncreasing(2));
+        checkOutOfRange(() -> compact.getDetectorIndex(2));
+        checkOutOfRange(() -> compact.getValue(0, 1));
+        checkOutOfRange(() -> compact.getValue(2, 0));
+    }
+
+    private void checkOutOfRange(final Runnable r) {
+        try {
+            r.run();
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            // expected
+        }
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+        orbit = new KeplerianOrbit(7200000.0, 0.01, FastMath.toRadians(98.0),
+                                   FastMath.toRadians(30.0), FastMath.toRadians(20.0),
+                                   FastMath.toRadians(10.0), PositionAngle.MEAN,
+                                   FramesFactory.getEME2000(), AbsoluteDate.J2000_EPOCH,
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+    @After
+    public void tearDown() {
+        orbit = null;
+    }
+
+    private Orbit orbit;
+
+}
@@ -16,6 +16,9 @@
  */
 package org.orekit.propagation.events;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.hipparchus.exception.MathRuntimeException;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
@@ -34,10 +37,15 @@ import org.orekit.orbits.CartesianOrbit;
 import org.orekit.orbits.EquinoctialOrbit;
 import org.orekit.orbits.Orbit;
 import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.handlers.EventHandler.Action;
 import org.orekit.propagation.events.handlers.StopOnDecreasing;
+import org.orekit.propagation.instrumentation.ComponentStatistics;
+import org.orekit.propagation.instrumentation.PropagationInstrumentation;
 import org.orekit.propagation.numerical.NumericalPropagator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.TimeStampedPVCoordinates;
 
@@ -147,6 +155,105 @@ public class EclipseDetectorTest {
         }
     }
 
+    @Test
+    public void testAdaptiveMaxCheck() throws OrekitException {
+
+        final EclipseDetector fixed = new EclipseDetector(10.0, 1.e-6,
+                                                          sun, sunRadius,
+                                                          earth, earthRadius).
+                                      withPenumbra();
+        final EclipseDetector adaptive = fixed.withAdaptiveMaxCheck();
+        Assert.assertNull(fixed.getAdaptableInterval());
+        Assert.assertNotNull(adaptive.getAdaptableInterval());
+
+        // adaptable interval is preserved by wrappers
+        final AdaptableInterval interval = adaptive.getAdaptableInterval();
+        Assert.assertSame(interval, new NegateDetector(adaptive).getAdaptableInterval());
+        Assert.assertSame(interval,
+                          new EventSlopeFilter<>(adaptive, FilterType.TRIGGER_ONLY_DECREASING_EVENTS).getAdaptableInterval());
+
+        final List<AbsoluteDate> fixedDates    = new ArrayList<>();
+        final ComponentStatistics fixedStats   = propagate(fixed, fixedDates);
+        final List<AbsoluteDate> adaptiveDates = new ArrayList<>();
+        final ComponentStatistics adaptiveStats = propagate(adaptive, adaptiveDates);
+
+        // the same eclipses are found, with far fewer evaluations
+        Assert.assertEquals(29, fixedDates.size());
+        Assert.assertEquals(fixedDates.size(), adaptiveDates.size());
+        for (int i = 0; i < fixedDates.size(); ++i) {
+            Assert.assertEquals(0.0, adaptiveDates.get(i).durationFrom(fixedDates.get(i)), 1.0e-6);
+        }
+        Assert.assertTrue(adaptiveStats.getCalls() < fixedStats.getCalls() / 10);
+
+        // the interval is never below the fixed one
+        for (double dt = 0; dt < 6000; dt += 60) {
+            Assert.assertTrue(interval.currentInterval(initialState.shiftedBy(dt)) >= 10.0);
+        }
+
+    }
+
+    @Test
+    public void testAdaptiveMaxCheckRebuilt() throws OrekitException {
+
+        final EclipseDetector penumbra = new EclipseDetector(10.0, 1.e-6,
+                                                             sun, sunRadius,
+                                                             earth, earthRadius).
+                                         withPenumbra().
+                                         withAdaptiveMaxCheck();
+
+        // configuration methods rebuild the interval for the new detector
+        checkSameInterval(penumbra, penumbra.withThreshold(1.0e-5));
+        checkSameInterval(penumbra, penumbra.withMaxIter(50));
+        checkSameInterval(penumbra, penumbra.withHandler(new StopOnDecreasing<EclipseDetector>()));
+        final EclipseDetector umbra = penumbra.withUmbra();
+        checkSameInterval(umbra.withAdaptiveMaxCheck(), umbra);
+        checkSameInterval(penumbra, umbra.withPenumbra());
+
+        // the interval does depend on the shadow model, so it was not copied
+        boolean different = false;
+        for (double dt = 0; dt < 6000; dt += 60) {
+            final SpacecraftState s = initialState.shiftedBy(dt);
+            different |= penumbra.getAdaptableInterval().currentInterval(s) !=
+                         umbra.getAdaptableInterval().currentInterval(s);
+        }
+        Assert.assertTrue(different);
+
+        // the interval follows the fixed maximum checking interval
+        final EclipseDetector slower = penumbra.withMaxCheck(600.0);
+        for (double dt = 0; dt < 6000; dt += 60) {
+            Assert.assertTrue(slower.getAdaptableInterval().currentInterval(initialState.shiftedBy(dt)) >= 600.0);
+        }
+
+        // custom intervals are simply copied
+        final AdaptableInterval custom = s -> 42.0;
+        Assert.assertSame(custom, penumbra.withMaxCheck(custom).withUmbra().getAdaptableInterval());
+
+    }
+
+    private void checkSameInterval(final EclipseDetector d1, final EclipseDetector d2)
+        throws OrekitException {
+        Assert.assertNotSame(d1.getAdaptableInterval(), d2.getAdaptableInterval());
+        for (double dt = 0; dt < 6000; dt += 60) {
+            final SpacecraftState s = initialState.shiftedBy(dt);
+            Assert.assertEquals(d1.getAdaptableInterval().currentInterval(s),
+                                d2.getAdaptableInterval().currentInterval(s),
+                                1.0e-15);
+        }
+    }
+
+    private ComponentStatistics propagate(final EclipseDetector detector, final List<AbsoluteDate> dates)
+        throws OrekitException {
+        final KeplerianPropagator keplerian = new KeplerianPropagator(initialState.getOrbit());
+        final PropagationInstrumentation instrumentation = new PropagationInstrumentation();
+        keplerian.setInstrumentation(instrumentation);
+        keplerian.addEventDetector(detector.withHandler((s, d, increasing) -> {
+            dates.add(s.getDate());
+            return Action.CONTINUE;
+        }));
+        keplerian.propagate(iniDate.shiftedBy(Constants.JULIAN_DAY));
+        return instrumentation.getSnapshot().get(0);
+    }
+
     @Before
     public void setUp() {
         try {
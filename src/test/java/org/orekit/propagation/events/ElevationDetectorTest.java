@@ -16,6 +16,7 @@
  */
 package org.orekit.propagation.events;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
@@ -45,7 +46,11 @@ import org.orekit.propagation.analytical.KeplerianPropagator;
 import org.orekit.propagation.events.EventsLogger.LoggedEvent;
 import org.orekit.propagation.events.handlers.ContinueOnEvent;
 import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.propagation.events.handlers.EventHandler.Action;
 import org.orekit.propagation.events.handlers.StopOnIncreasing;
+import org.orekit.propagation.instrumentation.ComponentStatistics;
+import org.orekit.propagation.instrumentation.ComponentType;
+import org.orekit.propagation.instrumentation.PropagationInstrumentation;
 import org.orekit.propagation.sampling.OrekitFixedStepHandler;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScale;
@@ -526,6 +531,85 @@ public class ElevationDetectorTest {
 
     }
 
+    @Test
+    public void testAdaptiveMaxCheck() throws OrekitException {
+
+        final TimeScale utc = TimeScalesFactory.getUTC();
+        final Vector3D position = new Vector3D(-6142438.668, 3492467.56, -25767.257);
+        final Vector3D velocity = new Vector3D(505.848, 942.781, 7435.922);
+        final AbsoluteDate date = new AbsoluteDate(2003, 9, 16, utc);
+        final Orbit orbit = new EquinoctialOrbit(new PVCoordinates(position,  velocity),
+                                                 FramesFactory.getEME2000(), date, mu);
+
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        final BodyShape earth = new OneAxisEllipsoid(ae, Constants.WGS84_EARTH_FLATTENING, itrf);
+        final TopocentricFrame topo = new TopocentricFrame(earth,
+                                                           new GeodeticPoint(FastMath.toRadians(48.833),
+                                                                             FastMath.toRadians(2.333),
+                                                                             0.0),
+                                                           "Gstation");
+        final ElevationDetector fixed = new ElevationDetector(10.0, 1.0e-6, topo).
+                                        withConstantElevation(FastMath.toRadians(5.0));
+        final ElevationDetector adaptive = fixed.withAdaptiveMaxCheck();
+        Assert.assertNull(fixed.getAdaptableInterval());
+        Assert.assertNotNull(adaptive.getAdaptableInterval());
+        Assert.assertEquals(10.0, adaptive.getMaxCheckInterval(), 1.0e-15);
+
+        final List<AbsoluteDate> fixedDates    = new ArrayList<>();
+        final ComponentStatistics fixedStats   = propagate(orbit, fixed, fixedDates);
+        final List<AbsoluteDate> adaptiveDates = new ArrayList<>();
+        final ComponentStatistics adaptiveStats = propagate(orbit, adaptive, adaptiveDates);
+
+        // the same passes are found, with far fewer evaluations
+        Assert.assertEquals(12, fixedDates.size());
+        Assert.assertEquals(fixedDates.size(), adaptiveDates.size());
+        for (int i = 0; i < fixedDates.size(); ++i) {
+            Assert.assertEquals(0.0, adaptiveDates.get(i).durationFrom(fixedDates.get(i)), 1.0e-6);
+        }
+        Assert.assertEquals(fixedStats.getEvents(), adaptiveStats.getEvents());
+        Assert.assertTrue(adaptiveStats.getCalls() < fixedStats.getCalls() / 5);
+
+        // the interval is never below the fixed one
+        final SpacecraftState state = new SpacecraftState(orbit);
+        Assert.assertTrue(adaptive.getAdaptableInterval().currentInterval(state) >= 10.0);
+
+        // changing the elevation rebuilds the interval for the new detector
+        final ElevationDetector higher = adaptive.withConstantElevation(FastMath.toRadians(30.0));
+        final AdaptableInterval expected = fixed.withConstantElevation(FastMath.toRadians(30.0)).
+                                           withAdaptiveMaxCheck().getAdaptableInterval();
+        Assert.assertNotSame(adaptive.getAdaptableInterval(), higher.getAdaptableInterval());
+        boolean different = false;
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 600.0) {
+            final SpacecraftState s = state.shiftedBy(dt);
+            Assert.assertEquals(expected.currentInterval(s), higher.getAdaptableInterval().currentInterval(s), 1.0e-15);
+            different |= higher.getAdaptableInterval().currentInterval(s) !=
+                         adaptive.getAdaptableInterval().currentInterval(s);
+        }
+        Assert.assertTrue(different);
+
+    }
+
+    private ComponentStatistics propagate(final Orbit orbit, final ElevationDetector detector,
+                                          final List<AbsoluteDate> dates)
+        throws OrekitException {
+        final EcksteinHechlerPropagator propagator =
+                        new EcksteinHechlerPropagator(orbit, ae, mu, c20, c30, c40, c50, c60);
+        final PropagationInstrumentation instrumentation = new PropagationInstrumentation();
+        propagator.setInstrumentation(instrumentation);
+        propagator.addEventDetector(detector.withHandler((s, d, increasing) -> {
+            dates.add(s.getDate());
+            return Action.CONTINUE;
+        }));
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+        for (final ComponentStatistics statistics : instrumentation.getSnapshot()) {
+            if (statistics.getType() == ComponentType.EVENT_DETECTOR) {
+                return statistics;
+            }
+        }
+        Assert.fail("no statistics for elevation detector");
+        return null;
+    }
+
     @Before
     public void setUp() {
         Utils.setDataRoot("regular-data");
@@ -362,8 +362,8 @@ public class EventEnablingPredicateFilterTest {
         ObjectOutputStream    oos = new ObjectOutputStream(bos);
         oos.writeObject(filter);
 
-        Assert.assertTrue(bos.size() >  900);
-        Assert.assertTrue(bos.size() < 1000);
+        Assert.assertTrue(bos.size() > 1000);
+        Assert.assertTrue(bos.size() < 1100);
 
         ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
         ObjectInputStream     ois = new ObjectInputStream(bis);
@@ -16,7 +16,12 @@
  */
 package org.orekit.propagation.events;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
@@ -130,6 +135,73 @@ public class EventsLoggerTest {
         Assert.assertEquals( 9, secondList.size());
     }
 
+    @Test
+    public void testSink() throws OrekitException {
+
+        EventsLogger reference = new EventsLogger();
+        propagator.addEventDetector(reference.monitorDetector(umbraDetector));
+        propagator.addEventDetector(reference.monitorDetector(penumbraDetector));
+        propagator.propagate(iniDate.shiftedBy(16215));
+
+        final List<EventsLogger.LoggedEvent> streamed = new ArrayList<>();
+        EventsLogger logger = new EventsLogger(event -> streamed.add(event));
+        propagator.clearEventsDetectors();
+        propagator.resetInitialState(initialState);
+        propagator.addEventDetector(logger.monitorDetector(umbraDetector));
+        propagator.addEventDetector(logger.monitorDetector(penumbraDetector));
+        propagator.propagate(iniDate.shiftedBy(16215));
+
+        Assert.assertTrue(logger.getLoggedEvents().isEmpty());
+        Assert.assertEquals(11, streamed.size());
+        for (int i = 0; i < streamed.size(); ++i) {
+            EventsLogger.LoggedEvent e1 = reference.getLoggedEvents().get(i);
+            EventsLogger.LoggedEvent e2 = streamed.get(i);
+            Assert.assertSame(e1.getEventDetector(), e2.getEventDetector());
+            Assert.assertEquals(0.0, e2.getState().getDate().durationFrom(e1.getState().getDate()), 1.0e-10);
+            Assert.assertEquals(e1.isIncreasing(), e2.isIncreasing());
+        }
+
+    }
+
+    @Test
+    public void testBoundedQueueSink() throws OrekitException, InterruptedException {
+
+        // events are consumed by another thread during propagation
+        final BlockingQueue<EventsLogger.LoggedEvent> queue = new ArrayBlockingQueue<>(2);
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final List<EventsLogger.LoggedEvent> consumed = new ArrayList<>();
+        final Thread consumer = new Thread(() -> {
+            try {
+                while (!(done.get() && queue.isEmpty())) {
+                    final EventsLogger.LoggedEvent event = queue.poll(10, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        consumed.add(event);
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+
+        EventsLogger logger = new EventsLogger(event -> {
+            try {
+                queue.put(event);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        propagator.addEventDetector(logger.monitorDetector(umbraDetector));
+        propagator.addEventDetector(logger.monitorDetector(penumbraDetector));
+        propagator.propagate(iniDate.shiftedBy(16215));
+        done.set(true);
+        consumer.join();
+
+        Assert.assertEquals(11, consumed.size());
+        Assert.assertTrue(logger.getLoggedEvents().isEmpty());
+
+    }
+
     private void checkCounts(EventsLogger logger,
                              int expectedUmbraIncreasingCount, int expectedUmbraDecreasingCount,
                              int expectedPenumbraIncreasingCount, int expectedPenumbraDecreasingCount) {
@@ -0,0 +1,432 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hipparchus.RealFieldElement;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.BodyShape;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.FieldTransform;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.frames.Transform;
+import org.orekit.frames.TransformProvider;
+import org.orekit.models.earth.EarthStandardAtmosphereRefraction;
+import org.orekit.orbits.EquinoctialOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.EcksteinHechlerPropagator;
+import org.orekit.propagation.events.EventsLogger.LoggedEvent;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.propagation.events.handlers.EventHandler;
+import org.orekit.propagation.events.handlers.EventHandler.Action;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.FieldAbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.ElevationMask;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+
+public class MultiStationElevationDetectorTest {
+
+    @Test
+    public void testSameEventsAsIndividualDetectors() throws OrekitException {
+
+        // individual detectors
+        final List<Event> individualEvents = new ArrayList<>();
+        Propagator propagator = createPropagator();
+        for (final ElevationDetector station : stations) {
+            propagator.addEventDetector(station.withHandler(new Recorder(individualEvents)));
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        // network detectors
+        final List<Event> networkEvents = new ArrayList<>();
+        MultiStationElevationDetector recordingNetwork = new MultiStationElevationDetector();
+        for (final ElevationDetector station : stations) {
+            recordingNetwork = recordingNetwork.withStation(station.withHandler(new Recorder(networkEvents)));
+        }
+        propagator = createPropagator();
+        for (final EventDetector detector : recordingNetwork.getDetectors()) {
+            propagator.addEventDetector(detector);
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        checkSameEvents(individualEvents, networkEvents, 58);
+
+    }
+
+    @Test
+    public void testStationsRisingWithinMaxCheck() throws OrekitException {
+
+        // two close stations, with a maximum checking interval much larger
+        // than the time between their events
+        final BodyShape earth = stations.get(0).getTopocentricFrame().getParentShape();
+        final List<Event> individualEvents = new ArrayList<>();
+        final List<Event> networkEvents    = new ArrayList<>();
+        final List<ElevationDetector> close = new ArrayList<>();
+        close.add(new ElevationDetector(station(earth, 43.604, 1.444, "Toulouse")).withMaxCheck(600.0));
+        close.add(new ElevationDetector(station(earth, 43.654, 1.494, "Blagnac")).withMaxCheck(600.0));
+
+        Propagator propagator = createPropagator();
+        MultiStationElevationDetector closeNetwork = new MultiStationElevationDetector();
+        for (final ElevationDetector station : close) {
+            propagator.addEventDetector(station.withHandler(new Recorder(individualEvents)));
+            closeNetwork = closeNetwork.withStation(station.withHandler(new Recorder(networkEvents)));
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        propagator = createPropagator();
+        for (final EventDetector detector : closeNetwork.getDetectors()) {
+            propagator.addEventDetector(detector);
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        checkSameEvents(individualEvents, networkEvents, 24);
+
+        // check the events of the two stations are interleaved and much closer than max check
+        for (int i = 0; i < networkEvents.size(); i += 2) {
+            final Event e1 = networkEvents.get(i);
+            final Event e2 = networkEvents.get(i + 1);
+            Assert.assertNotSame(e1.station, e2.station);
+            Assert.assertEquals(e1.rising, e2.rising);
+            Assert.assertEquals(0.0, e2.date.durationFrom(e1.date), 60.0);
+        }
+
+    }
+
+    @Test
+    public void testSharedTransformsWithoutEvents() throws OrekitException {
+        // with a 60 degrees elevation, no station sees the spacecraft, so all detectors
+        // are evaluated on the same 720 sub-steps and the position is shared
+        final int[] counts = countTransforms(FastMath.toRadians(60.0));
+        Assert.assertEquals(5 * 721, counts[0]);
+        Assert.assertEquals(721,     counts[1]);
+        // a cache smaller than the number of sub-steps only shares the initial date
+        Assert.assertEquals(5 * 720 + 1, counts[2]);
+    }
+
+    @Test
+    public void testSharedTransformsWithEvents() throws OrekitException {
+        // each station detector restarts its sub-steps after its own events,
+        // so only the sub-steps before the first events are shared
+        final int[] counts = countTransforms(FastMath.toRadians(5.0));
+        Assert.assertEquals(3705, counts[0]);
+        Assert.assertEquals(2895, counts[1]);
+        Assert.assertEquals(3689, counts[2]);
+    }
+
+    /** Count frame transforms for individual detectors, network and network with a too small cache.
+     * @param elevation minimum elevation of stations
+     * @return number of transforms for individual detectors, network and network with a too small cache
+     * @exception OrekitException if propagation fails
+     */
+    private int[] countTransforms(final double elevation) throws OrekitException {
+
+        // body frame counting the transforms computations
+        final CountingProvider provider = new CountingProvider();
+        final Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        final BodyShape earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                     Constants.WGS84_EARTH_FLATTENING,
+                                                     new Frame(itrf, provider, "counting"));
+        final List<ElevationDetector> counted = new ArrayList<>();
+        for (final ElevationDetector station : stations) {
+            final GeodeticPoint point = station.getTopocentricFrame().getPoint();
+            counted.add(new ElevationDetector(new TopocentricFrame(earth, point, station.getTopocentricFrame().getName())).
+                        withConstantElevation(elevation).
+                        withMaxCheck(10.0).
+                        withHandler(new ContinueOnEvent<>()));
+        }
+        final AbsoluteDate target = orbit.getDate().shiftedBy(7200.0);
+
+        // individual detectors
+        final Propagator propagator = createPropagator();
+        for (final ElevationDetector station : counted) {
+            propagator.addEventDetector(station);
+        }
+        provider.count = 0;
+        propagator.propagate(target);
+
+        return new int[] {
+            provider.count,
+            countNetworkTransforms(counted, MultiStationElevationDetector.DEFAULT_CACHE_SIZE, target, provider),
+            countNetworkTransforms(counted, 100, target, provider)
+        };
+
+    }
+
+    private int countNetworkTransforms(final List<ElevationDetector> counted, final int cacheSize,
+                                       final AbsoluteDate target, final CountingProvider provider)
+        throws OrekitException {
+        MultiStationElevationDetector countedNetwork = new MultiStationElevationDetector(cacheSize);
+        for (final ElevationDetector station : counted) {
+            countedNetwork = countedNetwork.withStation(station);
+        }
+        final Propagator propagator = createPropagator();
+        for (final EventDetector detector : countedNetwork.getDetectors()) {
+            propagator.addEventDetector(detector);
+        }
+        provider.count = 0;
+        propagator.propagate(target);
+        return provider.count;
+    }
+
+    @Test
+    public void testSwitchingFunction() throws OrekitException {
+        final Propagator propagator = createPropagator();
+        final List<MultiStationElevationDetector.StationDetector> detectors = network.getDetectors();
+        for (double dt = 0; dt < Constants.JULIAN_DAY; dt += 300.0) {
+            final SpacecraftState state = propagator.propagate(orbit.getDate().shiftedBy(dt));
+            for (int i = 0; i < stations.size(); ++i) {
+                final double expected = stations.get(i).g(state);
+                Assert.assertEquals(expected, detectors.get(i).g(state), 1.0e-10 * FastMath.abs(expected));
+            }
+        }
+    }
+
+    @Test
+    public void testSharedCacheWithDifferentStates() throws OrekitException {
+
+        // two spacecraft at the same date, evaluated by the same network detectors
+        final SpacecraftState s1 = new SpacecraftState(orbit);
+        final SpacecraftState s2 = new SpacecraftState(new EquinoctialOrbit(new PVCoordinates(new Vector3D(6142438.668, -3492467.56, 25767.257),
+                                                                                              new Vector3D(-505.848, -942.781, -7435.922)),
+                                                                            orbit.getFrame(), orbit.getDate(), orbit.getMu()));
+        final List<MultiStationElevationDetector.StationDetector> detectors = network.getDetectors();
+        for (int k = 0; k < 2; ++k) {
+            for (int i = 0; i < stations.size(); ++i) {
+                Assert.assertEquals(stations.get(i).g(s1), detectors.get(i).g(s1), 1.0e-12);
+                Assert.assertEquals(stations.get(i).g(s2), detectors.get(i).g(s2), 1.0e-12);
+            }
+        }
+
+    }
+
+    @Test
+    public void testEventsLogger() throws OrekitException {
+        final Propagator propagator = createPropagator();
+        final EventsLogger logger = new EventsLogger();
+        for (final EventDetector detector : network.getDetectors()) {
+            propagator.addEventDetector(logger.monitorDetector(detector));
+        }
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+        Assert.assertEquals(58, logger.getLoggedEvents().size());
+        int rising = 0;
+        for (final LoggedEvent event : logger.getLoggedEvents()) {
+            final TopocentricFrame station =
+                            ((MultiStationElevationDetector.StationDetector) event.getEventDetector()).getTopocentricFrame();
+            final double elevation = station.getElevation(event.getState().getPVCoordinates().getPosition(),
+                                                          event.getState().getFrame(),
+                                                          event.getState().getDate());
+            final SpacecraftState later = event.getState().shiftedBy(1.0);
+            final double laterElevation = station.getElevation(later.getPVCoordinates().getPosition(),
+                                                               later.getFrame(), later.getDate());
+            Assert.assertEquals(laterElevation > elevation, event.isIncreasing());
+            if (event.isIncreasing()) {
+                ++rising;
+            }
+        }
+        Assert.assertEquals(29, rising);
+    }
+
+    @Test
+    public void testConfiguration() throws OrekitException {
+        Assert.assertEquals(stations.size(), network.getStations().size());
+        Assert.assertEquals(stations.size(), network.getDetectors().size());
+        for (int i = 0; i < stations.size(); ++i) {
+            final MultiStationElevationDetector.StationDetector detector = network.getDetectors().get(i);
+            Assert.assertSame(stations.get(i), network.getStations().get(i));
+            Assert.assertSame(stations.get(i), detector.getStation());
+            Assert.assertSame(stations.get(i).getTopocentricFrame(), detector.getTopocentricFrame());
+            Assert.assertEquals(stations.get(i).getMaxCheckInterval(), detector.getMaxCheckInterval(), 1.0e-15);
+            Assert.assertEquals(stations.get(i).getThreshold(), detector.getThreshold(), 1.0e-15);
+            Assert.assertEquals(stations.get(i).getMaxIterationCount(), detector.getMaxIterationCount());
+            final MultiStationElevationDetector.StationDetector modified = detector.withThreshold(1.0e-3).withMaxIter(20);
+            Assert.assertEquals(1.0e-3, modified.getThreshold(), 1.0e-15);
+            Assert.assertEquals(20, modified.getMaxIterationCount());
+            Assert.assertSame(stations.get(i), modified.getStation());
+        }
+    }
+
+    @Test
+    public void testAdaptiveMaxCheck() throws OrekitException {
+        final ElevationDetector adaptive = stations.get(0).withAdaptiveMaxCheck();
+        final MultiStationElevationDetector.StationDetector detector =
+                        new MultiStationElevationDetector().withStation(adaptive).getDetectors().get(0);
+        Assert.assertSame(adaptive.getAdaptableInterval(), detector.getAdaptableInterval());
+        Assert.assertNull(network.getDetectors().get(0).getAdaptableInterval());
+    }
+
+    @Test
+    public void testNoStations() throws OrekitException {
+        final MultiStationElevationDetector empty = new MultiStationElevationDetector();
+        Assert.assertTrue(empty.getStations().isEmpty());
+        Assert.assertTrue(empty.getDetectors().isEmpty());
+    }
+
+    @Test
+    public void testFramesMismatch() throws OrekitException {
+        final BodyShape other = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                     Constants.WGS84_EARTH_FLATTENING,
+                                                     FramesFactory.getGTOD(IERSConventions.IERS_2010, true));
+        final TopocentricFrame topo = new TopocentricFrame(other, new GeodeticPoint(0.0, 0.0, 0.0), "other");
+        try {
+            network.withStation(new ElevationDetector(topo));
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(OrekitMessages.FRAMES_MISMATCH, oiae.getSpecifier());
+        }
+    }
+
+    private void checkSameEvents(final List<Event> individualEvents, final List<Event> networkEvents,
+                                 final int expectedSize) {
+        individualEvents.sort((e1, e2) -> e1.date.compareTo(e2.date));
+        networkEvents.sort((e1, e2) -> e1.date.compareTo(e2.date));
+        Assert.assertEquals(expectedSize, individualEvents.size());
+        Assert.assertEquals(individualEvents.size(), networkEvents.size());
+        for (int i = 0; i < individualEvents.size(); ++i) {
+            Assert.assertSame(individualEvents.get(i).station, networkEvents.get(i).station);
+            Assert.assertEquals(individualEvents.get(i).rising, networkEvents.get(i).rising);
+            Assert.assertEquals(0.0, networkEvents.get(i).date.durationFrom(individualEvents.get(i).date), 1.0e-5);
+        }
+    }
+
+    private Propagator createPropagator() throws OrekitException {
+        return new EcksteinHechlerPropagator(orbit,
+                                             Constants.EIGEN5C_EARTH_EQUATORIAL_RADIUS,
+                                             Constants.EIGEN5C_EARTH_MU,
+                                             Constants.EIGEN5C_EARTH_C20,
+                                             Constants.EIGEN5C_EARTH_C30,
+                                             Constants.EIGEN5C_EARTH_C40,
+                                             Constants.EIGEN5C_EARTH_C50,
+                                             Constants.EIGEN5C_EARTH_C60);
+    }
+
+    private static class CountingProvider implements TransformProvider {
+        private static final long serialVersionUID = 20171215L;
+        private int count;
+        public Transform getTransform(final AbsoluteDate date) {
+            ++count;
+            return Transform.IDENTITY;
+        }
+        public <T extends RealFieldElement<T>> FieldTransform<T> getTransform(final FieldAbsoluteDate<T> date) {
+            ++count;
+            return FieldTransform.getIdentity(date.getField());
+        }
+    }
+
+    private static class Recorder implements EventHandler<ElevationDetector> {
+        private final List<Event> events;
+        Recorder(final List<Event> events) {
+            this.events = events;
+        }
+        public Action eventOccurred(final SpacecraftState s, final ElevationDetector detector,
+                                    final boolean increasing) {
+            events.add(new Event(detector.getTopocentricFrame(), s.getDate(), increasing));
+            return Action.CONTINUE;
+        }
+    }
+
+    private static class Event {
+        private final TopocentricFrame station;
+        private final AbsoluteDate     date;
+        private final boolean          rising;
+        Event(final TopocentricFrame station, final AbsoluteDate date, final boolean rising) {
+            this.station = station;
+            this.date    = date;
+            this.rising  = rising;
+        }
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+
+        Utils.setDataRoot("regular-data");
+
+        orbit = new EquinoctialOrbit(new PVCoordinates(new Vector3D(-6142438.668, 3492467.56, -25767.257),
+                                                       new Vector3D(505.848, 942.781, 7435.922)),
+                                     FramesFactory.getEME2000(),
+                                     new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC()),
+                                     Constants.EIGEN5C_EARTH_MU);
+
+        final BodyShape earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                     Constants.WGS84_EARTH_FLATTENING,
+                                                     FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        final double[][] mask = {
+            { FastMath.toRadians(  0), FastMath.toRadians(5) },
+            { FastMath.toRadians( 90), FastMath.toRadians(2) },
+            { FastMath.toRadians(180), FastMath.toRadians(5) },
+            { FastMath.toRadians(270), FastMath.toRadians(8) }
+        };
+        stations = new ArrayList<>();
+        stations.add(new ElevationDetector(station(earth, 48.833, 2.333, "Paris")).
+                     withConstantElevation(FastMath.toRadians(5.0)));
+        stations.add(new ElevationDetector(station(earth, 43.604, 1.444, "Toulouse")).
+                     withElevationMask(new ElevationMask(mask)));
+        stations.add(new ElevationDetector(station(earth, 5.160, -52.650, "Kourou")).
+                     withRefraction(new EarthStandardAtmosphereRefraction()));
+        stations.add(new ElevationDetector(station(earth, -33.900, 18.400, "Hartebeesthoek")).
+                     withConstantElevation(FastMath.toRadians(10.0)));
+        stations.add(new ElevationDetector(station(earth, 67.860, 20.960, "Kiruna")).
+                     withConstantElevation(FastMath.toRadians(3.0)));
+
+        network = new MultiStationElevationDetector();
+        for (int i = 0; i < stations.size(); ++i) {
+            stations.set(i, stations.get(i).withMaxCheck(10.0).withHandler(new ContinueOnEvent<>()));
+            network = network.withStation(stations.get(i));
+        }
+
+    }
+
+    private TopocentricFrame station(final BodyShape earth,
+                                     final double latitude, final double longitude,
+                                     final String name) {
+        return new TopocentricFrame(earth,
+                                    new GeodeticPoint(FastMath.toRadians(latitude),
+                                                      FastMath.toRadians(longitude),
+                                                      0.0),
+                                    name);
+    }
+
+    @After
+    public void tearDown() {
+        orbit    = null;
+        stations = null;
+        network  = null;
+    }
+
+    private Orbit                         orbit;
+    private List<ElevationDetector>       stations;
+    private MultiStationElevationDetector network;
+
+}
@@ -0,0 +1,222 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.instrumentation;
+
+import java.util.List;
+
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.ThirdBodyAttraction;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.ICGEMFormatReader;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.ApsideDetector;
+import org.orekit.propagation.events.handlers.ContinueOnEvent;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+public class PropagationInstrumentationTest {
+
+    private Orbit orbit;
+
+    @Test
+    public void testNumerical() throws OrekitException {
+
+        final PropagationInstrumentation instrumentation = new PropagationInstrumentation();
+        Assert.assertFalse(instrumentation.isTrackingAllocations());
+
+        final NumericalPropagator propagator = createNumerical();
+        propagator.setInstrumentation(instrumentation);
+        Assert.assertSame(instrumentation, propagator.getInstrumentation());
+        final int[] steps = new int[1];
+        propagator.setMasterMode((interpolator, isLast) -> ++steps[0]);
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        final List<ComponentStatistics> snapshot = instrumentation.getSnapshot();
+        Assert.assertEquals(7, snapshot.size());
+
+        // force models
+        checkForceModel(find(snapshot, "HolmesFeatherstoneAttractionModel"), propagator.getCalls());
+        checkForceModel(find(snapshot, "ThirdBodyAttraction"),               propagator.getCalls());
+        checkForceModel(find(snapshot, "ThirdBodyAttraction-2"),             propagator.getCalls());
+        checkForceModel(find(snapshot, "NewtonianAttraction"),               propagator.getCalls());
+
+        // events detectors
+        checkDetector(find(snapshot, "ApsideDetector"),   31);
+        checkDetector(find(snapshot, "ApsideDetector-2"), 31);
+
+        // step handler
+        final ComponentStatistics handler = find(snapshot, "PropagationInstrumentationTest$Lambda");
+        Assert.assertEquals(ComponentType.STEP_HANDLER, handler.getType());
+        Assert.assertEquals(steps[0], handler.getCalls());
+        Assert.assertEquals(0L, handler.getEvents());
+        Assert.assertEquals(0L, handler.getRootFindingEvaluations());
+        Assert.assertEquals(0L, handler.getAllocatedBytes());
+
+    }
+
+    @Test
+    public void testAccumulationAndReset() throws OrekitException {
+
+        final PropagationInstrumentation instrumentation = new PropagationInstrumentation();
+        final NumericalPropagator propagator = createNumerical();
+        propagator.setInstrumentation(instrumentation);
+        propagator.propagate(orbit.getDate().shiftedBy(0.5 * Constants.JULIAN_DAY));
+        final long calls1 = propagator.getCalls();
+        Assert.assertEquals(calls1, find(instrumentation.getSnapshot(), "NewtonianAttraction").getCalls());
+
+        // probes are reused, statistics accumulate
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+        final long calls2 = propagator.getCalls();
+        Assert.assertEquals(6, instrumentation.getSnapshot().size());
+        Assert.assertEquals(calls1 + calls2, find(instrumentation.getSnapshot(), "NewtonianAttraction").getCalls());
+
+        instrumentation.reset();
+        Assert.assertEquals(6, instrumentation.getSnapshot().size());
+        for (final ComponentStatistics statistics : instrumentation.getSnapshot()) {
+            Assert.assertEquals(0L, statistics.getCalls());
+            Assert.assertEquals(0L, statistics.getNanos());
+            Assert.assertEquals(0L, statistics.getEvents());
+            Assert.assertEquals(0L, statistics.getRootFindingEvaluations());
+        }
+
+        // disabling instrumentation
+        propagator.setInstrumentation(null);
+        Assert.assertNull(propagator.getInstrumentation());
+        propagator.propagate(orbit.getDate().shiftedBy(1.5 * Constants.JULIAN_DAY));
+        for (final ComponentStatistics statistics : instrumentation.getSnapshot()) {
+            Assert.assertEquals(0L, statistics.getCalls());
+        }
+
+    }
+
+    @Test
+    public void testAnalytical() throws OrekitException {
+
+        final PropagationInstrumentation instrumentation = new PropagationInstrumentation();
+        final KeplerianPropagator propagator = new KeplerianPropagator(orbit);
+        propagator.addEventDetector(new ApsideDetector(orbit).withHandler(new ContinueOnEvent<>()));
+        final int[] steps = new int[1];
+        propagator.setMasterMode(60.0, (state, isLast) -> ++steps[0]);
+        propagator.setInstrumentation(instrumentation);
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        final List<ComponentStatistics> snapshot = instrumentation.getSnapshot();
+        Assert.assertEquals(2, snapshot.size());
+        checkDetector(find(snapshot, "ApsideDetector"), 30);
+        final ComponentStatistics handler = find(snapshot, "OrekitStepNormalizer");
+        Assert.assertEquals(ComponentType.STEP_HANDLER, handler.getType());
+        // the normalizer is called once per propagator step, and steps are split at events,
+        // the fixed step handler is called once per 60s, plus one call for initial state
+        Assert.assertEquals(1441, steps[0]);
+        Assert.assertEquals(steps[0] - 1 + 30, handler.getCalls());
+
+    }
+
+    @Test
+    public void testAllocations() throws OrekitException {
+
+        final PropagationInstrumentation instrumentation = new PropagationInstrumentation(true);
+        Assume.assumeTrue(instrumentation.isTrackingAllocations());
+
+        final NumericalPropagator propagator = createNumerical();
+        propagator.setInstrumentation(instrumentation);
+        propagator.propagate(orbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+
+        final List<ComponentStatistics> snapshot = instrumentation.getSnapshot();
+        final ComponentStatistics gravity   = find(snapshot, "HolmesFeatherstoneAttractionModel");
+        final ComponentStatistics newtonian = find(snapshot, "NewtonianAttraction");
+        // gravity field involves frames transforms and intermediate arrays
+        Assert.assertTrue(gravity.getAllocatedBytes() > 1000 * gravity.getCalls());
+        // Keplerian contribution is added directly to derivatives
+        Assert.assertTrue(newtonian.getAllocatedBytes() < 100 * newtonian.getCalls());
+
+    }
+
+    private ComponentStatistics find(final List<ComponentStatistics> snapshot, final String name) {
+        for (final ComponentStatistics statistics : snapshot) {
+            if (statistics.getName().equals(name)) {
+                return statistics;
+            }
+        }
+        Assert.fail("no statistics for " + name);
+        return null;
+    }
+
+    private void checkForceModel(final ComponentStatistics statistics, final long calls) {
+        Assert.assertEquals(ComponentType.FORCE_MODEL, statistics.getType());
+        Assert.assertEquals(calls, statistics.getCalls());
+        Assert.assertTrue(statistics.getNanos() > 0);
+        Assert.assertEquals(0L, statistics.getEvents());
+        Assert.assertEquals(0L, statistics.getRootFindingEvaluations());
+    }
+
+    private void checkDetector(final ComponentStatistics statistics, final long events) {
+        Assert.assertEquals(ComponentType.EVENT_DETECTOR, statistics.getType());
+        Assert.assertEquals(events, statistics.getEvents());
+        Assert.assertTrue(statistics.getNanos() > 0);
+        Assert.assertTrue(statistics.getRootFindingEvaluations() > 0);
+        Assert.assertTrue(statistics.getRootFindingEvaluations() < statistics.getCalls());
+    }
+
+    private NumericalPropagator createNumerical() throws OrekitException {
+        final double[][] tol = NumericalPropagator.tolerances(0.01, orbit, OrbitType.CARTESIAN);
+        final NumericalPropagator propagator =
+                        new NumericalPropagator(new DormandPrince853Integrator(0.001, 300, tol[0], tol[1]));
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        final OneAxisEllipsoid earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                            Constants.WGS84_EARTH_FLATTENING,
+                                                            FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        propagator.addForceModel(new HolmesFeatherstoneAttractionModel(earth.getBodyFrame(),
+                                                                       GravityFieldFactory.getNormalizedProvider(8, 8)));
+        propagator.addForceModel(new ThirdBodyAttraction(CelestialBodyFactory.getSun()));
+        propagator.addForceModel(new ThirdBodyAttraction(CelestialBodyFactory.getMoon()));
+        propagator.addEventDetector(new ApsideDetector(orbit).withHandler(new ContinueOnEvent<>()));
+        propagator.addEventDetector(new ApsideDetector(orbit).withHandler(new ContinueOnEvent<>()));
+        propagator.setInitialState(new SpacecraftState(orbit));
+        return propagator;
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+        Utils.setDataRoot("regular-data:potential/icgem-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new ICGEMFormatReader("eigen-6s-truncated", true));
+        orbit = new KeplerianOrbit(6800000.0, 0.001, FastMath.toRadians(51.0), 1, 2, 0, PositionAngle.MEAN,
+                                   FramesFactory.getEME2000(),
+                                   new AbsoluteDate(2004, 1, 1, TimeScalesFactory.getUTC()),
+                                   Constants.EIGEN5C_EARTH_MU);
+    }
+
+}
@@ -0,0 +1,283 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalStateException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.ode.DenseOutputModel;
+import org.hipparchus.ode.ODEState;
+import org.hipparchus.ode.OrdinaryDifferentialEquation;
+import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.orekit.Utils;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitIllegalStateException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.FramesFactory;
+import org.orekit.orbits.EquinoctialOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.BoundedPropagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.DateDetector;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.PVCoordinates;
+
+public class PagedDenseOutputModelTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testForward() throws OrekitException, IOException {
+        doTestSameAsMemory(initialOrbit.getDate().shiftedBy(Constants.JULIAN_DAY));
+    }
+
+    @Test
+    public void testBackward() throws OrekitException, IOException {
+        doTestSameAsMemory(initialOrbit.getDate().shiftedBy(-Constants.JULIAN_DAY));
+    }
+
+    private void doTestSameAsMemory(final AbsoluteDate target) throws OrekitException, IOException {
+
+        final File directory = tempFolder.newFolder();
+
+        final NumericalPropagator inMemory = createPropagator();
+        inMemory.setEphemerisMode();
+        inMemory.propagate(target);
+        final BoundedPropagator reference = inMemory.getGeneratedEphemeris();
+
+        final NumericalPropagator paged = createPropagator();
+        paged.setEphemerisMode(directory, 8, 2);
+        paged.propagate(target);
+        final BoundedPropagator ephemeris = paged.getGeneratedEphemeris();
+        Assert.assertEquals(0.0, ephemeris.getMinDate().durationFrom(reference.getMinDate()), 1.0e-15);
+        Assert.assertEquals(0.0, ephemeris.getMaxDate().durationFrom(reference.getMaxDate()), 1.0e-15);
+
+        // all steps have been written in one file
+        final File[] files = directory.listFiles();
+        Assert.assertEquals(1, files.length);
+        Assert.assertTrue(files[0].length() > 100000);
+
+        // random access forces chunks to be evicted and reloaded
+        final double span = reference.getMaxDate().durationFrom(reference.getMinDate());
+        final Random random = new Random(0x4c3e8a1b2d7f6e59l);
+        for (int i = 0; i < 1000; ++i) {
+            final AbsoluteDate date = reference.getMinDate().shiftedBy(span * random.nextDouble());
+            checkSame(reference, ephemeris, date);
+        }
+        checkSame(reference, ephemeris, reference.getMinDate());
+        checkSame(reference, ephemeris, reference.getMaxDate());
+
+        // closing the ephemeris deletes the file
+        ((IntegratedEphemeris) ephemeris).close();
+        Assert.assertEquals(0, directory.listFiles().length);
+
+    }
+
+    @Test
+    public void testSerialization() throws OrekitException, IOException, ClassNotFoundException {
+
+        final AbsoluteDate target = initialOrbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+        final NumericalPropagator paged = createPropagator();
+        paged.setEphemerisMode(tempFolder.newFolder(), 32, 1);
+        paged.propagate(target);
+        final IntegratedEphemeris ephemeris = (IntegratedEphemeris) paged.getGeneratedEphemeris();
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(ephemeris);
+
+        ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+        ObjectInputStream     ois = new ObjectInputStream(bis);
+        IntegratedEphemeris deserialized  = (IntegratedEphemeris) ois.readObject();
+        Assert.assertEquals(ephemeris.getMinDate(), deserialized.getMinDate());
+        Assert.assertEquals(ephemeris.getMaxDate(), deserialized.getMaxDate());
+        for (double dt = 0; dt <= Constants.JULIAN_DAY; dt += 600.0) {
+            checkSame(ephemeris, deserialized, initialOrbit.getDate().shiftedBy(dt));
+        }
+        ephemeris.close();
+        deserialized.close();
+
+    }
+
+    @Test
+    public void testClose() throws OrekitException, IOException {
+
+        final File directory = tempFolder.newFolder();
+        final AbsoluteDate target = initialOrbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+        final NumericalPropagator paged = createPropagator();
+        paged.setEphemerisMode(directory, 32, 1);
+        paged.propagate(target);
+        IntegratedEphemeris leaked = null;
+        try (IntegratedEphemeris ephemeris = (IntegratedEphemeris) paged.getGeneratedEphemeris()) {
+            Assert.assertEquals(1, directory.listFiles().length);
+            ephemeris.getPVCoordinates(target, initialOrbit.getFrame());
+            leaked = ephemeris;
+        }
+        Assert.assertEquals(0, directory.listFiles().length);
+
+        // the closed ephemeris cannot be used anymore
+        try {
+            leaked.getPVCoordinates(target, initialOrbit.getFrame());
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalStateException oise) {
+            Assert.assertEquals(OrekitMessages.EPHEMERIS_FILE_CLOSED, oise.getSpecifier());
+        }
+        try {
+            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(leaked);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalStateException oise) {
+            Assert.assertEquals(OrekitMessages.EPHEMERIS_FILE_CLOSED, oise.getSpecifier());
+        }
+
+        // closing again has no effect
+        leaked.close();
+
+    }
+
+    @Test
+    public void testFailedIntegration() throws OrekitException, IOException {
+
+        final File directory = tempFolder.newFolder();
+        final AbsoluteDate target = initialOrbit.getDate().shiftedBy(Constants.JULIAN_DAY);
+        final NumericalPropagator paged = createPropagator();
+        paged.setEphemerisMode(directory, 32, 1);
+        paged.addEventDetector(new DateDetector(initialOrbit.getDate().shiftedBy(3600.0)).
+                               withHandler((state, detector, increasing) -> {
+                                   Assert.assertEquals(1, directory.listFiles().length);
+                                   throw new OrekitException(LocalizedCoreFormats.SIMPLE_MESSAGE, "failure");
+                               }));
+        try {
+            paged.propagate(target);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(LocalizedCoreFormats.SIMPLE_MESSAGE, oe.getSpecifier());
+        }
+
+        // no ephemeris has been generated, the file has been deleted
+        Assert.assertNull(paged.getGeneratedEphemeris());
+        Assert.assertEquals(0, directory.listFiles().length);
+
+    }
+
+    @Test
+    public void testInactiveHandlers() throws OrekitException, IOException {
+
+        final File directory = tempFolder.newFolder();
+        final NumericalPropagator paged = createPropagator();
+        paged.setEphemerisMode(directory, 32, 1);
+        paged.propagate(initialOrbit.getDate().shiftedBy(3600.0), initialOrbit.getDate().shiftedBy(7200.0));
+        final IntegratedEphemeris ephemeris = (IntegratedEphemeris) paged.getGeneratedEphemeris();
+
+        // the file used when propagating to start date with inactive handlers has been deleted
+        Assert.assertEquals(1, directory.listFiles().length);
+        ephemeris.close();
+        Assert.assertEquals(0, directory.listFiles().length);
+
+    }
+
+    @Test
+    public void testModel() throws OrekitException, IOException {
+        final PagedDenseOutputModel model = new PagedDenseOutputModel(tempFolder.newFolder(), 10, 3);
+        Assert.assertEquals(0, model.getNbChunks());
+        Assert.assertNull(model.getFile());
+        final AdaptiveStepsizeIntegrator integrator = new DormandPrince853Integrator(1.0e-6, 1.0, 1.0e-10, 1.0e-10);
+        integrator.addStepHandler(model);
+        integrator.integrate(new OrdinaryDifferentialEquation() {
+            public int getDimension() {
+                return 2;
+            }
+            public double[] computeDerivatives(double t, double[] y) {
+                return new double[] { y[1], -y[0] };
+            }
+        }, new ODEState(0.0, new double[] { 0.0, 1.0 }), 100.0);
+        Assert.assertTrue(model.getNbChunks() > 1);
+        Assert.assertTrue(model.getFile().exists());
+        Assert.assertEquals(0.0, model.getInitialTime(), 1.0e-15);
+        Assert.assertEquals(100.0, model.getFinalTime(), 1.0e-15);
+        for (double t = 0; t <= 100.0; t += 0.25) {
+            Assert.assertEquals(Math.sin(t), model.getInterpolatedState(t).getPrimaryState()[0], 1.0e-8);
+        }
+        try {
+            model.append(new DenseOutputModel());
+            Assert.fail("an exception should have been thrown");
+        } catch (MathIllegalStateException mise) {
+            // expected
+        }
+        model.close();
+        Assert.assertFalse(model.getFile().exists());
+    }
+
+    @Test(expected = OrekitIllegalArgumentException.class)
+    public void testWrongChunkSize() {
+        new PagedDenseOutputModel(null, 0, 3);
+    }
+
+    private void checkSame(final BoundedPropagator reference, final BoundedPropagator ephemeris,
+                           final AbsoluteDate date)
+        throws OrekitException {
+        final PVCoordinates pv1 = reference.getPVCoordinates(date, initialOrbit.getFrame());
+        final PVCoordinates pv2 = ephemeris.getPVCoordinates(date, initialOrbit.getFrame());
+        Assert.assertEquals(0.0, Vector3D.distance(pv1.getPosition(), pv2.getPosition()), 1.0e-15);
+        Assert.assertEquals(0.0, Vector3D.distance(pv1.getVelocity(), pv2.getVelocity()), 1.0e-15);
+    }
+
+    private NumericalPropagator createPropagator() throws OrekitException {
+        double[] absTolerance = {
+            0.0001, 1.0e-11, 1.0e-11, 1.0e-8, 1.0e-8, 1.0e-8, 0.001
+        };
+        double[] relTolerance = {
+            1.0e-8, 1.0e-8, 1.0e-8, 1.0e-9, 1.0e-9, 1.0e-9, 1.0e-7
+        };
+        AdaptiveStepsizeIntegrator integrator =
+            new DormandPrince853Integrator(0.001, 500, absTolerance, relTolerance);
+        integrator.setInitialStepSize(100);
+        final NumericalPropagator propagator = new NumericalPropagator(integrator);
+        propagator.setInitialState(new SpacecraftState(initialOrbit));
+        return propagator;
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+        initialOrbit = new EquinoctialOrbit(new PVCoordinates(new Vector3D(7.0e6, 1.0e6, 4.0e6),
+                                                              new Vector3D(-500.0, 8000.0, 1000.0)),
+                                            FramesFactory.getEME2000(),
+                                            AbsoluteDate.J2000_EPOCH.shiftedBy(584.),
+                                            3.9860047e14);
+    }
+
+    private Orbit initialOrbit;
+
+}
@@ -89,6 +89,7 @@ import org.orekit.propagation.sampling.OrekitStepInterpolator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScale;
 import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.ComputationContext;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
 import org.orekit.utils.PVCoordinates;
@@ -1364,6 +1365,38 @@ public class NumericalPropagatorTest {
         return errors;
     }
 
+    @Test
+    public void testComputationContext() throws OrekitException {
+
+        Utils.setDataRoot("regular-data:atmosphere:potential/grgs-format");
+        GravityFieldFactory.addPotentialCoefficientsReader(new GRGSFormatReader("grim4s4_gr", true));
+
+        final SpacecraftState initialState = new SpacecraftState(createEllipticOrbit());
+        final AbsoluteDate    target       = initialState.getDate().shiftedBy(Constants.JULIAN_DAY);
+
+        final NumericalPropagator reference = createPropagator(initialState, OrbitType.CARTESIAN, PositionAngle.TRUE);
+        Assert.assertFalse(reference.isComputationContextEnabled());
+        final SpacecraftState referenceFinal = reference.propagate(target);
+
+        final NumericalPropagator shared = createPropagator(initialState, OrbitType.CARTESIAN, PositionAngle.TRUE);
+        shared.setComputationContextEnabled(true);
+        Assert.assertTrue(shared.isComputationContextEnabled());
+        final SpacecraftState sharedFinal = shared.propagate(target);
+
+        // sharing intermediate computations must not change anything to the results
+        Assert.assertEquals(reference.getCalls(), shared.getCalls());
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(referenceFinal.getPVCoordinates().getPosition(),
+                                              sharedFinal.getPVCoordinates().getPosition()),
+                            1.0e-15);
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(referenceFinal.getPVCoordinates().getVelocity(),
+                                              sharedFinal.getPVCoordinates().getVelocity()),
+                            1.0e-15);
+        Assert.assertFalse(ComputationContext.isActive());
+
+    }
+
     private synchronized static NumericalPropagator createPropagator(SpacecraftState spacecraftState,
                                                                      OrbitType orbitType, PositionAngle angleType)
         throws OrekitException {
@@ -0,0 +1,427 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.propagation.passes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.BodyShape;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.errors.OrekitException;
+import org.orekit.errors.OrekitIllegalArgumentException;
+import org.orekit.errors.OrekitMessages;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.TopocentricFrame;
+import org.orekit.models.earth.EarthStandardAtmosphereRefraction;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.orbits.PositionAngle;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.events.ElevationDetector;
+import org.orekit.propagation.events.handlers.EventHandler.Action;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.ElevationMask;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinatesProvider;
+
+public class PassPredictorTest {
+
+    @Test
+    public void testSameAsElevationDetectors() throws OrekitException {
+
+        final PassPredictor predictor = new PassPredictor(createSatellites(), stations,
+                                                          Constants.EIGEN5C_EARTH_MU, 60.0);
+        predictor.setConvergence(1.0e-6);
+        Assert.assertEquals(1.0e-6, predictor.getConvergence(), 1.0e-15);
+        Assert.assertEquals(PassPredictor.DEFAULT_MAX_ITER, predictor.getMaxIter());
+        final List<Pass> passes = predictor.predict(start, end).getPasses();
+        Assert.assertEquals(80, passes.size());
+
+        for (int i = 0; i < orbits.size(); ++i) {
+            for (int j = 0; j < stations.size(); ++j) {
+
+                // reference passes, using one propagator per pair
+                final List<AbsoluteDate> reference = new ArrayList<>();
+                final Propagator propagator = new KeplerianPropagator(orbits.get(i));
+                propagator.addEventDetector(stations.get(j).withMaxCheck(60.0).withThreshold(1.0e-6).
+                                            withHandler((s, d, increasing) -> {
+                                                reference.add(s.getDate());
+                                                return Action.CONTINUE;
+                                            }));
+                propagator.propagate(start, end);
+
+                // passes already in progress at window start
+                final boolean visibleAtStart = stations.get(j).g(new SpacecraftState(orbits.get(i))) >= 0;
+                if (visibleAtStart) {
+                    reference.add(0, start);
+                }
+
+                final List<Pass> pairPasses = new ArrayList<>();
+                for (final Pass pass : passes) {
+                    if (pass.getSatelliteIndex() == i && pass.getStationIndex() == j) {
+                        pairPasses.add(pass);
+                    }
+                }
+                Assert.assertEquals(reference.size(), 2 * pairPasses.size());
+                for (int k = 0; k < pairPasses.size(); ++k) {
+                    final Pass pass = pairPasses.get(k);
+                    Assert.assertEquals(k == 0 && visibleAtStart, pass.isTruncatedStart());
+                    Assert.assertFalse(pass.isTruncatedEnd());
+                    Assert.assertSame(pass.getAOS(), pass.getDate());
+                    Assert.assertEquals(0.0, pass.getAOS().durationFrom(reference.get(2 * k)),     1.0e-5);
+                    Assert.assertEquals(0.0, pass.getLOS().durationFrom(reference.get(2 * k + 1)), 1.0e-5);
+                    checkTCA(i, j, pass);
+                }
+
+            }
+        }
+
+    }
+
+    @Test
+    public void testTruncated() throws OrekitException {
+
+        final PassPredictor predictor = new PassPredictor(createSatellites(), stations,
+                                                          Constants.EIGEN5C_EARTH_MU, 60.0);
+        final List<Pass> passes = predictor.predict(start, end).getPasses();
+
+        // start and end the window in the middle of the first complete pass
+        Pass first = null;
+        for (final Pass pass : passes) {
+            if (first == null && !pass.isTruncatedStart()) {
+                first = pass;
+            }
+        }
+        final AbsoluteDate middle = first.getAOS().shiftedBy(0.5 * first.getLOS().durationFrom(first.getAOS()));
+        final List<Pass> before = new PassPredictor(createSatellites(), stations, Constants.EIGEN5C_EARTH_MU, 60.0).
+                                  predict(start, middle).getPasses();
+        final List<Pass> after  = new PassPredictor(createSatellites(), stations, Constants.EIGEN5C_EARTH_MU, 60.0).
+                                  predict(middle, end).getPasses();
+        int inProgress = 0;
+        for (final Pass pass : passes) {
+            if (pass.getAOS().compareTo(middle) < 0 && pass.getLOS().compareTo(middle) > 0) {
+                ++inProgress;
+            }
+        }
+        Assert.assertTrue(inProgress >= 1);
+        Assert.assertEquals(passes.size() + inProgress, before.size() + after.size());
+
+        final Pass end1 = find(before, first, middle, false);
+        Assert.assertEquals(0.0, end1.getAOS().durationFrom(first.getAOS()), 1.0e-3);
+        Assert.assertEquals(0.0, end1.getLOS().durationFrom(middle), 1.0e-15);
+        Assert.assertFalse(end1.isTruncatedStart());
+        Assert.assertTrue(end1.isTruncatedEnd());
+
+        final Pass start2 = find(after, first, middle, true);
+        Assert.assertEquals(0.0, start2.getAOS().durationFrom(middle), 1.0e-15);
+        Assert.assertEquals(0.0, start2.getLOS().durationFrom(first.getLOS()), 1.0e-3);
+        Assert.assertTrue(start2.isTruncatedStart());
+        Assert.assertFalse(start2.isTruncatedEnd());
+
+    }
+
+    @Test
+    public void testStreamingAndParallelism() throws OrekitException {
+
+        final List<Pass> reference = new PassPredictor(createSatellites(), stations,
+                                                       Constants.EIGEN5C_EARTH_MU, 60.0,
+                                                       new ForkJoinPool(1)).predict(start, end).getPasses();
+
+        final List<Pass> streamed = new ArrayList<>();
+        new PassPredictor(createSatellites(), stations,
+                          Constants.EIGEN5C_EARTH_MU, 60.0,
+                          new ForkJoinPool(4)).predict(start, end, pass -> streamed.add(pass));
+        Assert.assertEquals(reference.size(), streamed.size());
+
+        // passes of one satellite over one station are streamed in chronological order
+        for (int i = 0; i < orbits.size(); ++i) {
+            for (int j = 0; j < stations.size(); ++j) {
+                AbsoluteDate previous = AbsoluteDate.PAST_INFINITY;
+                for (final Pass pass : streamed) {
+                    if (pass.getSatelliteIndex() == i && pass.getStationIndex() == j) {
+                        Assert.assertTrue(pass.getAOS().compareTo(previous) > 0);
+                        previous = pass.getLOS();
+                    }
+                }
+            }
+        }
+
+        // results do not depend on parallelism
+        streamed.sort((p1, p2) -> {
+            final int c = p1.getAOS().compareTo(p2.getAOS());
+            if (c != 0) {
+                return c;
+            }
+            return p1.getSatelliteIndex() != p2.getSatelliteIndex() ?
+                   Integer.compare(p1.getSatelliteIndex(), p2.getSatelliteIndex()) :
+                   Integer.compare(p1.getStationIndex(),   p2.getStationIndex());
+        });
+        for (int k = 0; k < reference.size(); ++k) {
+            Assert.assertEquals(reference.get(k).getSatelliteIndex(), streamed.get(k).getSatelliteIndex());
+            Assert.assertEquals(reference.get(k).getStationIndex(),   streamed.get(k).getStationIndex());
+            Assert.assertEquals(0.0, streamed.get(k).getAOS().durationFrom(reference.get(k).getAOS()), 1.0e-15);
+            Assert.assertEquals(0.0, streamed.get(k).getLOS().durationFrom(reference.get(k).getLOS()), 1.0e-15);
+            Assert.assertEquals(0.0, streamed.get(k).getTCA().durationFrom(reference.get(k).getTCA()), 1.0e-15);
+        }
+
+    }
+
+    @Test
+    public void testSatelliteFailure() throws OrekitException {
+
+        // the first satellite cannot be evaluated during the second half of the window
+        final AbsoluteDate failure = start.shiftedBy(0.5 * end.durationFrom(start));
+        final Propagator   regular = new KeplerianPropagator(orbits.get(0));
+        final List<PVCoordinatesProvider> satellites = new ArrayList<>();
+        satellites.add((date, frame) -> {
+            if (date.compareTo(failure) > 0) {
+                throw new OrekitException(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE,
+                                          date, start, failure);
+            }
+            return regular.getPVCoordinates(date, frame);
+        });
+
+        final List<Pass> reference = new PassPredictor(createSatellites().subList(0, 1), stations,
+                                                       Constants.EIGEN5C_EARTH_MU, 60.0).predict(start, end).getPasses();
+        final PassesPrediction prediction = new PassPredictor(satellites, stations,
+                                                              Constants.EIGEN5C_EARTH_MU, 60.0).predict(start, end);
+        final List<Pass> passes = prediction.getPasses();
+        Assert.assertTrue(passes.size() < reference.size());
+        for (int k = 0; k < passes.size(); ++k) {
+            Assert.assertTrue(passes.get(k).getLOS().compareTo(failure) <= 0);
+            Assert.assertEquals(0.0, passes.get(k).getAOS().durationFrom(reference.get(k).getAOS()), 1.0e-15);
+        }
+
+        // the failure is reported
+        Assert.assertEquals(1, prediction.getSkippedIntervals().size());
+        final SkippedInterval skipped = prediction.getSkippedIntervals().get(0);
+        Assert.assertEquals(0, skipped.getSatelliteIndex());
+        Assert.assertSame(skipped.getStart(), skipped.getDate());
+        Assert.assertEquals(0.0, skipped.getStart().durationFrom(failure), 1.0e-15);
+        Assert.assertEquals(0.0, skipped.getEnd().durationFrom(end), 1.0e-15);
+        Assert.assertEquals(OrekitMessages.OUT_OF_RANGE_EPHEMERIDES_DATE, skipped.getCause().getSpecifier());
+
+    }
+
+    @Test
+    public void testSatelliteRecovery() throws OrekitException {
+
+        // the first satellite cannot be evaluated during the middle of the window
+        final AbsoluteDate gapStart = start.shiftedBy(0.25 * end.durationFrom(start));
+        final AbsoluteDate gapEnd   = start.shiftedBy(0.75 * end.durationFrom(start));
+        final Propagator   regular  = new KeplerianPropagator(orbits.get(0));
+        final List<PVCoordinatesProvider> satellites = new ArrayList<>();
+        satellites.add((date, frame) -> {
+            if (date.compareTo(gapStart) > 0 && date.compareTo(gapEnd) < 0) {
+                throw new OrekitException(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL, 1.5);
+            }
+            return regular.getPVCoordinates(date, frame);
+        });
+        satellites.addAll(createSatellites().subList(1, 2));
+
+        final List<Pass>            passes  = new ArrayList<>();
+        final List<SkippedInterval> skipped = new ArrayList<>();
+        new PassPredictor(satellites, stations, Constants.EIGEN5C_EARTH_MU, 60.0).
+        predict(start, end, new PassHandler() {
+            @Override
+            public void handlePass(final Pass pass) {
+                passes.add(pass);
+            }
+            @Override
+            public void handleSkippedInterval(final SkippedInterval interval) {
+                skipped.add(interval);
+            }
+        });
+
+        Assert.assertEquals(1, skipped.size());
+        Assert.assertEquals(0, skipped.get(0).getSatelliteIndex());
+        Assert.assertEquals(0.0, skipped.get(0).getStart().durationFrom(gapStart), 1.0e-15);
+        Assert.assertEquals(0.0, skipped.get(0).getEnd().durationFrom(gapEnd),     1.0e-15);
+        Assert.assertEquals(OrekitMessages.TOO_LARGE_ECCENTRICITY_FOR_PROPAGATION_MODEL,
+                            skipped.get(0).getCause().getSpecifier());
+        boolean before = false;
+        boolean after  = false;
+        for (final Pass pass : passes) {
+            if (pass.getSatelliteIndex() == 0) {
+                Assert.assertTrue(pass.getLOS().compareTo(gapStart) <= 0 || pass.getAOS().compareTo(gapEnd) >= 0);
+                before |= pass.getLOS().compareTo(gapStart) <= 0;
+                after  |= pass.getAOS().compareTo(gapEnd)   >= 0;
+            }
+        }
+        Assert.assertTrue(before);
+        Assert.assertTrue(after);
+
+    }
+
+    @Test
+    public void testUnexpectedSatelliteError() throws OrekitException {
+
+        // errors unrelated to validity range are not hidden
+        final List<PVCoordinatesProvider> satellites = createSatellites();
+        satellites.add((date, frame) -> {
+            throw new OrekitException(OrekitMessages.NO_DATA_LOADED_FOR_CELESTIAL_BODY, "Earth");
+        });
+        try {
+            new PassPredictor(satellites, stations, Constants.EIGEN5C_EARTH_MU, 60.0).predict(start, end);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitException oe) {
+            Assert.assertEquals(OrekitMessages.NO_DATA_LOADED_FOR_CELESTIAL_BODY, oe.getSpecifier());
+        }
+
+    }
+
+    @Test
+    public void testErrors() throws OrekitException {
+        try {
+            new PassPredictor(createSatellites(), new ArrayList<>(), Constants.EIGEN5C_EARTH_MU, 60.0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            // expected
+        }
+        try {
+            new PassPredictor(createSatellites(), stations, Constants.EIGEN5C_EARTH_MU, 0.0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            // expected
+        }
+        final BodyShape other = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                     Constants.WGS84_EARTH_FLATTENING,
+                                                     FramesFactory.getGTOD(IERSConventions.IERS_2010, true));
+        final List<ElevationDetector> mixed = new ArrayList<>(stations);
+        mixed.add(new ElevationDetector(new TopocentricFrame(other, new GeodeticPoint(0.0, 0.0, 0.0), "other")));
+        try {
+            new PassPredictor(createSatellites(), mixed, Constants.EIGEN5C_EARTH_MU, 60.0);
+            Assert.fail("an exception should have been thrown");
+        } catch (OrekitIllegalArgumentException oiae) {
+            Assert.assertEquals(OrekitMessages.FRAMES_MISMATCH, oiae.getSpecifier());
+        }
+    }
+
+    private Pass find(final List<Pass> passes, final Pass reference,
+                      final AbsoluteDate date, final boolean atAOS) {
+        for (final Pass pass : passes) {
+            if (pass.getSatelliteIndex() == reference.getSatelliteIndex() &&
+                pass.getStationIndex()   == reference.getStationIndex()   &&
+                (atAOS ? pass.getAOS() : pass.getLOS()).equals(date)) {
+                return pass;
+            }
+        }
+        Assert.fail("pass not found");
+        return null;
+    }
+
+    private void checkTCA(final int i, final int j, final Pass pass) throws OrekitException {
+        final TopocentricFrame topo = stations.get(j).getTopocentricFrame();
+        final Propagator propagator = new KeplerianPropagator(orbits.get(i));
+        final double atTCA = elevation(propagator, topo, pass.getTCA());
+        Assert.assertEquals(atTCA, pass.getMaxElevation(), 1.0e-10);
+        Assert.assertTrue(pass.getTCA().compareTo(pass.getAOS()) > 0);
+        Assert.assertTrue(pass.getTCA().compareTo(pass.getLOS()) < 0);
+        Assert.assertTrue(atTCA >= elevation(propagator, topo, pass.getTCA().shiftedBy(-1.0)));
+        Assert.assertTrue(atTCA >= elevation(propagator, topo, pass.getTCA().shiftedBy(+1.0)));
+    }
+
+    private double elevation(final Propagator propagator, final TopocentricFrame topo, final AbsoluteDate date)
+        throws OrekitException {
+        return topo.getElevation(propagator.getPVCoordinates(date, topo).getPosition(), topo, date);
+    }
+
+    private List<PVCoordinatesProvider> createSatellites() throws OrekitException {
+        final List<PVCoordinatesProvider> satellites = new ArrayList<>();
+        for (final Orbit orbit : orbits) {
+            satellites.add(new KeplerianPropagator(orbit));
+        }
+        return satellites;
+    }
+
+    @Before
+    public void setUp() throws OrekitException {
+
+        Utils.setDataRoot("regular-data");
+
+        start = new AbsoluteDate(2003, 9, 16, TimeScalesFactory.getUTC());
+        end   = start.shiftedBy(Constants.JULIAN_DAY);
+
+        orbits = new ArrayList<>();
+        final double[][] elements = {
+            { 7000000.0, 0.001, 98.0,   0.0 },
+            { 7200000.0, 0.010, 51.6,  60.0 },
+            { 6900000.0, 0.002, 82.0, 120.0 },
+            { 7500000.0, 0.050, 63.4, 200.0 }
+        };
+        for (final double[] e : elements) {
+            orbits.add(new KeplerianOrbit(e[0], e[1], FastMath.toRadians(e[2]),
+                                          FastMath.toRadians(30.0), FastMath.toRadians(e[3]),
+                                          FastMath.toRadians(10.0 * e[3]), PositionAngle.MEAN,
+                                          FramesFactory.getEME2000(), start, Constants.EIGEN5C_EARTH_MU));
+        }
+
+        final BodyShape earth = new OneAxisEllipsoid(Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                                                     Constants.WGS84_EARTH_FLATTENING,
+                                                     FramesFactory.getITRF(IERSConventions.IERS_2010, true));
+        final double[][] mask = {
+            { FastMath.toRadians(  0), FastMath.toRadians(5) },
+            { FastMath.toRadians( 90), FastMath.toRadians(2) },
+            { FastMath.toRadians(180), FastMath.toRadians(5) },
+            { FastMath.toRadians(270), FastMath.toRadians(8) }
+        };
+        stations = new ArrayList<>();
+        stations.add(new ElevationDetector(station(earth, 48.833, 2.333, "Paris")).
+                     withConstantElevation(FastMath.toRadians(5.0)));
+        stations.add(new ElevationDetector(station(earth, 43.604, 1.444, "Toulouse")).
+                     withElevationMask(new ElevationMask(mask)));
+        stations.add(new ElevationDetector(station(earth, 67.860, 20.960, "Kiruna")).
+                     withRefraction(new EarthStandardAtmosphereRefraction()));
+
+    }
+
+    private TopocentricFrame station(final BodyShape earth,
+                                     final double latitude, final double longitude,
+                                     final String name) {
+        return new TopocentricFrame(earth,
+                                    new GeodeticPoint(FastMath.toRadians(latitude),
+                                                      FastMath.toRadians(longitude),
+                                                      0.0),
+                                    name);
+    }
+
+    @After
+    public void tearDown() {
+        start    = null;
+        end      = null;
+        orbits   = null;
+        stations = null;
+    }
+
+    private AbsoluteDate            start;
+    private AbsoluteDate            end;
+    private List<Orbit>             orbits;
+    private List<ElevationDetector> stations;
+
+}
@@ -0,0 +1,251 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.orekit.Utils;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.errors.OrekitException;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.LOFType;
+import org.orekit.frames.LocalOrbitalFrame;
+import org.orekit.frames.Transform;
+import org.orekit.frames.UpdatableFrame;
+import org.orekit.time.AbsoluteDate;
+
+public class ComputationContextTest {
+
+    @Test
+    public void testInactive() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        Assert.assertFalse(ComputationContext.isActive());
+        for (int i = 0; i < 5; ++i) {
+            ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        }
+        Assert.assertEquals(5, count.get());
+    }
+
+    @Test
+    public void testSameDate() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        ComputationContext.enter();
+        Assert.assertTrue(ComputationContext.isActive());
+        for (int i = 0; i < 5; ++i) {
+            // a different but equal date instance must hit the memoized value
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(1.0).shiftedBy(-1.0);
+            Assert.assertEquals(1,
+                                ComputationContext.getValue(this, count, date, () -> count.incrementAndGet()).intValue());
+        }
+        Assert.assertEquals(1, count.get());
+        ComputationContext.exit();
+        Assert.assertFalse(ComputationContext.isActive());
+    }
+
+    @Test
+    public void testDateChange() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        ComputationContext.enter();
+        for (int i = 0; i < 5; ++i) {
+            final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(i);
+            ComputationContext.getValue(this, count, date, () -> count.incrementAndGet());
+            ComputationContext.getValue(this, count, date, () -> count.incrementAndGet());
+        }
+        Assert.assertEquals(5, count.get());
+        ComputationContext.exit();
+    }
+
+    @Test
+    public void testKeys() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        final Object k1 = new Object();
+        final Object k2 = new Object();
+        ComputationContext.enter();
+        for (int i = 0; i < 5; ++i) {
+            ComputationContext.getValue(this, k1, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+            ComputationContext.getValue(this, k2, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+            ComputationContext.getValue(k1,   k2, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        }
+        Assert.assertEquals(3, count.get());
+        ComputationContext.exit();
+    }
+
+    @Test
+    public void testNesting() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        ComputationContext.enter();
+        ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        ComputationContext.enter();
+        ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        ComputationContext.exit();
+        Assert.assertTrue(ComputationContext.isActive());
+        ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        Assert.assertEquals(1, count.get());
+        ComputationContext.exit();
+        Assert.assertFalse(ComputationContext.isActive());
+
+        // values are dropped when outermost context is exited
+        ComputationContext.enter();
+        ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        Assert.assertEquals(2, count.get());
+        ComputationContext.exit();
+    }
+
+    @Test
+    public void testNestedComputationAtOtherDate() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        final Object inner = new Object();
+        final AbsoluteDate  date1 = AbsoluteDate.J2000_EPOCH;
+        final AbsoluteDate  date2 = date1.shiftedBy(60.0);
+        ComputationContext.enter();
+        final Object k = new Object();
+        ComputationContext.getValue(this, k, date1, () -> count.incrementAndGet());
+        final int outer = ComputationContext.getValue(this, count, date1, () -> {
+            // nested computation at another date
+            final int i1 = ComputationContext.getValue(this, inner, date2, () -> count.incrementAndGet());
+            final int i2 = ComputationContext.getValue(this, inner, date2, () -> count.incrementAndGet());
+            // nested computation at the same date
+            final int i3 = ComputationContext.getValue(this, k, date1, () -> count.incrementAndGet());
+            return 100 * i1 + 10 * i2 + i3;
+        });
+        Assert.assertEquals(231, outer);
+        Assert.assertEquals(3, count.get());
+
+        // outer values are still memoized at their own date
+        Assert.assertEquals(231, ComputationContext.getValue(this, count, date1, () -> -1).intValue());
+        Assert.assertEquals(1,   ComputationContext.getValue(this, k,     date1, () -> -1).intValue());
+
+        // and not at the date of the nested computation
+        Assert.assertEquals(-1, ComputationContext.getValue(this, count, date2, () -> -1).intValue());
+        ComputationContext.exit();
+    }
+
+    @Test
+    public void testInvalidate() throws OrekitException {
+        final AtomicInteger count = new AtomicInteger(0);
+        ComputationContext.enter();
+        ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        ComputationContext.invalidate();
+        ComputationContext.getValue(this, count, AbsoluteDate.J2000_EPOCH, () -> count.incrementAndGet());
+        Assert.assertEquals(2, count.get());
+        ComputationContext.exit();
+    }
+
+    @Test
+    public void testFrames() throws OrekitException {
+        final Frame itrf  = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        final Frame gcrf  = FramesFactory.getGCRF();
+        final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        Assert.assertNotSame(gcrf.getTransformTo(itrf, date), gcrf.getTransformTo(itrf, date));
+        ComputationContext.enter();
+        final Transform t1 = gcrf.getTransformTo(itrf, date);
+        Assert.assertSame(t1, gcrf.getTransformTo(itrf, date));
+        Assert.assertNotSame(t1, gcrf.getTransformTo(itrf, date.shiftedBy(1.0)));
+        ComputationContext.exit();
+        final Transform t2 = gcrf.getTransformTo(itrf, date);
+        Assert.assertEquals(0.0, Vector3D.distance(t1.transformPosition(Vector3D.PLUS_I),
+                                                   t2.transformPosition(Vector3D.PLUS_I)),
+                            1.0e-15);
+    }
+
+    @Test
+    public void testUpdatableFrame() throws OrekitException {
+        final Frame gcrf = FramesFactory.getGCRF();
+        final UpdatableFrame updatable = new UpdatableFrame(gcrf, Transform.IDENTITY, "updatable");
+        final AbsoluteDate date = AbsoluteDate.J2000_EPOCH;
+        ComputationContext.enter();
+        Assert.assertEquals(0.0, gcrf.getTransformTo(updatable, date).getTranslation().getNorm(), 1.0e-15);
+        updatable.updateTransform(gcrf, updatable, new Transform(date, Vector3D.PLUS_K), date);
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(Vector3D.PLUS_K, gcrf.getTransformTo(updatable, date).getTranslation()),
+                            1.0e-15);
+        ComputationContext.exit();
+    }
+
+    @Test
+    public void testCelestialBody() throws OrekitException {
+        final CelestialBody sun = CelestialBodyFactory.getSun();
+        final Frame eme2000 = FramesFactory.getEME2000();
+        final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        ComputationContext.enter();
+        final TimeStampedPVCoordinates pv = sun.getPVCoordinates(date, eme2000);
+        Assert.assertSame(pv, sun.getPVCoordinates(date, eme2000));
+        Assert.assertNotSame(pv, sun.getPVCoordinates(date, FramesFactory.getGCRF()));
+        ComputationContext.exit();
+        Assert.assertEquals(0.0,
+                            Vector3D.distance(pv.getPosition(), sun.getPVCoordinates(date, eme2000).getPosition()),
+                            1.0e-15);
+    }
+
+    @Test
+    public void testStateDependentFrame() throws OrekitException {
+        // local orbital frame following a state that changes at fixed date,
+        // as between the stages of an integration step
+        final Frame gcrf = FramesFactory.getGCRF();
+        final AbsoluteDate date = AbsoluteDate.J2000_EPOCH.shiftedBy(3600.0);
+        final PVCoordinates[] current = new PVCoordinates[] {
+            new PVCoordinates(new Vector3D(7.0e6, 0, 0), new Vector3D(0, 7.5e3, 0))
+        };
+        final LocalOrbitalFrame lof =
+                        new LocalOrbitalFrame(gcrf, LOFType.TNW,
+                                              (d, f) -> new TimeStampedPVCoordinates(d, current[0]),
+                                              "state-dependent");
+        Assert.assertTrue(gcrf.dependsOnlyOnDate());
+        Assert.assertTrue(FramesFactory.getITRF(IERSConventions.IERS_2010, true).dependsOnlyOnDate());
+        Assert.assertFalse(lof.dependsOnlyOnDate());
+
+        final CelestialBody sun = CelestialBodyFactory.getSun();
+        ComputationContext.enter();
+        final Transform                t1   = gcrf.getTransformTo(lof, date);
+        final TimeStampedPVCoordinates sun1 = sun.getPVCoordinates(date, lof);
+        current[0] = new PVCoordinates(new Vector3D(7.1e6, 0, 0), new Vector3D(0, 0, 7.4e3));
+        final Transform                t2   = gcrf.getTransformTo(lof, date);
+        final TimeStampedPVCoordinates sun2 = sun.getPVCoordinates(date, lof);
+        ComputationContext.exit();
+
+        Assert.assertEquals(1.0e5,
+                            Vector3D.distance(t1.getTranslation(), t2.getTranslation()),
+                            1.0e-6);
+        Assert.assertEquals(0.5 * FastMath.PI,
+                            Vector3D.angle(t1.transformVector(Vector3D.PLUS_J),
+                                           t2.transformVector(Vector3D.PLUS_J)),
+                            1.0e-12);
+        Assert.assertTrue(Vector3D.distance(sun1.getPosition(), sun2.getPosition()) > 1.0e5);
+    }
+
+    @Before
+    public void setUp() {
+        Utils.setDataRoot("regular-data");
+    }
+
+    @After
+    public void tearDown() {
+        while (ComputationContext.isActive()) {
+            ComputationContext.exit();
+        }
+    }
+
+}
@@ -188,6 +188,34 @@ public class GenericTimeStampedCacheTest {
                           cache.getSlotsEvictions() > n / 60);
     }
 
+    @Test
+    public void testMultithreadedCacheHits() throws TimeStampedCacheException {
+        GenericTimeStampedCache<AbsoluteDate> cache = createCache(10, 3600, 13);
+        double step = ((Generator) cache.getGenerator()).getStep();
+        AbsoluteDate[] base = new AbsoluteDate[5];
+        base[0] = AbsoluteDate.GALILEO_EPOCH;
+        for (int i = 1; i < base.length; ++i) {
+            base[i] = base[i - 1].shiftedBy(10 * Constants.JULIAN_DAY);
+        }
+
+        // warm up the cache, using the extreme dates that will be requested later on
+        for (final AbsoluteDate initial : base) {
+            cache.getNeighbors(initial);
+            cache.getNeighbors(initial.shiftedBy(25 * step));
+        }
+        final int generateCalls = cache.getGenerateCalls();
+        final int entries       = cache.getEntries();
+
+        // all further calls are cache hits, they should neither generate nor evict anything
+        int n = checkDatesMultiThread(new RandomMode(0x8c5f0ea3d62a117bl).generateDates(base, 25 * step, 0.025 * step),
+                                      cache, 64);
+        Assert.assertEquals(n + 2 * base.length, cache.getGetNeighborsCalls());
+        Assert.assertEquals(generateCalls, cache.getGenerateCalls());
+        Assert.assertEquals(entries, cache.getEntries());
+        Assert.assertEquals(base.length, cache.getSlots());
+        Assert.assertEquals(0, cache.getSlotsEvictions());
+    }
+
     @Test
     public void testSmallShift() throws TimeStampedCacheException {
         double hour = 3600;
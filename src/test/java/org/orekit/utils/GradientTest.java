@@ -0,0 +1,250 @@
+/* Copyright 2002-2017 CS Systèmes d'Information
+ * Licensed to CS Systèmes d'Information (CS) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * CS licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.orekit.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.hipparchus.analysis.differentiation.DSFactory;
+import org.hipparchus.analysis.differentiation.DerivativeStructure;
+import org.hipparchus.geometry.euclidean.threed.FieldRotation;
+import org.hipparchus.geometry.euclidean.threed.FieldVector3D;
+import org.hipparchus.geometry.euclidean.threed.RotationConvention;
+import org.hipparchus.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+import org.orekit.errors.OrekitIllegalArgumentException;
+
+public class GradientTest {
+
+    private static final int N = 3;
+
+    private final DSFactory factory = new DSFactory(N, 1);
+
+    @Test
+    public void testConstantAndVariable() {
+        final Gradient c = Gradient.constant(N, 2.5);
+        Assert.assertEquals(2.5, c.getValue(), 0.0);
+        Assert.assertEquals(2.5, c.getReal(), 0.0);
+        Assert.assertEquals(N, c.getFreeParameters());
+        final Gradient v = Gradient.variable(N, 1, -1.5);
+        Assert.assertEquals(-1.5, v.getValue(), 0.0);
+        Assert.assertArrayEquals(new double[] { 0.0, 1.0, 0.0 }, v.getGradient(), 0.0);
+        Assert.assertSame(GradientField.getField(N), v.getField());
+        Assert.assertEquals(N, GradientField.getField(N).getFreeParameters());
+        Assert.assertEquals(0.0, v.getField().getZero().getValue(), 0.0);
+        Assert.assertEquals(1.0, v.getField().getOne().getValue(), 0.0);
+        Assert.assertEquals(Gradient.class, v.getField().getRuntimeClass());
+    }
+
+    @Test
+    public void testUnaryFunctions() {
+        checkUnary(x -> x.negate(),     x -> x.negate(),     0.7);
+        checkUnary(x -> x.multiply(3),  x -> x.multiply(3),  0.7);
+        checkUnary(x -> x.multiply(2.5), x -> x.multiply(2.5), 0.7);
+        checkUnary(x -> x.divide(2.5),  x -> x.divide(2.5),  0.7);
+        checkUnary(x -> x.add(2.5),     x -> x.add(2.5),     0.7);
+        checkUnary(x -> x.subtract(2.5), x -> x.subtract(2.5), 0.7);
+        checkUnary(x -> x.remainder(0.3), x -> x.remainder(0.3), 0.7);
+        checkUnary(x -> x.abs(),        x -> x.abs(),        -0.7);
+        checkUnary(x -> x.scalb(3),     x -> x.scalb(3),     0.7);
+        checkUnary(x -> x.reciprocal(), x -> x.reciprocal(), 0.7);
+        checkUnary(x -> x.sqrt(),       x -> x.sqrt(),       0.7);
+        checkUnary(x -> x.cbrt(),       x -> x.cbrt(),       0.7);
+        checkUnary(x -> x.rootN(5),     x -> x.rootN(5),     0.7);
+        checkUnary(x -> x.pow(2.3),     x -> x.pow(2.3),     0.7);
+        checkUnary(x -> x.pow(4),       x -> x.pow(4),       0.7);
+        checkUnary(x -> x.exp(),        x -> x.exp(),        0.7);
+        checkUnary(x -> x.expm1(),      x -> x.expm1(),      0.7);
+        checkUnary(x -> x.log(),        x -> x.log(),        0.7);
+        checkUnary(x -> x.log1p(),      x -> x.log1p(),      0.7);
+        checkUnary(x -> x.log10(),      x -> x.log10(),      0.7);
+        checkUnary(x -> x.cos(),        x -> x.cos(),        0.7);
+        checkUnary(x -> x.sin(),        x -> x.sin(),        0.7);
+        checkUnary(x -> x.tan(),        x -> x.tan(),        0.7);
+        checkUnary(x -> x.acos(),       x -> x.acos(),       0.7);
+        checkUnary(x -> x.asin(),       x -> x.asin(),       0.7);
+        checkUnary(x -> x.atan(),       x -> x.atan(),       0.7);
+        checkUnary(x -> x.cosh(),       x -> x.cosh(),       0.7);
+        checkUnary(x -> x.sinh(),       x -> x.sinh(),       0.7);
+        checkUnary(x -> x.tanh(),       x -> x.tanh(),       0.7);
+        checkUnary(x -> x.acosh(),      x -> x.acosh(),      1.7);
+        checkUnary(x -> x.asinh(),      x -> x.asinh(),      0.7);
+        checkUnary(x -> x.atanh(),      x -> x.atanh(),      0.7);
+    }
+
+    @Test
+    public void testBinaryFunctions() {
+        checkBinary((x, y) -> x.add(y),       (x, y) -> x.add(y));
+        checkBinary((x, y) -> x.subtract(y),  (x, y) -> x.subtract(y));
+        checkBinary((x, y) -> x.multiply(y),  (x, y) -> x.multiply(y));
+        checkBinary((x, y) -> x.divide(y),    (x, y) -> x.divide(y));
+        checkBinary((x, y) -> x.remainder(y), (x, y) -> x.remainder(y));
+        checkBinary((x, y) -> x.hypot(y),     (x, y) -> x.hypot(y));
+        checkBinary((x, y) -> x.pow(y),       (x, y) -> x.pow(y));
+        checkBinary((x, y) -> x.atan2(y),     (x, y) -> x.atan2(y));
+        checkBinary((x, y) -> x.linearCombination(x, y, y, x.sin()),
+                    (x, y) -> x.linearCombination(x, y, y, x.sin()));
+        checkBinary((x, y) -> x.linearCombination(1.5, x, -2.0, y, 0.5, x.multiply(y)),
+                    (x, y) -> x.linearCombination(1.5, x, -2.0, y, 0.5, x.multiply(y)));
+        checkBinary((x, y) -> x.linearCombination(x, y, y, x, x, x, y, y),
+                    (x, y) -> x.linearCombination(x, y, y, x, x, x, y, y));
+    }
+
+    @Test
+    public void testRoundingAndSign() {
+        final Gradient x = new Gradient(-2.6, 1.0, 2.0, 3.0);
+        Assert.assertEquals(-2.0, x.ceil().getValue(), 0.0);
+        Assert.assertEquals(-3.0, x.floor().getValue(), 0.0);
+        Assert.assertEquals(-3.0, x.rint().getValue(), 0.0);
+        Assert.assertEquals(-3L, x.round());
+        Assert.assertEquals(-1.0, x.signum().getValue(), 0.0);
+        Assert.assertArrayEquals(new double[N], x.floor().getGradient(), 0.0);
+        Assert.assertEquals(2.6, x.copySign(1.0).getValue(), 0.0);
+        Assert.assertEquals(-1.0, x.copySign(1.0).getPartialDerivative(0), 0.0);
+        Assert.assertSame(x, x.copySign(Gradient.constant(N, -1.0)));
+        Assert.assertEquals(1.0, x.pow(0).getValue(), 0.0);
+        Assert.assertEquals(1.0, x.pow(0.0).getValue(), 0.0);
+    }
+
+    @Test
+    public void testPowAtZero() {
+        final Gradient zero = new Gradient(0.0, 1.0, 0.5, -2.0);
+
+        // fractional powers are 0 at 0, with infinite derivatives
+        checkPowAtZero(zero.pow(0.5),  0.0, Double.POSITIVE_INFINITY);
+        checkPowAtZero(zero.pow(2.3),  0.0, 0.0);
+        checkPowAtZero(zero.pow(1.0),  0.0, 1.0);
+
+        // integer powers
+        checkPowAtZero(zero.pow(1),    0.0, 1.0);
+        checkPowAtZero(zero.pow(2),    0.0, 0.0);
+        checkPowAtZero(zero.pow(-1),   Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        checkPowAtZero(zero.pow(-2),   Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        checkPowAtZero(zero.pow(-1.0), Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+    }
+
+    private void checkPowAtZero(final Gradient pow, final double value, final double derivative) {
+        Assert.assertEquals(value, pow.getValue(), 0.0);
+        Assert.assertEquals(derivative,        pow.getPartialDerivative(0), 0.0);
+        Assert.assertEquals(0.5 * derivative,  pow.getPartialDerivative(1), 0.0);
+        Assert.assertEquals(-2.0 * derivative, pow.getPartialDerivative(2), 0.0);
+    }
+
+    @Test
+    public void testVectorAlgebra() {
+        final FieldVector3D<Gradient> gv =
+                new FieldVector3D<>(Gradient.variable(N, 0, 1.0), Gradient.variable(N, 1, 2.0), Gradient.variable(N, 2, 3.0));
+        final FieldVector3D<DerivativeStructure> dv =
+                new FieldVector3D<>(factory.variable(0, 1.0), factory.variable(1, 2.0), factory.variable(2, 3.0));
+        final FieldRotation<Gradient> gr =
+                new FieldRotation<>(FieldVector3D.getPlusK(GradientField.getField(N)),
+                                    Gradient.variable(N, 0, 0.3), RotationConvention.VECTOR_OPERATOR);
+        final FieldRotation<DerivativeStructure> dr =
+                new FieldRotation<>(FieldVector3D.getPlusK(factory.getDerivativeField()),
+                                    factory.variable(0, 0.3), RotationConvention.VECTOR_OPERATOR);
+        check(dr.applyTo(dv.crossProduct(dv.normalize().scalarMultiply(dv.getNorm()))).getX(),
+              gr.applyTo(gv.crossProduct(gv.normalize().scalarMultiply(gv.getNorm()))).getX(),
+              1.0e-15);
+        check(dr.applyInverseTo(dv).getY(), gr.applyInverseTo(gv).getY(), 1.0e-15);
+        check(dv.getAlpha(), gv.getAlpha(), 1.0e-15);
+        check(dv.getDelta(), gv.getDelta(), 1.0e-15);
+    }
+
+    @Test
+    public void testAddScaledGradient() {
+        final double[] to = new double[] { 1.0, 1.0, 1.0, 1.0 };
+        new Gradient(5.0, 1.0, 2.0, 3.0).addScaledGradientTo(2.0, 1, to, 2, 2);
+        Assert.assertArrayEquals(new double[] { 1.0, 1.0, 5.0, 7.0 }, to, 0.0);
+    }
+
+    @Test
+    public void testEqualsHashCode() {
+        final Gradient a = new Gradient(1.0, 2.0, 3.0);
+        Assert.assertEquals(a, a);
+        Assert.assertEquals(a, new Gradient(1.0, 2.0, 3.0));
+        Assert.assertEquals(a.hashCode(), new Gradient(1.0, 2.0, 3.0).hashCode());
+        Assert.assertNotEquals(a, new Gradient(1.0, 2.0, 4.0));
+        Assert.assertNotEquals(a, new Gradient(1.0, 2.0, 3.0, 0.0));
+        Assert.assertNotEquals(a, "a");
+    }
+
+    @Test
+    public void testImmutableGradient() {
+        final double[] g = new double[] { 1.0, 2.0 };
+        final Gradient a = new Gradient(1.0, g);
+        g[0] = 10.0;
+        a.getGradient()[1] = 20.0;
+        Assert.assertArrayEquals(new double[] { 1.0, 2.0 }, a.getGradient(), 0.0);
+    }
+
+    @Test(expected = OrekitIllegalArgumentException.class)
+    public void testDimensionMismatch() {
+        Gradient.variable(2, 0, 1.0).add(Gradient.variable(3, 0, 1.0));
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final Gradient a = new Gradient(1.0, 2.0, 3.0);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream    oos = new ObjectOutputStream(bos);
+        oos.writeObject(a);
+        ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+        ObjectInputStream     ois = new ObjectInputStream(bis);
+        Assert.assertEquals(a, ois.readObject());
+    }
+
+    private void checkUnary(final Function<DerivativeStructure, DerivativeStructure> dsFunction,
+                            final Function<Gradient, Gradient> gFunction,
+                            final double x) {
+        final DerivativeStructure dsX =
+                factory.variable(0, x).add(factory.variable(1, 0.0).multiply(0.5)).subtract(factory.variable(2, 0.0).multiply(2));
+        final Gradient gX = new Gradient(x, 1.0, 0.5, -2.0);
+        check(dsFunction.apply(dsX), gFunction.apply(gX), 1.0e-14);
+    }
+
+    private void checkBinary(final BiFunction<DerivativeStructure, DerivativeStructure, DerivativeStructure> dsFunction,
+                             final BiFunction<Gradient, Gradient, Gradient> gFunction) {
+        for (final double[] xy : new double[][] { { 0.7, 1.3 }, { 1.3, 0.7 }, { 2.1, -0.4 } }) {
+            final DerivativeStructure dsX = factory.variable(0, xy[0]).add(factory.variable(2, 0.0));
+            final DerivativeStructure dsY = factory.variable(1, xy[1]).subtract(factory.variable(2, 0.0).multiply(3));
+            final Gradient gX = new Gradient(xy[0], 1.0, 0.0, 1.0);
+            final Gradient gY = new Gradient(xy[1], 0.0, 1.0, -3.0);
+            if (xy[0] > 0 || !Double.isNaN(dsFunction.apply(dsX, dsY).getValue())) {
+                check(dsFunction.apply(dsX, dsY), gFunction.apply(gX, gY), 1.0e-14);
+            }
+        }
+    }
+
+    private void check(final DerivativeStructure expected, final Gradient actual, final double tolerance) {
+        final double scale = FastMath.max(1.0, FastMath.abs(expected.getValue()));
+        Assert.assertEquals(expected.getValue(), actual.getValue(), tolerance * scale);
+        for (int i = 0; i < N; ++i) {
+            final int[] orders = new int[N];
+            orders[i] = 1;
+            final double d = expected.getPartialDerivative(orders);
+            Assert.assertEquals(d, actual.getPartialDerivative(i), tolerance * FastMath.max(1.0, FastMath.abs(d)));
+        }
+    }
+
+}
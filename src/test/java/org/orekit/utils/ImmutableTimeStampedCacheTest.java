@@ -20,8 +20,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 
+import org.hipparchus.util.FastMath;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -164,6 +166,90 @@ public class ImmutableTimeStampedCacheTest {
         }
     }
 
+    /**
+     * check {@link ImmutableTimeStampedCache#getNeighborsList(AbsoluteDate)}
+     * against a brute force search, for regular, jittered and irregular data
+     * and for chronological, reverse and random accesses.
+     *
+     * @throws TimeStampedCacheException
+     */
+    @Test
+    public void testGetNeighborsListLookups()
+        throws TimeStampedCacheException {
+        final Random random = new Random(0x8f2a6c9e1b3d4705l);
+        for (int type = 0; type < 3; ++type) {
+
+            // set up data
+            final List<AbsoluteDate> sample = new ArrayList<AbsoluteDate>();
+            double t = 0;
+            for (int i = 0; i < 500; ++i) {
+                switch (type) {
+                    case 0 :
+                        t = 60.0 * i;
+                        break;
+                    case 1 :
+                        t = 60.0 * i + 1.0e-3 * (random.nextDouble() - 0.5);
+                        break;
+                    default :
+                        t += (i % 37 == 0) ? 0.0 : 3600.0 * random.nextDouble();
+                }
+                sample.add(date.shiftedBy(t));
+            }
+            final ImmutableTimeStampedCache<AbsoluteDate> c =
+                            new ImmutableTimeStampedCache<AbsoluteDate>(4, sample);
+            final List<AbsoluteDate> sorted = c.getAll();
+            // margin avoids rounding slightly after last entry
+            final double span = sorted.get(sorted.size() - 1).durationFrom(sorted.get(0)) - 1.0e-9;
+
+            // chronological, reverse and random accesses
+            for (int i = 0; i <= 5000; ++i) {
+                checkNeighbors(c, sorted, sorted.get(0).shiftedBy(i * span / 5000));
+            }
+            for (int i = 5000; i >= 0; --i) {
+                checkNeighbors(c, sorted, sorted.get(0).shiftedBy(i * span / 5000));
+            }
+            for (int i = 0; i < 5000; ++i) {
+                checkNeighbors(c, sorted, sorted.get(0).shiftedBy(random.nextDouble() * span));
+            }
+            for (final AbsoluteDate d : sorted) {
+                checkNeighbors(c, sorted, d);
+            }
+
+        }
+    }
+
+    private void checkNeighbors(final ImmutableTimeStampedCache<AbsoluteDate> c,
+                                final List<AbsoluteDate> sorted, final AbsoluteDate central)
+        throws TimeStampedCacheException {
+
+        // brute force search of the last entry at or before central date
+        int index = 0;
+        while (index < sorted.size() - 1 && sorted.get(index + 1).compareTo(central) <= 0) {
+            ++index;
+        }
+        final int start = FastMath.min(FastMath.max(0, index - 1), sorted.size() - 4);
+
+        final List<AbsoluteDate> neighbors = c.getNeighborsList(central);
+        Assert.assertEquals(4, neighbors.size());
+        for (int i = 0; i < neighbors.size(); ++i) {
+            Assert.assertSame(sorted.get(start + i), neighbors.get(i));
+        }
+        Assert.assertArrayEquals(neighbors.toArray(), c.getNeighbors(central).toArray());
+
+    }
+
+    /**
+     * check the list returned by {@link ImmutableTimeStampedCache#getNeighborsList(AbsoluteDate)}
+     * cannot be modified.
+     *
+     * @throws TimeStampedCacheException
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetNeighborsListImmutable()
+        throws TimeStampedCacheException {
+        cache.getNeighborsList(date.shiftedBy(2.5)).set(0, date);
+    }
+
     /**
      * check {@link ImmutableTimeStampedCache#getNeighborsSize()}
      */
@@ -245,6 +331,12 @@ public class ImmutableTimeStampedCacheTest {
         } catch (TimeStampedCacheException e) {
             // expected
         }
+        try {
+            cache.getNeighborsList(date);
+            Assert.fail("Expected Exception");
+        } catch (TimeStampedCacheException e) {
+            // expected
+        }
         try {
             cache.getEarliest();
             Assert.fail("Expected Exception");